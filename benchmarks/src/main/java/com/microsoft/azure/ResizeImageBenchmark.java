@@ -0,0 +1,88 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Thumbnail generation of the image resize function, on uploads of typical poster and photo sizes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResizeImageBenchmark {
+    @Param({"300x450", "1000x1500", "4032x3024"})
+    private String size;
+    @Param({"jpg", "png"})
+    private String format;
+
+    private byte[] image;
+
+    /**
+     * Draw a synthetic image with gradients and shapes, so that it compresses like a picture and not like a
+     * blank canvas.
+     *
+     * @throws IOException if the image cannot be encoded
+     */
+    @Setup
+    public void setup() throws IOException {
+        String[] dimensions = size.split("x");
+        int width = Integer.parseInt(dimensions[0]);
+        int height = Integer.parseInt(dimensions[1]);
+        BufferedImage original = new BufferedImage(width, height,
+                "png".equals(format) ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_3BYTE_BGR);
+        Graphics2D g = original.createGraphics();
+        g.setPaint(new GradientPaint(0, 0, Color.DARK_GRAY, width, height, Color.ORANGE));
+        g.fillRect(0, 0, width, height);
+        Random random = new Random(42);
+        for (int i = 0; i < 200; i++) {
+            g.setColor(new Color(random.nextInt(0xFFFFFF)));
+            g.fillOval(random.nextInt(width), random.nextInt(height), random.nextInt(width / 4 + 1),
+                    random.nextInt(height / 4 + 1));
+        }
+        g.dispose();
+
+        try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            ImageIO.write(original, format, out);
+            image = out.toByteArray();
+        }
+    }
+
+    /**
+     * Decode the upload, scale it to the thumbnail width and encode the thumbnail as PNG.
+     *
+     * @return thumbnail
+     * @throws IOException if the image cannot be decoded or encoded
+     */
+    @Benchmark
+    public byte[] resizeImage() throws IOException {
+        return Function.resizeImage(image);
+    }
+}
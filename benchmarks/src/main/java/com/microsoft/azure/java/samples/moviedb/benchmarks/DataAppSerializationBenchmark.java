@@ -0,0 +1,63 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.java.samples.moviedb.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microsoft.azure.java.samples.moviedb.api.Movie;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.hateoas.PagedResources;
+import org.springframework.hateoas.Resource;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization of a page of the data-app movie collection resource in HAL, as JSON and as Smile.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DataAppSerializationBenchmark {
+    @Param({"json", "smile"})
+    private String format;
+
+    private ObjectMapper mapper;
+    private PagedResources<Resource<Movie>> page;
+
+    /**
+     * Build the mapper and the page.
+     */
+    @Setup
+    public void setup() {
+        mapper = Fixtures.halMapper(format);
+        page = Fixtures.moviePage();
+    }
+
+    /**
+     * Serialize a page of 20 movies with links and page metadata.
+     *
+     * @return serialized page
+     * @throws JsonProcessingException if serialization fails
+     */
+    @Benchmark
+    public byte[] writeMoviePage() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(page);
+    }
+}
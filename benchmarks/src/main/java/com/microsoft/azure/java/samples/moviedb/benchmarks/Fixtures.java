@@ -0,0 +1,152 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.java.samples.moviedb.benchmarks;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.microsoft.azure.java.samples.moviedb.api.Movie;
+import com.microsoft.azure.java.samples.moviedb.api.MovieSummary;
+import org.springframework.context.support.MessageSourceAccessor;
+import org.springframework.context.support.StaticMessageSource;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.PagedResources;
+import org.springframework.hateoas.RelProvider;
+import org.springframework.hateoas.Resource;
+import org.springframework.hateoas.Resources;
+import org.springframework.hateoas.hal.Jackson2HalModule;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Representative payloads shared by the benchmarks, built the way data-app sends them.
+ */
+public final class Fixtures {
+    /**
+     * Number of movies on a list page, web-app asks for one more than it shows.
+     */
+    public static final int LIST_PAGE_SIZE = 21;
+    /**
+     * Default page size of the Spring Data REST collection resources.
+     */
+    public static final int REST_PAGE_SIZE = 20;
+
+    private static final String BASE_URI = "http://data-app/api/v1/movies/";
+    private static final String DESCRIPTION = "Lorem ipsum dolor sit amet, consectetur adipiscing elit, sed do eiusmod"
+            + " tempor incididunt ut labore et dolore magna aliqua. Ut enim ad minim veniam, quis nostrud exercitation"
+            + " ullamco laboris nisi ut aliquip ex ea commodo consequat. Duis aute irure dolor in reprehenderit in"
+            + " voluptate velit esse cillum dolore eu fugiat nulla pariatur. Excepteur sint occaecat cupidatat non"
+            + " proident, sunt in culpa qui officia deserunt mollit anim id est laborum.";
+    private static final RelProvider MOVIES_REL = new RelProvider() {
+        @Override
+        public String getItemResourceRelFor(Class<?> type) {
+            return "movie";
+        }
+
+        @Override
+        public String getCollectionResourceRelFor(Class<?> type) {
+            return "movies";
+        }
+
+        @Override
+        public boolean supports(Class<?> delimiter) {
+            return true;
+        }
+    };
+
+    private Fixtures() {
+    }
+
+    /**
+     * Get data-app movie entity as stored in the database.
+     *
+     * @param id movie id
+     * @return movie with every property set
+     */
+    public static Movie movie(long id) {
+        Movie movie = new Movie();
+        movie.setId(id);
+        movie.setName("Movie number " + id + " (" + (1950 + id % 70) + ")");
+        movie.setDescription(DESCRIPTION);
+        movie.setRating(Math.round((10.0 - id % 100 / 10.0) * 10) / 10.0);
+        movie.setImageUri("images-original/" + id + ".jpg?timestamp=2017-06-01 12:00:00.0");
+        movie.setVersion(3L);
+        movie.setVotes(id * 7);
+        movie.setVoteSum(id * 7 * 8);
+        return movie;
+    }
+
+    /**
+     * Get one page of the movie collection resource the way Spring Data REST renders it.
+     *
+     * @return page of movies with links and page metadata
+     */
+    public static PagedResources<Resource<Movie>> moviePage() {
+        List<Resource<Movie>> movies = new ArrayList<>(REST_PAGE_SIZE);
+        for (long id = 1; id <= REST_PAGE_SIZE; id++) {
+            movies.add(new Resource<>(movie(id), new Link(BASE_URI + id), new Link(BASE_URI + id, "movie")));
+        }
+        return new PagedResources<>(movies, new PagedResources.PageMetadata(REST_PAGE_SIZE, 0, 5000),
+                new Link(BASE_URI + "?page=0&size=20"), new Link(BASE_URI + "?page=1&size=20", Link.REL_NEXT),
+                new Link(BASE_URI + "search", "search"));
+    }
+
+    /**
+     * Get one list page of movie summaries, as data-app answers the ranking requests of web-app.
+     *
+     * @return movie summaries without links
+     */
+    public static Resources<MovieSummary> summaryPage() {
+        List<MovieSummary> summaries = new ArrayList<>(LIST_PAGE_SIZE);
+        for (long id = 1; id <= LIST_PAGE_SIZE; id++) {
+            Movie movie = movie(id);
+            summaries.add(new MovieSummary(movie.getId(), movie.getName(), movie.getRating(), movie.getImageUri()));
+        }
+        return new Resources<>(summaries, new Link(BASE_URI + "summaries/top?size=" + LIST_PAGE_SIZE));
+    }
+
+    /**
+     * Get single movie resource the way Spring Data REST renders it.
+     *
+     * @return movie with links
+     */
+    public static Resource<Movie> movieResource() {
+        return new Resource<>(movie(1), new Link(BASE_URI + 1), new Link(BASE_URI + 1, "movie"));
+    }
+
+    /**
+     * Get object mapper configured like the HAL mapper of data-app.
+     *
+     * @param format "json" or "smile"
+     * @return HAL object mapper
+     */
+    public static ObjectMapper halMapper(String format) {
+        JsonFactory factory = "smile".equals(format) ? new SmileFactory() : new JsonFactory();
+        ObjectMapper mapper = new ObjectMapper(factory);
+        mapper.registerModule(new Jackson2HalModule());
+        mapper.setHandlerInstantiator(new Jackson2HalModule.HalHandlerInstantiator(MOVIES_REL, null,
+                new MessageSourceAccessor(new StaticMessageSource())));
+        // Spring Data REST indents its JSON by default.
+        mapper.configure(SerializationFeature.INDENT_OUTPUT, !"smile".equals(format));
+        return mapper;
+    }
+
+    /**
+     * Serialize a payload with the HAL mapper of data-app.
+     *
+     * @param format  "json" or "smile"
+     * @param payload resource to serialize
+     * @return serialized payload
+     * @throws IOException if serialization fails
+     */
+    public static byte[] write(String format, Object payload) throws IOException {
+        return halMapper(format).writeValueAsBytes(payload);
+    }
+}
@@ -0,0 +1,86 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.java.samples.moviedb.benchmarks;
+
+import com.microsoft.azure.java.samples.moviedb.web.pojo.Movie;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization of a cached web-app movie into a Redis value. The movie cache uses JDK serialization, the default
+ * of the Redis cache manager, the Jackson serializer is measured as the alternative.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RedisSerializationBenchmark {
+    @Param({"jdk", "jackson"})
+    private String serializer;
+
+    private RedisSerializer<Object> redisSerializer;
+    private Movie movie;
+    private byte[] value;
+
+    /**
+     * Build a movie the way web-app caches it.
+     */
+    @Setup
+    public void setup() {
+        redisSerializer = "jackson".equals(serializer)
+                ? new GenericJackson2JsonRedisSerializer() : new JdkSerializationRedisSerializer();
+
+        com.microsoft.azure.java.samples.moviedb.api.Movie source = Fixtures.movie(1);
+        movie = new Movie();
+        movie.setId(source.getId());
+        movie.setName(source.getName());
+        movie.setDescription(source.getDescription());
+        movie.setRating(source.getRating());
+        movie.setVotes(source.getVotes());
+        movie.setImageUri(source.getImageUri());
+        movie.setImageFullPathUri("https://moviedb.blob.core.windows.net/" + source.getImageUri());
+        movie.setEtag("\"" + source.getVersion() + "\"");
+        movie.setValidatedAt(System.currentTimeMillis());
+        value = redisSerializer.serialize(movie);
+    }
+
+    /**
+     * Serialize the movie into a Redis value.
+     *
+     * @return Redis value
+     */
+    @Benchmark
+    public byte[] serialize() {
+        return redisSerializer.serialize(movie);
+    }
+
+    /**
+     * Deserialize the movie from a Redis value.
+     *
+     * @return movie
+     */
+    @Benchmark
+    public Object deserialize() {
+        return redisSerializer.deserialize(value);
+    }
+}
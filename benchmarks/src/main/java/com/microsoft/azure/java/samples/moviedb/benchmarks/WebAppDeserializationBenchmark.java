@@ -0,0 +1,82 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.java.samples.moviedb.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microsoft.azure.java.samples.moviedb.web.SmileHttpMessageConverter;
+import com.microsoft.azure.java.samples.moviedb.web.pojo.Movie;
+import com.microsoft.azure.java.samples.moviedb.web.pojo.MoviesResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deserialization of data-app responses into the web-app classes, with the object mappers of the web-app
+ * message converters.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WebAppDeserializationBenchmark {
+    @Param({"json", "smile"})
+    private String format;
+
+    private ObjectMapper mapper;
+    private byte[] summaryPage;
+    private byte[] movie;
+
+    /**
+     * Serialize the payloads the way data-app does and pick the matching web-app mapper.
+     *
+     * @throws IOException if serialization fails
+     */
+    @Setup
+    public void setup() throws IOException {
+        mapper = "smile".equals(format)
+                ? new SmileHttpMessageConverter().getObjectMapper()
+                : new MappingJackson2HttpMessageConverter().getObjectMapper();
+        summaryPage = Fixtures.write(format, Fixtures.summaryPage());
+        movie = Fixtures.write(format, Fixtures.movieResource());
+    }
+
+    /**
+     * Read one list page of movie summaries.
+     *
+     * @return movies response
+     * @throws IOException if the payload cannot be read
+     */
+    @Benchmark
+    public MoviesResponse readMoviesResponse() throws IOException {
+        return mapper.readValue(summaryPage, MoviesResponse.class);
+    }
+
+    /**
+     * Read one movie with its description.
+     *
+     * @return movie
+     * @throws IOException if the payload cannot be read
+     */
+    @Benchmark
+    public Movie readMovie() throws IOException {
+        return mapper.readValue(movie, Movie.class);
+    }
+}
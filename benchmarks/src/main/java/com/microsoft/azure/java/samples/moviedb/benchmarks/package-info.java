@@ -0,0 +1,10 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+/**
+ * JMH benchmarks of the hot paths of web-app and data-app.
+ */
+package com.microsoft.azure.java.samples.moviedb.benchmarks;
@@ -0,0 +1,81 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+
+package com.microsoft.azure.java.samples.moviedb.web;
+
+import com.microsoft.azure.java.samples.moviedb.benchmarks.Fixtures;
+import com.microsoft.azure.java.samples.moviedb.web.pojo.MoviesResponse;
+import com.microsoft.azure.java.samples.moviedb.web.pojo.PageCursor;
+import com.microsoft.azure.java.samples.moviedb.web.util.AzureStorageUploader;
+import com.microsoft.azure.storage.CloudStorageAccount;
+import com.microsoft.azure.storage.StorageCredentialsAccountAndKey;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.support.StaticApplicationContext;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.ui.ExtendedModelMap;
+import org.springframework.ui.Model;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Paging and thumbnail URI rewriting of a movie list page in {@link MovieController}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MovieListBenchmark {
+    private MovieController movieController;
+    private MoviesResponse moviesResponse;
+
+    /**
+     * Wire the controller with a storage account that is never connected to.
+     *
+     * @throws IOException        if the list page cannot be read
+     * @throws URISyntaxException if the storage account cannot be built
+     */
+    @Setup
+    public void setup() throws IOException, URISyntaxException {
+        StaticApplicationContext applicationContext = new StaticApplicationContext();
+        applicationContext.getBeanFactory().registerSingleton("cloudStorageAccount", new CloudStorageAccount(
+                new StorageCredentialsAccountAndKey("moviedb", new byte[64]), true));
+
+        movieController = new MovieController();
+        ReflectionTestUtils.setField(movieController, "applicationContext", applicationContext);
+        ReflectionTestUtils.setField(movieController, "azureStorageUploader",
+                new AzureStorageUploader("images-original", "images-thumbnail"));
+
+        moviesResponse = new MappingJackson2HttpMessageConverter().getObjectMapper()
+                .readValue(Fixtures.write("json", Fixtures.summaryPage()), MoviesResponse.class);
+    }
+
+    /**
+     * Set up the first list page, with paging links and thumbnail URIs.
+     *
+     * @return model of the page
+     */
+    @Benchmark
+    public Model setupMovieList() {
+        Model model = new ExtendedModelMap();
+        movieController.setupMovieList(moviesResponse, PageCursor.first(), model);
+        return model;
+    }
+}
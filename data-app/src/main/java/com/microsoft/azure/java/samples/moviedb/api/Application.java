@@ -8,11 +8,13 @@ package com.microsoft.azure.java.samples.moviedb.api;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Entry point of spring boot application.
  */
 @SpringBootApplication
+@EnableScheduling
 public class Application {
     /**
      * Main entry point.
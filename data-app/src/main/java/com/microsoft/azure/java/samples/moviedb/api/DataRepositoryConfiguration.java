@@ -6,9 +6,14 @@
 
 package com.microsoft.azure.java.samples.moviedb.api;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
 import org.springframework.data.rest.core.config.RepositoryRestConfiguration;
 import org.springframework.data.rest.webmvc.config.RepositoryRestConfigurerAdapter;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
 
 /**
  * Configure Spring Data REST.
@@ -19,4 +24,35 @@ public class DataRepositoryConfiguration extends RepositoryRestConfigurerAdapter
     public void configureRepositoryRestConfiguration(RepositoryRestConfiguration config) {
         config.exposeIdsFor(Movie.class);
     }
+
+    /**
+     * Add ETags to movie collection pages, which unlike single movies have no version to derive one from.
+     * The ETag is a hash of the response body, so a matching If-None-Match saves the transfer but not the query.
+     *
+     * @param basePath base path of the REST API
+     * @return filter registration
+     */
+    @Bean
+    public FilterRegistrationBean collectionEtagFilter(@Value("${spring.data.rest.basePath:}") String basePath) {
+        FilterRegistrationBean registration = new FilterRegistrationBean(new ShallowEtagHeaderFilter());
+        registration.addUrlPatterns(basePath + "/movies", basePath + "/movies/search/*",
+                basePath + "/movies/summaries/*");
+        // Outside of the Smile filter, so that the hash is taken over the bytes actually sent.
+        registration.setOrder(Ordered.LOWEST_PRECEDENCE - 1);
+        return registration;
+    }
+
+    /**
+     * Serve Smile instead of JSON to clients that prefer it, such as web-app.
+     *
+     * @param basePath base path of the REST API
+     * @return filter registration
+     */
+    @Bean
+    public FilterRegistrationBean smileTranscodingFilter(@Value("${spring.data.rest.basePath:}") String basePath) {
+        FilterRegistrationBean registration = new FilterRegistrationBean(new SmileTranscodingFilter());
+        registration.addUrlPatterns(basePath + "/*");
+        registration.setOrder(Ordered.LOWEST_PRECEDENCE);
+        return registration;
+    }
 }
@@ -6,17 +6,26 @@
 
 package com.microsoft.azure.java.samples.moviedb.api;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.springframework.data.annotation.ReadOnlyProperty;
 
+import javax.persistence.Cacheable;
 import javax.persistence.Entity;
 import javax.persistence.Id;
 import javax.persistence.Table;
+import javax.persistence.Version;
 
 /**
- * Movie entity corresponds to `movies` table.
+ * Movie entity corresponds to `movies` table, cached in the second-level cache.
  */
 @Entity
 @Table(name = "movies")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @JsonInclude(JsonInclude.Include.NON_EMPTY)
 public class Movie {
     @Id
@@ -25,6 +34,19 @@ public class Movie {
     private String description;
     private Double rating;
     private String imageUri;
+    @Version
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long version;
+    // Only changed by the vote flush, a PUT of the movie keeps them.
+    @ReadOnlyProperty
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long votes = 0L;
+    @ReadOnlyProperty
+    @JsonIgnore
+    private Long voteSum = 0L;
+    @ReadOnlyProperty
+    @JsonIgnore
+    private Double catalogRating;
 
     /**
      * Get movie id.
@@ -115,4 +137,80 @@ public class Movie {
     public void setImageUri(String imageUri) {
         this.imageUri = imageUri;
     }
+
+    /**
+     * Get movie version, incremented on every update. Spring Data REST leaves it out of the JSON body
+     * and sends it as the ETag of the movie resource instead.
+     *
+     * @return movie version
+     */
+    public Long getVersion() {
+        return this.version;
+    }
+
+    /**
+     * Set movie version.
+     *
+     * @param version movie version
+     */
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    /**
+     * Get number of user votes written to the database, see
+     * {@link com.microsoft.azure.java.samples.moviedb.api.votes.MovieVotes}. Once a movie has votes, its rating is
+     * their average blended with its catalog rating, which is not counted here.
+     *
+     * @return number of votes
+     */
+    public Long getVotes() {
+        return this.votes;
+    }
+
+    /**
+     * Set number of user votes.
+     *
+     * @param votes number of votes
+     */
+    public void setVotes(Long votes) {
+        this.votes = votes;
+    }
+
+    /**
+     * Get sum of all user votes, kept so that the average stays exact however many votes are added.
+     *
+     * @return sum of the votes
+     */
+    public Long getVoteSum() {
+        return this.voteSum;
+    }
+
+    /**
+     * Set sum of all user votes.
+     *
+     * @param voteSum sum of the votes
+     */
+    public void setVoteSum(Long voteSum) {
+        this.voteSum = voteSum;
+    }
+
+    /**
+     * Get rating the movie had in the catalog before its first user vote, weighed into the rating as a number of
+     * votes. Null if the movie had no rating then, or has not been voted for yet.
+     *
+     * @return catalog rating
+     */
+    public Double getCatalogRating() {
+        return this.catalogRating;
+    }
+
+    /**
+     * Set rating the movie had in the catalog before its first user vote.
+     *
+     * @param catalogRating catalog rating
+     */
+    public void setCatalogRating(Double catalogRating) {
+        this.catalogRating = catalogRating;
+    }
 }
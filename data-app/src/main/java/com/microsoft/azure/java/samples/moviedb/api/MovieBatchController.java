@@ -0,0 +1,61 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.java.samples.moviedb.api;
+
+import com.microsoft.azure.java.samples.moviedb.api.async.AsyncReadConfiguration;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.rest.webmvc.RepositoryRestController;
+import org.springframework.hateoas.Resources;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import java.util.List;
+
+/**
+ * Serves many movies by id in one round trip and one query.
+ * Replaced by {@link com.microsoft.azure.java.samples.moviedb.api.async.AsyncMovieController} in the async profile.
+ */
+@RepositoryRestController
+@Profile("!" + AsyncReadConfiguration.PROFILE)
+public class MovieBatchController {
+    @Autowired
+    private MovieBatchLoader movieBatchLoader;
+
+    /**
+     * Get movies by ids passed as a comma separated query parameter.
+     *
+     * @param ids movie ids
+     * @return movies in the requested order, unknown ids are skipped
+     */
+    @RequestMapping(value = "/movies/search/byIds", method = RequestMethod.GET)
+    public ResponseEntity<Resources<Movie>> getMoviesByIds(@RequestParam("ids") List<Long> ids) {
+        return findMovies(ids);
+    }
+
+    /**
+     * Get movies by ids passed as a JSON array in the request body.
+     *
+     * @param ids movie ids
+     * @return movies in the requested order, unknown ids are skipped
+     */
+    @RequestMapping(value = "/movies/search/byIds", method = RequestMethod.POST)
+    public ResponseEntity<Resources<Movie>> postMoviesByIds(@RequestBody List<Long> ids) {
+        return findMovies(ids);
+    }
+
+    private ResponseEntity<Resources<Movie>> findMovies(List<Long> ids) {
+        List<Movie> movies = movieBatchLoader.findMovies(ids);
+        if (movies == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(new Resources<>(movies));
+    }
+}
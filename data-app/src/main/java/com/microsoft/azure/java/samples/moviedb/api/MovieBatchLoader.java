@@ -0,0 +1,71 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.java.samples.moviedb.api;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Loads many movies by id with one query and returns them in the requested order.
+ */
+@Component
+public class MovieBatchLoader {
+    private final MovieRepository movieRepository;
+    private final int maxBatchSize;
+
+    /**
+     * Constructor that accepts settings from property file.
+     *
+     * @param movieRepository movie repository
+     * @param maxBatchSize    maximum number of ids accepted by one request
+     */
+    @Autowired
+    public MovieBatchLoader(MovieRepository movieRepository,
+                            @Value("${moviedb.dataapp.maxBatchSize:100}") int maxBatchSize) {
+        this.movieRepository = movieRepository;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    /**
+     * Find movies by ids.
+     *
+     * @param ids movie ids, duplicates and nulls are ignored
+     * @return movies in the requested order with unknown ids skipped, or null if there are too many ids
+     */
+    public List<Movie> findMovies(List<Long> ids) {
+        Set<Long> uniqueIds = new LinkedHashSet<>(ids);
+        uniqueIds.remove(null);
+        if (uniqueIds.size() > maxBatchSize) {
+            return null;
+        }
+        if (uniqueIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        Map<Long, Movie> moviesById = new HashMap<>();
+        for (Movie movie : movieRepository.findByIdIn(uniqueIds)) {
+            moviesById.put(movie.getId(), movie);
+        }
+        List<Movie> movies = new ArrayList<>(uniqueIds.size());
+        for (Long id : uniqueIds) {
+            Movie movie = moviesById.get(id);
+            if (movie != null) {
+                movies.add(movie);
+            }
+        }
+        return movies;
+    }
+}
@@ -0,0 +1,39 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.java.samples.moviedb.api;
+
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+
+/**
+ * Receiver of the committed movie changes, for the in-memory views that follow the movies table. Every bean that
+ * implements it is called by {@link MovieCommitListenerRegistrar} after each transaction that changed a movie, so
+ * that it never sees a change that is rolled back, and sees every write through JPA.
+ */
+public interface MovieCommitListener {
+    /**
+     * Take a committed movie insert.
+     *
+     * @param event Hibernate event of the insert
+     */
+    void movieInserted(PostInsertEvent event);
+
+    /**
+     * Take a committed movie update.
+     *
+     * @param event Hibernate event of the update
+     */
+    void movieUpdated(PostUpdateEvent event);
+
+    /**
+     * Take a committed movie delete.
+     *
+     * @param event Hibernate event of the delete
+     */
+    void movieDeleted(PostDeleteEvent event);
+}
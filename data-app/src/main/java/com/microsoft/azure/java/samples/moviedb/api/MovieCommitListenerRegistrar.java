@@ -0,0 +1,109 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.java.samples.moviedb.api;
+
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.internal.SessionFactoryImpl;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+
+/**
+ * Registers with Hibernate for the post-commit events of movies, and hands them to every
+ * {@link MovieCommitListener}.
+ */
+@Component
+public class MovieCommitListenerRegistrar implements PostCommitInsertEventListener, PostCommitUpdateEventListener,
+        PostCommitDeleteEventListener {
+    private static final long serialVersionUID = 1L;
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final List<MovieCommitListener> listeners;
+
+    /**
+     * Constructor.
+     *
+     * @param entityManagerFactory entity manager factory backed by Hibernate
+     * @param listeners            receivers of the committed movie changes
+     */
+    @Autowired
+    public MovieCommitListenerRegistrar(EntityManagerFactory entityManagerFactory,
+                                        List<MovieCommitListener> listeners) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.listeners = listeners;
+    }
+
+    /**
+     * Register with the Hibernate session factory.
+     */
+    @PostConstruct
+    public void register() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImpl.class)
+                .getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof Movie) {
+            for (MovieCommitListener listener : listeners) {
+                listener.movieInserted(event);
+            }
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (event.getEntity() instanceof Movie) {
+            for (MovieCommitListener listener : listeners) {
+                listener.movieUpdated(event);
+            }
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof Movie) {
+            for (MovieCommitListener listener : listeners) {
+                listener.movieDeleted(event);
+            }
+        }
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+        // Listeners only hear about committed changes, so there is nothing to undo.
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+        // Listeners only hear about committed changes, so there is nothing to undo.
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+        // Listeners only hear about committed changes, so there is nothing to undo.
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return Movie.class.equals(persister.getMappedClass());
+    }
+}
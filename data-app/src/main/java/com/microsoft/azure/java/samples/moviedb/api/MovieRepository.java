@@ -6,12 +6,24 @@
 
 package com.microsoft.azure.java.samples.moviedb.api;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.PagingAndSortingRepository;
 import org.springframework.data.repository.query.Param;
 import org.springframework.data.rest.core.annotation.RepositoryRestResource;
+import org.springframework.data.rest.core.annotation.RestResource;
+
+import javax.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
+
+import static org.hibernate.annotations.QueryHints.CACHEABLE;
 
 /**
- * Movie repository against 'movies' table.
+ * Movie repository against 'movies' table. Ranking queries are served from the query cache, which Hibernate
+ * invalidates whenever the table is written through JPA.
  */
 @RepositoryRestResource(collectionResourceRel = "movies", path = "movies")
 public interface MovieRepository extends PagingAndSortingRepository<Movie, Long> {
@@ -22,4 +34,119 @@ public interface MovieRepository extends PagingAndSortingRepository<Movie, Long>
      * @return movie object
      */
     Movie findOne(@Param("id") Long id);
+
+    /**
+     * Provides the paged movie collection API, served from the query cache.
+     *
+     * @param pageable page number, size and sort
+     * @return one page of movies
+     */
+    @Override
+    @QueryHints(@QueryHint(name = CACHEABLE, value = "true"))
+    Page<Movie> findAll(Pageable pageable);
+
+    /**
+     * Find all movies with the given ids in one query, see {@link MovieBatchLoader}.
+     *
+     * @param ids movie ids
+     * @return movies in no particular order, unknown ids are skipped
+     */
+    @RestResource(exported = false)
+    List<Movie> findByIdIn(Collection<Long> ids);
+
+    /**
+     * Walk the whole table in id order one page at a time, used to build in-memory views of the catalog.
+     *
+     * @param id       id of the last movie of the previous page, zero to start from the beginning
+     * @param pageable page size
+     * @return movies ordered by id
+     */
+    @RestResource(exported = false)
+    List<Movie> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    /**
+     * Provides the first page of rated movies ordered by rating and id, both descending.
+     * Only the page size of the pageable is meant to be used, see {@link #findRatedAfter}.
+     *
+     * @param pageable page size
+     * @return movies with the highest rating
+     */
+    @RestResource(path = "top", rel = "top")
+    @QueryHints(@QueryHint(name = CACHEABLE, value = "true"))
+    @Query("select m from Movie m where m.rating is not null order by m.rating desc, m.id desc")
+    List<Movie> findTopRated(Pageable pageable);
+
+    /**
+     * Provides keyset pagination API that returns the movies ranked right after the given (rating, id) position.
+     * The position is resolved with the (rating, id) index, so deep pages cost the same as the first one.
+     *
+     * @param rating   rating of the last movie on the previous page
+     * @param id       id of the last movie on the previous page
+     * @param pageable page size
+     * @return movies ordered by rating and id, both descending
+     */
+    @RestResource(path = "after", rel = "after")
+    @QueryHints(@QueryHint(name = CACHEABLE, value = "true"))
+    @Query("select m from Movie m where m.rating < :rating or (m.rating = :rating and m.id < :id)"
+            + " order by m.rating desc, m.id desc")
+    List<Movie> findRatedAfter(@Param("rating") Double rating, @Param("id") Long id, Pageable pageable);
+
+    /**
+     * Provides keyset pagination API that returns the movies ranked right before the given (rating, id) position.
+     * Movies are returned nearest first, i.e. in ascending rank order.
+     *
+     * @param rating   rating of the first movie on the next page
+     * @param id       id of the first movie on the next page
+     * @param pageable page size
+     * @return movies ordered by rating and id, both ascending
+     */
+    @RestResource(path = "before", rel = "before")
+    @QueryHints(@QueryHint(name = CACHEABLE, value = "true"))
+    @Query("select m from Movie m where m.rating > :rating or (m.rating = :rating and m.id > :id)"
+            + " order by m.rating asc, m.id asc")
+    List<Movie> findRatedBefore(@Param("rating") Double rating, @Param("id") Long id, Pageable pageable);
+
+    /**
+     * Same as {@link #findTopRated} but only reads the columns of {@link MovieSummary}.
+     *
+     * @param pageable page size
+     * @return movie summaries with the highest rating
+     */
+    @RestResource(exported = false)
+    @QueryHints(@QueryHint(name = CACHEABLE, value = "true"))
+    @Query("select new com.microsoft.azure.java.samples.moviedb.api.MovieSummary(m.id, m.name, m.rating, m.imageUri)"
+            + " from Movie m where m.rating is not null order by m.rating desc, m.id desc")
+    List<MovieSummary> findTopRatedSummaries(Pageable pageable);
+
+    /**
+     * Same as {@link #findRatedAfter} but only reads the columns of {@link MovieSummary}.
+     *
+     * @param rating   rating of the last movie on the previous page
+     * @param id       id of the last movie on the previous page
+     * @param pageable page size
+     * @return movie summaries ordered by rating and id, both descending
+     */
+    @RestResource(exported = false)
+    @QueryHints(@QueryHint(name = CACHEABLE, value = "true"))
+    @Query("select new com.microsoft.azure.java.samples.moviedb.api.MovieSummary(m.id, m.name, m.rating, m.imageUri)"
+            + " from Movie m where m.rating < :rating or (m.rating = :rating and m.id < :id)"
+            + " order by m.rating desc, m.id desc")
+    List<MovieSummary> findSummariesRatedAfter(@Param("rating") Double rating, @Param("id") Long id,
+                                               Pageable pageable);
+
+    /**
+     * Same as {@link #findRatedBefore} but only reads the columns of {@link MovieSummary}.
+     *
+     * @param rating   rating of the first movie on the next page
+     * @param id       id of the first movie on the next page
+     * @param pageable page size
+     * @return movie summaries ordered by rating and id, both ascending
+     */
+    @RestResource(exported = false)
+    @QueryHints(@QueryHint(name = CACHEABLE, value = "true"))
+    @Query("select new com.microsoft.azure.java.samples.moviedb.api.MovieSummary(m.id, m.name, m.rating, m.imageUri)"
+            + " from Movie m where m.rating > :rating or (m.rating = :rating and m.id > :id)"
+            + " order by m.rating asc, m.id asc")
+    List<MovieSummary> findSummariesRatedBefore(@Param("rating") Double rating, @Param("id") Long id,
+                                                Pageable pageable);
 }
@@ -0,0 +1,73 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.java.samples.moviedb.api;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import org.springframework.hateoas.core.Relation;
+
+/**
+ * Lean read-only view of a movie for list pages, it never carries the description.
+ */
+@Relation(collectionRelation = "movies")
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+public class MovieSummary {
+    private final Long id;
+    private final String name;
+    private final Double rating;
+    private final String imageUri;
+
+    /**
+     * Constructor used by JPQL constructor expressions.
+     *
+     * @param id       movie id
+     * @param name     movie name
+     * @param rating   movie rating
+     * @param imageUri image uri
+     */
+    public MovieSummary(Long id, String name, Double rating, String imageUri) {
+        this.id = id;
+        this.name = name;
+        this.rating = rating;
+        this.imageUri = imageUri;
+    }
+
+    /**
+     * Get movie id.
+     *
+     * @return movie id
+     */
+    public Long getId() {
+        return this.id;
+    }
+
+    /**
+     * Get movie name.
+     *
+     * @return movie name
+     */
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * Get movie rating.
+     *
+     * @return movie rating
+     */
+    public Double getRating() {
+        return this.rating;
+    }
+
+    /**
+     * Get image uri.
+     *
+     * @return image uri
+     */
+    public String getImageUri() {
+        return this.imageUri;
+    }
+}
@@ -0,0 +1,94 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.java.samples.moviedb.api;
+
+import com.microsoft.azure.java.samples.moviedb.api.leaderboard.MovieLeaderboard;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.rest.webmvc.RepositoryRestController;
+import org.springframework.hateoas.Resources;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import java.util.List;
+
+/**
+ * Serves the movie ranking as lean summaries, without descriptions and without per-item links.
+ * Pages at the head of the ranking come from the in-memory leaderboard, the long tail from the database.
+ */
+@RepositoryRestController
+public class MovieSummaryController {
+    private static final String DEFAULT_PAGE_SIZE = "20";
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    @Autowired
+    private MovieRepository movieRepository;
+    @Autowired
+    private MovieLeaderboard movieLeaderboard;
+
+    /**
+     * Get the first page of the movie ranking.
+     *
+     * @param size page size
+     * @return movie summaries
+     */
+    @RequestMapping(value = "/movies/summaries/top", method = RequestMethod.GET)
+    public ResponseEntity<Resources<MovieSummary>> getTopRated(
+            @RequestParam(value = "size", defaultValue = DEFAULT_PAGE_SIZE) int size) {
+        movieLeaderboard.reloadIfDrained();
+        Pageable pageable = pageOf(size);
+        List<MovieSummary> summaries = movieLeaderboard.getTop(pageable.getPageSize());
+        return toResponse(summaries != null ? summaries : movieRepository.findTopRatedSummaries(pageable));
+    }
+
+    /**
+     * Get the page of the movie ranking right after the given (rating, id) position.
+     *
+     * @param rating rating of the last movie on the previous page
+     * @param id     id of the last movie on the previous page
+     * @param size   page size
+     * @return movie summaries ordered by rating and id, both descending
+     */
+    @RequestMapping(value = "/movies/summaries/after", method = RequestMethod.GET)
+    public ResponseEntity<Resources<MovieSummary>> getRatedAfter(
+            @RequestParam("rating") Double rating, @RequestParam("id") Long id,
+            @RequestParam(value = "size", defaultValue = DEFAULT_PAGE_SIZE) int size) {
+        Pageable pageable = pageOf(size);
+        List<MovieSummary> summaries = movieLeaderboard.getAfter(rating, id, pageable.getPageSize());
+        return toResponse(summaries != null ? summaries
+                : movieRepository.findSummariesRatedAfter(rating, id, pageable));
+    }
+
+    /**
+     * Get the page of the movie ranking right before the given (rating, id) position.
+     *
+     * @param rating rating of the first movie on the next page
+     * @param id     id of the first movie on the next page
+     * @param size   page size
+     * @return movie summaries ordered by rating and id, both ascending
+     */
+    @RequestMapping(value = "/movies/summaries/before", method = RequestMethod.GET)
+    public ResponseEntity<Resources<MovieSummary>> getRatedBefore(
+            @RequestParam("rating") Double rating, @RequestParam("id") Long id,
+            @RequestParam(value = "size", defaultValue = DEFAULT_PAGE_SIZE) int size) {
+        Pageable pageable = pageOf(size);
+        List<MovieSummary> summaries = movieLeaderboard.getBefore(rating, id, pageable.getPageSize());
+        return toResponse(summaries != null ? summaries
+                : movieRepository.findSummariesRatedBefore(rating, id, pageable));
+    }
+
+    private static Pageable pageOf(int size) {
+        return new PageRequest(0, Math.max(1, Math.min(size, MAX_PAGE_SIZE)));
+    }
+
+    private static ResponseEntity<Resources<MovieSummary>> toResponse(List<MovieSummary> summaries) {
+        return ResponseEntity.ok(new Resources<>(summaries));
+    }
+}
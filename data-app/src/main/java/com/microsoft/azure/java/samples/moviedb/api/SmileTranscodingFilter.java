@@ -0,0 +1,135 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.java.samples.moviedb.api;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.WebUtils;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+
+/**
+ * Serves Smile, the binary encoding of JSON, to clients that prefer application/x-jackson-smile.
+ * Spring Data REST restricts its endpoints to produce HAL JSON, so the request is handled as a JSON request and
+ * the JSON response is transcoded token by token. The document structure is exactly the same in both encodings.
+ */
+public class SmileTranscodingFilter extends OncePerRequestFilter {
+    static final MediaType SMILE = new MediaType("application", "x-jackson-smile");
+
+    private static final String JSON_ACCEPT = MediaTypes.HAL_JSON_VALUE + ", " + MediaType.APPLICATION_JSON_VALUE;
+    private static final MediaType JSON_SUFFIX = new MediaType("application", "*+json");
+    private static final String TRANSCODE_ATTRIBUTE = SmileTranscodingFilter.class.getName() + ".TRANSCODE";
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private final SmileFactory smileFactory = new SmileFactory();
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getAttribute(TRANSCODE_ATTRIBUTE) == null && !prefersSmile(request);
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        request.setAttribute(TRANSCODE_ATTRIBUTE, Boolean.TRUE);
+        HttpServletResponse responseToUse = response;
+        if (!isAsyncDispatch(request)) {
+            responseToUse = new ContentCachingResponseWrapper(response);
+        }
+        try {
+            chain.doFilter(new JsonAcceptRequest(request), responseToUse);
+        } finally {
+            if (!isAsyncStarted(request)) {
+                transcode(WebUtils.getNativeResponse(responseToUse, ContentCachingResponseWrapper.class));
+            }
+        }
+    }
+
+    private void transcode(ContentCachingResponseWrapper response) throws IOException {
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        byte[] json = response.getContentAsByteArray();
+        if (json.length > 0 && HttpStatus.valueOf(response.getStatusCode()).is2xxSuccessful()
+                && isJson(response.getContentType())) {
+            ByteArrayOutputStream smile = new ByteArrayOutputStream(json.length);
+            try (JsonParser parser = jsonFactory.createParser(json);
+                 JsonGenerator generator = smileFactory.createGenerator(smile)) {
+                while (parser.nextToken() != null) {
+                    generator.copyCurrentEvent(parser);
+                }
+            }
+            response.resetBuffer();
+            response.setContentType(SMILE.toString());
+            smile.writeTo(response.getOutputStream());
+        }
+        response.copyBodyToResponse();
+    }
+
+    private static boolean prefersSmile(HttpServletRequest request) {
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        if (accept == null || !accept.contains(SMILE.getSubtype())) {
+            return false;
+        }
+        try {
+            List<MediaType> mediaTypes = MediaType.parseMediaTypes(accept);
+            MediaType.sortBySpecificityAndQuality(mediaTypes);
+            return SMILE.includes(mediaTypes.get(0));
+        } catch (InvalidMediaTypeException e) {
+            return false;
+        }
+    }
+
+    private static boolean isJson(String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        MediaType mediaType = MediaType.parseMediaType(contentType);
+        return MediaType.APPLICATION_JSON.includes(mediaType) || JSON_SUFFIX.includes(mediaType);
+    }
+
+    /**
+     * Request that accepts JSON instead of Smile.
+     */
+    private static class JsonAcceptRequest extends HttpServletRequestWrapper {
+        JsonAcceptRequest(HttpServletRequest request) {
+            super(request);
+        }
+
+        @Override
+        public String getHeader(String name) {
+            return HttpHeaders.ACCEPT.equalsIgnoreCase(name) ? JSON_ACCEPT : super.getHeader(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaders(String name) {
+            return HttpHeaders.ACCEPT.equalsIgnoreCase(name)
+                    ? Collections.enumeration(Collections.singletonList(JSON_ACCEPT)) : super.getHeaders(name);
+        }
+    }
+}
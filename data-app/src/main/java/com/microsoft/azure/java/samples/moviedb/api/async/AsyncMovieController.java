@@ -0,0 +1,183 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.java.samples.moviedb.api.async;
+
+import com.microsoft.azure.java.samples.moviedb.api.Movie;
+import com.microsoft.azure.java.samples.moviedb.api.MovieBatchLoader;
+import com.microsoft.azure.java.samples.moviedb.api.MovieRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.mapping.context.PersistentEntities;
+import org.springframework.data.rest.core.config.RepositoryRestConfiguration;
+import org.springframework.data.rest.core.mapping.ResourceMappings;
+import org.springframework.data.rest.webmvc.HttpHeadersPreparer;
+import org.springframework.data.rest.webmvc.PersistentEntityResourceAssembler;
+import org.springframework.data.rest.webmvc.ProfileController;
+import org.springframework.data.rest.webmvc.ProfileResourceProcessor;
+import org.springframework.data.rest.webmvc.RepositoryRestController;
+import org.springframework.data.rest.webmvc.support.DefaultedPageable;
+import org.springframework.data.rest.webmvc.support.RepositoryEntityLinks;
+import org.springframework.data.web.PagedResourcesAssembler;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.Resource;
+import org.springframework.hateoas.Resources;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.context.request.async.WebAsyncTask;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * Async variant of the movie read API: find by id, the paged collection and the multi-get. The responses are
+ * assembled exactly like the Spring Data REST ones, including ETags and conditional requests, only the database
+ * work moves from the Tomcat thread to the movie read pool.
+ */
+@RepositoryRestController
+@Profile(AsyncReadConfiguration.PROFILE)
+public class AsyncMovieController {
+    private static final Logger logger = LoggerFactory.getLogger(AsyncMovieController.class);
+    private static final String SEARCH_REL = "search";
+
+    @Autowired
+    private MovieRepository movieRepository;
+    @Autowired
+    private MovieBatchLoader movieBatchLoader;
+    @Autowired
+    private RepositoryEntityLinks entityLinks;
+    @Autowired
+    private PagedResourcesAssembler<Object> pagedAssembler;
+    @Autowired
+    private HttpHeadersPreparer headersPreparer;
+    @Autowired
+    private PersistentEntities persistentEntities;
+    @Autowired
+    private RepositoryRestConfiguration config;
+    @Autowired
+    private ResourceMappings mappings;
+    @Autowired
+    @Qualifier("movieReadExecutor")
+    private AsyncTaskExecutor movieReadExecutor;
+    @Value("${moviedb.dataapp.async.timeout:10000}")
+    private long timeout;
+
+    /**
+     * Get a movie by id.
+     *
+     * @param id        movie id
+     * @param headers   request headers, a matching If-None-Match or If-Modified-Since gives not modified
+     * @param assembler resource assembler of Spring Data REST
+     * @return movie with its links, not modified, or not found
+     */
+    @RequestMapping(value = "/movies/{id}", method = RequestMethod.GET)
+    public WebAsyncTask<ResponseEntity<Resource<?>>> getMovie(@PathVariable("id") Long id,
+                                                              @RequestHeader HttpHeaders headers,
+                                                              PersistentEntityResourceAssembler assembler) {
+        return submit(() -> {
+            Movie movie = movieRepository.findOne(id);
+            if (movie == null) {
+                return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+            }
+
+            // The version ETag is matched against If-None-Match when the response entity is written.
+            HttpHeaders responseHeaders = headersPreparer.prepareHeaders(
+                    persistentEntities.getPersistentEntity(Movie.class), movie);
+            if (headersPreparer.isObjectStillValid(movie, headers)) {
+                return new ResponseEntity<>(HttpStatus.NOT_MODIFIED);
+            }
+            return new ResponseEntity<>(assembler.toFullResource(movie), responseHeaders, HttpStatus.OK);
+        });
+    }
+
+    /**
+     * Get one page of movies.
+     *
+     * @param pageable  page number, size and sort, and whether they were given at all
+     * @param assembler resource assembler of Spring Data REST
+     * @return page of movies with their links
+     */
+    @RequestMapping(value = "/movies", method = RequestMethod.GET)
+    public WebAsyncTask<ResponseEntity<Resources<?>>> getMovies(DefaultedPageable pageable,
+                                                                PersistentEntityResourceAssembler assembler) {
+        return submit(() -> {
+            @SuppressWarnings("unchecked")
+            Page<Object> page = (Page<Object>) (Page<?>) movieRepository.findAll(pageable.getPageable());
+            Link baseLink = entityLinks.linkToPagedResource(Movie.class,
+                    pageable.isDefault() ? null : pageable.getPageable());
+            Resources<?> resources = page.hasContent()
+                    ? pagedAssembler.toResource(page, assembler, baseLink)
+                    : pagedAssembler.toEmptyResource(page, Movie.class, baseLink);
+            resources.add(new Link(ProfileController.getPath(config, mappings.getMetadataFor(Movie.class)),
+                    ProfileResourceProcessor.PROFILE_REL));
+            resources.add(entityLinks.linkFor(Movie.class).slash(SEARCH_REL).withRel(SEARCH_REL));
+            return ResponseEntity.ok(resources);
+        });
+    }
+
+    /**
+     * Get movies by ids passed as a comma separated query parameter.
+     *
+     * @param ids movie ids
+     * @return movies in the requested order, unknown ids are skipped
+     */
+    @RequestMapping(value = "/movies/search/byIds", method = RequestMethod.GET)
+    public WebAsyncTask<ResponseEntity<Resources<Movie>>> getMoviesByIds(@RequestParam("ids") List<Long> ids) {
+        return findMovies(ids);
+    }
+
+    /**
+     * Get movies by ids passed as a JSON array in the request body.
+     *
+     * @param ids movie ids
+     * @return movies in the requested order, unknown ids are skipped
+     */
+    @RequestMapping(value = "/movies/search/byIds", method = RequestMethod.POST)
+    public WebAsyncTask<ResponseEntity<Resources<Movie>>> postMoviesByIds(@RequestBody List<Long> ids) {
+        return findMovies(ids);
+    }
+
+    /**
+     * Turn reads that do not fit into the worker pool queue away instead of queueing them without bound.
+     *
+     * @param e rejection by the worker pool
+     * @return service unavailable
+     */
+    @ExceptionHandler(TaskRejectedException.class)
+    public ResponseEntity<Void> handleRejected(TaskRejectedException e) {
+        logger.warn("Movie read rejected: " + e.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").build();
+    }
+
+    private WebAsyncTask<ResponseEntity<Resources<Movie>>> findMovies(List<Long> ids) {
+        return submit(() -> {
+            List<Movie> movies = movieBatchLoader.findMovies(ids);
+            if (movies == null) {
+                return ResponseEntity.badRequest().build();
+            }
+            return ResponseEntity.ok(new Resources<>(movies));
+        });
+    }
+
+    private <T> WebAsyncTask<T> submit(Callable<T> read) {
+        return new WebAsyncTask<>(timeout, movieReadExecutor, read);
+    }
+}
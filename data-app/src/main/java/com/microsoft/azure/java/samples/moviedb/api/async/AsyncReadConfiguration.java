@@ -0,0 +1,47 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.java.samples.moviedb.api.async;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Enables the async read API with the "async" profile. Movie reads then release their Tomcat thread as soon as the
+ * request is parsed and wait for the database on a bounded worker pool, so a slow database fills the pool and its
+ * queue instead of the container, and endpoints served from memory stay responsive.
+ */
+@Configuration
+@Profile(AsyncReadConfiguration.PROFILE)
+public class AsyncReadConfiguration {
+    /**
+     * Name of the profile that enables the async read API.
+     */
+    public static final String PROFILE = "async";
+
+    /**
+     * Worker pool that runs movie reads. Once the pool and its queue are full, reads are rejected right away.
+     *
+     * @param poolSize      number of reads that wait for the database at the same time
+     * @param queueCapacity number of reads that wait for a worker
+     * @return worker pool
+     */
+    @Bean
+    public ThreadPoolTaskExecutor movieReadExecutor(@Value("${moviedb.dataapp.async.poolSize:32}") int poolSize,
+                                                    @Value("${moviedb.dataapp.async.queueCapacity:1000}")
+                                                            int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("movie-read-");
+        executor.setTaskDecorator(new RequestContextTaskDecorator());
+        return executor;
+    }
+}
@@ -0,0 +1,47 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.java.samples.moviedb.api.async;
+
+import com.microsoft.azure.java.samples.moviedb.api.datasource.ReplicaRoutingDataSource;
+import com.microsoft.azure.java.samples.moviedb.trace.Trace;
+import com.microsoft.azure.java.samples.moviedb.trace.Tracer;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.servlet.http.HttpServletRequest;
+
+/**
+ * Carries the request of the submitting thread over to the worker, so that links are built against the request url,
+ * keeps a request that is pinned to the primary database on the primary and records its spans in its trace.
+ */
+class RequestContextTaskDecorator implements TaskDecorator {
+    @Override
+    public Runnable decorate(Runnable task) {
+        HttpServletRequest request = ((ServletRequestAttributes) RequestContextHolder.currentRequestAttributes())
+                .getRequest();
+        boolean primaryOnly = ReplicaRoutingDataSource.isPrimaryOnly();
+        Trace trace = Tracer.current();
+        return () -> {
+            // Fresh attributes, those of the container thread are marked completed once it lets go of the request.
+            ServletRequestAttributes attributes = new ServletRequestAttributes(request);
+            RequestContextHolder.setRequestAttributes(attributes);
+            if (primaryOnly) {
+                ReplicaRoutingDataSource.setPrimaryOnly();
+            }
+            Tracer.setCurrent(trace);
+            try {
+                task.run();
+            } finally {
+                Tracer.setCurrent(null);
+                ReplicaRoutingDataSource.clearPrimaryOnly();
+                RequestContextHolder.resetRequestAttributes();
+                attributes.requestCompleted();
+            }
+        };
+    }
+}
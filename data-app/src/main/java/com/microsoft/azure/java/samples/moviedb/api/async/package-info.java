@@ -0,0 +1,10 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+/**
+ * Async profile of the movie read API, which serves reads from a bounded worker pool instead of container threads.
+ */
+package com.microsoft.azure.java.samples.moviedb.api.async;
@@ -0,0 +1,268 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.java.samples.moviedb.api.bulk;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Progress of a bulk import, reported once per chunk and once more for the whole import.
+ */
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+public class ImportResult {
+    private final Integer chunk;
+    private int rows;
+    private int inserted;
+    private int updated;
+    private int failed;
+    private long millis;
+    private Double rowsPerSecond;
+    private Boolean done;
+    private String error;
+    private final List<RowError> errors = new ArrayList<>();
+
+    private ImportResult(Integer chunk) {
+        this.chunk = chunk;
+    }
+
+    /**
+     * Create result of one chunk.
+     *
+     * @param chunk chunk number, starting from one
+     * @param rows  number of rows in the chunk
+     * @return chunk result
+     */
+    public static ImportResult chunk(int chunk, int rows) {
+        ImportResult result = new ImportResult(chunk);
+        result.rows = rows;
+        return result;
+    }
+
+    /**
+     * Create result that sums up all chunks of an import.
+     *
+     * @return import result
+     */
+    public static ImportResult total() {
+        return new ImportResult(null);
+    }
+
+    /**
+     * Count one inserted row.
+     */
+    public void inserted() {
+        this.inserted++;
+    }
+
+    /**
+     * Count one updated row.
+     */
+    public void updated() {
+        this.updated++;
+    }
+
+    /**
+     * Count one rejected row.
+     *
+     * @param row     row number in the whole import, starting from zero
+     * @param id      movie id of the row, if any
+     * @param message reason of the rejection
+     */
+    public void rejected(int row, Long id, String message) {
+        this.failed++;
+        this.errors.add(new RowError(row, id, message));
+    }
+
+    /**
+     * Mark every row of the chunk as failed after its transaction rolled back.
+     *
+     * @param message reason of the failure
+     */
+    public void rolledBack(String message) {
+        this.inserted = 0;
+        this.updated = 0;
+        this.failed = this.rows;
+        this.errors.clear();
+        this.error = message;
+    }
+
+    /**
+     * Add counters of a chunk to this result.
+     *
+     * @param other chunk result
+     */
+    public void add(ImportResult other) {
+        this.rows += other.rows;
+        this.inserted += other.inserted;
+        this.updated += other.updated;
+        this.failed += other.failed;
+    }
+
+    /**
+     * Record the elapsed time and mark the import as done.
+     *
+     * @param nanos elapsed time in nanoseconds
+     */
+    public void finish(long nanos) {
+        elapsed(nanos);
+        this.rowsPerSecond = nanos > 0 ? this.rows * 1e9 / nanos : null;
+        this.done = this.error == null;
+    }
+
+    /**
+     * Record the elapsed time.
+     *
+     * @param nanos elapsed time in nanoseconds
+     */
+    public void elapsed(long nanos) {
+        this.millis = nanos / 1000000;
+    }
+
+    /**
+     * Get chunk number, null for the import total.
+     *
+     * @return chunk number
+     */
+    public Integer getChunk() {
+        return this.chunk;
+    }
+
+    /**
+     * Get number of rows read.
+     *
+     * @return number of rows
+     */
+    public int getRows() {
+        return this.rows;
+    }
+
+    /**
+     * Get number of inserted rows.
+     *
+     * @return number of inserted rows
+     */
+    public int getInserted() {
+        return this.inserted;
+    }
+
+    /**
+     * Get number of updated rows.
+     *
+     * @return number of updated rows
+     */
+    public int getUpdated() {
+        return this.updated;
+    }
+
+    /**
+     * Get number of rows that were not written.
+     *
+     * @return number of failed rows
+     */
+    public int getFailed() {
+        return this.failed;
+    }
+
+    /**
+     * Get elapsed time.
+     *
+     * @return elapsed time in milliseconds
+     */
+    public long getMillis() {
+        return this.millis;
+    }
+
+    /**
+     * Get import throughput, only set on the import total.
+     *
+     * @return rows per second
+     */
+    public Double getRowsPerSecond() {
+        return this.rowsPerSecond;
+    }
+
+    /**
+     * Whether the whole input was read, only set on the import total.
+     *
+     * @return true if the import ran to the end of the input
+     */
+    public Boolean getDone() {
+        return this.done;
+    }
+
+    /**
+     * Get error that failed the whole chunk or stopped the import.
+     *
+     * @return error message
+     */
+    public String getError() {
+        return this.error;
+    }
+
+    /**
+     * Set error that stopped the import.
+     *
+     * @param error error message
+     */
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    /**
+     * Get rows rejected one by one.
+     *
+     * @return row errors
+     */
+    public List<RowError> getErrors() {
+        return this.errors;
+    }
+
+    /**
+     * Row that could not be imported.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class RowError {
+        private final int row;
+        private final Long id;
+        private final String message;
+
+        RowError(int row, Long id, String message) {
+            this.row = row;
+            this.id = id;
+            this.message = message;
+        }
+
+        /**
+         * Get row number in the whole import, starting from zero.
+         *
+         * @return row number
+         */
+        public int getRow() {
+            return this.row;
+        }
+
+        /**
+         * Get movie id of the row.
+         *
+         * @return movie id
+         */
+        public Long getId() {
+            return this.id;
+        }
+
+        /**
+         * Get reason of the rejection.
+         *
+         * @return error message
+         */
+        public String getMessage() {
+            return this.message;
+        }
+    }
+}
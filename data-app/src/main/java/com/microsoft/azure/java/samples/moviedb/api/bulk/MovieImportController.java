@@ -0,0 +1,115 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.java.samples.moviedb.api.bulk;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.microsoft.azure.java.samples.moviedb.api.Movie;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.rest.webmvc.RepositoryRestController;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Imports movies in bulk from a streamed JSON array or newline delimited JSON.
+ * The response is newline delimited JSON with one progress line per chunk and a final line for the whole import.
+ */
+@RepositoryRestController
+public class MovieImportController {
+    private static final Logger logger = LoggerFactory.getLogger(MovieImportController.class);
+    private static final String NDJSON = "application/x-ndjson";
+    private static final int MAX_CHUNK_SIZE = 10000;
+
+    private final MovieImporter movieImporter;
+    private final ObjectMapper objectMapper;
+    private final ObjectReader movieReader;
+    private final int chunkSize;
+
+    /**
+     * Constructor that accepts settings from property file.
+     *
+     * @param movieImporter movie importer
+     * @param objectMapper  object mapper
+     * @param chunkSize     default number of movies written per transaction
+     */
+    @Autowired
+    public MovieImportController(MovieImporter movieImporter, ObjectMapper objectMapper,
+                                 @Value("${moviedb.dataapp.importChunkSize:1000}") int chunkSize) {
+        this.movieImporter = movieImporter;
+        this.objectMapper = objectMapper;
+        this.movieReader = objectMapper.readerFor(Movie.class);
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Insert or update the movies of the request body, one chunk per transaction.
+     * Chunks already written stay written if a later chunk fails or the input turns out malformed.
+     *
+     * @param chunkSize number of movies written per transaction, overrides the configured default
+     * @param request   http request with a JSON array or newline delimited JSON of movies
+     * @param response  http response that progress is streamed to
+     * @throws IOException if the request or the response stream fails
+     */
+    @RequestMapping(value = "/movies/import", method = RequestMethod.POST)
+    public void importMovies(@RequestParam(value = "chunkSize", required = false) Integer chunkSize,
+                             HttpServletRequest request, HttpServletResponse response) throws IOException {
+        int size = chunkSize == null ? this.chunkSize : Math.max(1, Math.min(chunkSize, MAX_CHUNK_SIZE));
+        response.setContentType(NDJSON);
+        response.setCharacterEncoding("UTF-8");
+        OutputStream out = response.getOutputStream();
+
+        long start = System.nanoTime();
+        ImportResult total = ImportResult.total();
+        int chunkNumber = 0;
+        List<Movie> chunk = new ArrayList<>(size);
+        try (MappingIterator<Movie> movies = movieReader.readValues(request.getInputStream())) {
+            while (movies.hasNextValue()) {
+                chunk.add(movies.nextValue());
+                if (chunk.size() == size) {
+                    writeChunk(out, total, movieImporter.importChunk(++chunkNumber, total.getRows(), chunk));
+                    chunk = new ArrayList<>(size);
+                }
+            }
+        } catch (JsonProcessingException e) {
+            logger.warn("Malformed import input: " + e.getOriginalMessage());
+            total.setError("Malformed input after row " + (total.getRows() + chunk.size()) + ": "
+                    + e.getOriginalMessage());
+        }
+
+        if (!chunk.isEmpty()) {
+            writeChunk(out, total, movieImporter.importChunk(++chunkNumber, total.getRows(), chunk));
+        }
+
+        total.finish(System.nanoTime() - start);
+        logger.info("Imported " + total.getRows() + " movies in " + total.getMillis() + " ms");
+        writeLine(out, total);
+    }
+
+    private void writeChunk(OutputStream out, ImportResult total, ImportResult chunk) throws IOException {
+        total.add(chunk);
+        writeLine(out, chunk);
+    }
+
+    private void writeLine(OutputStream out, ImportResult result) throws IOException {
+        out.write(objectMapper.writeValueAsBytes(result));
+        out.write('\n');
+        out.flush();
+    }
+}
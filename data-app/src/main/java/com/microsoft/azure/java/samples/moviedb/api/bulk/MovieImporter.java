@@ -0,0 +1,139 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.java.samples.moviedb.api.bulk;
+
+import com.microsoft.azure.java.samples.moviedb.api.Movie;
+import com.microsoft.azure.java.samples.moviedb.api.MovieRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Upserts movies one chunk per transaction so that Hibernate can send the writes in JDBC batches.
+ */
+@Component
+public class MovieImporter {
+    private static final Logger logger = LoggerFactory.getLogger(MovieImporter.class);
+
+    private final MovieRepository movieRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Constructor.
+     *
+     * @param movieRepository    movie repository
+     * @param transactionManager transaction manager
+     */
+    @Autowired
+    public MovieImporter(MovieRepository movieRepository, PlatformTransactionManager transactionManager) {
+        this.movieRepository = movieRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Insert new movies and update existing ones in one transaction.
+     * Existing movies are looked up with one query, and only the non-null fields of an imported movie
+     * overwrite the stored ones, the same way a PATCH does. A rejected row does not fail the chunk,
+     * a database error rolls back the whole chunk.
+     *
+     * @param chunk    chunk number, starting from one
+     * @param firstRow row number of the first movie of the chunk in the whole import
+     * @param movies   movies to import
+     * @return chunk result
+     */
+    public ImportResult importChunk(int chunk, final int firstRow, final List<Movie> movies) {
+        long start = System.nanoTime();
+        final ImportResult result = ImportResult.chunk(chunk, movies.size());
+        try {
+            transactionTemplate.execute(status -> {
+                upsert(firstRow, movies, result);
+                return null;
+            });
+        } catch (RuntimeException e) {
+            logger.error("Error importing chunk " + chunk + ": ", e);
+            result.rolledBack(rootCause(e).getMessage());
+        }
+
+        result.elapsed(System.nanoTime() - start);
+        return result;
+    }
+
+    private void upsert(int firstRow, List<Movie> movies, ImportResult result) {
+        Set<Long> ids = new HashSet<>();
+        for (Movie movie : movies) {
+            if (movie.getId() != null) {
+                ids.add(movie.getId());
+            }
+        }
+
+        Map<Long, Movie> managed = new HashMap<>();
+        if (!ids.isEmpty()) {
+            for (Movie movie : movieRepository.findByIdIn(ids)) {
+                managed.put(movie.getId(), movie);
+            }
+        }
+
+        for (int i = 0; i < movies.size(); i++) {
+            Movie movie = movies.get(i);
+            if (movie.getId() == null) {
+                result.rejected(firstRow + i, null, "Movie id is required");
+                continue;
+            }
+
+            Movie current = managed.get(movie.getId());
+            if (current != null) {
+                // Dirty checking turns these into batched updates when the transaction commits.
+                copyNonNullFields(movie, current);
+                result.updated();
+            } else if (movie.getName() == null || movie.getDescription() == null) {
+                result.rejected(firstRow + i, movie.getId(), "Name and description are required for a new movie");
+            } else {
+                // Ids are assigned, so persist queues a batched insert without reading the row first.
+                entityManager.persist(movie);
+                managed.put(movie.getId(), movie);
+                result.inserted();
+            }
+        }
+    }
+
+    private static void copyNonNullFields(Movie source, Movie target) {
+        if (source.getName() != null) {
+            target.setName(source.getName());
+        }
+        if (source.getDescription() != null) {
+            target.setDescription(source.getDescription());
+        }
+        if (source.getRating() != null) {
+            target.setRating(source.getRating());
+        }
+        if (source.getImageUri() != null) {
+            target.setImageUri(source.getImageUri());
+        }
+    }
+
+    private static Throwable rootCause(Throwable e) {
+        Throwable cause = e;
+        while (cause.getCause() != null && cause.getCause() != cause) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+}
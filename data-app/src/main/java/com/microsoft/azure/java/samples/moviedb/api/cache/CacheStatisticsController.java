@@ -0,0 +1,93 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.java.samples.moviedb.api.cache;
+
+import com.microsoft.azure.java.samples.moviedb.api.Movie;
+import net.sf.ehcache.CacheManager;
+import net.sf.ehcache.Ehcache;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.SecondLevelCacheStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.rest.webmvc.BasePathAwareController;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Exposes hit, miss and eviction counts of the movie entity cache and of the query cache, together with the number of
+ * statements sent to the database, so that the effect of the caches can be measured per request. Hibernate only
+ * collects them in the statistics profile, otherwise the counts stay at zero and enabled is false.
+ */
+@BasePathAwareController
+public class CacheStatisticsController {
+    private static final String MOVIE_REGION = Movie.class.getName();
+    private static final String CACHE_MANAGER = "moviedb-hibernate";
+    private static final String QUERY_REGION = "org.hibernate.cache.internal.StandardQueryCache";
+
+    private final Statistics statistics;
+
+    /**
+     * Constructor.
+     *
+     * @param entityManagerFactory entity manager factory backed by Hibernate
+     */
+    @Autowired
+    public CacheStatisticsController(EntityManagerFactory entityManagerFactory) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    /**
+     * Get cache statistics accumulated since startup.
+     *
+     * @return statistics of the movie region, the query cache and the database statements
+     */
+    @RequestMapping(value = "/cache/statistics", method = RequestMethod.GET)
+    public ResponseEntity<Map<String, Object>> getStatistics() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", statistics.isStatisticsEnabled());
+
+        Map<String, Object> movies = new LinkedHashMap<>();
+        SecondLevelCacheStatistics region = statistics.getSecondLevelCacheStatistics(MOVIE_REGION);
+        if (region != null) {
+            movies.put("hits", region.getHitCount());
+            movies.put("misses", region.getMissCount());
+            movies.put("puts", region.getPutCount());
+            movies.put("elementsInMemory", region.getElementCountInMemory());
+        }
+        movies.put("evictions", evictions(MOVIE_REGION));
+        result.put("movies", movies);
+
+        Map<String, Object> queries = new LinkedHashMap<>();
+        queries.put("hits", statistics.getQueryCacheHitCount());
+        queries.put("misses", statistics.getQueryCacheMissCount());
+        queries.put("puts", statistics.getQueryCachePutCount());
+        queries.put("evictions", evictions(QUERY_REGION));
+        result.put("queries", queries);
+
+        Map<String, Object> database = new LinkedHashMap<>();
+        database.put("statements", statistics.getPrepareStatementCount());
+        database.put("queries", statistics.getQueryExecutionCount());
+        database.put("entityLoads", statistics.getEntityLoadCount());
+        result.put("database", database);
+        return ResponseEntity.ok(result);
+    }
+
+    private static long evictions(String regionName) {
+        for (CacheManager cacheManager : CacheManager.ALL_CACHE_MANAGERS) {
+            Ehcache cache = CACHE_MANAGER.equals(cacheManager.getName()) ? cacheManager.getEhcache(regionName) : null;
+            if (cache != null) {
+                return cache.getStatistics().getEvictionCount();
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,10 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+/**
+ * Statistics of the Hibernate second-level and query caches.
+ */
+package com.microsoft.azure.java.samples.moviedb.api.cache;
@@ -0,0 +1,90 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.java.samples.moviedb.api.changes;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One committed change of a movie.
+ */
+public class MovieChange {
+    /**
+     * Kind of change.
+     */
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+
+    private final long seq;
+    private final Type type;
+    private final Long id;
+    private final Long version;
+    private final List<String> fields;
+
+    /**
+     * Constructor.
+     *
+     * @param seq     position in the feed
+     * @param type    kind of change
+     * @param id      movie id
+     * @param version movie version after the change
+     * @param fields  names of the changed properties
+     */
+    MovieChange(long seq, Type type, Long id, Long version, List<String> fields) {
+        this.seq = seq;
+        this.type = type;
+        this.id = id;
+        this.version = version;
+        this.fields = Collections.unmodifiableList(fields);
+    }
+
+    /**
+     * Get position in the feed.
+     *
+     * @return sequence number, increasing by one per change
+     */
+    public long getSeq() {
+        return this.seq;
+    }
+
+    /**
+     * Get kind of change.
+     *
+     * @return change type
+     */
+    public Type getType() {
+        return this.type;
+    }
+
+    /**
+     * Get movie id.
+     *
+     * @return movie id
+     */
+    public Long getId() {
+        return this.id;
+    }
+
+    /**
+     * Get movie version after the change, the same value data-app sends as the movie ETag.
+     *
+     * @return movie version
+     */
+    public Long getVersion() {
+        return this.version;
+    }
+
+    /**
+     * Get names of the changed properties.
+     *
+     * @return changed properties of an update, empty for created and deleted movies
+     */
+    public List<String> getFields() {
+        return this.fields;
+    }
+}
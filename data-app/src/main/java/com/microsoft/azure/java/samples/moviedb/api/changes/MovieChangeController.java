@@ -0,0 +1,147 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.java.samples.moviedb.api.changes;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+
+/**
+ * Serves the movie change feed, either as long-poll requests or as a Server-Sent Events stream.
+ * Readers keep the cursor of the last change they have seen and resume from it after a reconnect.
+ * This is a plain MVC controller under the REST base path, because the Spring Data REST handler adapter has no
+ * message converter for event streams.
+ */
+@RestController
+@RequestMapping("${spring.data.rest.basePath:}/movies/changes")
+public class MovieChangeController {
+    private static final long MAX_POLL_TIMEOUT = 60000;
+
+    private final MovieChangeFeed movieChangeFeed;
+    private final long streamTimeout;
+
+    /**
+     * Constructor that accepts settings from property file.
+     *
+     * @param movieChangeFeed movie change feed
+     * @param streamTimeout   milliseconds an event stream stays open before the client has to reconnect
+     */
+    @Autowired
+    public MovieChangeController(MovieChangeFeed movieChangeFeed,
+                                 @Value("${moviedb.dataapp.changeFeed.streamTimeout:300000}") long streamTimeout) {
+        this.movieChangeFeed = movieChangeFeed;
+        this.streamTimeout = streamTimeout;
+    }
+
+    /**
+     * Get the changes after a cursor, waiting for the next change if there is none yet.
+     *
+     * @param since   cursor returned by the previous request, omitted on the first request
+     * @param timeout milliseconds to wait for a change before returning an empty batch
+     * @return changes after the cursor, an empty batch on timeout, or a reset if changes were missed
+     */
+    @RequestMapping(method = RequestMethod.GET)
+    public DeferredResult<ResponseEntity<MovieChanges>> getChanges(
+            @RequestParam(value = "since", required = false) String since,
+            @RequestParam(value = "timeout", defaultValue = "30000") long timeout) {
+        MovieChanges changes = movieChangeFeed.read(since);
+        long wait = Math.max(0, Math.min(timeout, MAX_POLL_TIMEOUT));
+        DeferredResult<ResponseEntity<MovieChanges>> result =
+                new DeferredResult<>(wait, ResponseEntity.ok(changes));
+        if (!changes.isEmpty() || wait == 0) {
+            result.setResult(ResponseEntity.ok(changes));
+            return result;
+        }
+
+        MovieChangeFeed.Subscriber poll = new MovieChangeFeed.Subscriber() {
+            @Override
+            public String getCursor() {
+                return changes.getCursor();
+            }
+
+            @Override
+            public boolean deliver(MovieChanges next) {
+                result.setResult(ResponseEntity.ok(next));
+                return false;
+            }
+        };
+        result.onCompletion(() -> movieChangeFeed.unsubscribe(poll));
+        movieChangeFeed.subscribe(poll);
+        return result;
+    }
+
+    /**
+     * Stream changes as Server-Sent Events. Every event id is a cursor, so a reconnecting client resumes with the
+     * standard Last-Event-ID header. A "reset" event tells the client that it missed changes.
+     *
+     * @param lastEventId id of the last event received before a reconnect
+     * @param since       cursor to start from when there is no Last-Event-ID, omitted to start from now
+     * @return event stream
+     */
+    @RequestMapping(value = "/stream", method = RequestMethod.GET,
+            produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+                                    @RequestParam(value = "since", required = false) String since) {
+        SseEmitter emitter = new SseEmitter(streamTimeout);
+        String cursor = lastEventId != null ? lastEventId : since;
+        if (cursor == null || cursor.isEmpty()) {
+            cursor = movieChangeFeed.read(null).getCursor();
+        }
+        EventStream stream = new EventStream(emitter, cursor);
+        emitter.onCompletion(() -> movieChangeFeed.unsubscribe(stream));
+        emitter.onTimeout(() -> movieChangeFeed.unsubscribe(stream));
+        movieChangeFeed.subscribe(stream);
+        return emitter;
+    }
+
+    /**
+     * Subscriber that writes changes to an event stream.
+     */
+    private class EventStream implements MovieChangeFeed.Subscriber {
+        private final SseEmitter emitter;
+        private volatile String cursor;
+
+        EventStream(SseEmitter emitter, String cursor) {
+            this.emitter = emitter;
+            this.cursor = cursor;
+        }
+
+        @Override
+        public String getCursor() {
+            return cursor;
+        }
+
+        @Override
+        public boolean deliver(MovieChanges changes) {
+            try {
+                if (changes.isReset()) {
+                    emitter.send(SseEmitter.event().id(changes.getCursor()).name("reset")
+                            .data(changes, MediaType.APPLICATION_JSON));
+                }
+                for (MovieChange change : changes.getChanges()) {
+                    emitter.send(SseEmitter.event().id(movieChangeFeed.getCursor(change.getSeq())).name("change")
+                            .data(change, MediaType.APPLICATION_JSON));
+                }
+                cursor = changes.getCursor();
+                return true;
+            } catch (IOException | IllegalStateException e) {
+                emitter.completeWithError(e);
+                return false;
+            }
+        }
+    }
+}
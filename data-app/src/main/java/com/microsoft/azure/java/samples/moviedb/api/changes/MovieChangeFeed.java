@@ -0,0 +1,183 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.java.samples.moviedb.api.changes;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Bounded in-memory log of committed movie changes. Readers resume from a cursor, and are told to start over when
+ * the changes after their cursor have already been overwritten or the cursor comes from before a restart.
+ * Subscribers are fed from a single dispatcher thread, so that slow readers never hold up the writing transactions.
+ */
+@Component
+public class MovieChangeFeed implements DisposableBean {
+    private static final Logger logger = LoggerFactory.getLogger(MovieChangeFeed.class);
+    private static final char CURSOR_SEPARATOR = '-';
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
+    private final MovieChange[] buffer;
+    private final int maxBatchSize;
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final ExecutorService dispatcher = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "movie-change-feed");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private long lastSeq;
+
+    /**
+     * Constructor that accepts settings from property file.
+     *
+     * @param capacity     number of most recent changes kept for readers to catch up with
+     * @param maxBatchSize maximum number of changes returned by one read
+     */
+    public MovieChangeFeed(@Value("${moviedb.dataapp.changeFeed.capacity:10000}") int capacity,
+                           @Value("${moviedb.dataapp.changeFeed.maxBatchSize:500}") int maxBatchSize) {
+        this.buffer = new MovieChange[Math.max(1, capacity)];
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+    }
+
+    /**
+     * Append a committed change and hand it to the subscribers.
+     *
+     * @param type    kind of change
+     * @param id      movie id
+     * @param version movie version after the change
+     * @param fields  names of the changed properties
+     */
+    public void publish(MovieChange.Type type, Long id, Long version, List<String> fields) {
+        synchronized (this) {
+            lastSeq++;
+            buffer[index(lastSeq)] = new MovieChange(lastSeq, type, id, version, fields);
+        }
+        dispatch();
+    }
+
+    /**
+     * Read the changes after a cursor.
+     *
+     * @param cursor cursor returned by an earlier read, null or empty to start from now
+     * @return changes after the cursor, an empty batch with the current cursor when starting from now, or an empty
+     * reset batch if changes after the cursor are no longer known
+     */
+    public synchronized MovieChanges read(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return new MovieChanges(getCursor(lastSeq), false, new ArrayList<>());
+        }
+        long after = parseCursor(cursor);
+        long oldest = Math.max(1, lastSeq - buffer.length + 1);
+        if (after < 0 || after > lastSeq || after + 1 < oldest) {
+            return new MovieChanges(getCursor(lastSeq), true, new ArrayList<>());
+        }
+
+        List<MovieChange> changes = new ArrayList<>();
+        for (long seq = after + 1; seq <= lastSeq && changes.size() < maxBatchSize; seq++) {
+            changes.add(buffer[index(seq)]);
+        }
+        return new MovieChanges(getCursor(after + changes.size()), false, changes);
+    }
+
+    /**
+     * Get cursor that points right after a change.
+     *
+     * @param seq sequence number of the change
+     * @return opaque cursor, only valid until data-app restarts
+     */
+    public String getCursor(long seq) {
+        return epoch + CURSOR_SEPARATOR + seq;
+    }
+
+    /**
+     * Deliver changes to the subscriber whenever there are new ones after its cursor, starting right away.
+     *
+     * @param subscriber subscriber to add
+     */
+    public void subscribe(Subscriber subscriber) {
+        subscribers.add(subscriber);
+        dispatch();
+    }
+
+    /**
+     * Stop delivering changes to the subscriber.
+     *
+     * @param subscriber subscriber to remove
+     */
+    public void unsubscribe(Subscriber subscriber) {
+        subscribers.remove(subscriber);
+    }
+
+    @Override
+    public void destroy() {
+        dispatcher.shutdownNow();
+    }
+
+    private void dispatch() {
+        dispatcher.execute(() -> {
+            for (Subscriber subscriber : subscribers) {
+                try {
+                    // Subscribers that fell behind by more than a batch are caught up one batch at a time.
+                    for (MovieChanges changes = read(subscriber.getCursor()); !changes.isEmpty();
+                         changes = read(subscriber.getCursor())) {
+                        if (!subscriber.deliver(changes)) {
+                            subscribers.remove(subscriber);
+                            break;
+                        }
+                    }
+                } catch (RuntimeException e) {
+                    logger.warn("Dropping movie change subscriber: " + e.getMessage());
+                    subscribers.remove(subscriber);
+                }
+            }
+        });
+    }
+
+    private int index(long seq) {
+        return (int) (seq % buffer.length);
+    }
+
+    private long parseCursor(String cursor) {
+        if (!cursor.startsWith(epoch + CURSOR_SEPARATOR)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(cursor.substring(epoch.length() + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Reader that is pushed new changes from the dispatcher thread.
+     */
+    public interface Subscriber {
+        /**
+         * Get cursor of the last change the subscriber has seen.
+         *
+         * @return cursor to read the next changes from
+         */
+        String getCursor();
+
+        /**
+         * Deliver changes after the cursor, or a reset. A subscriber that stays subscribed must move its cursor
+         * to the cursor of the delivered batch.
+         *
+         * @param changes changes to deliver
+         * @return true to stay subscribed
+         */
+        boolean deliver(MovieChanges changes);
+    }
+}
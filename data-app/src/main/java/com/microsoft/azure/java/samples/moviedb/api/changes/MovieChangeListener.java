@@ -0,0 +1,73 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.java.samples.moviedb.api.changes;
+
+import com.microsoft.azure.java.samples.moviedb.api.MovieCommitListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Feeds the change feed from Hibernate entity events. Events are taken after commit, so readers never see a change
+ * that is rolled back, and every write through JPA is covered: Spring Data REST, the bulk import and anything else.
+ */
+@Component
+public class MovieChangeListener implements MovieCommitListener {
+    private final MovieChangeFeed movieChangeFeed;
+
+    /**
+     * Constructor.
+     *
+     * @param movieChangeFeed feed to publish changes to
+     */
+    @Autowired
+    public MovieChangeListener(MovieChangeFeed movieChangeFeed) {
+        this.movieChangeFeed = movieChangeFeed;
+    }
+
+    @Override
+    public void movieInserted(PostInsertEvent event) {
+        publish(MovieChange.Type.CREATED, event.getId(), event.getState(), event.getPersister(),
+                Collections.emptyList());
+    }
+
+    @Override
+    public void movieUpdated(PostUpdateEvent event) {
+        EntityPersister persister = event.getPersister();
+        List<String> fields = new ArrayList<>();
+        if (event.getDirtyProperties() != null) {
+            for (int property : event.getDirtyProperties()) {
+                if (!persister.isVersioned() || property != persister.getVersionProperty()) {
+                    fields.add(persister.getPropertyNames()[property]);
+                }
+            }
+        }
+        publish(MovieChange.Type.UPDATED, event.getId(), event.getState(), persister, fields);
+    }
+
+    @Override
+    public void movieDeleted(PostDeleteEvent event) {
+        publish(MovieChange.Type.DELETED, event.getId(), event.getDeletedState(), event.getPersister(),
+                Collections.emptyList());
+    }
+
+    private void publish(MovieChange.Type type, Object id, Object[] state, EntityPersister persister,
+                         List<String> fields) {
+        Long version = null;
+        if (persister.isVersioned() && state != null) {
+            version = (Long) state[persister.getVersionProperty()];
+        }
+        movieChangeFeed.publish(type, (Long) id, version, fields);
+    }
+}
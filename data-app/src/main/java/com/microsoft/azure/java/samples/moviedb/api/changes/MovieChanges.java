@@ -0,0 +1,68 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.java.samples.moviedb.api.changes;
+
+import java.util.List;
+
+/**
+ * Batch of changes read from the feed, with the cursor to continue from.
+ */
+public class MovieChanges {
+    private final String cursor;
+    private final boolean reset;
+    private final List<MovieChange> changes;
+
+    /**
+     * Constructor.
+     *
+     * @param cursor  cursor of the last change in the batch
+     * @param reset   whether changes were missed since the requested cursor
+     * @param changes changes in feed order
+     */
+    MovieChanges(String cursor, boolean reset, List<MovieChange> changes) {
+        this.cursor = cursor;
+        this.reset = reset;
+        this.changes = changes;
+    }
+
+    /**
+     * Get cursor to request the next batch with.
+     *
+     * @return cursor of the last change in the batch
+     */
+    public String getCursor() {
+        return this.cursor;
+    }
+
+    /**
+     * Whether changes were missed, because the requested cursor was too old, came from before a restart of
+     * data-app, or was not given at all. Anything derived from movies before this batch must then be dropped.
+     *
+     * @return true if the reader has to start over
+     */
+    public boolean isReset() {
+        return this.reset;
+    }
+
+    /**
+     * Get changes of the batch.
+     *
+     * @return changes in feed order
+     */
+    public List<MovieChange> getChanges() {
+        return this.changes;
+    }
+
+    /**
+     * Whether there is anything for the reader to act on.
+     *
+     * @return true if the batch is a reset or has changes
+     */
+    boolean isEmpty() {
+        return !reset && changes.isEmpty();
+    }
+}
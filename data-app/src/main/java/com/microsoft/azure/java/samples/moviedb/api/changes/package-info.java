@@ -0,0 +1,10 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+/**
+ * Feed of committed movie changes, served as long-poll and Server-Sent Events for cache invalidation downstream.
+ */
+package com.microsoft.azure.java.samples.moviedb.api.changes;
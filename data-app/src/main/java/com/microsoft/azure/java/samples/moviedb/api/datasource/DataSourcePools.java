@@ -0,0 +1,157 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.java.samples.moviedb.api.datasource;
+
+import org.apache.tomcat.jdbc.pool.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Connection pools of the primary database and of each read replica, with the health state of the replicas.
+ */
+public class DataSourcePools implements DisposableBean {
+    private static final Logger logger = LoggerFactory.getLogger(DataSourcePools.class);
+    private static final int HEALTH_CHECK_TIMEOUT_SECONDS = 2;
+
+    private final DataSource primary;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    /**
+     * Constructor.
+     *
+     * @param primary  pool of the primary database
+     * @param replicas pools of the read replicas
+     */
+    public DataSourcePools(DataSource primary, List<DataSource> replicas) {
+        this.primary = primary;
+        for (DataSource replica : replicas) {
+            this.replicas.add(new Replica(replica));
+        }
+    }
+
+    /**
+     * Get pool of the primary database.
+     *
+     * @return primary data source
+     */
+    public DataSource getPrimary() {
+        return this.primary;
+    }
+
+    /**
+     * Get a connection from the next healthy replica in round robin order.
+     * A replica that fails to hand out a connection is taken out of rotation and the next one is tried.
+     *
+     * @return replica connection, or null if no replica is healthy
+     */
+    public Connection getReplicaConnection() {
+        int start = Math.floorMod(nextReplica.getAndIncrement(), Math.max(1, replicas.size()));
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((start + i) % replicas.size());
+            if (replica.healthy) {
+                try {
+                    return replica.dataSource.getConnection();
+                } catch (SQLException e) {
+                    replica.markDown(e.getMessage());
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Check every replica with the pool validation query, or with {@link Connection#isValid} when there is none,
+     * and take it out of or back into rotation.
+     */
+    @Scheduled(fixedDelayString = "${moviedb.dataapp.replicas.healthCheckInterval:5000}")
+    public void checkReplicas() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.dataSource.getConnection()) {
+                if (isValid(connection, replica.dataSource.getValidationQuery())) {
+                    replica.markUp();
+                } else {
+                    replica.markDown("connection is not valid");
+                }
+            } catch (SQLException e) {
+                replica.markDown(e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Get number of replicas currently in rotation.
+     *
+     * @return number of healthy replicas
+     */
+    public int getHealthyReplicas() {
+        int healthy = 0;
+        for (Replica replica : replicas) {
+            if (replica.healthy) {
+                healthy++;
+            }
+        }
+        return healthy;
+    }
+
+    private static boolean isValid(Connection connection, String validationQuery) throws SQLException {
+        if (validationQuery == null) {
+            return connection.isValid(HEALTH_CHECK_TIMEOUT_SECONDS);
+        }
+
+        try (Statement statement = connection.createStatement()) {
+            statement.setQueryTimeout(HEALTH_CHECK_TIMEOUT_SECONDS);
+            statement.execute(validationQuery);
+            return true;
+        }
+    }
+
+    @Override
+    public void destroy() {
+        primary.close();
+        for (Replica replica : replicas) {
+            replica.dataSource.close();
+        }
+    }
+
+    /**
+     * Read replica pool and its health state.
+     */
+    private static class Replica {
+        private final DataSource dataSource;
+        private volatile boolean healthy = true;
+
+        Replica(DataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+
+        void markUp() {
+            if (!healthy) {
+                logger.info("Read replica " + dataSource.getName() + " is back in rotation");
+                healthy = true;
+            }
+        }
+
+        void markDown(String reason) {
+            if (healthy) {
+                logger.warn("Read replica " + dataSource.getName() + " is out of rotation: " + reason);
+                healthy = false;
+            }
+            // Drop pooled connections to the failed replica so that they are not handed out after it recovers.
+            dataSource.purge();
+        }
+    }
+}
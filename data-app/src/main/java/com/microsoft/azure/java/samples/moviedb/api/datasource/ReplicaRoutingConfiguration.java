@@ -0,0 +1,96 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.java.samples.moviedb.api.datasource;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.bind.PropertySourcesPropertyValues;
+import org.springframework.boot.bind.RelaxedDataBinder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits reads and writes between the primary database and its read replicas.
+ * Only active when replica urls are configured, otherwise the single auto-configured data source is used.
+ */
+@Configuration
+@ConditionalOnExpression("!'${moviedb.dataapp.replicas.urls:}'.isEmpty()")
+public class ReplicaRoutingConfiguration {
+    private static final String POOL_PROPERTIES_PREFIX = "spring.datasource.tomcat";
+
+    @Autowired
+    private DataSourceProperties properties;
+    @Autowired
+    private ConfigurableEnvironment environment;
+
+    /**
+     * Connection pools of the primary and of every replica. All pools use the spring.datasource settings and
+     * credentials, only the url differs.
+     *
+     * @param urls      jdbc urls of the read replicas
+     * @param maxActive maximum number of connections per replica, zero to use the primary setting
+     * @return data source pools
+     */
+    @Bean
+    public DataSourcePools dataSourcePools(@Value("${moviedb.dataapp.replicas.urls}") String[] urls,
+                                           @Value("${moviedb.dataapp.replicas.maxActive:0}") int maxActive) {
+        List<org.apache.tomcat.jdbc.pool.DataSource> replicas = new ArrayList<>(urls.length);
+        for (int i = 0; i < urls.length; i++) {
+            org.apache.tomcat.jdbc.pool.DataSource replica = createPool("replica-" + i, urls[i].trim());
+            if (maxActive > 0) {
+                replica.setMaxActive(maxActive);
+                replica.setMaxIdle(maxActive);
+            }
+            replicas.add(replica);
+        }
+        return new DataSourcePools(createPool("primary", properties.determineUrl()), replicas);
+    }
+
+    /**
+     * Data source used by JPA and the rest of the application.
+     *
+     * @param pools primary and replica pools
+     * @return routing data source that fetches its connection on first use
+     */
+    @Bean
+    public DataSource dataSource(DataSourcePools pools) {
+        return new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(pools));
+    }
+
+    /**
+     * Register the filter that decides per request whether replicas may be used.
+     *
+     * @param readYourWritesMillis how long the reads of a client stay on the primary after it sent a modifying
+     *                             request, zero to disable
+     * @param cookieSecret         secret the read your writes cookie is signed with, random if empty
+     * @return filter registration
+     */
+    @Bean
+    public FilterRegistrationBean replicaRoutingFilter(
+            @Value("${moviedb.dataapp.replicas.readYourWritesMillis:0}") long readYourWritesMillis,
+            @Value("${moviedb.dataapp.replicas.cookieSecret:}") String cookieSecret) {
+        return new FilterRegistrationBean(new ReplicaRoutingFilter(readYourWritesMillis, cookieSecret));
+    }
+
+    private org.apache.tomcat.jdbc.pool.DataSource createPool(String name, String url) {
+        org.apache.tomcat.jdbc.pool.DataSource pool = (org.apache.tomcat.jdbc.pool.DataSource) properties
+                .initializeDataSourceBuilder().type(org.apache.tomcat.jdbc.pool.DataSource.class).url(url).build();
+        new RelaxedDataBinder(pool, POOL_PROPERTIES_PREFIX)
+                .bind(new PropertySourcesPropertyValues(environment.getPropertySources()));
+        pool.setName(name);
+        return pool;
+    }
+}
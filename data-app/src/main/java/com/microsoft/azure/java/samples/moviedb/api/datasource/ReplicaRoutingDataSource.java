@@ -0,0 +1,73 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.java.samples.moviedb.api.datasource;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Data source that hands out read replica connections to read-only transactions and primary connections otherwise.
+ * It has to be wrapped in a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}, so that
+ * the connection is only fetched once the transaction has been marked read-only.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource {
+    private static final ThreadLocal<Boolean> primaryOnly = new ThreadLocal<>();
+
+    private final DataSourcePools pools;
+
+    /**
+     * Constructor.
+     *
+     * @param pools primary and replica pools
+     */
+    public ReplicaRoutingDataSource(DataSourcePools pools) {
+        this.pools = pools;
+    }
+
+    /**
+     * Send every transaction of the current thread to the primary until {@link #clearPrimaryOnly()} is called.
+     */
+    public static void setPrimaryOnly() {
+        primaryOnly.set(Boolean.TRUE);
+    }
+
+    /**
+     * Whether every transaction of the current thread is sent to the primary.
+     *
+     * @return true between {@link #setPrimaryOnly()} and {@link #clearPrimaryOnly()}
+     */
+    public static boolean isPrimaryOnly() {
+        return primaryOnly.get() != null;
+    }
+
+    /**
+     * Let read-only transactions of the current thread go to the replicas again.
+     */
+    public static void clearPrimaryOnly() {
+        primaryOnly.remove();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (primaryOnly.get() == null && TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            Connection connection = pools.getReplicaConnection();
+            if (connection != null) {
+                return connection;
+            }
+        }
+        return pools.getPrimary().getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        // Replicas are only used with the pool credentials.
+        return pools.getPrimary().getConnection(username, password);
+    }
+}
@@ -0,0 +1,154 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.java.samples.moviedb.api.datasource;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * Decides per request whether read-only transactions may use a replica.
+ * All transactions of a modifying request stay on the primary: Spring Data REST loads the entity of a PATCH or PUT
+ * in its own read-only transaction before saving it, and with open session in view every transaction of a request
+ * shares the connection of the first one. After a modifying request, the reads of the same client stay on the
+ * primary for a while so that it reads its own writes while the replicas catch up. The response of the write sets
+ * a cookie that holds the time until which the client reads from the primary, reads of other clients are not
+ * affected. The time is signed, so that a client cannot keep its reads or anyone else's on the primary for longer,
+ * and a time further ahead than the read your writes window is ignored.
+ */
+public class ReplicaRoutingFilter extends OncePerRequestFilter {
+    /**
+     * Name of the cookie that sends the reads of a client to the primary after it wrote.
+     */
+    public static final String PRIMARY_COOKIE = "moviedb-read-primary";
+
+    private static final String SEARCH_PATH = "/search/";
+    private static final String VOTES_PATH = "/votes";
+    private static final String MAC_ALGORITHM = "HmacSHA256";
+    private static final int GENERATED_SECRET_BYTES = 32;
+
+    private final long readYourWritesMillis;
+    private final SecretKeySpec key;
+
+    /**
+     * Constructor.
+     *
+     * @param readYourWritesMillis how long the reads of a client stay on the primary after it sent a modifying
+     *                             request, zero to disable
+     * @param cookieSecret         secret the cookie is signed with, shared by all data-app instances behind the same
+     *                             address; if empty a random one is generated, which only this instance accepts
+     */
+    public ReplicaRoutingFilter(long readYourWritesMillis, String cookieSecret) {
+        this.readYourWritesMillis = readYourWritesMillis;
+        byte[] secret;
+        if (cookieSecret == null || cookieSecret.isEmpty()) {
+            secret = new byte[GENERATED_SECRET_BYTES];
+            new SecureRandom().nextBytes(secret);
+        } else {
+            secret = cookieSecret.getBytes(StandardCharsets.UTF_8);
+        }
+        this.key = new SecretKeySpec(secret, MAC_ALGORITHM);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean read = isRead(request);
+        if (read && !isSticky(request)) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        if (!read && readYourWritesMillis > 0) {
+            // Set before the response is committed. A failed write only sends a few reads to the primary.
+            String until = Long.toString(System.currentTimeMillis() + readYourWritesMillis);
+            Cookie cookie = new Cookie(PRIMARY_COOKIE, until + "." + sign(until));
+            // Clients may only keep the Expires date, which is cut to whole seconds, so they keep the cookie a second
+            // longer than the window. The exact time is checked when it comes back.
+            cookie.setMaxAge((int) ((readYourWritesMillis + 999) / 1000 + 1));
+            cookie.setPath("/");
+            cookie.setHttpOnly(true);
+            response.addCookie(cookie);
+        }
+        ReplicaRoutingDataSource.setPrimaryOnly();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            ReplicaRoutingDataSource.clearPrimaryOnly();
+        }
+    }
+
+    /**
+     * Whether the client wrote recently enough that it must read from the primary. The expiry is checked here
+     * rather than left to the client, since cookie ages are whole seconds, and only if this filter signed it.
+     */
+    private boolean isSticky(HttpServletRequest request) {
+        if (readYourWritesMillis <= 0 || request.getCookies() == null) {
+            return false;
+        }
+        for (Cookie cookie : request.getCookies()) {
+            if (PRIMARY_COOKIE.equals(cookie.getName())) {
+                return isValid(cookie.getValue());
+            }
+        }
+        return false;
+    }
+
+    private boolean isValid(String value) {
+        int separator = value.lastIndexOf('.');
+        if (separator < 0) {
+            return false;
+        }
+        String until = value.substring(0, separator);
+        byte[] signature = value.substring(separator + 1).getBytes(StandardCharsets.US_ASCII);
+        if (!MessageDigest.isEqual(signature, sign(until).getBytes(StandardCharsets.US_ASCII))) {
+            return false;
+        }
+        long now = System.currentTimeMillis();
+        try {
+            long untilMillis = Long.parseLong(until);
+            return now < untilMillis && untilMillis <= now + readYourWritesMillis;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private String sign(String value) {
+        try {
+            // Mac instances are not thread safe, and cheap to create compared with a request.
+            Mac mac = Mac.getInstance(MAC_ALGORITHM);
+            mac.init(key);
+            return Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString(mac.doFinal(value.getBytes(StandardCharsets.US_ASCII)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot sign the " + PRIMARY_COOKIE + " cookie", e);
+        }
+    }
+
+    private static boolean isRead(HttpServletRequest request) {
+        String method = request.getMethod();
+        if ("GET".equals(method) || "HEAD".equals(method) || "OPTIONS".equals(method)) {
+            return true;
+        }
+        // Search resources only read, some of them take their arguments in a POST body. Votes are only written to
+        // the database later by a scheduled flush, so they must not pin reads to the primary.
+        String uri = request.getRequestURI();
+        return "POST".equals(method) && (uri.contains(SEARCH_PATH) || uri.endsWith(VOTES_PATH));
+    }
+}
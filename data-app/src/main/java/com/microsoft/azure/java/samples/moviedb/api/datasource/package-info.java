@@ -0,0 +1,10 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+/**
+ * Routing of read-only transactions to read replicas of the movie database.
+ */
+package com.microsoft.azure.java.samples.moviedb.api.datasource;
@@ -0,0 +1,68 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.java.samples.moviedb.api.export;
+
+/**
+ * Optional bounds on rating and id of the exported movies, all inclusive.
+ */
+public class ExportFilter {
+    private final Double minRating;
+    private final Double maxRating;
+    private final Long fromId;
+    private final Long toId;
+
+    /**
+     * Constructor.
+     *
+     * @param minRating lowest rating, null for no lower bound
+     * @param maxRating highest rating, null for no upper bound
+     * @param fromId    lowest id, null for no lower bound
+     * @param toId      highest id, null for no upper bound
+     */
+    public ExportFilter(Double minRating, Double maxRating, Long fromId, Long toId) {
+        this.minRating = minRating;
+        this.maxRating = maxRating;
+        this.fromId = fromId;
+        this.toId = toId;
+    }
+
+    /**
+     * Get lowest rating.
+     *
+     * @return lowest rating, or null
+     */
+    public Double getMinRating() {
+        return this.minRating;
+    }
+
+    /**
+     * Get highest rating.
+     *
+     * @return highest rating, or null
+     */
+    public Double getMaxRating() {
+        return this.maxRating;
+    }
+
+    /**
+     * Get lowest id.
+     *
+     * @return lowest id, or null
+     */
+    public Long getFromId() {
+        return this.fromId;
+    }
+
+    /**
+     * Get highest id.
+     *
+     * @return highest id, or null
+     */
+    public Long getToId() {
+        return this.toId;
+    }
+}
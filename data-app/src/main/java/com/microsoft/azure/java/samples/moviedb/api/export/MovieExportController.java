@@ -0,0 +1,73 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.java.samples.moviedb.api.export;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.rest.webmvc.RepositoryRestController;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Exports the movie catalog as newline delimited JSON, one movie per line in id order.
+ * Unlike walking the paged collection, there is no offset scan, no count query and no HAL overhead per page.
+ */
+@RepositoryRestController
+public class MovieExportController {
+    private static final Logger logger = LoggerFactory.getLogger(MovieExportController.class);
+    private static final String NDJSON = "application/x-ndjson";
+    private static final String GZIP = "gzip";
+
+    @Autowired
+    private MovieExporter movieExporter;
+
+    /**
+     * Stream the movies that match the optional filters. The response is gzip compressed if the client accepts it.
+     *
+     * @param minRating      lowest rating
+     * @param maxRating      highest rating
+     * @param fromId         lowest id
+     * @param toId           highest id
+     * @param acceptEncoding accepted content encodings
+     * @param response       http response the movies are streamed to
+     * @throws IOException if the response stream fails
+     */
+    @RequestMapping(value = "/movies/export", method = RequestMethod.GET)
+    public void exportMovies(@RequestParam(value = "minRating", required = false) Double minRating,
+                             @RequestParam(value = "maxRating", required = false) Double maxRating,
+                             @RequestParam(value = "fromId", required = false) Long fromId,
+                             @RequestParam(value = "toId", required = false) Long toId,
+                             @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false)
+                                     String acceptEncoding,
+                             HttpServletResponse response) throws IOException {
+        response.setContentType(NDJSON);
+        response.setCharacterEncoding("UTF-8");
+        boolean gzip = acceptEncoding != null && acceptEncoding.contains(GZIP);
+        if (gzip) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, GZIP);
+        }
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+
+        long start = System.currentTimeMillis();
+        OutputStream out = gzip ? new GZIPOutputStream(response.getOutputStream()) : response.getOutputStream();
+        long count = movieExporter.export(new ExportFilter(minRating, maxRating, fromId, toId), out);
+        if (gzip) {
+            ((GZIPOutputStream) out).finish();
+        }
+        out.flush();
+        logger.info("Exported " + count + " movies in " + (System.currentTimeMillis() - start) + " ms");
+    }
+}
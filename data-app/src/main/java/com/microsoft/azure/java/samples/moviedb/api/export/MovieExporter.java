@@ -0,0 +1,141 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.java.samples.moviedb.api.export;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes movies straight from a forward-only JDBC cursor to an output stream, one JSON object per line.
+ * Neither the rows nor the JSON are ever held in memory as a whole, whatever the size of the table.
+ */
+@Component
+public class MovieExporter {
+    private static final String SELECT = "SELECT id, name, rating, description, image_uri, version, votes, vote_sum "
+            + "FROM movies";
+    private static final String MYSQL = "MySQL";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final JsonFactory jsonFactory;
+    private final int fetchSize;
+
+    /**
+     * Constructor that accepts settings from property file.
+     *
+     * @param jdbcTemplate       jdbc template
+     * @param transactionManager transaction manager
+     * @param objectMapper       object mapper whose factory creates the streaming JSON generator
+     * @param fetchSize          rows fetched per round trip by drivers that support cursors, MySQL always streams
+     */
+    @Autowired
+    public MovieExporter(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                         ObjectMapper objectMapper, @Value("${moviedb.dataapp.exportFetchSize:1000}") int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.jsonFactory = objectMapper.getFactory();
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Write the movies that match the filter in id order. The query runs in a read-only transaction, so it is
+     * served by a read replica when there is one.
+     *
+     * @param filter movie filter
+     * @param out    stream to write to, it is flushed but not closed
+     * @return number of movies written
+     * @throws IOException if writing fails, e.g. because the client went away
+     */
+    public long export(ExportFilter filter, OutputStream out) throws IOException {
+        try (JsonGenerator generator = jsonFactory.createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            long[] count = new long[1];
+            transactionTemplate.execute(status -> {
+                jdbcTemplate.query(createStatement(filter), (ResultSet rs) -> {
+                    try {
+                        writeMovie(generator, rs);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    count[0]++;
+                });
+                return null;
+            });
+            generator.flush();
+            return count[0];
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private PreparedStatementCreator createStatement(ExportFilter filter) {
+        StringBuilder sql = new StringBuilder(SELECT);
+        List<Object> args = new ArrayList<>();
+        addCondition(sql, args, "rating >= ?", filter.getMinRating());
+        addCondition(sql, args, "rating <= ?", filter.getMaxRating());
+        addCondition(sql, args, "id >= ?", filter.getFromId());
+        addCondition(sql, args, "id <= ?", filter.getToId());
+        sql.append(" ORDER BY id");
+
+        return connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql.toString(),
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            // MySQL Connector/J reads the whole result into memory unless the fetch size is Integer.MIN_VALUE,
+            // which makes it stream rows one at a time. Other drivers take the fetch size as a batch size.
+            boolean mysql = MYSQL.equals(connection.getMetaData().getDatabaseProductName());
+            statement.setFetchSize(mysql ? Integer.MIN_VALUE : fetchSize);
+            for (int i = 0; i < args.size(); i++) {
+                statement.setObject(i + 1, args.get(i));
+            }
+            return statement;
+        };
+    }
+
+    private static void addCondition(StringBuilder sql, List<Object> args, String condition, Object value) {
+        if (value != null) {
+            sql.append(args.isEmpty() ? " WHERE " : " AND ").append(condition);
+            args.add(value);
+        }
+    }
+
+    private static void writeMovie(JsonGenerator generator, ResultSet rs) throws SQLException, IOException {
+        generator.writeStartObject();
+        generator.writeNumberField("id", rs.getLong("id"));
+        generator.writeStringField("name", rs.getString("name"));
+        double rating = rs.getDouble("rating");
+        if (rs.wasNull()) {
+            generator.writeNullField("rating");
+        } else {
+            generator.writeNumberField("rating", rating);
+        }
+        generator.writeStringField("description", rs.getString("description"));
+        generator.writeStringField("imageUri", rs.getString("image_uri"));
+        generator.writeNumberField("version", rs.getLong("version"));
+        generator.writeNumberField("votes", rs.getLong("votes"));
+        generator.writeNumberField("voteSum", rs.getLong("vote_sum"));
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+}
@@ -0,0 +1,10 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+/**
+ * Streaming export of the movie catalog as newline delimited JSON.
+ */
+package com.microsoft.azure.java.samples.moviedb.api.export;
@@ -0,0 +1,280 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.java.samples.moviedb.api.leaderboard;
+
+import com.microsoft.azure.java.samples.moviedb.api.MovieRepository;
+import com.microsoft.azure.java.samples.moviedb.api.MovieSummary;
+import com.microsoft.azure.java.samples.moviedb.api.datasource.ReplicaRoutingDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The best rated movies in ranking order, rating and id both descending, held in a concurrent skip list.
+ * The leaderboard always holds every rated movie that ranks at or above its boundary, so any page that lies
+ * above the boundary is answered from memory in O(log n + page size) and consistent with the database.
+ * Pages that reach below the boundary return null and are left to the database.
+ * Reads never lock, writes are serialized. A reload fills a new skip list off to the side and publishes it together
+ * with its boundary, so that readers never see a partly filled leaderboard.
+ */
+@Component
+public class MovieLeaderboard {
+    private static final Logger logger = LoggerFactory.getLogger(MovieLeaderboard.class);
+
+    private final AtomicBoolean reloading = new AtomicBoolean();
+    private final MovieRepository movieRepository;
+    private final int capacity;
+    private volatile Board board = new Board(false, null);
+    private long modifications;
+
+    /**
+     * Constructor.
+     *
+     * @param movieRepository movie repository to load the head of the ranking from
+     * @param capacity        maximum number of movies on the leaderboard, zero to disable it
+     */
+    @Autowired
+    public MovieLeaderboard(MovieRepository movieRepository,
+                            @Value("${moviedb.dataapp.leaderboard.size:1000}") int capacity) {
+        this.movieRepository = movieRepository;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Load the head of the ranking once the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (capacity <= 0) {
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        long seen;
+        synchronized (this) {
+            seen = modifications;
+        }
+        // One movie more than fits tells whether the leaderboard holds the whole ranking. Replicas may lag
+        // behind the changes the leaderboard is updated with, so it is loaded from the primary.
+        List<MovieSummary> top;
+        ReplicaRoutingDataSource.setPrimaryOnly();
+        try {
+            top = movieRepository.findTopRatedSummaries(new PageRequest(0, capacity + 1));
+        } finally {
+            ReplicaRoutingDataSource.clearPrimaryOnly();
+        }
+        List<MovieSummary> head = top.subList(0, Math.min(top.size(), capacity));
+        MovieSummary last = head.isEmpty() ? null : head.get(head.size() - 1);
+        Rank lowest = top.size() > capacity ? new Rank(last.getRating(), last.getId()) : null;
+        synchronized (this) {
+            // A change committed while the query ran may be missing from its result.
+            Board loaded = new Board(seen == modifications, lowest);
+            for (MovieSummary summary : head) {
+                loaded.add(summary);
+            }
+            board = loaded;
+        }
+
+        logger.debug("Loaded " + head.size() + " movies into the leaderboard in "
+                + (System.currentTimeMillis() - start) + " ms");
+    }
+
+    /**
+     * Put a created or updated movie on the leaderboard, or take it off if it no longer ranks high enough.
+     *
+     * @param summary movie after the change
+     */
+    public synchronized void put(MovieSummary summary) {
+        modifications++;
+        Board current = board;
+        current.remove(summary.getId());
+        if (summary.getRating() == null) {
+            return;
+        }
+
+        Rank boundary = current.boundary;
+        if (boundary != null && new Rank(summary.getRating(), summary.getId()).compareTo(boundary) > 0) {
+            return;
+        }
+        current.add(summary);
+        if (current.ranking.size() > capacity) {
+            current.ranks.remove(current.ranking.pollLastEntry().getValue().getId());
+            current.boundary = current.ranking.lastKey();
+        }
+    }
+
+    /**
+     * Take a deleted movie off the leaderboard.
+     *
+     * @param id movie id
+     */
+    public synchronized void delete(Long id) {
+        modifications++;
+        board.remove(id);
+    }
+
+    /**
+     * Get the first movies of the ranking.
+     *
+     * @param size page size
+     * @return movie summaries, or null if the page is not entirely on the leaderboard
+     */
+    public List<MovieSummary> getTop(int size) {
+        Board current = board;
+        return page(current, current.ranking, size);
+    }
+
+    /**
+     * Get the movies ranked right after the given position.
+     *
+     * @param rating rating of the last movie on the previous page
+     * @param id     id of the last movie on the previous page
+     * @param size   page size
+     * @return movie summaries ordered by rating and id, both descending, or null if the page is not entirely on
+     * the leaderboard
+     */
+    public List<MovieSummary> getAfter(Double rating, Long id, int size) {
+        Board current = board;
+        return page(current, current.ranking.tailMap(new Rank(rating, id), false), size);
+    }
+
+    /**
+     * Get the movies ranked right before the given position.
+     *
+     * @param rating rating of the first movie on the next page
+     * @param id     id of the first movie on the next page
+     * @param size   page size
+     * @return movie summaries ordered by rating and id, both ascending, or null if the page is not entirely on
+     * the leaderboard
+     */
+    public List<MovieSummary> getBefore(Double rating, Long id, int size) {
+        Rank rank = new Rank(rating, id);
+        Board current = board;
+        Rank lowest = current.boundary;
+        if (!current.loaded || lowest != null && rank.compareTo(lowest) > 0) {
+            // Movies between the boundary and the position may be missing.
+            return null;
+        }
+        return take(current.ranking.headMap(rank, false).descendingMap().values(), size);
+    }
+
+    /**
+     * Load the leaderboard again if it has drained to less than half its capacity, or if a change may have been
+     * missed by the last load. Only one caller reloads, the others keep using the database meanwhile.
+     */
+    public void reloadIfDrained() {
+        Board current = board;
+        boolean drained = capacity > 0
+                && (!current.loaded || current.boundary != null && current.ranking.size() < capacity / 2);
+        if (drained && reloading.compareAndSet(false, true)) {
+            try {
+                load();
+            } finally {
+                reloading.set(false);
+            }
+        }
+    }
+
+    private static List<MovieSummary> page(Board current, NavigableMap<Rank, MovieSummary> movies, int size) {
+        if (!current.loaded) {
+            return null;
+        }
+
+        Rank lowest = current.boundary;
+        List<MovieSummary> page = take(movies.values(), size);
+        // A short page is only the end of the ranking if the leaderboard holds all of it.
+        return page.size() == size || lowest == null ? page : null;
+    }
+
+    private static List<MovieSummary> take(Collection<MovieSummary> movies, int size) {
+        List<MovieSummary> page = new ArrayList<>(size);
+        for (MovieSummary movie : movies) {
+            if (page.size() == size) {
+                break;
+            }
+            page.add(movie);
+        }
+        return page;
+    }
+
+    /**
+     * Movies of one load of the leaderboard, updated in place until the next load replaces it.
+     */
+    private static final class Board {
+        private final ConcurrentSkipListMap<Rank, MovieSummary> ranking = new ConcurrentSkipListMap<>();
+        private final Map<Long, Rank> ranks = new ConcurrentHashMap<>();
+        /**
+         * Whether the board holds every change since it was loaded.
+         */
+        private final boolean loaded;
+        /**
+         * Lowest rank up to which the board is complete, null if it holds every rated movie.
+         */
+        private volatile Rank boundary;
+
+        Board(boolean loaded, Rank boundary) {
+            this.loaded = loaded;
+            this.boundary = boundary;
+        }
+
+        void add(MovieSummary summary) {
+            Rank rank = new Rank(summary.getRating(), summary.getId());
+            ranking.put(rank, summary);
+            ranks.put(summary.getId(), rank);
+        }
+
+        void remove(Long id) {
+            Rank rank = ranks.remove(id);
+            if (rank != null) {
+                ranking.remove(rank);
+            }
+        }
+    }
+
+    /**
+     * Position in the ranking, better rated movies and then higher ids first.
+     */
+    private static final class Rank implements Comparable<Rank> {
+        private final double rating;
+        private final long id;
+
+        Rank(double rating, long id) {
+            this.rating = rating;
+            this.id = id;
+        }
+
+        @Override
+        public int compareTo(Rank other) {
+            int byRating = Double.compare(other.rating, rating);
+            return byRating != 0 ? byRating : Long.compare(other.id, id);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Rank && compareTo((Rank) other) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            return Double.hashCode(rating) * 31 + Long.hashCode(id);
+        }
+    }
+}
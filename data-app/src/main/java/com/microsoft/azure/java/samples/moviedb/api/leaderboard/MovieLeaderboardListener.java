@@ -0,0 +1,58 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.java.samples.moviedb.api.leaderboard;
+
+import com.microsoft.azure.java.samples.moviedb.api.MovieCommitListener;
+import com.microsoft.azure.java.samples.moviedb.api.MovieSummary;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.tuple.entity.EntityMetamodel;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the leaderboard current from Hibernate entity events, after commit so that it never ranks a movie by a
+ * rating that is rolled back.
+ */
+@Component
+public class MovieLeaderboardListener implements MovieCommitListener {
+    private final MovieLeaderboard movieLeaderboard;
+
+    /**
+     * Constructor.
+     *
+     * @param movieLeaderboard leaderboard to maintain
+     */
+    @Autowired
+    public MovieLeaderboardListener(MovieLeaderboard movieLeaderboard) {
+        this.movieLeaderboard = movieLeaderboard;
+    }
+
+    @Override
+    public void movieInserted(PostInsertEvent event) {
+        movieLeaderboard.put(toSummary(event.getId(), event.getState(), event.getPersister()));
+    }
+
+    @Override
+    public void movieUpdated(PostUpdateEvent event) {
+        movieLeaderboard.put(toSummary(event.getId(), event.getState(), event.getPersister()));
+    }
+
+    @Override
+    public void movieDeleted(PostDeleteEvent event) {
+        movieLeaderboard.delete((Long) event.getId());
+    }
+
+    private static MovieSummary toSummary(Object id, Object[] state, EntityPersister persister) {
+        EntityMetamodel metamodel = persister.getEntityMetamodel();
+        return new MovieSummary((Long) id, (String) state[metamodel.getPropertyIndex("name")],
+                (Double) state[metamodel.getPropertyIndex("rating")],
+                (String) state[metamodel.getPropertyIndex("imageUri")]);
+    }
+}
@@ -0,0 +1,10 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+/**
+ * In-memory leaderboard of the best rated movies that serves the head of the ranking without the database.
+ */
+package com.microsoft.azure.java.samples.moviedb.api.leaderboard;
@@ -0,0 +1,49 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.java.samples.moviedb.api.search;
+
+import com.microsoft.azure.java.samples.moviedb.api.MovieSummary;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.rest.webmvc.RepositoryRestController;
+import org.springframework.hateoas.PagedResources;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+
+/**
+ * Serves full-text search over movie names and descriptions from the in-memory index.
+ */
+@RepositoryRestController
+public class MovieSearchController {
+    private static final int MAX_PAGE_SIZE = 100;
+
+    @Autowired
+    private MovieSearchIndex movieSearchIndex;
+
+    /**
+     * Search movies by free text.
+     *
+     * @param query search text
+     * @param page  page number
+     * @param size  page size
+     * @return one page of movie summaries with page info
+     */
+    @RequestMapping(value = "/movies/search/text", method = RequestMethod.GET)
+    public ResponseEntity<PagedResources<MovieSummary>> searchText(
+            @RequestParam("q") String query,
+            @RequestParam(value = "page", defaultValue = "0") int page,
+            @RequestParam(value = "size", defaultValue = "20") int size) {
+        Page<MovieSummary> result = movieSearchIndex.search(query,
+                new PageRequest(Math.max(0, page), Math.max(1, Math.min(size, MAX_PAGE_SIZE))));
+        PagedResources.PageMetadata metadata = new PagedResources.PageMetadata(
+                result.getSize(), result.getNumber(), result.getTotalElements(), result.getTotalPages());
+        return ResponseEntity.ok(new PagedResources<>(result.getContent(), metadata));
+    }
+}
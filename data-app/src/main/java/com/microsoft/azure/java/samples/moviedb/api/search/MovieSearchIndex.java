@@ -0,0 +1,227 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.java.samples.moviedb.api.search;
+
+import com.microsoft.azure.java.samples.moviedb.api.Movie;
+import com.microsoft.azure.java.samples.moviedb.api.MovieSummary;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Inverted index over movie names and descriptions, results are ranked by text relevance boosted by rating.
+ */
+@Component
+public class MovieSearchIndex {
+    private static final int NAME_WEIGHT = 3;
+    private static final int DESCRIPTION_WEIGHT = 1;
+    private static final int MIN_TOKEN_LENGTH = 2;
+    private static final double TERM_SATURATION = 1.2;
+    private static final double RATING_BOOST = 0.5;
+    private static final double MAX_RATING = 10.0;
+    private static final Set<String> STOP_WORDS = new HashSet<>(Arrays.asList(
+            "an", "and", "are", "as", "at", "be", "by", "for", "from", "in", "is", "it", "of", "on", "or",
+            "that", "the", "this", "to", "was", "with"));
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Map<Long, Integer>> postings = new HashMap<>();
+    private final Map<Long, IndexedMovie> movies = new HashMap<>();
+
+    /**
+     * Split text into lower case terms, dropping stop words and single characters.
+     *
+     * @param text text to tokenize
+     * @return terms in order of appearance, duplicates included
+     */
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+
+        StringBuilder token = new StringBuilder();
+        for (int i = 0; i <= text.length(); i++) {
+            char c = i < text.length() ? text.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                token.append(Character.toLowerCase(c));
+            } else if (token.length() > 0) {
+                String term = token.toString();
+                if (term.length() >= MIN_TOKEN_LENGTH && !STOP_WORDS.contains(term)) {
+                    tokens.add(term);
+                }
+                token.setLength(0);
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Add a movie to the index or replace its previous version.
+     *
+     * @param movie movie entity
+     */
+    public void put(Movie movie) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        for (String term : tokenize(movie.getName())) {
+            frequencies.merge(term, NAME_WEIGHT, Integer::sum);
+        }
+        for (String term : tokenize(movie.getDescription())) {
+            frequencies.merge(term, DESCRIPTION_WEIGHT, Integer::sum);
+        }
+        IndexedMovie indexedMovie = new IndexedMovie(
+                new MovieSummary(movie.getId(), movie.getName(), movie.getRating(), movie.getImageUri()), frequencies);
+
+        lock.writeLock().lock();
+        try {
+            unindex(movies.put(movie.getId(), indexedMovie));
+            for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+                postings.computeIfAbsent(entry.getKey(), term -> new HashMap<>())
+                        .put(movie.getId(), entry.getValue());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove a movie from the index.
+     *
+     * @param id movie id
+     */
+    public void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            unindex(movies.remove(id));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Get the number of indexed movies.
+     *
+     * @return number of movies
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return movies.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Find movies that contain every term of the query, best matches first.
+     *
+     * @param query    free text query
+     * @param pageable page number and size
+     * @return one page of matching movies
+     */
+    public Page<MovieSummary> search(String query, Pageable pageable) {
+        List<String> terms = new ArrayList<>(new LinkedHashSet<>(tokenize(query)));
+        if (terms.isEmpty()) {
+            return new PageImpl<>(Collections.<MovieSummary>emptyList(), pageable, 0);
+        }
+
+        lock.readLock().lock();
+        try {
+            List<Map<Long, Integer>> termPostings = new ArrayList<>(terms.size());
+            for (String term : terms) {
+                Map<Long, Integer> documents = postings.get(term);
+                if (documents == null) {
+                    return new PageImpl<>(Collections.<MovieSummary>emptyList(), pageable, 0);
+                }
+                termPostings.add(documents);
+            }
+            termPostings.sort(Comparator.comparingInt(Map::size));
+
+            List<ScoredMovie> matches = new ArrayList<>();
+            for (Long id : termPostings.get(0).keySet()) {
+                double score = 0;
+                for (Map<Long, Integer> documents : termPostings) {
+                    Integer frequency = documents.get(id);
+                    if (frequency == null) {
+                        score = -1;
+                        break;
+                    }
+                    double idf = Math.log(1 + (double) movies.size() / documents.size());
+                    score += idf * frequency / (frequency + TERM_SATURATION);
+                }
+                if (score >= 0) {
+                    MovieSummary summary = movies.get(id).summary;
+                    double rating = summary.getRating() != null ? summary.getRating() : 0;
+                    matches.add(new ScoredMovie(summary, score * (1 + RATING_BOOST * rating / MAX_RATING)));
+                }
+            }
+
+            matches.sort(Comparator.comparingDouble((ScoredMovie match) -> -match.score)
+                    .thenComparing(match -> match.summary.getId()));
+            int from = Math.min(pageable.getOffset(), matches.size());
+            int to = Math.min(from + pageable.getPageSize(), matches.size());
+            List<MovieSummary> content = new ArrayList<>(to - from);
+            for (ScoredMovie match : matches.subList(from, to)) {
+                content.add(match.summary);
+            }
+            return new PageImpl<>(content, pageable, matches.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void unindex(IndexedMovie indexedMovie) {
+        if (indexedMovie == null) {
+            return;
+        }
+
+        Long id = indexedMovie.summary.getId();
+        for (String term : indexedMovie.frequencies.keySet()) {
+            Map<Long, Integer> documents = postings.get(term);
+            if (documents != null) {
+                documents.remove(id);
+                if (documents.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+
+    private static final class IndexedMovie {
+        private final MovieSummary summary;
+        private final Map<String, Integer> frequencies;
+
+        private IndexedMovie(MovieSummary summary, Map<String, Integer> frequencies) {
+            this.summary = summary;
+            this.frequencies = frequencies;
+        }
+    }
+
+    private static final class ScoredMovie {
+        private final MovieSummary summary;
+        private final double score;
+
+        private ScoredMovie(MovieSummary summary, double score) {
+            this.summary = summary;
+            this.score = score;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.java.samples.moviedb.api.search;
+
+import com.microsoft.azure.java.samples.moviedb.api.Movie;
+import com.microsoft.azure.java.samples.moviedb.api.MovieCommitListener;
+import com.microsoft.azure.java.samples.moviedb.api.MovieRepository;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Builds the search index at startup and keeps it current from Hibernate entity events, after commit. Unlike
+ * Spring Data REST events, these also follow the writes of the bulk import and of the vote flush.
+ */
+@Component
+public class MovieSearchIndexer implements MovieCommitListener {
+    private static final Logger logger = LoggerFactory.getLogger(MovieSearchIndexer.class);
+    private static final int LOAD_BATCH_SIZE = 1000;
+
+    private final MovieRepository movieRepository;
+    private final MovieSearchIndex movieSearchIndex;
+
+    /**
+     * Constructor.
+     *
+     * @param movieRepository  movie repository
+     * @param movieSearchIndex search index to maintain
+     */
+    @Autowired
+    public MovieSearchIndexer(MovieRepository movieRepository, MovieSearchIndex movieSearchIndex) {
+        this.movieRepository = movieRepository;
+        this.movieSearchIndex = movieSearchIndex;
+    }
+
+    /**
+     * Index the whole catalog once the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildIndex() {
+        long start = System.currentTimeMillis();
+        long lastId = 0;
+        List<Movie> movies;
+        do {
+            movies = movieRepository.findByIdGreaterThanOrderByIdAsc(lastId, new PageRequest(0, LOAD_BATCH_SIZE));
+            for (Movie movie : movies) {
+                movieSearchIndex.put(movie);
+                lastId = movie.getId();
+            }
+        } while (movies.size() == LOAD_BATCH_SIZE);
+
+        logger.info("Indexed " + movieSearchIndex.size() + " movies in "
+                + (System.currentTimeMillis() - start) + " ms");
+    }
+
+    @Override
+    public void movieInserted(PostInsertEvent event) {
+        movieSearchIndex.put((Movie) event.getEntity());
+    }
+
+    @Override
+    public void movieUpdated(PostUpdateEvent event) {
+        movieSearchIndex.put((Movie) event.getEntity());
+    }
+
+    @Override
+    public void movieDeleted(PostDeleteEvent event) {
+        movieSearchIndex.remove((Long) event.getId());
+    }
+}
@@ -0,0 +1,10 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+/**
+ * In-memory full-text search over movie names and descriptions.
+ */
+package com.microsoft.azure.java.samples.moviedb.api.search;
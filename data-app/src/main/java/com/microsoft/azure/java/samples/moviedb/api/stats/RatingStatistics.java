@@ -0,0 +1,206 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.java.samples.moviedb.api.stats;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Histogram of all movie ratings in steps of 0.1, from which count, mean and percentiles are derived.
+ * Ratings are counted per step in a primitive array, so reading the statistics never touches the database and
+ * a rating change is a decrement and an increment.
+ * <p>
+ * While the counts are being loaded from the database, changes are also kept apart, and added to the loaded counts
+ * when they replace these ones, so that a change committed during the load is not lost.
+ */
+@Component
+public class RatingStatistics {
+    /**
+     * Highest rating.
+     */
+    public static final double MAX_RATING = 10.0;
+
+    private static final int STEPS_PER_POINT = 10;
+    private static final double[] PERCENTILES = {50, 90, 95, 99};
+
+    private final long[] counts = new long[(int) (MAX_RATING * STEPS_PER_POINT) + 1];
+    private long unrated;
+    private boolean ready;
+    // Changes since the current load started, null when no load is running.
+    private long[] changedCounts;
+    private long changedUnrated;
+
+    /**
+     * Start keeping the changes apart, before the counts to replace these ones are loaded.
+     */
+    public synchronized void beginLoad() {
+        changedCounts = new long[counts.length];
+        changedUnrated = 0;
+    }
+
+    /**
+     * Replace all counts with those of another instance, typically one freshly loaded from the database, plus the
+     * changes since {@link #beginLoad()}.
+     *
+     * @param loaded statistics to copy
+     */
+    public void replaceWith(RatingStatistics loaded) {
+        long[] loadedCounts;
+        long loadedUnrated;
+        synchronized (loaded) {
+            loadedCounts = loaded.counts.clone();
+            loadedUnrated = loaded.unrated;
+        }
+        synchronized (this) {
+            for (int step = 0; step < counts.length; step++) {
+                counts[step] = Math.max(0, loadedCounts[step] + (changedCounts == null ? 0 : changedCounts[step]));
+            }
+            unrated = Math.max(0, loadedUnrated + changedUnrated);
+            ready = true;
+            changedCounts = null;
+            changedUnrated = 0;
+        }
+    }
+
+    /**
+     * Count the rating of a new movie.
+     *
+     * @param rating rating, null if unrated
+     */
+    public synchronized void add(Double rating) {
+        if (rating == null) {
+            unrated++;
+        } else {
+            counts[step(rating)]++;
+        }
+        if (changedCounts != null) {
+            if (rating == null) {
+                changedUnrated++;
+            } else {
+                changedCounts[step(rating)]++;
+            }
+        }
+    }
+
+    /**
+     * Stop counting the rating of a deleted movie.
+     *
+     * @param rating rating, null if unrated
+     */
+    public synchronized void remove(Double rating) {
+        if (rating == null) {
+            unrated = Math.max(0, unrated - 1);
+        } else {
+            int step = step(rating);
+            counts[step] = Math.max(0, counts[step] - 1);
+        }
+        if (changedCounts != null) {
+            if (rating == null) {
+                changedUnrated--;
+            } else {
+                changedCounts[step(rating)]--;
+            }
+        }
+    }
+
+    /**
+     * Move a movie from its old rating to its new one.
+     *
+     * @param oldRating rating before the change, null if unrated
+     * @param newRating rating after the change, null if unrated
+     */
+    public synchronized void update(Double oldRating, Double newRating) {
+        remove(oldRating);
+        add(newRating);
+    }
+
+    /**
+     * Whether the statistics have been built.
+     *
+     * @return false until the catalog has been read once
+     */
+    public synchronized boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Get statistics of all rated movies.
+     *
+     * @param bucketWidth width of the histogram buckets in rating points, rounded to a multiple of 0.1
+     * @return statistics summary
+     */
+    public RatingStats getStats(double bucketWidth) {
+        long[] snapshot;
+        long unratedSnapshot;
+        synchronized (this) {
+            snapshot = counts.clone();
+            unratedSnapshot = unrated;
+        }
+
+        long count = 0;
+        long sum = 0;
+        int min = -1;
+        int max = -1;
+        for (int step = 0; step < snapshot.length; step++) {
+            if (snapshot[step] > 0) {
+                count += snapshot[step];
+                sum += snapshot[step] * step;
+                min = min < 0 ? step : min;
+                max = step;
+            }
+        }
+
+        Map<String, Double> percentiles = new LinkedHashMap<>();
+        for (double percentile : PERCENTILES) {
+            percentiles.put("p" + (int) percentile, count == 0 ? null : rating(percentile(snapshot, count, percentile)));
+        }
+
+        int stepsPerBucket = Math.max(1, (int) Math.round(bucketWidth * STEPS_PER_POINT));
+        List<RatingStats.Bucket> histogram = new ArrayList<>();
+        int lastStep = snapshot.length - 1;
+        for (int from = 0; from < lastStep; from += stepsPerBucket) {
+            // The top rating has no step above it, it goes into the last bucket instead of one of its own.
+            int to = from + stepsPerBucket >= lastStep ? snapshot.length : from + stepsPerBucket;
+            long bucketCount = 0;
+            for (int step = from; step < to; step++) {
+                bucketCount += snapshot[step];
+            }
+            histogram.add(new RatingStats.Bucket(rating(from), rating(to - 1), bucketCount));
+        }
+
+        return new RatingStats(count, unratedSnapshot, count == 0 ? null : (double) sum / count / STEPS_PER_POINT,
+                min < 0 ? null : rating(min), max < 0 ? null : rating(max), percentiles, histogram);
+    }
+
+    /**
+     * Nearest-rank percentile, the smallest rating that at least the given share of movies does not exceed.
+     */
+    private static int percentile(long[] counts, long total, double percentile) {
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+        long seen = 0;
+        for (int step = 0; step < counts.length; step++) {
+            seen += counts[step];
+            if (seen >= rank) {
+                return step;
+            }
+        }
+        return counts.length - 1;
+    }
+
+    private static int step(double rating) {
+        long step = Math.round(rating * STEPS_PER_POINT);
+        return (int) Math.max(0, Math.min(step, (long) (MAX_RATING * STEPS_PER_POINT)));
+    }
+
+    private static double rating(int step) {
+        return (double) step / STEPS_PER_POINT;
+    }
+}
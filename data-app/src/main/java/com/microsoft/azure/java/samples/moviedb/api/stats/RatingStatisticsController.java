@@ -0,0 +1,42 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.java.samples.moviedb.api.stats;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.rest.webmvc.RepositoryRestController;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+
+/**
+ * Serves rating statistics of the whole catalog from memory.
+ */
+@RepositoryRestController
+public class RatingStatisticsController {
+    private static final double MIN_BUCKET_WIDTH = 0.1;
+
+    @Autowired
+    private RatingStatistics ratingStatistics;
+
+    /**
+     * Get count, mean, percentiles and histogram of the movie ratings.
+     *
+     * @param bucketWidth width of the histogram buckets in rating points, at least 0.1
+     * @return rating statistics, or service unavailable while they are being built
+     */
+    @RequestMapping(value = "/movies/stats", method = RequestMethod.GET)
+    public ResponseEntity<RatingStats> getStats(
+            @RequestParam(value = "bucketWidth", defaultValue = "1.0") double bucketWidth) {
+        if (!ratingStatistics.isReady()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        return ResponseEntity.ok(ratingStatistics.getStats(
+                Math.max(MIN_BUCKET_WIDTH, Math.min(bucketWidth, RatingStatistics.MAX_RATING))));
+    }
+}
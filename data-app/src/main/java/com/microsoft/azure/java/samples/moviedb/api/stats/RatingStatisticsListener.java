@@ -0,0 +1,123 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.java.samples.moviedb.api.stats;
+
+import com.microsoft.azure.java.samples.moviedb.api.MovieCommitListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Builds the rating statistics at startup and keeps them current from Hibernate entity events.
+ * Update events carry the rating before and after the change, so an update moves one count between two steps
+ * without reading anything back. An update without the state before it cannot be counted that way, so it marks the
+ * statistics for a rebuild in the background, and all such updates until the rebuild starts share it.
+ * Changes committed while the ratings are read are added to what the read returns. A change committed in the moment
+ * between the start of the load and the start of the query is in both, and is counted twice until the next rebuild.
+ */
+@Component
+public class RatingStatisticsListener implements MovieCommitListener, DisposableBean {
+    private static final Logger logger = LoggerFactory.getLogger(RatingStatisticsListener.class);
+    private static final String RATING_PROPERTY = "rating";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final RatingStatistics ratingStatistics;
+    private final AtomicBoolean dirty = new AtomicBoolean();
+    private final ExecutorService rebuilder = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "rating-statistics-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Constructor.
+     *
+     * @param jdbcTemplate     jdbc template to load the ratings with
+     * @param ratingStatistics statistics to maintain
+     */
+    @Autowired
+    public RatingStatisticsListener(JdbcTemplate jdbcTemplate, RatingStatistics ratingStatistics) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.ratingStatistics = ratingStatistics;
+    }
+
+    /**
+     * Count the ratings of the whole catalog once the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void buildStatistics() {
+        long start = System.currentTimeMillis();
+        RatingStatistics loaded = new RatingStatistics();
+        ratingStatistics.beginLoad();
+        jdbcTemplate.query("SELECT rating FROM movies", resultSet -> {
+            double rating = resultSet.getDouble(1);
+            loaded.add(resultSet.wasNull() ? null : rating);
+        });
+        ratingStatistics.replaceWith(loaded);
+
+        RatingStats stats = ratingStatistics.getStats(RatingStatistics.MAX_RATING);
+        logger.info("Counted ratings of " + (stats.getCount() + stats.getUnrated()) + " movies in "
+                + (System.currentTimeMillis() - start) + " ms");
+    }
+
+    @Override
+    public void destroy() {
+        rebuilder.shutdownNow();
+    }
+
+    @Override
+    public void movieInserted(PostInsertEvent event) {
+        ratingStatistics.add(getRating(event.getState(), event.getPersister()));
+    }
+
+    @Override
+    public void movieUpdated(PostUpdateEvent event) {
+        if (event.getOldState() == null) {
+            // Detached update without the loaded state, the old rating is unknown.
+            scheduleRebuild();
+        } else {
+            ratingStatistics.update(getRating(event.getOldState(), event.getPersister()),
+                    getRating(event.getState(), event.getPersister()));
+        }
+    }
+
+    @Override
+    public void movieDeleted(PostDeleteEvent event) {
+        ratingStatistics.remove(getRating(event.getDeletedState(), event.getPersister()));
+    }
+
+    private void scheduleRebuild() {
+        if (dirty.compareAndSet(false, true)) {
+            rebuilder.execute(() -> {
+                // Cleared before reading, so that an update committed during the read schedules another rebuild.
+                dirty.set(false);
+                try {
+                    buildStatistics();
+                } catch (RuntimeException e) {
+                    logger.error("Cannot rebuild the rating statistics: ", e);
+                }
+            });
+        }
+    }
+
+    private static Double getRating(Object[] state, EntityPersister persister) {
+        return (Double) state[persister.getEntityMetamodel().getPropertyIndex(RATING_PROPERTY)];
+    }
+}
@@ -0,0 +1,139 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.java.samples.moviedb.api.stats;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Summary of the ratings of all rated movies.
+ */
+public class RatingStats {
+    private final long count;
+    private final long unrated;
+    private final Double mean;
+    private final Double min;
+    private final Double max;
+    private final Map<String, Double> percentiles;
+    private final List<Bucket> histogram;
+
+    RatingStats(long count, long unrated, Double mean, Double min, Double max, Map<String, Double> percentiles,
+                List<Bucket> histogram) {
+        this.count = count;
+        this.unrated = unrated;
+        this.mean = mean;
+        this.min = min;
+        this.max = max;
+        this.percentiles = percentiles;
+        this.histogram = histogram;
+    }
+
+    /**
+     * Get number of rated movies.
+     *
+     * @return number of rated movies
+     */
+    public long getCount() {
+        return this.count;
+    }
+
+    /**
+     * Get number of movies without a rating.
+     *
+     * @return number of unrated movies
+     */
+    public long getUnrated() {
+        return this.unrated;
+    }
+
+    /**
+     * Get mean rating.
+     *
+     * @return mean rating, null if no movie is rated
+     */
+    public Double getMean() {
+        return this.mean;
+    }
+
+    /**
+     * Get lowest rating.
+     *
+     * @return lowest rating, null if no movie is rated
+     */
+    public Double getMin() {
+        return this.min;
+    }
+
+    /**
+     * Get highest rating.
+     *
+     * @return highest rating, null if no movie is rated
+     */
+    public Double getMax() {
+        return this.max;
+    }
+
+    /**
+     * Get rating percentiles, keyed p50, p90, p95 and p99.
+     *
+     * @return nearest-rank percentiles
+     */
+    public Map<String, Double> getPercentiles() {
+        return this.percentiles;
+    }
+
+    /**
+     * Get rating histogram.
+     *
+     * @return buckets in ascending rating order
+     */
+    public List<Bucket> getHistogram() {
+        return this.histogram;
+    }
+
+    /**
+     * Number of movies with a rating in a closed range.
+     */
+    public static class Bucket {
+        private final double from;
+        private final double to;
+        private final long count;
+
+        Bucket(double from, double to, long count) {
+            this.from = from;
+            this.to = to;
+            this.count = count;
+        }
+
+        /**
+         * Get lowest rating in the bucket.
+         *
+         * @return lowest rating
+         */
+        public double getFrom() {
+            return this.from;
+        }
+
+        /**
+         * Get highest rating in the bucket.
+         *
+         * @return highest rating
+         */
+        public double getTo() {
+            return this.to;
+        }
+
+        /**
+         * Get number of movies in the bucket.
+         *
+         * @return number of movies
+         */
+        public long getCount() {
+            return this.count;
+        }
+    }
+}
@@ -0,0 +1,10 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+/**
+ * Rating statistics of the catalog, kept in memory and maintained from entity events.
+ */
+package com.microsoft.azure.java.samples.moviedb.api.stats;
@@ -0,0 +1,48 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.java.samples.moviedb.api.trace;
+
+import com.microsoft.azure.java.samples.moviedb.trace.Span;
+import com.microsoft.azure.java.samples.moviedb.trace.Trace;
+import com.microsoft.azure.java.samples.moviedb.trace.Tracer;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.framework.Advised;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.repository.Repository;
+
+/**
+ * Records a span for every call of a Spring Data repository, which covers its transaction, the Hibernate caches
+ * and the queries sent to the database. The repositories are already proxies, so the advice is added to the proxy
+ * in front of the transaction advice instead of wrapping it in another proxy.
+ */
+class RepositoryTracingPostProcessor implements BeanPostProcessor {
+    private static final String KIND = "repository";
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        return bean;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof Repository && bean instanceof Advised) {
+            ((Advised) bean).addAdvice(0, (MethodInterceptor) invocation -> {
+                Trace trace = Tracer.current();
+                if (trace == null || !trace.isSampled()) {
+                    return invocation.proceed();
+                }
+                Span span = trace.startSpan(KIND, beanName + "." + invocation.getMethod().getName());
+                try {
+                    return invocation.proceed();
+                } finally {
+                    span.end();
+                }
+            });
+        }
+        return bean;
+    }
+}
@@ -0,0 +1,65 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.java.samples.moviedb.api.trace;
+
+import com.microsoft.azure.java.samples.moviedb.trace.TraceCollector;
+import com.microsoft.azure.java.samples.moviedb.trace.TracingFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import javax.servlet.DispatcherType;
+
+/**
+ * Traces requests and the repository calls made while serving them.
+ */
+@Configuration
+public class TraceConfiguration {
+
+    /**
+     * Collector of the sampled traces.
+     *
+     * @param capacity number of recent traces kept
+     * @return trace collector
+     */
+    @Bean
+    public TraceCollector traceCollector(@Value("${moviedb.dataapp.trace.capacity:1000}") int capacity) {
+        return new TraceCollector(capacity);
+    }
+
+    /**
+     * Trace every request, outside of all other filters so that the trace covers them. Reads of the change feed
+     * are long polls and streams, which would crowd out the slow requests worth looking at.
+     *
+     * @param traceCollector collector of the sampled traces
+     * @param sampleRate     share of the requests without trace context that are sampled
+     * @param basePath       base path of the REST API
+     * @return filter registration
+     */
+    @Bean
+    public FilterRegistrationBean tracingFilter(TraceCollector traceCollector,
+                                                @Value("${moviedb.dataapp.trace.sampleRate:0.01}") double sampleRate,
+                                                @Value("${spring.data.rest.basePath:}") String basePath) {
+        FilterRegistrationBean registration = new FilterRegistrationBean(
+                new TracingFilter(traceCollector, sampleRate, basePath + "/movies/changes"));
+        registration.setDispatcherTypes(DispatcherType.REQUEST, DispatcherType.ASYNC);
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    /**
+     * Record a span for every repository call.
+     *
+     * @return bean post processor
+     */
+    @Bean
+    public static RepositoryTracingPostProcessor repositoryTracingPostProcessor() {
+        return new RepositoryTracingPostProcessor();
+    }
+}
@@ -0,0 +1,50 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.java.samples.moviedb.api.trace;
+
+import com.microsoft.azure.java.samples.moviedb.trace.Trace;
+import com.microsoft.azure.java.samples.moviedb.trace.TraceCollector;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.rest.webmvc.BasePathAwareController;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import java.util.List;
+
+/**
+ * Lists the slowest recent traces with their spans, so that the time of a slow request can be broken down without
+ * a tracing backend. The part of a trace that web-app sent here is found by its trace id.
+ */
+@BasePathAwareController
+public class TraceController {
+    private final TraceCollector traceCollector;
+
+    /**
+     * Constructor.
+     *
+     * @param traceCollector collector of the sampled traces
+     */
+    @Autowired
+    public TraceController(TraceCollector traceCollector) {
+        this.traceCollector = traceCollector;
+    }
+
+    /**
+     * Get the slowest recent traces.
+     *
+     * @param limit   maximum number of traces
+     * @param traceId only return the parts of this trace
+     * @return traces, slowest first
+     */
+    @RequestMapping(value = "/traces", method = RequestMethod.GET)
+    public ResponseEntity<List<Trace>> getTraces(@RequestParam(value = "limit", defaultValue = "10") int limit,
+                                                 @RequestParam(value = "traceId", required = false) String traceId) {
+        return ResponseEntity.ok(traceCollector.getSlowest(limit, traceId));
+    }
+}
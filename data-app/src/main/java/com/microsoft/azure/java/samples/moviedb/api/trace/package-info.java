@@ -0,0 +1,11 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+/**
+ * Traces of data app requests and of the repository calls made while serving them, and the endpoint that serves
+ * the slowest of them. The traces themselves are in the shared trace module.
+ */
+package com.microsoft.azure.java.samples.moviedb.api.trace;
@@ -0,0 +1,60 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.java.samples.moviedb.api.votes;
+
+import com.microsoft.azure.java.samples.moviedb.api.MovieRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.rest.webmvc.RepositoryRestController;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import java.io.IOException;
+
+/**
+ * Takes user votes on movie ratings. Votes are accepted into memory and reach the movie rating with the next flush.
+ */
+@RepositoryRestController
+public class MovieVoteController {
+    private static final Logger logger = LoggerFactory.getLogger(MovieVoteController.class);
+
+    @Autowired
+    private MovieVotes movieVotes;
+    @Autowired
+    private MovieRepository movieRepository;
+
+    /**
+     * Vote for a rating of a movie.
+     *
+     * @param id     movie id
+     * @param rating rating between 1 and 10
+     * @return accepted, bad request for a rating out of range, or not found for an unknown movie
+     */
+    @RequestMapping(value = "/movies/{id}/votes", method = RequestMethod.POST)
+    public ResponseEntity<Void> vote(@PathVariable Long id, @RequestParam("rating") int rating) {
+        if (rating < MovieVotes.MIN_RATING || rating > MovieVotes.MAX_RATING) {
+            return ResponseEntity.badRequest().build();
+        }
+        // Served from the second-level cache, so checking the id does not cost a query per vote.
+        if (movieRepository.findOne(id) == null) {
+            return ResponseEntity.notFound().build();
+        }
+
+        try {
+            movieVotes.vote(id, rating);
+        } catch (IOException e) {
+            logger.error("Error logging vote: ", e);
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        return ResponseEntity.status(HttpStatus.ACCEPTED).build();
+    }
+}
@@ -0,0 +1,238 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.java.samples.moviedb.api.votes;
+
+import com.microsoft.azure.java.samples.moviedb.api.Movie;
+import com.microsoft.azure.java.samples.moviedb.api.MovieRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Accumulates user votes in memory and writes them behind to the movies table, so that a popular movie costs one
+ * row update per flush instead of one per vote. Every vote is appended to a {@link VoteLog} before it is counted,
+ * and the log is replayed on startup, so votes that were not flushed yet survive a restart.
+ * <p>
+ * Voting threads never lock each other out: the log queues their votes without locking and writes them in batches
+ * from a single thread, which is also the only one that adds them to the counters. The flush takes the counters
+ * from that thread at the point where it starts a new log segment, so the votes it writes to the database are
+ * exactly the ones in the segments it deletes.
+ * <p>
+ * The votes and vote sum of a movie only count user votes. Its catalog rating is kept apart and weighs as a number
+ * of votes of its own when the rating is computed, so that the first user votes move the rating of a well rated
+ * movie a little instead of replacing it.
+ * <p>
+ * The flush goes through JPA, so version, second-level cache, change feed and the other in-memory views all follow
+ * the new ratings. If data-app stops after a flush has committed but before its log segments are deleted, the votes
+ * of that flush are counted again on startup.
+ */
+@Component
+public class MovieVotes implements DisposableBean {
+    /**
+     * Lowest rating a user can vote for.
+     */
+    public static final int MIN_RATING = 1;
+    /**
+     * Highest rating a user can vote for.
+     */
+    public static final int MAX_RATING = 10;
+
+    private static final Logger logger = LoggerFactory.getLogger(MovieVotes.class);
+
+    // Only written by the vote log writer thread, and by the constructor before the log starts.
+    private final Map<Long, Delta> tallies = new ConcurrentHashMap<>();
+    // Votes taken from the counters by a flush that has not committed yet, retried by the next flush.
+    private volatile Map<Long, Delta> unflushed = Collections.emptyMap();
+    private final VoteLog voteLog;
+    private final MovieRepository movieRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxBatchSize;
+    private final int catalogVotes;
+
+    /**
+     * Constructor that replays the votes left in the log by the previous run.
+     *
+     * @param movieRepository    movie repository
+     * @param transactionManager transaction manager
+     * @param logDirectory       directory of the vote log
+     * @param maxBatchSize       maximum number of movies loaded per query during a flush
+     * @param catalogVotes       number of user votes the catalog rating of a movie weighs as
+     * @throws IOException if the vote log cannot be read or started
+     */
+    @Autowired
+    public MovieVotes(MovieRepository movieRepository, PlatformTransactionManager transactionManager,
+                      @Value("${moviedb.dataapp.votes.logDirectory:votes}") String logDirectory,
+                      @Value("${moviedb.dataapp.maxBatchSize:100}") int maxBatchSize,
+                      @Value("${moviedb.dataapp.votes.catalogVotes:100}") int catalogVotes) throws IOException {
+        this.movieRepository = movieRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.catalogVotes = Math.max(0, catalogVotes);
+
+        Path directory = Paths.get(logDirectory);
+        long[] replayed = new long[1];
+        VoteLog.replay(directory, (movieId, rating) -> {
+            count(movieId, rating);
+            replayed[0]++;
+        });
+        if (replayed[0] > 0) {
+            logger.info("Replayed " + replayed[0] + " votes that were not written to the database");
+        }
+        this.voteLog = new VoteLog(directory, this::count);
+    }
+
+    /**
+     * Accept a vote. It is in the log when this returns, and in the movie rating after the next flush.
+     *
+     * @param movieId movie id
+     * @param rating  rating between {@link #MIN_RATING} and {@link #MAX_RATING}
+     * @throws IOException if the vote cannot be logged, in which case it is not counted
+     */
+    public void vote(long movieId, int rating) throws IOException {
+        if (rating < MIN_RATING || rating > MAX_RATING) {
+            throw new IllegalArgumentException("Rating must be between " + MIN_RATING + " and " + MAX_RATING);
+        }
+
+        try {
+            voteLog.append(movieId, rating).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Get number of votes for a movie that are not in the database yet.
+     *
+     * @param movieId movie id
+     * @return number of pending votes
+     */
+    public long getPendingVotes(long movieId) {
+        Delta counted = tallies.get(movieId);
+        Delta taken = unflushed.get(movieId);
+        return (counted == null ? 0 : counted.count) + (taken == null ? 0 : taken.count);
+    }
+
+    /**
+     * Add the votes taken since the last flush to the movies in one transaction, and recompute their ratings from
+     * their votes and their catalog rating. If the transaction fails, the votes stay pending for the next flush.
+     */
+    @Scheduled(fixedDelayString = "${moviedb.dataapp.votes.flushInterval:5000}")
+    public synchronized void flush() {
+        if (tallies.isEmpty() && unflushed.isEmpty()) {
+            return;
+        }
+
+        Map<Long, Delta> deltas = new HashMap<>(unflushed);
+        long segment;
+        try {
+            segment = voteLog.rotate(() -> {
+                // On the writer thread, between the last vote of the old segment and the first of the new one.
+                for (Map.Entry<Long, Delta> entry : tallies.entrySet()) {
+                    deltas.merge(entry.getKey(), entry.getValue(), Delta::plus);
+                }
+                tallies.clear();
+                unflushed = deltas;
+            });
+        } catch (IOException e) {
+            logger.error("Error rotating the vote log: ", e);
+            return;
+        }
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        try {
+            transactionTemplate.execute(status -> {
+                apply(deltas);
+                return null;
+            });
+        } catch (RuntimeException e) {
+            logger.warn("Votes of " + deltas.size() + " movies stay pending: " + e.getMessage());
+            return;
+        }
+
+        unflushed = Collections.emptyMap();
+        try {
+            voteLog.deleteBefore(segment);
+        } catch (IOException e) {
+            logger.error("Error deleting flushed vote log segments: ", e);
+        }
+        logger.debug("Flushed votes of " + deltas.size() + " movies in "
+                + (System.nanoTime() - start) / 1000000 + " ms");
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        flush();
+        voteLog.close();
+    }
+
+    private void apply(Map<Long, Delta> deltas) {
+        List<Long> ids = new ArrayList<>(deltas.keySet());
+        for (int from = 0; from < ids.size(); from += maxBatchSize) {
+            // Dirty checking turns these into batched updates when the transaction commits.
+            for (Movie movie : movieRepository.findByIdIn(ids.subList(from, Math.min(from + maxBatchSize,
+                    ids.size())))) {
+                Delta delta = deltas.get(movie.getId());
+                if (movie.getVotes() == 0 && movie.getCatalogRating() == null) {
+                    movie.setCatalogRating(movie.getRating());
+                }
+                long votes = movie.getVotes() + delta.count;
+                long voteSum = movie.getVoteSum() + delta.sum;
+                movie.setVotes(votes);
+                movie.setVoteSum(voteSum);
+
+                double weight = movie.getCatalogRating() == null ? 0 : catalogVotes;
+                double prior = movie.getCatalogRating() == null ? 0 : movie.getCatalogRating();
+                movie.setRating(Math.round((voteSum + weight * prior) * 10.0 / (votes + weight)) / 10.0);
+            }
+        }
+        // Votes for movies deleted in the meantime are dropped along with their log segments.
+    }
+
+    private void count(long movieId, int rating) {
+        tallies.merge(movieId, new Delta(rating, 1), Delta::plus);
+    }
+
+    /**
+     * Votes of one movie not in the database yet.
+     */
+    private static final class Delta {
+        private final long sum;
+        private final long count;
+
+        Delta(long sum, long count) {
+            this.sum = sum;
+            this.count = count;
+        }
+
+        Delta plus(Delta other) {
+            return new Delta(sum + other.sum, count + other.count);
+        }
+    }
+}
@@ -0,0 +1,306 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.java.samples.moviedb.api.votes;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+
+import static java.nio.file.StandardOpenOption.APPEND;
+import static java.nio.file.StandardOpenOption.CREATE_NEW;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Append-only log of the votes that are not in the database yet, split in numbered segment files.
+ * Every flush to the database starts a new segment, and deletes the older ones once the flush has committed.
+ * Records are written without fsync, so they survive a restart or a crash of data-app but not of the machine.
+ * <p>
+ * Voting threads do not write to the file themselves, they add their votes to a lock-free queue. One writer thread
+ * appends all the votes it finds queued with a single write, and hands each of them to the consumer once it is in
+ * the log, so votes are counted in the same order as they are logged, and none is counted before it is logged.
+ */
+public class VoteLog implements Closeable {
+    private static final String SEGMENT_PREFIX = "votes-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final int RECORD_SIZE = Long.BYTES + 1;
+    private static final int MAX_BATCH_SIZE = 4096;
+    private static final Object CLOSE = new Object();
+
+    private final Path directory;
+    private final VoteConsumer written;
+    private final Queue<Object> queue = new ConcurrentLinkedQueue<>();
+    private final Thread writer;
+    private volatile boolean closed;
+    // Only used by the writer thread once it is started.
+    private FileChannel segment;
+    private long segmentNumber;
+
+    /**
+     * Constructor that starts a new segment after the ones left by earlier runs.
+     *
+     * @param directory directory of the segment files, created if missing
+     * @param written   receiver of every appended vote once it is in the log, called on the writer thread
+     * @throws IOException if the directory or the new segment cannot be created
+     */
+    public VoteLog(Path directory, VoteConsumer written) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.written = written;
+        List<Long> numbers = listSegments(directory);
+        this.segmentNumber = numbers.isEmpty() ? 1 : numbers.get(numbers.size() - 1) + 1;
+        this.segment = open(segmentNumber);
+        this.writer = new Thread(this::write, "vote-log-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Read every vote of every segment in the directory, oldest first. A record cut short by a crash is skipped.
+     *
+     * @param directory directory of the segment files
+     * @param consumer  receiver of the votes
+     * @throws IOException if a segment cannot be read
+     */
+    public static void replay(Path directory, VoteConsumer consumer) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(RECORD_SIZE * 1024);
+        for (long number : listSegments(directory)) {
+            try (FileChannel channel = FileChannel.open(segmentPath(directory, number), READ)) {
+                buffer.clear();
+                while (channel.read(buffer) > 0) {
+                    buffer.flip();
+                    while (buffer.remaining() >= RECORD_SIZE) {
+                        consumer.accept(buffer.getLong(), buffer.get());
+                    }
+                    buffer.compact();
+                }
+            }
+        }
+    }
+
+    /**
+     * Queue one vote for the current segment. Safe to call from many threads without locking.
+     *
+     * @param movieId movie id
+     * @param rating  rating voted for
+     * @return future that completes once the vote is in the log and handed to the consumer, or fails with an
+     * {@link IOException} if it cannot be written
+     */
+    public CompletableFuture<Void> append(long movieId, int rating) {
+        Vote vote = new Vote(movieId, rating);
+        queue.offer(vote);
+        LockSupport.unpark(writer);
+        // The writer fails what it finds queued after a close, a vote queued after that is failed here.
+        if (closed && queue.remove(vote)) {
+            vote.completeExceptionally(new IOException("Vote log is closed"));
+        }
+        return vote;
+    }
+
+    /**
+     * Close the current segment and start the next one, after the votes queued before are written.
+     *
+     * @param atRotation run on the writer thread after the last vote of the old segment is handed to the consumer
+     *                   and before the first vote of the new one
+     * @return number of the new segment, every vote appended so far is in a segment with a lower number
+     * @throws IOException if the next segment cannot be created
+     */
+    public long rotate(Runnable atRotation) throws IOException {
+        Rotation rotation = new Rotation(atRotation);
+        queue.offer(rotation);
+        LockSupport.unpark(writer);
+        if (closed && queue.remove(rotation)) {
+            throw new IOException("Vote log is closed");
+        }
+        try {
+            return rotation.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Delete the segments with a lower number, once their votes are in the database.
+     *
+     * @param number segment number returned by {@link #rotate(Runnable)}
+     * @throws IOException if a segment cannot be deleted
+     */
+    public void deleteBefore(long number) throws IOException {
+        for (long older : listSegments(directory)) {
+            if (older < number) {
+                Files.deleteIfExists(segmentPath(directory, older));
+            }
+        }
+    }
+
+    /**
+     * Write the votes queued so far, then close the current segment. Votes appended later fail.
+     *
+     * @throws IOException if the segment cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        queue.offer(CLOSE);
+        LockSupport.unpark(writer);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while closing the vote log", e);
+        }
+        segment.close();
+    }
+
+    private void write() {
+        ByteBuffer buffer = ByteBuffer.allocate(RECORD_SIZE * MAX_BATCH_SIZE);
+        List<Vote> batch = new ArrayList<>(MAX_BATCH_SIZE);
+        while (true) {
+            Object next = queue.poll();
+            if (next instanceof Vote) {
+                Vote vote = (Vote) next;
+                buffer.putLong(vote.movieId).put((byte) vote.rating);
+                batch.add(vote);
+                if (batch.size() == MAX_BATCH_SIZE) {
+                    writeBatch(buffer, batch);
+                }
+                continue;
+            }
+
+            // Everything queued before a rotation or the close belongs to the current segment.
+            writeBatch(buffer, batch);
+            if (next == null) {
+                LockSupport.park(this);
+            } else if (next instanceof Rotation) {
+                rotate((Rotation) next);
+            } else if (next == CLOSE) {
+                closed = true;
+                for (Object rest = queue.poll(); rest != null; rest = queue.poll()) {
+                    if (rest instanceof CompletableFuture) {
+                        ((CompletableFuture<?>) rest).completeExceptionally(new IOException("Vote log is closed"));
+                    }
+                }
+                return;
+            }
+        }
+    }
+
+    private void writeBatch(ByteBuffer buffer, List<Vote> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                segment.write(buffer);
+            }
+            for (Vote vote : batch) {
+                written.accept(vote.movieId, vote.rating);
+                vote.complete(null);
+            }
+        } catch (IOException e) {
+            for (Vote vote : batch) {
+                vote.completeExceptionally(e);
+            }
+        } finally {
+            buffer.clear();
+            batch.clear();
+        }
+    }
+
+    private void rotate(Rotation rotation) {
+        try {
+            FileChannel next = open(segmentNumber + 1);
+            rotation.atRotation.run();
+            segment.close();
+            segment = next;
+            rotation.complete(++segmentNumber);
+        } catch (IOException | RuntimeException e) {
+            rotation.completeExceptionally(e);
+        }
+    }
+
+    private FileChannel open(long number) throws IOException {
+        return FileChannel.open(segmentPath(directory, number), CREATE_NEW, WRITE, APPEND);
+    }
+
+    private static Path segmentPath(Path directory, long number) {
+        return directory.resolve(SEGMENT_PREFIX + number + SEGMENT_SUFFIX);
+    }
+
+    private static List<Long> listSegments(Path directory) throws IOException {
+        List<Long> numbers = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory,
+                SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                try {
+                    numbers.add(Long.parseLong(
+                            name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())));
+                } catch (NumberFormatException e) {
+                    // Not a segment file.
+                }
+            }
+        }
+        Collections.sort(numbers);
+        return numbers;
+    }
+
+    /**
+     * Receiver of replayed votes.
+     */
+    public interface VoteConsumer {
+        /**
+         * Take one vote.
+         *
+         * @param movieId movie id
+         * @param rating  rating voted for
+         */
+        void accept(long movieId, int rating);
+    }
+
+    /**
+     * Vote waiting to be written, completed once it is in the log.
+     */
+    private static final class Vote extends CompletableFuture<Void> {
+        private final long movieId;
+        private final int rating;
+
+        Vote(long movieId, int rating) {
+            this.movieId = movieId;
+            this.rating = rating;
+        }
+    }
+
+    /**
+     * Request to start the next segment, completed with its number.
+     */
+    private static final class Rotation extends CompletableFuture<Long> {
+        private final Runnable atRotation;
+
+        Rotation(Runnable atRotation) {
+            this.atRotation = atRotation;
+        }
+    }
+}
@@ -0,0 +1,10 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+/**
+ * User votes on movie ratings, aggregated in memory and written behind to the movies table in periodic batches.
+ */
+package com.microsoft.azure.java.samples.moviedb.api.votes;
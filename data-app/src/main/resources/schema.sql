@@ -1,8 +1,14 @@
 CREATE TABLE movies (
   id INTEGER NOT NULL,
   name VARCHAR(60) NOT NULL,
-  rating FLOAT DEFAULT NULL,
+  rating DOUBLE DEFAULT NULL,
   description TEXT NOT NULL,
   image_uri TEXT DEFAULT NULL,
+  version BIGINT DEFAULT 0 NOT NULL,
+  votes BIGINT DEFAULT 0 NOT NULL,
+  vote_sum BIGINT DEFAULT 0 NOT NULL,
+  catalog_rating DOUBLE DEFAULT NULL,
   PRIMARY KEY (id)
-);
\ No newline at end of file
+);
+
+CREATE INDEX idx_movies_rating_id ON movies (rating, id);
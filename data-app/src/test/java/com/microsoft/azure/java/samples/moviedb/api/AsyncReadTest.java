@@ -0,0 +1,116 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.java.samples.moviedb.api;
+
+import com.jayway.jsonpath.JsonPath;
+import com.microsoft.azure.java.samples.moviedb.api.async.AsyncReadConfiguration;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.embedded.LocalServerPort;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.Arrays;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+@TestPropertySource(locations = "classpath:application.test.properties", properties = {
+        "spring.datasource.url=jdbc:hsqldb:mem:async;sql.syntax_mys=true",
+        "spring.datasource.username=sa",
+        "spring.datasource.password="})
+@ActiveProfiles(AsyncReadConfiguration.PROFILE)
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class AsyncReadTest {
+    private static final Logger logger = LoggerFactory.getLogger(AsyncReadTest.class);
+
+    @LocalServerPort
+    private int port;
+    @Autowired
+    private RestTemplateBuilder builder;
+    @Autowired
+    private ThreadPoolTaskExecutor movieReadExecutor;
+    private RestTemplate restTemplate;
+
+    @Before
+    public void setup() throws Exception {
+        restTemplate = builder.rootUri("http://localhost:" + port).build();
+        restTemplate.setRequestFactory(new HttpComponentsClientHttpRequestFactory());
+    }
+
+    @Test
+    public void getMovieOnWorkerPool() throws Exception {
+        long completed = movieReadExecutor.getThreadPoolExecutor().getCompletedTaskCount();
+        ResponseEntity<String> response = this.restTemplate.getForEntity("/api/v1/movies/4", String.class);
+        assertThat(JsonPath.read(response.getBody(), "$.name"), is("The Matrix (1999)"));
+        assertThat(JsonPath.read(response.getBody(), "$._links.self.href"),
+                is("http://localhost:" + port + "/api/v1/movies/4"));
+        assertTrue(movieReadExecutor.getThreadPoolExecutor().getCompletedTaskCount() > completed);
+
+        String etag = response.getHeaders().getETag();
+        assertThat(etag, is("\"0\""));
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfNoneMatch(etag);
+        assertThat(this.restTemplate.exchange("/api/v1/movies/4", HttpMethod.GET, new HttpEntity<>(headers),
+                String.class).getStatusCode(), is(HttpStatus.NOT_MODIFIED));
+
+        try {
+            this.restTemplate.getForEntity("/api/v1/movies/12345", String.class);
+            fail("Unknown movie must not be found");
+        } catch (HttpClientErrorException e) {
+            assertThat(e.getStatusCode(), is(HttpStatus.NOT_FOUND));
+        }
+    }
+
+    @Test
+    public void getMoviePageOnWorkerPool() throws Exception {
+        String page = this.restTemplate.getForObject("/api/v1/movies?page=1&size=2&sort=rating,desc", String.class);
+        assertThat(JsonPath.read(page, "$._embedded.movies[*].id"), is(Arrays.asList(3, 4)));
+        assertThat(JsonPath.read(page, "$.page.number"), is(1));
+        assertThat(JsonPath.read(page, "$._links.next.href"),
+                is("http://localhost:" + port + "/api/v1/movies?page=2&size=2&sort=rating,desc"));
+        assertThat(JsonPath.read(page, "$._links.search.href"),
+                is("http://localhost:" + port + "/api/v1/movies/search"));
+
+        String first = this.restTemplate.getForObject("/api/v1/movies", String.class);
+        assertThat(JsonPath.read(first, "$._links.self.href"),
+                is("http://localhost:" + port + "/api/v1/movies{?page,size,sort}"));
+    }
+
+    @Test
+    public void getMoviesByIdsOnWorkerPool() throws Exception {
+        String movies = this.restTemplate.getForObject("/api/v1/movies/search/byIds?ids=3,1,12345,3", String.class);
+        assertThat(JsonPath.read(movies, "$._embedded.movies[*].id"), is(Arrays.asList(3, 1)));
+        movies = this.restTemplate.postForObject("/api/v1/movies/search/byIds", Arrays.asList(5, 2), String.class);
+        assertThat(JsonPath.read(movies, "$._embedded.movies[*].id"), is(Arrays.asList(5, 2)));
+    }
+
+    @Test
+    public void asyncReadThroughput() throws Exception {
+        logger.info("Async read throughput with " + ReadLoad.CLIENTS + " clients: "
+                + Math.round(ReadLoad.requestsPerSecond(port)) + " requests/s");
+    }
+}
@@ -6,6 +6,10 @@
 
 package com.microsoft.azure.java.samples.moviedb.api;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.jayway.jsonpath.JsonPath;
+import com.microsoft.azure.java.samples.moviedb.api.votes.MovieVotes;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -13,25 +17,61 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.context.embedded.LocalServerPort;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
 
+import javax.persistence.EntityManagerFactory;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
 import static org.junit.Assert.*;
 
-@TestPropertySource(locations = "classpath:application.test.properties")
+@TestPropertySource(locations = "classpath:application.test.properties", properties = {
+        "moviedb.dataapp.leaderboard.size=" + HttpRequestTest.LEADERBOARD_SIZE,
+        "moviedb.dataapp.votes.flushInterval=3600000",
+        // The cache tests read the hits and statements that Hibernate counts.
+        "spring.jpa.properties.hibernate.generate_statistics=true"})
 @RunWith(SpringRunner.class)
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
 public class HttpRequestTest {
+    static final int LEADERBOARD_SIZE = 10;
+    private static final Logger logger = LoggerFactory.getLogger(HttpRequestTest.class);
 
     private static final String FIRST_MOVIE_PATH = "/api/v1/movies/1";
     @LocalServerPort
     private int port;
     @Autowired
     private RestTemplateBuilder builder;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private MovieVotes movieVotes;
     private RestTemplate restTemplate;
 
     @Before
@@ -72,4 +112,508 @@ public class HttpRequestTest {
         Movie restoredMovie = this.restTemplate.getForObject(FIRST_MOVIE_PATH, Movie.class);
         assertThat(restoredMovie.getRating(), is(9.7));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void getMoviesByKeyset() throws Exception {
+        String top = this.restTemplate.getForObject("/api/v1/movies/search/top?size=2", String.class);
+        assertThat(ids(top), is(Arrays.asList(2, 1)));
+
+        String after = this.restTemplate.getForObject("/api/v1/movies/search/after?rating=9.7&id=1&size=2",
+                String.class);
+        assertThat(ids(after), is(Arrays.asList(3, 4)));
+
+        String before = this.restTemplate.getForObject("/api/v1/movies/search/before?rating=9.6&id=3&size=2",
+                String.class);
+        assertThat(ids(before), is(Arrays.asList(1, 2)));
+    }
+
+    @Test
+    public void getMovieSummaries() throws Exception {
+        String top = this.restTemplate.getForObject("/api/v1/movies/summaries/top?size=2", String.class);
+        assertThat(ids(top), is(Arrays.asList(2, 1)));
+        assertFalse(top.contains("description"));
+        assertThat(JsonPath.<List<Object>>read(top, "$._embedded.movies[*]._links").size(), is(0));
+
+        String after = this.restTemplate.getForObject("/api/v1/movies/summaries/after?rating=9.7&id=1&size=2",
+                String.class);
+        assertThat(ids(after), is(Arrays.asList(3, 4)));
+
+        String before = this.restTemplate.getForObject("/api/v1/movies/summaries/before?rating=9.6&id=3&size=2",
+                String.class);
+        assertThat(ids(before), is(Arrays.asList(1, 2)));
+    }
+
+    @Test
+    public void pageAcrossTiedRatings() throws Exception {
+        final int size = 4;
+        final String cursor = "?size=" + size + "&rating={rating}&id={id}";
+        for (String path : Arrays.asList("/api/v1/movies/search/", "/api/v1/movies/summaries/")) {
+            List<Integer> ranking = ids(this.restTemplate.getForObject(path + "top?size=100", String.class));
+
+            List<Integer> forward = new ArrayList<>();
+            String page = this.restTemplate.getForObject(path + "top?size=" + size, String.class);
+            forward.addAll(ids(page));
+            boolean tieSpansPages = false;
+            while (ids(page).size() == size && forward.size() < ranking.size()) {
+                Object rating = JsonPath.read(page, "$._embedded.movies[" + (size - 1) + "].rating");
+                Object id = JsonPath.read(page, "$._embedded.movies[" + (size - 1) + "].id");
+                page = this.restTemplate.getForObject(path + "after" + cursor, String.class, rating, id);
+                forward.addAll(ids(page));
+                tieSpansPages |= rating.equals(JsonPath.read(page, "$._embedded.movies[0].rating"));
+            }
+            assertTrue(tieSpansPages);
+            assertThat(forward, is(ranking));
+
+            List<Integer> backward = new ArrayList<>(ids(page));
+            Object rating = JsonPath.read(page, "$._embedded.movies[0].rating");
+            Object id = JsonPath.read(page, "$._embedded.movies[0].id");
+            while (!backward.get(0).equals(ranking.get(0)) && backward.size() < ranking.size()) {
+                page = this.restTemplate.getForObject(path + "before" + cursor, String.class, rating, id);
+                List<Integer> previous = new ArrayList<>(ids(page));
+                rating = JsonPath.read(page, "$._embedded.movies[" + (previous.size() - 1) + "].rating");
+                id = JsonPath.read(page, "$._embedded.movies[" + (previous.size() - 1) + "].id");
+                Collections.reverse(previous);
+                backward.addAll(0, previous);
+            }
+            assertThat(backward, is(ranking));
+        }
+    }
+
+    @Test
+    public void leaderboardPagesMatchDatabase() throws Exception {
+        final String summaries = "/api/v1/movies/summaries/";
+        final String entities = "/api/v1/movies/search/";
+        final int size = 4;
+        String page = this.restTemplate.getForObject(summaries + "top?size=" + size, String.class);
+        assertThat(ids(page), is(ids(this.restTemplate.getForObject(entities + "top?size=" + size, String.class))));
+        int pages = 1;
+        while (ids(page).size() == size) {
+            String cursor = "&rating={rating}&id={id}";
+            Object rating = JsonPath.read(page, "$._embedded.movies[" + (size - 1) + "].rating");
+            Object id = JsonPath.read(page, "$._embedded.movies[" + (size - 1) + "].id");
+            page = this.restTemplate.getForObject(summaries + "after?size=" + size + cursor, String.class, rating, id);
+            assertThat(ids(page), is(ids(this.restTemplate.getForObject(entities + "after?size=" + size + cursor,
+                    String.class, rating, id))));
+            pages++;
+        }
+        assertTrue(pages * size > LEADERBOARD_SIZE);
+
+        final String moviePath = "/api/v1/movies/12";
+        final Double rating = this.restTemplate.getForObject(moviePath, Movie.class).getRating();
+        Movie movie = new Movie();
+        movie.setRating(9.9);
+        this.restTemplate.patchForObject(moviePath, new HttpEntity<>(movie), Void.class);
+        assertThat(ids(this.restTemplate.getForObject(summaries + "top?size=2", String.class)),
+                is(Arrays.asList(12, 2)));
+        assertThat(ids(this.restTemplate.getForObject(summaries + "before?rating=9.7&id=2&size=2", String.class)),
+                is(Arrays.asList(12)));
+
+        movie.setRating(rating);
+        this.restTemplate.patchForObject(moviePath, new HttpEntity<>(movie), Void.class);
+        assertThat(ids(this.restTemplate.getForObject(summaries + "top?size=2", String.class)),
+                is(Arrays.asList(2, 1)));
+    }
+
+    @Test
+    public void getMoviesByIds() throws Exception {
+        String movies = this.restTemplate.getForObject("/api/v1/movies/search/byIds?ids=3,1,12345,3", String.class);
+        assertThat(ids(movies), is(Arrays.asList(3, 1)));
+
+        String posted = this.restTemplate.postForObject("/api/v1/movies/search/byIds", Arrays.asList(2L, 4L),
+                String.class);
+        assertThat(ids(posted), is(Arrays.asList(2, 4)));
+    }
+
+    @Test
+    public void searchMoviesByText() throws Exception {
+        String result = this.restTemplate.getForObject("/api/v1/movies/search/text?q=the matrix", String.class);
+        assertThat(ids(result), is(Arrays.asList(4)));
+        assertThat(JsonPath.read(result, "$.page.totalElements"), is(1));
+
+        String paged = this.restTemplate.getForObject("/api/v1/movies/search/text?q=description&size=2&page=1",
+                String.class);
+        assertThat(ids(paged), is(Arrays.asList(3, 4)));
+    }
+
+    @Test
+    public void searchIndexFollowsPatches() throws Exception {
+        final String moviePath = "/api/v1/movies/5";
+        Movie movie = new Movie();
+        movie.setDescription("Omaha beach landing.");
+        this.restTemplate.patchForObject(moviePath, new HttpEntity<>(movie), Void.class);
+        String result = this.restTemplate.getForObject("/api/v1/movies/search/text?q=omaha", String.class);
+        assertThat(ids(result), is(Arrays.asList(5)));
+
+        movie.setDescription("This is the description.");
+        this.restTemplate.patchForObject(moviePath, new HttpEntity<>(movie), Void.class);
+        result = this.restTemplate.getForObject("/api/v1/movies/search/text?q=omaha", String.class);
+        assertThat(JsonPath.read(result, "$.page.totalElements"), is(0));
+    }
+
+    @Test
+    public void importMoviesInBulk() throws Exception {
+        final int count = 5000;
+        final long firstId = 100001;
+        StringBuilder ndjson = new StringBuilder();
+        for (long id = firstId; id < firstId + count; id++) {
+            ndjson.append("{\"id\":").append(id).append(",\"name\":\"Bulk import ").append(id)
+                    .append("\",\"description\":\"Loaded by the bulk import test.\"}\n");
+        }
+        String[] inserted = importMovies(ndjson.toString(), MediaType.parseMediaType("application/x-ndjson"));
+        assertThat(inserted.length, is(count / 1000 + 1));
+        String total = inserted[inserted.length - 1];
+        assertThat(JsonPath.read(total, "$.done"), is(true));
+        assertThat(JsonPath.read(total, "$.inserted"), is(count));
+        logger.info("Bulk insert: " + JsonPath.read(total, "$.rowsPerSecond") + " rows/s");
+
+        StringBuilder json = new StringBuilder("[{\"name\":\"No id\"},{\"id\":99999,\"name\":\"No description\"}");
+        for (long id = firstId; id < firstId + count; id++) {
+            json.append(",{\"id\":").append(id).append(",\"description\":\"Updated by the bulk import test.\"}");
+        }
+        json.append("]");
+        String[] updated = importMovies(json.toString(), MediaType.APPLICATION_JSON);
+        assertThat(JsonPath.read(updated[0], "$.errors[*].row"), is(Arrays.asList(0, 1)));
+        total = updated[updated.length - 1];
+        assertThat(JsonPath.read(total, "$.updated"), is(count));
+        assertThat(JsonPath.read(total, "$.failed"), is(2));
+        logger.info("Bulk update: " + JsonPath.read(total, "$.rowsPerSecond") + " rows/s");
+
+        Movie movie = this.restTemplate.getForObject("/api/v1/movies/" + firstId, Movie.class);
+        assertThat(movie.getName(), is("Bulk import " + firstId));
+        assertThat(movie.getDescription(), is("Updated by the bulk import test."));
+        String found = this.restTemplate.getForObject("/api/v1/movies/search/text?q=bulk import&size=1", String.class);
+        assertThat(JsonPath.read(found, "$.page.totalElements"), is(count));
+    }
+
+    @Test
+    public void importStopsOnMalformedInput() throws Exception {
+        String[] lines = importMovies("{\"id\":200001,\"name\":\"Half\",\"description\":\"Half.\"}\n{\"id\":",
+                MediaType.parseMediaType("application/x-ndjson"));
+        String total = lines[lines.length - 1];
+        assertThat(JsonPath.read(total, "$.inserted"), is(1));
+        assertFalse(JsonPath.<Boolean>read(total, "$.done"));
+        assertTrue(JsonPath.<String>read(total, "$.error").startsWith("Malformed input after row 1"));
+    }
+
+    @Test
+    public void servletReadThroughput() throws Exception {
+        logger.info("Servlet read throughput with " + ReadLoad.CLIENTS + " clients: "
+                + Math.round(ReadLoad.requestsPerSecond(port)) + " requests/s");
+    }
+
+    @Test
+    public void getMovieConditionally() throws Exception {
+        final String moviePath = "/api/v1/movies/3";
+        String etag = this.restTemplate.getForEntity(moviePath, String.class).getHeaders().getETag();
+        assertThat(etag, is("\"0\""));
+        assertThat(conditionalGet(moviePath, etag).getStatusCode(), is(HttpStatus.NOT_MODIFIED));
+        assertThat(conditionalGet(moviePath, "\"1\"").getStatusCode(), is(HttpStatus.OK));
+
+        final String pagePath = "/api/v1/movies/summaries/top?size=2";
+        etag = this.restTemplate.getForEntity(pagePath, String.class).getHeaders().getETag();
+        assertNotNull(etag);
+        assertThat(conditionalGet(pagePath, etag).getStatusCode(), is(HttpStatus.NOT_MODIFIED));
+    }
+
+    @Test
+    public void patchMovieIfMatch() throws Exception {
+        final String moviePath = "/api/v1/movies/6";
+        String etag = this.restTemplate.getForEntity(moviePath, String.class).getHeaders().getETag();
+        Movie movie = new Movie();
+        movie.setDescription("Patched if matching.");
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfMatch("\"12345\"");
+        try {
+            this.restTemplate.exchange(moviePath, HttpMethod.PATCH, new HttpEntity<>(movie, headers), Void.class);
+            fail("PATCH with a stale ETag must not be applied");
+        } catch (HttpClientErrorException e) {
+            assertThat(e.getStatusCode(), is(HttpStatus.PRECONDITION_FAILED));
+        }
+
+        headers.setIfMatch(etag);
+        ResponseEntity<Void> patched = this.restTemplate.exchange(moviePath, HttpMethod.PATCH,
+                new HttpEntity<>(movie, headers), Void.class);
+        assertTrue(patched.getStatusCode().is2xxSuccessful());
+        ResponseEntity<Movie> result = this.restTemplate.getForEntity(moviePath, Movie.class);
+        assertThat(result.getBody().getDescription(), is("Patched if matching."));
+        assertThat(result.getHeaders().getETag(), is(not(etag)));
+
+        movie.setDescription("This is the description.");
+        this.restTemplate.patchForObject(moviePath, new HttpEntity<>(movie), Void.class);
+    }
+
+    @Test
+    public void cacheCutsDatabaseRoundTrips() throws Exception {
+        final int requests = 20;
+        final String[] paths = {"/api/v1/movies/7", "/api/v1/movies/search/top?size=4"};
+        entityManagerFactory.getCache().evictAll();
+        for (String path : paths) {
+            long cold = statementsFor(path, 1);
+            long warm = statementsFor(path, requests);
+            logger.info("Database round trips per request for " + path + ": first " + cold
+                    + ", cached " + (double) warm / requests);
+            assertTrue(cold > 0);
+            assertThat(warm, is(0L));
+        }
+
+        String statistics = this.restTemplate.getForObject("/api/v1/cache/statistics", String.class);
+        assertTrue(JsonPath.<Integer>read(statistics, "$.movies.hits") >= requests);
+        assertTrue(JsonPath.<Integer>read(statistics, "$.queries.hits") >= requests);
+    }
+
+    @Test
+    public void patchInvalidatesCachedMovie() throws Exception {
+        final String moviePath = "/api/v1/movies/8";
+        Movie movie = this.restTemplate.getForObject(moviePath, Movie.class);
+        final String description = movie.getDescription();
+
+        movie = new Movie();
+        movie.setDescription("Patched through the cache.");
+        this.restTemplate.patchForObject(moviePath, new HttpEntity<>(movie), Void.class);
+        assertThat(this.restTemplate.getForObject(moviePath, Movie.class).getDescription(),
+                is("Patched through the cache."));
+
+        movie.setDescription(description);
+        this.restTemplate.patchForObject(moviePath, new HttpEntity<>(movie), Void.class);
+        assertThat(this.restTemplate.getForObject(moviePath, Movie.class).getDescription(), is(description));
+    }
+
+    @Test
+    public void traceIsContinuedFromTraceparent() throws Exception {
+        final String traceId = "4bf92f3577b34da6a3ce929d0e0e4736";
+        final String parentSpanId = "00f067aa0ba902b7";
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("traceparent", "00-" + traceId + "-" + parentSpanId + "-01");
+        this.restTemplate.exchange(FIRST_MOVIE_PATH, HttpMethod.GET, new HttpEntity<>(headers), String.class);
+
+        // The trace is collected once the response is complete, which the client may see first.
+        String traces = null;
+        for (int i = 0; i < 50; i++) {
+            traces = this.restTemplate.getForObject("/api/v1/traces?traceId=" + traceId, String.class);
+            if (!JsonPath.<List<String>>read(traces, "$[*].name").isEmpty()) {
+                break;
+            }
+            TimeUnit.MILLISECONDS.sleep(20);
+        }
+        assertThat(JsonPath.read(traces, "$[*].name"), is(Arrays.asList("GET " + FIRST_MOVIE_PATH)));
+        assertThat(JsonPath.read(traces, "$[0].parentSpanId"), is(parentSpanId));
+        List<String> kinds = JsonPath.read(traces, "$[0].spans[*].kind");
+        assertTrue(kinds.contains("repository"));
+        assertTrue(JsonPath.<Double>read(traces, "$[0].breakdown.repository") >= 0);
+
+        headers.set("traceparent", "00-" + traceId.replace('4', '5') + "-" + parentSpanId + "-00");
+        this.restTemplate.exchange(FIRST_MOVIE_PATH, HttpMethod.GET, new HttpEntity<>(headers), String.class);
+        String unsampled = this.restTemplate.getForObject("/api/v1/traces?traceId=" + traceId.replace('4', '5'),
+                String.class);
+        assertThat(JsonPath.<List<String>>read(unsampled, "$[*].name").size(), is(0));
+    }
+
+    @Test
+    public void changeFeedReportsPatches() throws Exception {
+        final String moviePath = "/api/v1/movies/9";
+        final String changesPath = "/api/v1/movies/changes?since={since}&timeout={timeout}";
+        String start = this.restTemplate.getForObject("/api/v1/movies/changes?timeout=0", String.class);
+        assertFalse(JsonPath.<Boolean>read(start, "$.reset"));
+        assertThat(JsonPath.<List<Object>>read(start, "$.changes").size(), is(0));
+        String cursor = JsonPath.read(start, "$.cursor");
+        String unknown = this.restTemplate.getForObject(changesPath, String.class, "0-" + cursor, 0);
+        assertTrue(JsonPath.<Boolean>read(unknown, "$.reset"));
+        assertThat(JsonPath.read(unknown, "$.cursor"), is(cursor));
+
+        CompletableFuture<String> poll = CompletableFuture.supplyAsync(
+                () -> this.restTemplate.getForObject(changesPath, String.class, cursor, 10000));
+        String description = this.restTemplate.getForObject(moviePath, Movie.class).getDescription();
+        Movie movie = new Movie();
+        movie.setDescription("Changed for the feed.");
+        this.restTemplate.patchForObject(moviePath, new HttpEntity<>(movie), Void.class);
+
+        String changes = poll.get(10, TimeUnit.SECONDS);
+        assertFalse(JsonPath.<Boolean>read(changes, "$.reset"));
+        assertThat(JsonPath.read(changes, "$.changes[0].id"), is(9));
+        assertThat(JsonPath.read(changes, "$.changes[0].type"), is("UPDATED"));
+        assertThat(JsonPath.read(changes, "$.changes[0].fields"), is(Arrays.asList("description")));
+
+        movie.setDescription(description);
+        this.restTemplate.patchForObject(moviePath, new HttpEntity<>(movie), Void.class);
+        changes = this.restTemplate.getForObject(changesPath, String.class, JsonPath.read(changes, "$.cursor"), 10000);
+        assertThat(JsonPath.read(changes, "$.changes[0].id"), is(9));
+        String etag = this.restTemplate.getForEntity(moviePath, String.class).getHeaders().getETag();
+        assertThat(etag, is("\"" + JsonPath.read(changes, "$.changes[0].version") + "\""));
+    }
+
+    @Test
+    public void exportMoviesAsNdjson() throws Exception {
+        String[] lines = this.restTemplate.getForObject("/api/v1/movies/export?fromId=2&toId=5", String.class)
+                .split("\n");
+        assertThat(lines.length, is(4));
+        for (int i = 0; i < lines.length; i++) {
+            assertThat(JsonPath.read(lines[i], "$.id"), is(i + 2));
+        }
+        assertThat(JsonPath.read(lines[2], "$.name"), is("The Matrix (1999)"));
+
+        lines = this.restTemplate.getForObject("/api/v1/movies/export?minRating=9", String.class).split("\n");
+        assertTrue(lines.length > 0);
+        for (String line : lines) {
+            assertTrue(JsonPath.<Double>read(line, "$.rating") >= 9);
+        }
+
+        HttpURLConnection connection = (HttpURLConnection) new URL(
+                "http://localhost:" + port + "/api/v1/movies/export?toId=5").openConnection();
+        connection.setRequestProperty(HttpHeaders.ACCEPT_ENCODING, "gzip");
+        assertThat(connection.getContentEncoding(), is("gzip"));
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(connection.getInputStream()), StandardCharsets.UTF_8))) {
+            assertThat(reader.lines().count(), is(5L));
+        }
+    }
+
+    @Test
+    public void ratingStatisticsFollowPatches() throws Exception {
+        final String moviePath = "/api/v1/movies/10";
+        final String statsPath = "/api/v1/movies/stats?bucketWidth=0.1";
+        String stats = this.restTemplate.getForObject(statsPath, String.class);
+        int count = JsonPath.read(stats, "$.count");
+        assertTrue(count > 0);
+        assertThat(JsonPath.<List<Object>>read(stats, "$.histogram").size(), is(100));
+        assertTrue(JsonPath.<Double>read(stats, "$.percentiles.p50")
+                <= JsonPath.<Double>read(stats, "$.percentiles.p90"));
+
+        final Double rating = this.restTemplate.getForObject(moviePath, Movie.class).getRating();
+        final int oldStep = (int) Math.round(rating * 10);
+        final int oldCount = JsonPath.read(stats, "$.histogram[" + oldStep + "].count");
+        final int newCount = JsonPath.read(stats, "$.histogram[3].count");
+        Movie movie = new Movie();
+        movie.setRating(0.3);
+        this.restTemplate.patchForObject(moviePath, new HttpEntity<>(movie), Void.class);
+
+        stats = this.restTemplate.getForObject(statsPath, String.class);
+        assertThat(JsonPath.read(stats, "$.count"), is(count));
+        assertThat(JsonPath.read(stats, "$.min"), is(0.3));
+        assertThat(JsonPath.read(stats, "$.histogram[" + oldStep + "].count"), is(oldCount - 1));
+        assertThat(JsonPath.read(stats, "$.histogram[3].count"), is(newCount + 1));
+
+        movie.setRating(rating);
+        this.restTemplate.patchForObject(moviePath, new HttpEntity<>(movie), Void.class);
+        stats = this.restTemplate.getForObject(statsPath, String.class);
+        assertThat(JsonPath.read(stats, "$.histogram[" + oldStep + "].count"), is(oldCount));
+    }
+
+    @Test
+    public void votesAreWrittenBehind() throws Exception {
+        final String moviePath = "/api/v1/movies/33";
+        for (int rating : new int[]{1, 1, 1}) {
+            ResponseEntity<Void> response = this.restTemplate.postForEntity(moviePath + "/votes?rating=" + rating,
+                    null, Void.class);
+            assertThat(response.getStatusCode(), is(HttpStatus.ACCEPTED));
+        }
+        assertThat(movieVotes.getPendingVotes(33), is(3L));
+        String movie = this.restTemplate.getForObject(moviePath, String.class);
+        assertThat(JsonPath.read(movie, "$.votes"), is(0));
+
+        movieVotes.flush();
+        assertThat(movieVotes.getPendingVotes(33), is(0L));
+        movie = this.restTemplate.getForObject(moviePath, String.class);
+        // The catalog rating of 5.0 weighs as 100 votes, so three votes of 1 move it instead of replacing it.
+        assertThat(JsonPath.read(movie, "$.votes"), is(3));
+        assertThat(JsonPath.read(movie, "$.rating"), is(4.9));
+        assertFalse(movie.contains("voteSum"));
+        String result = this.restTemplate.getForObject("/api/v1/movies/search/text?q=godfather", String.class);
+        assertThat(JsonPath.read(result, "$._embedded.movies[?(@.id == 33)].rating"),
+                is(Collections.singletonList(4.9)));
+        String exported = this.restTemplate.getForObject("/api/v1/movies/export?fromId=33&toId=33", String.class);
+        assertThat(JsonPath.read(exported, "$.votes"), is(3));
+        assertThat(JsonPath.read(exported, "$.voteSum"), is(3));
+
+        try {
+            this.restTemplate.postForEntity(moviePath + "/votes?rating=11", null, Void.class);
+            fail("A rating out of range must be rejected");
+        } catch (HttpClientErrorException e) {
+            assertThat(e.getStatusCode(), is(HttpStatus.BAD_REQUEST));
+        }
+        try {
+            this.restTemplate.postForEntity("/api/v1/movies/9999/votes?rating=5", null, Void.class);
+            fail("A vote for an unknown movie must be rejected");
+        } catch (HttpClientErrorException e) {
+            assertThat(e.getStatusCode(), is(HttpStatus.NOT_FOUND));
+        }
+    }
+
+    @Test
+    public void compareJsonAndSmileOnTheWire() throws Exception {
+        final String pagePath = "/api/v1/movies?size=100&sort=id";
+        final int parses = 2000;
+        ObjectMapper jsonMapper = new ObjectMapper();
+        ObjectMapper smileMapper = new ObjectMapper(new SmileFactory());
+
+        byte[] json = fetch(pagePath, "application/hal+json", false);
+        byte[] smile = fetch(pagePath, "application/x-jackson-smile", false);
+        assertThat(smileMapper.readTree(smile), is(jsonMapper.readTree(json)));
+        int jsonGzip = fetch(pagePath, "application/hal+json", true).length;
+        int smileGzip = fetch(pagePath, "application/x-jackson-smile", true).length;
+
+        long jsonNanos = parseNanos(jsonMapper, json, parses);
+        long smileNanos = parseNanos(smileMapper, smile, parses);
+        logger.info("Page of 100 movies, bytes on the wire: JSON " + json.length + ", JSON gzip " + jsonGzip
+                + ", Smile " + smile.length + ", Smile gzip " + smileGzip
+                + "; parse time per page: JSON " + jsonNanos / parses / 1000 + " us, Smile "
+                + smileNanos / parses / 1000 + " us");
+        assertTrue(smile.length < json.length);
+        assertTrue(jsonGzip < json.length);
+        assertTrue(smileGzip < smile.length);
+    }
+
+    private byte[] fetch(String path, String accept, boolean gzip) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + port + path).openConnection();
+        connection.setRequestProperty(HttpHeaders.ACCEPT, accept);
+        if (gzip) {
+            connection.setRequestProperty(HttpHeaders.ACCEPT_ENCODING, "gzip");
+        }
+        assertTrue(connection.getContentType().startsWith(accept));
+        assertThat(connection.getContentEncoding(), is(gzip ? "gzip" : null));
+        try (InputStream in = connection.getInputStream()) {
+            return StreamUtils.copyToByteArray(in);
+        }
+    }
+
+    private static long parseNanos(ObjectMapper mapper, byte[] document, int times) throws IOException {
+        for (int i = 0; i < times; i++) {
+            mapper.readTree(document);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < times; i++) {
+            mapper.readTree(document);
+        }
+        return System.nanoTime() - start;
+    }
+
+    private long statementsFor(String path, int requests) {
+        long before = statements();
+        for (int i = 0; i < requests; i++) {
+            this.restTemplate.getForObject(path, String.class);
+        }
+        return statements() - before;
+    }
+
+    private long statements() {
+        String statistics = this.restTemplate.getForObject("/api/v1/cache/statistics", String.class);
+        return JsonPath.<Number>read(statistics, "$.database.statements").longValue();
+    }
+
+    private ResponseEntity<String> conditionalGet(String path, String etag) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfNoneMatch(etag);
+        return this.restTemplate.exchange(path, HttpMethod.GET, new HttpEntity<>(headers), String.class);
+    }
+
+    private String[] importMovies(String body, MediaType contentType) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(contentType);
+        String result = this.restTemplate.postForObject("/api/v1/movies/import", new HttpEntity<>(body, headers),
+                String.class);
+        return result.split("\n");
+    }
+
+    private static List<Integer> ids(String moviesJson) {
+        return JsonPath.read(moviesJson, "$._embedded.movies[*].id");
+    }
+}
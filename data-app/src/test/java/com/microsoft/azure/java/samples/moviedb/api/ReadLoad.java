@@ -0,0 +1,65 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.java.samples.moviedb.api;
+
+import org.springframework.util.StreamUtils;
+
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Fires the same GET request from many concurrent clients, to compare the servlet and the async read API.
+ */
+final class ReadLoad {
+    static final String PATH = "/api/v1/movies?page=0&size=20";
+    static final int CLIENTS = 64;
+    static final int REQUESTS_PER_CLIENT = 10;
+
+    private ReadLoad() {
+    }
+
+    /**
+     * Run the load and return the throughput, failing if any request does not succeed.
+     */
+    static double requestsPerSecond(int port) throws Exception {
+        URL url = new URL("http://localhost:" + port + PATH);
+        ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+        try {
+            long start = System.nanoTime();
+            List<Future<Integer>> failures = new ArrayList<>();
+            for (int i = 0; i < CLIENTS; i++) {
+                failures.add(clients.submit(() -> {
+                    int failed = 0;
+                    for (int j = 0; j < REQUESTS_PER_CLIENT; j++) {
+                        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+                        if (connection.getResponseCode() != HttpURLConnection.HTTP_OK) {
+                            failed++;
+                        }
+                        try (InputStream in = connection.getInputStream()) {
+                            StreamUtils.drain(in);
+                        }
+                    }
+                    return failed;
+                }));
+            }
+            for (Future<Integer> failed : failures) {
+                if (failed.get() > 0) {
+                    throw new AssertionError(failed.get() + " requests failed");
+                }
+            }
+            return CLIENTS * REQUESTS_PER_CLIENT * 1e9 / (System.nanoTime() - start);
+        } finally {
+            clients.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,131 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.java.samples.moviedb.api;
+
+import com.microsoft.azure.java.samples.moviedb.api.datasource.DataSourcePools;
+import com.microsoft.azure.java.samples.moviedb.api.datasource.ReplicaRoutingFilter;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.embedded.LocalServerPort;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.web.client.RestTemplate;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+@TestPropertySource(locations = "classpath:application.test.properties", properties = {
+        "spring.datasource.url=jdbc:hsqldb:mem:routing-primary;sql.syntax_mys=true",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.datasource.tomcat.validation-query=VALUES (1)",
+        "moviedb.dataapp.replicas.urls=" + ReplicaRoutingTest.REPLICA_URL,
+        "moviedb.dataapp.replicas.readYourWritesMillis=" + ReplicaRoutingTest.READ_YOUR_WRITES_MILLIS,
+        "moviedb.dataapp.replicas.healthCheckInterval=3600000",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=false"})
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class ReplicaRoutingTest {
+    static final String REPLICA_URL = "jdbc:hsqldb:mem:routing-replica;ifexists=true;sql.syntax_mys=true";
+    static final long READ_YOUR_WRITES_MILLIS = 300;
+
+    private static final String MOVIE_PATH = "/api/v1/movies/4";
+    private static final String PRIMARY_NAME = "The Matrix (1999)";
+    private static final String REPLICA_NAME = "The Matrix (replica)";
+
+    @LocalServerPort
+    private int port;
+    @Autowired
+    private RestTemplateBuilder builder;
+    @Autowired
+    private DataSourcePools dataSourcePools;
+    private RestTemplate restTemplate;
+
+    @BeforeClass
+    public static void createReplica() throws Exception {
+        try (Connection connection = DriverManager.getConnection(
+                "jdbc:hsqldb:mem:routing-replica;sql.syntax_mys=true", "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS movies (id INTEGER NOT NULL, name VARCHAR(60) NOT NULL,"
+                    + " rating DOUBLE DEFAULT NULL, description TEXT NOT NULL, image_uri TEXT DEFAULT NULL,"
+                    + " version BIGINT DEFAULT 0 NOT NULL, votes BIGINT DEFAULT 0 NOT NULL,"
+                    + " vote_sum BIGINT DEFAULT 0 NOT NULL, catalog_rating DOUBLE DEFAULT NULL,"
+                    + " PRIMARY KEY (id))");
+            statement.execute("DELETE FROM movies");
+            statement.execute("INSERT INTO movies VALUES (4, '" + REPLICA_NAME
+                    + "', 8.8, 'Replica.', '', 0, 0, 0, NULL)");
+        }
+    }
+
+    @Before
+    public void setup() throws Exception {
+        restTemplate = builder.rootUri("http://localhost:" + port).build();
+        restTemplate.setRequestFactory(new HttpComponentsClientHttpRequestFactory());
+    }
+
+    @Test
+    public void readsFromReplicaAndWritesToPrimary() throws Exception {
+        assertThat(getMovie().getName(), is(REPLICA_NAME));
+
+        Movie movie = new Movie();
+        movie.setRating(8.9);
+        this.restTemplate.patchForObject(MOVIE_PATH, new HttpEntity<>(movie), Void.class);
+
+        Movie patched = getMovie();
+        assertThat(patched.getName(), is(PRIMARY_NAME));
+        assertThat(patched.getRating(), is(8.9));
+        RestTemplate otherClient = builder.rootUri("http://localhost:" + port).build();
+        otherClient.setRequestFactory(new HttpComponentsClientHttpRequestFactory());
+        assertThat(otherClient.getForObject(MOVIE_PATH, Movie.class).getName(), is(REPLICA_NAME));
+        // A cookie this data-app did not sign does not pin reads to the primary.
+        HttpHeaders forged = new HttpHeaders();
+        forged.add(HttpHeaders.COOKIE, ReplicaRoutingFilter.PRIMARY_COOKIE + "=" + Long.MAX_VALUE + ".forged");
+        assertThat(otherClient.exchange(MOVIE_PATH, HttpMethod.GET, new HttpEntity<>(forged), Movie.class)
+                .getBody().getName(), is(REPLICA_NAME));
+
+        Thread.sleep(READ_YOUR_WRITES_MILLIS * 2);
+        assertThat(getMovie().getName(), is(REPLICA_NAME));
+
+        movie.setRating(8.8);
+        this.restTemplate.patchForObject(MOVIE_PATH, new HttpEntity<>(movie), Void.class);
+        Thread.sleep(READ_YOUR_WRITES_MILLIS * 2);
+    }
+
+    @Test
+    public void fallsBackToPrimaryWhenReplicaIsDown() throws Exception {
+        try (Connection connection = DriverManager.getConnection(REPLICA_URL, "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.execute("SHUTDOWN");
+        }
+        dataSourcePools.checkReplicas();
+        assertThat(dataSourcePools.getHealthyReplicas(), is(0));
+        assertThat(getMovie().getName(), is(PRIMARY_NAME));
+
+        createReplica();
+        dataSourcePools.checkReplicas();
+        assertThat(dataSourcePools.getHealthyReplicas(), is(1));
+        assertThat(getMovie().getName(), is(REPLICA_NAME));
+    }
+
+    private Movie getMovie() {
+        return this.restTemplate.getForObject(MOVIE_PATH, Movie.class);
+    }
+}
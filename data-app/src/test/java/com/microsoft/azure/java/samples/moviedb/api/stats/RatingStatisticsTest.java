@@ -0,0 +1,51 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.java.samples.moviedb.api.stats;
+
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class RatingStatisticsTest {
+    @Test
+    public void keepsChangesCommittedDuringTheLoad() {
+        RatingStatistics statistics = new RatingStatistics();
+        statistics.add(5.0);
+        statistics.add(6.0);
+
+        statistics.beginLoad();
+        // Read before the changes below committed.
+        RatingStatistics loaded = new RatingStatistics();
+        loaded.add(5.0);
+        loaded.add(6.0);
+        statistics.add(7.0);
+        statistics.update(5.0, 8.0);
+        statistics.remove(6.0);
+        statistics.add(null);
+        statistics.replaceWith(loaded);
+
+        RatingStats stats = statistics.getStats(1);
+        assertThat(stats.getCount(), is(2L));
+        assertThat(stats.getUnrated(), is(1L));
+        assertThat(stats.getMin(), is(7.0));
+        assertThat(stats.getMax(), is(8.0));
+    }
+
+    @Test
+    public void replacesCountsWithoutLoad() {
+        RatingStatistics statistics = new RatingStatistics();
+        statistics.add(5.0);
+        RatingStatistics loaded = new RatingStatistics();
+        loaded.add(9.0);
+        statistics.replaceWith(loaded);
+
+        assertThat(statistics.isReady(), is(true));
+        assertThat(statistics.getStats(1).getCount(), is(1L));
+        assertThat(statistics.getStats(1).getMin(), is(9.0));
+    }
+}
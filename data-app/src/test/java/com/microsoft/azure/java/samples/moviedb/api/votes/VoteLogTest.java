@@ -0,0 +1,77 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.java.samples.moviedb.api.votes;
+
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class VoteLogTest {
+    @Test
+    public void replaysVotesUntilTheirSegmentsAreDeleted() throws Exception {
+        Path directory = Files.createTempDirectory("votes");
+        VoteLog voteLog = new VoteLog(directory, (movieId, rating) -> { });
+        voteLog.append(33, 4).join();
+        voteLog.rotate(() -> { });
+        voteLog.append(34, 10).join();
+        voteLog.close();
+        // A record cut short by a crash.
+        Files.write(directory.resolve("votes-2.log"), new byte[]{0, 0, 0}, StandardOpenOption.APPEND);
+        assertThat(replay(directory), is(Arrays.asList("33:4", "34:10")));
+
+        VoteLog restarted = new VoteLog(directory, (movieId, rating) -> { });
+        restarted.append(35, 1).join();
+        restarted.deleteBefore(restarted.rotate(() -> { }));
+        restarted.close();
+        assertThat(replay(directory), is(Collections.<String>emptyList()));
+    }
+
+    @Test
+    public void countsEveryVoteOnceItIsLogged() throws Exception {
+        Path directory = Files.createTempDirectory("votes");
+        LongAdder counted = new LongAdder();
+        long[] countedAtRotation = new long[1];
+        VoteLog voteLog = new VoteLog(directory, (movieId, rating) -> counted.increment());
+        ExecutorService voters = Executors.newFixedThreadPool(8);
+        List<CompletableFuture<Void>> votes = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            int movieId = i % 34;
+            votes.add(CompletableFuture.supplyAsync(() -> voteLog.append(movieId, 5), voters)
+                    .thenCompose(vote -> vote));
+            if (i == 5000) {
+                voteLog.rotate(() -> countedAtRotation[0] = counted.sum());
+            }
+        }
+        CompletableFuture.allOf(votes.toArray(new CompletableFuture[0])).join();
+        voters.shutdown();
+        voteLog.close();
+
+        assertThat(counted.sum(), is(10000L));
+        assertThat(replay(directory).size(), is(10000));
+        // The first segment holds exactly the votes counted before the rotation, nine bytes each.
+        assertThat(Files.size(directory.resolve("votes-1.log")), is(9 * countedAtRotation[0]));
+    }
+
+    private static List<String> replay(Path directory) throws Exception {
+        List<String> votes = new ArrayList<>();
+        VoteLog.replay(directory, (movieId, rating) -> votes.add(movieId + ":" + rating));
+        return votes;
+    }
+}
@@ -7,7 +7,12 @@ CREATE TABLE `movies` (
   `id` BIGINT(20) unsigned NOT NULL AUTO_INCREMENT,
   `name` VARCHAR(100) NOT NULL,
   `description` TEXT NOT NULL,
-  `rating` FLOAT DEFAULT NULL,
+  `rating` DOUBLE DEFAULT NULL,
   `image_uri` TEXT DEFAULT NULL,
-  PRIMARY KEY (`id`)
+  `version` BIGINT(20) unsigned NOT NULL DEFAULT 0,
+  `votes` BIGINT(20) unsigned NOT NULL DEFAULT 0,
+  `vote_sum` BIGINT(20) unsigned NOT NULL DEFAULT 0,
+  `catalog_rating` DOUBLE DEFAULT NULL,
+  PRIMARY KEY (`id`),
+  KEY `idx_movies_rating_id` (`rating`, `id`)
 );
\ No newline at end of file
@@ -0,0 +1,191 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.java.samples.moviedb.database;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Generates synthetic movies. The same seed and settings always generate the same movies, on every JVM.
+ *
+ * <ul>
+ * <li>Names have one to eight words, mostly two or three, and a release year that leans towards recent years.</li>
+ * <li>Description lengths follow a log-normal distribution around the median number of words.</li>
+ * <li>Ratings are the average of the votes. Most movies are rated between 6 and 8, few below 4, and the number of
+ * votes follows a power law, so that a few movies have most of the votes.</li>
+ * <li>A share of the movies has an uploaded image.</li>
+ * </ul>
+ */
+final class CatalogGenerator {
+    static final int MAX_NAME_LENGTH = 60;
+
+    private static final String[] TITLE_WORDS = {
+        "Night", "Love", "Man", "Last", "Day", "Dark", "Story", "Life", "House", "King", "World", "Blood", "Girl",
+        "Black", "Dead", "City", "Time", "Lost", "Star", "Heart", "Dream", "War", "Home", "Secret", "Red", "Death",
+        "Fire", "Journey", "Shadow", "Road", "River", "Moon", "Summer", "Winter", "Ghost", "Island", "Empire",
+        "Return", "Rise", "Fall", "Game", "Wild", "Little", "Big", "Great", "Silent", "Golden", "Broken", "Hidden",
+        "Forgotten", "Midnight", "Street", "Garden", "Ocean", "Mountain", "Kingdom", "Legend", "Hunter", "Stranger",
+        "Brother", "Sister", "Father", "Mother", "Children", "Angel", "Devil", "Monster", "Machine", "Planet",
+        "Galaxy", "Storm", "Rain", "Snow", "Sun", "Light", "Edge", "Escape", "Promise", "Memory", "Revenge",
+        "Fortune", "Glory", "Honor", "Sky", "Train", "Bridge", "Door", "Window", "Letter", "Song", "Dance", "Music",
+        "Paradise", "Inferno", "Outlaw", "Soldier", "Spy", "Detective", "Doctor", "Captain", "Queen", "Prince",
+        "Princess", "Wolf", "Dragon", "Tiger", "Horse", "Bird", "Eye", "Hand", "Face", "Voice", "Wind", "Water",
+        "Stone", "Steel", "Silver", "Crimson", "Blue", "White", "Green", "Final", "First", "Second", "Eternal",
+        "Endless", "Perfect", "Beautiful", "Dangerous", "Crazy", "Lonely", "Young", "Old", "New", "American", "Lucky"
+    };
+    private static final String[] CONNECTORS = {"of", "the", "in", "and", "from", "to", "on", "for", "with"};
+    private static final String[] FILLER_WORDS = {
+        "lorem", "ipsum", "dolor", "sit", "amet", "consectetur", "adipiscing", "elit", "sed", "do", "eiusmod",
+        "tempor", "incididunt", "ut", "labore", "et", "dolore", "magna", "aliqua", "enim", "ad", "minim", "veniam",
+        "quis", "nostrud", "exercitation", "ullamco", "laboris", "nisi", "aliquip", "ex", "ea", "commodo",
+        "consequat", "duis", "aute", "irure", "in", "reprehenderit", "voluptate", "velit", "esse", "cillum", "eu",
+        "fugiat", "nulla", "pariatur", "excepteur", "sint", "occaecat", "cupidatat", "non", "proident", "sunt",
+        "culpa", "qui", "officia", "deserunt", "mollit", "anim", "id", "est", "laborum"
+    };
+    // Share of names with 1, 2, 3, ... words, in percent.
+    private static final int[] NAME_WORDS_PERCENT = {18, 27, 22, 14, 9, 5, 3, 2};
+    private static final int LATEST_YEAR = 2017;
+    private static final int EARLIEST_YEAR = 1920;
+    private static final double DESCRIPTION_SIGMA = 0.6;
+    private static final int MIN_DESCRIPTION_WORDS = 5;
+    private static final int MAX_DESCRIPTION_WORDS = 1000;
+    // The vote count is Pareto distributed, with the exponent of the 80/20 rule.
+    private static final double VOTES_ALPHA = 1.16;
+    private static final double MIN_VOTES = 5;
+    private static final long MAX_VOTES = 2_000_000;
+
+    private final Random random;
+    private final double imageRatio;
+    private final int descriptionWords;
+    private final double[] ratingSample = new double[9];
+    private long nextId;
+
+    /**
+     * Create a generator.
+     *
+     * @param seed             random seed
+     * @param firstId          id of the first movie, ids are consecutive
+     * @param imageRatio       share of movies with an image, between 0 and 1
+     * @param descriptionWords median number of words of a description
+     */
+    CatalogGenerator(long seed, long firstId, double imageRatio, int descriptionWords) {
+        this.random = new Random(seed);
+        this.nextId = firstId;
+        this.imageRatio = imageRatio;
+        this.descriptionWords = descriptionWords;
+    }
+
+    /**
+     * Generate the next movie.
+     *
+     * @return movie
+     */
+    GeneratedMovie next() {
+        long id = nextId++;
+        String name = name();
+        String description = description();
+
+        long votes = votes();
+        long voteSum = Math.max(votes, Math.min(10 * votes, Math.round(rating() * votes)));
+        // Rounded the way the vote flush of data-app rounds, so that the next flush keeps the rating.
+        double rating = Math.round(voteSum * 10.0 / votes) / 10.0;
+
+        String imageUri = random.nextDouble() < imageRatio ? "/images-original/" + id + ".jpg" : null;
+        return new GeneratedMovie(id, name, description, rating, imageUri, votes, voteSum);
+    }
+
+    private String name() {
+        int words = pickWordCount();
+        String year = " (" + Math.max(EARLIEST_YEAR,
+                LATEST_YEAR - (int) Math.abs(random.nextGaussian() * (LATEST_YEAR - EARLIEST_YEAR) / 3)) + ")";
+
+        StringBuilder name = new StringBuilder();
+        if (words > 1 && random.nextInt(4) == 0) {
+            name.append("The");
+            words--;
+        }
+        for (int i = 0; i < words; i++) {
+            String word = pick(TITLE_WORDS);
+            if (name.length() + word.length() + year.length() + 1 > MAX_NAME_LENGTH) {
+                break;
+            }
+            if (name.length() > 0) {
+                name.append(' ');
+                if (i < words - 1 && random.nextInt(5) == 0) {
+                    String connector = pick(CONNECTORS);
+                    if (name.length() + connector.length() + word.length() + year.length() + 1 <= MAX_NAME_LENGTH) {
+                        name.append(connector).append(' ');
+                    }
+                }
+            }
+            name.append(word);
+        }
+
+        return name.append(year).toString();
+    }
+
+    private int pickWordCount() {
+        int percent = random.nextInt(100);
+        for (int i = 0; i < NAME_WORDS_PERCENT.length; i++) {
+            percent -= NAME_WORDS_PERCENT[i];
+            if (percent < 0) {
+                return i + 1;
+            }
+        }
+        return NAME_WORDS_PERCENT.length;
+    }
+
+    private String description() {
+        long words = Math.round(descriptionWords * Math.exp(DESCRIPTION_SIGMA * random.nextGaussian()));
+        words = Math.max(MIN_DESCRIPTION_WORDS, Math.min(MAX_DESCRIPTION_WORDS, words));
+
+        StringBuilder description = new StringBuilder((int) words * 8);
+        int sentenceLeft = 0;
+        for (long i = 0; i < words; i++) {
+            // One word in eight is a title word, so that searching descriptions finds something.
+            String word = random.nextInt(8) == 0 ? pick(TITLE_WORDS).toLowerCase(Locale.ROOT) : pick(FILLER_WORDS);
+            if (sentenceLeft == 0) {
+                if (description.length() > 0) {
+                    description.append(". ");
+                }
+                description.append(Character.toUpperCase(word.charAt(0))).append(word, 1, word.length());
+                sentenceLeft = 6 + random.nextInt(15);
+            } else {
+                description.append(' ').append(word);
+            }
+            sentenceLeft--;
+        }
+
+        return description.append('.').toString();
+    }
+
+    /**
+     * Pick a rating between 1 and 10 from a Beta(7, 3) distribution, the 7th smallest of 9 uniform samples.
+     * Its mean is 7.3 and its tail is on the low side.
+     */
+    private double rating() {
+        for (int i = 0; i < ratingSample.length; i++) {
+            ratingSample[i] = random.nextDouble();
+        }
+        Arrays.sort(ratingSample);
+        return 1 + 9 * ratingSample[6];
+    }
+
+    private long votes() {
+        double votes = MIN_VOTES / Math.pow(1 - random.nextDouble(), 1 / VOTES_ALPHA);
+        return Math.min(MAX_VOTES, (long) votes);
+    }
+
+    /**
+     * Pick a word, preferring the first words of the list like Zipf's law does.
+     */
+    private String pick(String[] words) {
+        double u = random.nextDouble();
+        return words[(int) (words.length * u * u)];
+    }
+}
@@ -0,0 +1,199 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.java.samples.moviedb.database;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writes generated movies in one of the supported formats.
+ */
+abstract class CatalogWriter implements Closeable {
+    static final String COLUMNS = "id, name, description, rating, image_uri, version, votes, vote_sum";
+
+    /**
+     * Supported formats.
+     */
+    enum Format {
+        /**
+         * Multi-row INSERT statements, for MySQL and HSQLDB.
+         */
+        SQL,
+        /**
+         * Comma separated values with a header line, for LOAD DATA INFILE of MySQL. Null is written as NULL.
+         */
+        CSV,
+        /**
+         * Newline delimited JSON in the format of the export and import API of data-app.
+         */
+        NDJSON
+    }
+
+    protected final Writer out;
+
+    private CatalogWriter(Writer out) {
+        this.out = out;
+    }
+
+    /**
+     * Create a writer.
+     *
+     * @param format output format
+     * @param out    output, closed with the writer
+     * @param table  table name of the SQL statements
+     * @return catalog writer
+     * @throws IOException if the output cannot be written
+     */
+    static CatalogWriter create(Format format, Writer out, String table) throws IOException {
+        switch (format) {
+            case SQL:
+                return new SqlWriter(out, table);
+            case CSV:
+                return new CsvWriter(out);
+            case NDJSON:
+                return new NdjsonWriter(out);
+            default:
+                throw new IllegalArgumentException(format.name());
+        }
+    }
+
+    /**
+     * Write a movie.
+     *
+     * @param movie movie
+     * @throws IOException if the output cannot be written
+     */
+    abstract void write(GeneratedMovie movie) throws IOException;
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    private static final class SqlWriter extends CatalogWriter {
+        // About 250 KB per statement with the default description length, well below max_allowed_packet of MySQL.
+        private static final int ROWS_PER_STATEMENT = 500;
+
+        private final String insert;
+        private int rows;
+
+        private SqlWriter(Writer out, String table) {
+            super(out);
+            this.insert = "INSERT INTO " + table + " (" + COLUMNS + ") VALUES\n";
+        }
+
+        @Override
+        void write(GeneratedMovie movie) throws IOException {
+            out.write(rows == 0 ? insert : ",\n");
+            out.write('(');
+            out.write(Long.toString(movie.getId()));
+            out.write(", ");
+            writeString(movie.getName());
+            out.write(", ");
+            writeString(movie.getDescription());
+            out.write(", ");
+            out.write(Double.toString(movie.getRating()));
+            out.write(", ");
+            writeString(movie.getImageUri());
+            out.write(", 0, ");
+            out.write(Long.toString(movie.getVotes()));
+            out.write(", ");
+            out.write(Long.toString(movie.getVoteSum()));
+            out.write(')');
+            if (++rows == ROWS_PER_STATEMENT) {
+                out.write(";\n");
+                rows = 0;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (rows > 0) {
+                out.write(";\n");
+            }
+            super.close();
+        }
+
+        private void writeString(String value) throws IOException {
+            if (value == null) {
+                out.write("NULL");
+            } else {
+                out.write('\'');
+                out.write(value.replace("'", "''"));
+                out.write('\'');
+            }
+        }
+    }
+
+    private static final class CsvWriter extends CatalogWriter {
+        private CsvWriter(Writer out) throws IOException {
+            super(out);
+            out.write(COLUMNS.replace(" ", ""));
+            out.write('\n');
+        }
+
+        @Override
+        void write(GeneratedMovie movie) throws IOException {
+            out.write(Long.toString(movie.getId()));
+            out.write(',');
+            writeString(movie.getName());
+            out.write(',');
+            writeString(movie.getDescription());
+            out.write(',');
+            out.write(Double.toString(movie.getRating()));
+            out.write(',');
+            writeString(movie.getImageUri());
+            out.write(",0,");
+            out.write(Long.toString(movie.getVotes()));
+            out.write(',');
+            out.write(Long.toString(movie.getVoteSum()));
+            out.write('\n');
+        }
+
+        private void writeString(String value) throws IOException {
+            if (value == null) {
+                out.write("NULL");
+            } else {
+                out.write('"');
+                out.write(value.replace("\"", "\"\""));
+                out.write('"');
+            }
+        }
+    }
+
+    private static final class NdjsonWriter extends CatalogWriter {
+        private final JsonGenerator generator;
+
+        private NdjsonWriter(Writer out) throws IOException {
+            super(out);
+            // One movie per line, without the space Jackson puts between root values by default.
+            this.generator = new JsonFactory().setRootValueSeparator(null).createGenerator(out);
+        }
+
+        @Override
+        void write(GeneratedMovie movie) throws IOException {
+            generator.writeStartObject();
+            generator.writeNumberField("id", movie.getId());
+            generator.writeStringField("name", movie.getName());
+            generator.writeNumberField("rating", movie.getRating());
+            generator.writeStringField("description", movie.getDescription());
+            generator.writeStringField("imageUri", movie.getImageUri());
+            generator.writeNumberField("version", 0);
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void close() throws IOException {
+            generator.close();
+        }
+    }
+}
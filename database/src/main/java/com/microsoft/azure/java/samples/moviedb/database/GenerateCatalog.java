@@ -0,0 +1,88 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.java.samples.moviedb.database;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes a synthetic movie catalog to a file, see README.md for the options.
+ */
+public final class GenerateCatalog {
+    private static final int BUFFER_SIZE = 1 << 20;
+    private static final long PROGRESS_INTERVAL = 1_000_000;
+
+    private GenerateCatalog() {
+    }
+
+    /**
+     * Generate a catalog.
+     *
+     * @param args options as --name=value
+     * @throws IOException if the catalog cannot be written
+     */
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0) {
+                throw new IllegalArgumentException("Options are given as --name=value: " + arg);
+            }
+            options.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+
+        long movies = Long.parseLong(options.getOrDefault("movies", "100000"));
+        long seed = Long.parseLong(options.getOrDefault("seed", "42"));
+        long firstId = Long.parseLong(options.getOrDefault("firstId", "1"));
+        double imageRatio = Double.parseDouble(options.getOrDefault("imageRatio", "0.3"));
+        int descriptionWords = Integer.parseInt(options.getOrDefault("descriptionWords", "60"));
+        CatalogWriter.Format format = CatalogWriter.Format.valueOf(
+                options.getOrDefault("format", "sql").toUpperCase(Locale.ROOT));
+        String table = options.getOrDefault("table", "moviedb.movies");
+        Path output = Paths.get(options.getOrDefault("output",
+                "target/catalog." + format.name().toLowerCase(Locale.ROOT)));
+        if (movies < 0 || firstId < 1 || imageRatio < 0 || imageRatio > 1 || descriptionWords < 1) {
+            throw new IllegalArgumentException("movies, firstId and descriptionWords must be positive, "
+                    + "imageRatio between 0 and 1");
+        }
+
+        long start = System.nanoTime();
+        CatalogGenerator generator = new CatalogGenerator(seed, firstId, imageRatio, descriptionWords);
+        try (CatalogWriter writer = CatalogWriter.create(format, open(output), table)) {
+            for (long i = 1; i <= movies; i++) {
+                writer.write(generator.next());
+                if (i % PROGRESS_INTERVAL == 0) {
+                    System.out.println("Generated " + i + " of " + movies + " movies");
+                }
+            }
+        }
+
+        System.out.println("Wrote " + movies + " movies to " + output + " in "
+                + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+
+    private static BufferedWriter open(Path output) throws IOException {
+        if (output.getParent() != null) {
+            Files.createDirectories(output.getParent());
+        }
+        OutputStream out = Files.newOutputStream(output);
+        if (output.getFileName().toString().endsWith(".gz")) {
+            out = new GZIPOutputStream(out, BUFFER_SIZE);
+        }
+        return new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+    }
+}
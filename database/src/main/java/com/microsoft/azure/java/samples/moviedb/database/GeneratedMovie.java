@@ -0,0 +1,94 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.java.samples.moviedb.database;
+
+/**
+ * One row of the movies table.
+ */
+final class GeneratedMovie {
+    private final long id;
+    private final String name;
+    private final String description;
+    private final double rating;
+    private final String imageUri;
+    private final long votes;
+    private final long voteSum;
+
+    GeneratedMovie(long id, String name, String description, double rating, String imageUri, long votes,
+                   long voteSum) {
+        this.id = id;
+        this.name = name;
+        this.description = description;
+        this.rating = rating;
+        this.imageUri = imageUri;
+        this.votes = votes;
+        this.voteSum = voteSum;
+    }
+
+    /**
+     * Get movie id.
+     *
+     * @return movie id
+     */
+    long getId() {
+        return id;
+    }
+
+    /**
+     * Get movie name.
+     *
+     * @return movie name
+     */
+    String getName() {
+        return name;
+    }
+
+    /**
+     * Get movie description.
+     *
+     * @return movie description
+     */
+    String getDescription() {
+        return description;
+    }
+
+    /**
+     * Get movie rating.
+     *
+     * @return movie rating
+     */
+    double getRating() {
+        return rating;
+    }
+
+    /**
+     * Get movie image URI.
+     *
+     * @return movie image URI, null if the movie has no image
+     */
+    String getImageUri() {
+        return imageUri;
+    }
+
+    /**
+     * Get the number of votes.
+     *
+     * @return number of votes
+     */
+    long getVotes() {
+        return votes;
+    }
+
+    /**
+     * Get the sum of all votes.
+     *
+     * @return sum of votes
+     */
+    long getVoteSum() {
+        return voteSum;
+    }
+}
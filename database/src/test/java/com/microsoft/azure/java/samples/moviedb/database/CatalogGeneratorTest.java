@@ -0,0 +1,81 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.java.samples.moviedb.database;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class CatalogGeneratorTest {
+    private static final int MOVIES = 2000;
+
+    @Test
+    public void sameSeedGeneratesSameCatalog() throws IOException {
+        assertEquals(generate(CatalogWriter.Format.SQL, 7), generate(CatalogWriter.Format.SQL, 7));
+        assertNotEquals(generate(CatalogWriter.Format.SQL, 7), generate(CatalogWriter.Format.SQL, 8));
+    }
+
+    @Test
+    public void moviesMatchTheSchema() {
+        CatalogGenerator generator = new CatalogGenerator(42, 1, 0.3, 60);
+        int images = 0;
+        for (int i = 1; i <= MOVIES; i++) {
+            GeneratedMovie movie = generator.next();
+            assertEquals(i, movie.getId());
+            assertTrue(movie.getName(), movie.getName().length() <= CatalogGenerator.MAX_NAME_LENGTH);
+            assertTrue(movie.getRating() >= 1 && movie.getRating() <= 10);
+            assertTrue(movie.getVoteSum() >= movie.getVotes() && movie.getVoteSum() <= 10 * movie.getVotes());
+            assertEquals(Math.round(movie.getVoteSum() * 10.0 / movie.getVotes()) / 10.0, movie.getRating(), 0);
+            if (movie.getImageUri() != null) {
+                images++;
+            }
+        }
+        assertEquals(0.3, (double) images / MOVIES, 0.05);
+    }
+
+    @Test
+    public void sqlLoadsIntoHsqldb() throws IOException, SQLException {
+        try (Connection connection = DriverManager.getConnection(
+                "jdbc:hsqldb:mem:catalog;sql.syntax_mys=true", "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE movies (id INTEGER NOT NULL, name VARCHAR(60) NOT NULL, "
+                    + "rating DOUBLE DEFAULT NULL, description TEXT NOT NULL, image_uri TEXT DEFAULT NULL, "
+                    + "version BIGINT DEFAULT 0 NOT NULL, votes BIGINT DEFAULT 0 NOT NULL, "
+                    + "vote_sum BIGINT DEFAULT 0 NOT NULL, PRIMARY KEY (id))");
+            for (String insert : generate(CatalogWriter.Format.SQL, 42).split(";\n")) {
+                statement.execute(insert);
+            }
+
+            try (ResultSet rs = statement.executeQuery("SELECT COUNT(*), MIN(rating), MAX(rating) FROM movies")) {
+                rs.next();
+                assertEquals(MOVIES, rs.getInt(1));
+                assertTrue(rs.getDouble(2) >= 1 && rs.getDouble(3) <= 10);
+            }
+        }
+    }
+
+    private static String generate(CatalogWriter.Format format, long seed) throws IOException {
+        CatalogGenerator generator = new CatalogGenerator(seed, 1, 0.3, 60);
+        StringWriter out = new StringWriter();
+        try (CatalogWriter writer = CatalogWriter.create(format, out, "movies")) {
+            for (int i = 0; i < MOVIES; i++) {
+                writer.write(generator.next());
+            }
+        }
+        return out.toString();
+    }
+}
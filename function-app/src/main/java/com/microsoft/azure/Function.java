@@ -15,7 +15,8 @@ import java.io.InputStream;
 import java.util.logging.Level;
 
 public class Function {
-    private static byte[] resizeImage(byte[] imageInByte) throws IOException {
+    // Package-private for the benchmarks module.
+    static byte[] resizeImage(byte[] imageInByte) throws IOException {
         InputStream in = new ByteArrayInputStream(imageInByte);
         BufferedImage originalImage = ImageIO.read(in);
 
@@ -0,0 +1,86 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.java.samples.moviedb.loadtest;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.embedded.EmbeddedWebApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.io.UrlResource;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Starts web-app and data-app side by side in this process.
+ * Both applications ship an application.properties at the root of their jar, so the file of each application is
+ * read from its own jar. Spring Boot looks up moviedb-load-test.properties instead, which is not on the class path and
+ * can be put in the working directory to override properties of both applications.
+ */
+final class Applications {
+    private static final String CONFIG_NAME = "moviedb-load-test";
+
+    private Applications() {
+    }
+
+    /**
+     * Start an application on a random port.
+     *
+     * @param application    class annotated with SpringBootApplication
+     * @param propertyFiles  property files of the application, later files override earlier ones
+     * @param properties     properties that override the property files
+     * @param configurations additional configuration classes
+     * @return application context
+     * @throws IOException if a property file cannot be read
+     */
+    static ConfigurableApplicationContext run(Class<?> application, String[] propertyFiles,
+                                              Map<String, Object> properties, Class<?>... configurations)
+            throws IOException {
+        Map<String, Object> defaults = new HashMap<>();
+        for (String propertyFile : propertyFiles) {
+            for (Map.Entry<Object, Object> entry : PropertiesLoaderUtils.loadProperties(
+                    new UrlResource(resourceOf(application, propertyFile))).entrySet()) {
+                defaults.put((String) entry.getKey(), entry.getValue());
+            }
+        }
+        defaults.putAll(properties);
+        defaults.put("spring.config.name", CONFIG_NAME);
+        defaults.put("server.port", 0);
+        defaults.put("spring.jmx.enabled", false);
+
+        return new SpringApplicationBuilder(application)
+                .sources((Object[]) configurations)
+                .properties(defaults)
+                .run();
+    }
+
+    /**
+     * Get the port an application listens on.
+     *
+     * @param context application context
+     * @return local port
+     */
+    static int port(ConfigurableApplicationContext context) {
+        return ((EmbeddedWebApplicationContext) context).getEmbeddedServletContainer().getPort();
+    }
+
+    private static URL resourceOf(Class<?> application, String name) throws IOException {
+        String codeSource = application.getProtectionDomain().getCodeSource().getLocation().toExternalForm();
+        Enumeration<URL> resources = application.getClassLoader().getResources(name);
+        while (resources.hasMoreElements()) {
+            URL resource = resources.nextElement();
+            if (resource.toExternalForm().contains(codeSource)) {
+                return resource;
+            }
+        }
+
+        throw new IOException(name + " not found in " + codeSource);
+    }
+}
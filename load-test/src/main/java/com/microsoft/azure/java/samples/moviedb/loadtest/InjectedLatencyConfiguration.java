@@ -0,0 +1,86 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.java.samples.moviedb.loadtest;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Delays every request to data-app before it is handled, to see how web-app behaves when its backend is slow.
+ * A request waits the base latency plus a uniformly distributed jitter, and a share of the requests waits the
+ * tail latency instead.
+ */
+@Configuration
+public class InjectedLatencyConfiguration {
+    static final String LATENCY = "moviedb.loadtest.latency";
+    static final String JITTER = "moviedb.loadtest.latencyJitter";
+    static final String TAIL_LATENCY = "moviedb.loadtest.tailLatency";
+    static final String TAIL_RATIO = "moviedb.loadtest.tailRatio";
+
+    /**
+     * Register the filter in front of all other filters.
+     *
+     * @param latency     base latency in milliseconds
+     * @param jitter      maximum jitter in milliseconds
+     * @param tailLatency latency of tail requests in milliseconds
+     * @param tailRatio   share of tail requests between 0 and 1
+     * @return filter registration
+     */
+    @Bean
+    public FilterRegistrationBean injectedLatencyFilter(@Value("${" + LATENCY + ":0}") long latency,
+                                                        @Value("${" + JITTER + ":0}") long jitter,
+                                                        @Value("${" + TAIL_LATENCY + ":0}") long tailLatency,
+                                                        @Value("${" + TAIL_RATIO + ":0}") double tailRatio) {
+        FilterRegistrationBean registration = new FilterRegistrationBean(
+                new InjectedLatencyFilter(latency, jitter, tailLatency, tailRatio));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    private static final class InjectedLatencyFilter extends OncePerRequestFilter {
+        private final long latency;
+        private final long jitter;
+        private final long tailLatency;
+        private final double tailRatio;
+
+        private InjectedLatencyFilter(long latency, long jitter, long tailLatency, double tailRatio) {
+            this.latency = latency;
+            this.jitter = jitter;
+            this.tailLatency = tailLatency;
+            this.tailRatio = tailRatio;
+        }
+
+        @Override
+        protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+                throws ServletException, IOException {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            long delay = tailRatio > 0 && random.nextDouble() < tailRatio
+                    ? tailLatency : latency + (jitter > 0 ? random.nextLong(jitter + 1) : 0);
+            if (delay > 0) {
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new ServletException(e);
+                }
+            }
+
+            chain.doFilter(request, response);
+        }
+    }
+}
@@ -0,0 +1,242 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.java.samples.moviedb.loadtest;
+
+import com.microsoft.azure.java.samples.moviedb.api.Application;
+import com.microsoft.azure.java.samples.moviedb.web.WebApplication;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.SimpleCommandLinePropertySource;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.web.client.RestClientException;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs web-app and data-app in this process and drives a traffic mix through web-app like browsers do.
+ * data-app runs on HSQLDB with its test properties, web-app caches in memory and uploads images to a
+ * {@link StubBlobService}, so no Azure service is needed. Throughput, latency percentiles and error rates of each
+ * operation are printed when the run is over.
+ */
+public final class LoadTest {
+    private static final Logger logger = LoggerFactory.getLogger(LoadTest.class);
+
+    private static final String LOG_FILE = "logs/load-test.log";
+    private static final String EXCLUDED_FROM_DATA_APP = String.join(",",
+            "org.springframework.boot.autoconfigure.security.SecurityAutoConfiguration",
+            "org.springframework.boot.autoconfigure.security.SecurityFilterAutoConfiguration",
+            "org.springframework.boot.autoconfigure.security.oauth2.OAuth2AutoConfiguration",
+            "org.springframework.boot.autoconfigure.thymeleaf.ThymeleafAutoConfiguration",
+            "org.springframework.boot.autoconfigure.data.redis.RedisAutoConfiguration",
+            "org.springframework.boot.autoconfigure.data.redis.RedisRepositoriesAutoConfiguration");
+    private static final String EXCLUDED_FROM_WEB_APP = String.join(",",
+            "org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration",
+            "org.springframework.boot.autoconfigure.jdbc.DataSourceTransactionManagerAutoConfiguration",
+            "org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration",
+            "org.springframework.boot.autoconfigure.data.rest.RepositoryRestMvcAutoConfiguration",
+            "org.springframework.boot.autoconfigure.data.redis.RedisAutoConfiguration",
+            "org.springframework.boot.autoconfigure.data.redis.RedisRepositoriesAutoConfiguration");
+
+    private final LoadTestOptions options;
+    private long measuredNanos;
+
+    private LoadTest(LoadTestOptions options) {
+        this.options = options;
+    }
+
+    /**
+     * Run the load test.
+     *
+     * @param args options as --name=value, see README.md
+     * @throws Exception if an application cannot be started or a virtual user fails
+     */
+    public static void main(String[] args) throws Exception {
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addFirst(new SimpleCommandLinePropertySource(args));
+        new LoadTest(new LoadTestOptions(environment)).run();
+    }
+
+    private void run() throws Exception {
+        try (StubBlobService blobService = new StubBlobService();
+             ConfigurableApplicationContext dataApp = startDataApp();
+             ConfigurableApplicationContext webApp = startWebApp(Applications.port(dataApp), blobService)) {
+            List<Long> movieIds = dataApp.getBean(JdbcTemplate.class).queryForList("SELECT id FROM movies", Long.class);
+            if (movieIds.isEmpty()) {
+                throw new IllegalStateException("data-app has no movies");
+            }
+
+            String baseUrl = "http://localhost:" + Applications.port(webApp);
+            report(System.out, drive(baseUrl, movieIds), blobService);
+        }
+    }
+
+    private ConfigurableApplicationContext startDataApp() throws IOException {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("spring.autoconfigure.exclude", EXCLUDED_FROM_DATA_APP);
+        properties.put("logging.file", LOG_FILE);
+        properties.put("logging.level.com.microsoft.azure.java.samples.moviedb", "INFO");
+        properties.put(InjectedLatencyConfiguration.LATENCY, options.getLatency());
+        properties.put(InjectedLatencyConfiguration.JITTER, options.getLatencyJitter());
+        properties.put(InjectedLatencyConfiguration.TAIL_LATENCY, options.getTailLatency());
+        properties.put(InjectedLatencyConfiguration.TAIL_RATIO, options.getTailRatio());
+        return Applications.run(Application.class,
+                new String[]{"application.properties", "application.test.properties"}, properties,
+                InjectedLatencyConfiguration.class);
+    }
+
+    private static ConfigurableApplicationContext startWebApp(int dataAppPort, StubBlobService blobService)
+            throws IOException {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("spring.autoconfigure.exclude", EXCLUDED_FROM_WEB_APP);
+        properties.put("logging.file", LOG_FILE);
+        properties.put("logging.level.com.microsoft.azure.java.samples.moviedb", "INFO");
+        properties.put("moviedb.webapp.dataAppUri", "http://localhost:" + dataAppPort + "/");
+        properties.put("spring.cache.type", "simple");
+        properties.put("azure.storage.connection-string", blobService.getConnectionString());
+        return Applications.run(WebApplication.class, new String[]{"application.properties"}, properties,
+                StubStorageConfiguration.class);
+    }
+
+    private Map<Operation, OperationStats> drive(String baseUrl, List<Long> movieIds) throws Exception {
+        byte[] image = new byte[options.getUploadSize()];
+        new Random(0).nextBytes(image);
+
+        List<VirtualUser> users = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(options.getClients());
+        try {
+            for (int i = 0; i < options.getClients(); i++) {
+                VirtualUser user = new VirtualUser(baseUrl, movieIds, image, i);
+                users.add(user);
+                // Opens the session and reads the CSRF token of the forms.
+                user.execute(Operation.DETAIL);
+            }
+
+            logger.info("Warming up for {} s, then measuring for {} s with {} clients",
+                    options.getWarmup(), options.getDuration(), options.getClients());
+            long start = System.nanoTime();
+            long measureFrom = start + TimeUnit.SECONDS.toNanos(options.getWarmup());
+            long end = measureFrom + TimeUnit.SECONDS.toNanos(options.getDuration());
+            long interval = options.getRate() > 0
+                    ? (long) (options.getClients() * TimeUnit.SECONDS.toNanos(1) / options.getRate()) : 0;
+
+            List<Future<Map<Operation, OperationStats>>> results = new ArrayList<>();
+            for (int i = 0; i < users.size(); i++) {
+                VirtualUser user = users.get(i);
+                long first = start + interval * i / users.size();
+                results.add(executor.submit(() -> drive(user, options.getMix(), first, interval, measureFrom, end)));
+            }
+
+            Map<Operation, OperationStats> stats = newStats();
+            for (Future<Map<Operation, OperationStats>> result : results) {
+                result.get().forEach((operation, userStats) -> stats.get(operation).add(userStats));
+            }
+            // A run with a fixed rate finishes the requests it fell behind on after the end.
+            measuredNanos = Math.max(System.nanoTime(), end) - measureFrom;
+            return stats;
+        } finally {
+            executor.shutdownNow();
+            for (VirtualUser user : users) {
+                user.close();
+            }
+        }
+    }
+
+    /**
+     * Send requests until the end of the run. With a fixed rate, the latency is measured from the time the request
+     * was due, so that a slow response also counts against the requests it held up.
+     */
+    private static Map<Operation, OperationStats> drive(VirtualUser user, TrafficMix mix, long first, long interval,
+                                                        long measureFrom, long end) throws InterruptedException {
+        Map<Operation, OperationStats> stats = newStats();
+        long scheduled = first;
+        while (true) {
+            long begin;
+            if (interval > 0) {
+                if (scheduled >= end) {
+                    break;
+                }
+                TimeUnit.NANOSECONDS.sleep(scheduled - System.nanoTime());
+                begin = scheduled;
+                scheduled += interval;
+            } else {
+                begin = System.nanoTime();
+                if (begin >= end) {
+                    break;
+                }
+            }
+
+            Operation operation = mix.next(user.getRandom());
+            boolean success;
+            try {
+                success = user.execute(operation);
+            } catch (RestClientException e) {
+                logger.debug("{} failed: {}", operation, e.getMessage());
+                success = false;
+            }
+            if (begin >= measureFrom) {
+                stats.get(operation).record(System.nanoTime() - begin, success);
+            }
+        }
+
+        return stats;
+    }
+
+    private static Map<Operation, OperationStats> newStats() {
+        Map<Operation, OperationStats> stats = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            stats.put(operation, new OperationStats());
+        }
+        return stats;
+    }
+
+    private void report(PrintStream out, Map<Operation, OperationStats> stats, StubBlobService blobService) {
+        double seconds = (double) measuredNanos / TimeUnit.SECONDS.toNanos(1);
+        out.println();
+        out.printf("%d clients, %s, mix %s, %d s measured after %d s warmup%n", options.getClients(),
+                options.getRate() > 0 ? options.getRate() + " requests/s" : "closed loop", options.getMix(),
+                options.getDuration(), options.getWarmup());
+        out.printf("data-app latency %d ms + up to %d ms jitter, %.2f %% of requests %d ms%n", options.getLatency(),
+                options.getLatencyJitter(), options.getTailRatio() * 100, options.getTailLatency());
+        out.println();
+        out.printf("%-10s %10s %10s %8s %9s %9s %9s %9s %9s%n",
+                "operation", "requests", "req/s", "errors", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+
+        OperationStats total = new OperationStats();
+        for (Map.Entry<Operation, OperationStats> entry : stats.entrySet()) {
+            if (entry.getValue().getRequests() > 0) {
+                printRow(out, entry.getKey().getKey(), entry.getValue(), seconds);
+                total.add(entry.getValue());
+            }
+        }
+        printRow(out, "total", total, seconds);
+
+        out.println();
+        out.printf("%d images uploaded to the stub blob service, %d KB%n",
+                blobService.getUploads(), blobService.getUploadedBytes() / 1024);
+    }
+
+    private static void printRow(PrintStream out, String name, OperationStats stats, double seconds) {
+        out.printf("%-10s %10d %10.1f %7.2f%% %9.1f %9.1f %9.1f %9.1f %9.1f%n", name, stats.getRequests(),
+                stats.getRequests() / seconds,
+                stats.getRequests() > 0 ? 100.0 * stats.getErrors() / stats.getRequests() : 0.0,
+                stats.getPercentile(50), stats.getPercentile(90), stats.getPercentile(99),
+                stats.getPercentile(99.9), stats.getPercentile(100));
+    }
+}
@@ -0,0 +1,136 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.java.samples.moviedb.loadtest;
+
+import org.springframework.core.env.PropertyResolver;
+
+/**
+ * Options of a load test run, given on the command line as --name=value.
+ */
+final class LoadTestOptions {
+    private final int clients;
+    private final double rate;
+    private final int warmup;
+    private final int duration;
+    private final TrafficMix mix;
+    private final int uploadSize;
+    private final long latency;
+    private final long latencyJitter;
+    private final long tailLatency;
+    private final double tailRatio;
+
+    /**
+     * Read the options.
+     *
+     * @param resolver command line and system properties
+     */
+    LoadTestOptions(PropertyResolver resolver) {
+        clients = resolver.getProperty("clients", Integer.class, 32);
+        rate = resolver.getProperty("rate", Double.class, 0.0);
+        warmup = resolver.getProperty("warmup", Integer.class, 10);
+        duration = resolver.getProperty("duration", Integer.class, 60);
+        mix = new TrafficMix(resolver.getProperty("mix", "list:60,detail:30,patch:5,upload:5"));
+        uploadSize = resolver.getProperty("uploadSize", Integer.class, 200 * 1024);
+        latency = resolver.getProperty("latency", Long.class, 0L);
+        latencyJitter = resolver.getProperty("latencyJitter", Long.class, 0L);
+        tailLatency = resolver.getProperty("tailLatency", Long.class, 0L);
+        tailRatio = resolver.getProperty("tailRatio", Double.class, 0.0);
+        if (clients <= 0 || warmup < 0 || duration <= 0 || rate < 0 || tailRatio < 0 || tailRatio > 1) {
+            throw new IllegalArgumentException("clients and duration must be positive, tailRatio between 0 and 1");
+        }
+    }
+
+    /**
+     * Get the number of concurrent virtual users.
+     *
+     * @return clients
+     */
+    int getClients() {
+        return clients;
+    }
+
+    /**
+     * Get the total request rate per second, or 0 to send the next request as soon as the previous one is answered.
+     *
+     * @return requests per second
+     */
+    double getRate() {
+        return rate;
+    }
+
+    /**
+     * Get the warmup in seconds, not included in the report.
+     *
+     * @return warmup
+     */
+    int getWarmup() {
+        return warmup;
+    }
+
+    /**
+     * Get the measured duration in seconds.
+     *
+     * @return duration
+     */
+    int getDuration() {
+        return duration;
+    }
+
+    /**
+     * Get the traffic mix.
+     *
+     * @return mix
+     */
+    TrafficMix getMix() {
+        return mix;
+    }
+
+    /**
+     * Get the size of uploaded images in bytes.
+     *
+     * @return upload size
+     */
+    int getUploadSize() {
+        return uploadSize;
+    }
+
+    /**
+     * Get the base latency injected in data-app, in milliseconds.
+     *
+     * @return latency
+     */
+    long getLatency() {
+        return latency;
+    }
+
+    /**
+     * Get the maximum jitter added to the base latency, in milliseconds.
+     *
+     * @return latency jitter
+     */
+    long getLatencyJitter() {
+        return latencyJitter;
+    }
+
+    /**
+     * Get the latency of tail requests in data-app, in milliseconds.
+     *
+     * @return tail latency
+     */
+    long getTailLatency() {
+        return tailLatency;
+    }
+
+    /**
+     * Get the share of data-app requests that wait the tail latency.
+     *
+     * @return tail ratio between 0 and 1
+     */
+    double getTailRatio() {
+        return tailRatio;
+    }
+}
@@ -0,0 +1,40 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.java.samples.moviedb.loadtest;
+
+import java.util.Locale;
+
+/**
+ * Requests a virtual user sends to web-app.
+ */
+enum Operation {
+    /**
+     * Read a movie list page, following the next page link of the previous list page.
+     */
+    LIST,
+    /**
+     * Read the detail page of a random movie.
+     */
+    DETAIL,
+    /**
+     * Edit the description of a random movie, which patches the movie in data-app.
+     */
+    PATCH,
+    /**
+     * Upload a new image of a random movie, to the blob service and then to data-app.
+     */
+    UPLOAD;
+
+    /**
+     * Get the name of the operation in the traffic mix.
+     *
+     * @return lower case name
+     */
+    String getKey() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
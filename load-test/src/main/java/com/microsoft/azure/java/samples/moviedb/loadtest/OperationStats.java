@@ -0,0 +1,90 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.java.samples.moviedb.loadtest;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latencies and errors of one operation. Each virtual user records into its own instance, the instances are merged
+ * when the run is over, so recording is not synchronized.
+ */
+final class OperationStats {
+    private long[] latencies = new long[1024];
+    private int requests;
+    private long errors;
+    private boolean sorted = true;
+
+    /**
+     * Record one request.
+     *
+     * @param latencyNanos latency in nanoseconds
+     * @param success      whether the request succeeded
+     */
+    void record(long latencyNanos, boolean success) {
+        if (requests == latencies.length) {
+            latencies = Arrays.copyOf(latencies, requests * 2);
+        }
+        latencies[requests++] = latencyNanos;
+        sorted = false;
+        if (!success) {
+            errors++;
+        }
+    }
+
+    /**
+     * Add the requests of another instance.
+     *
+     * @param other stats of another virtual user
+     */
+    void add(OperationStats other) {
+        if (requests + other.requests > latencies.length) {
+            latencies = Arrays.copyOf(latencies, Math.max(requests + other.requests, requests * 2));
+        }
+        System.arraycopy(other.latencies, 0, latencies, requests, other.requests);
+        requests += other.requests;
+        errors += other.errors;
+        sorted = false;
+    }
+
+    /**
+     * Get the number of requests.
+     *
+     * @return requests
+     */
+    long getRequests() {
+        return requests;
+    }
+
+    /**
+     * Get the number of failed requests.
+     *
+     * @return errors
+     */
+    long getErrors() {
+        return errors;
+    }
+
+    /**
+     * Get a latency percentile, by the nearest rank method.
+     *
+     * @param percentile percentile between 0 and 100
+     * @return latency in milliseconds, 0 if there is no request
+     */
+    double getPercentile(double percentile) {
+        if (requests == 0) {
+            return 0;
+        }
+        if (!sorted) {
+            Arrays.sort(latencies, 0, requests);
+            sorted = true;
+        }
+
+        int rank = (int) Math.ceil(percentile / 100 * requests);
+        return (double) latencies[Math.max(rank, 1) - 1] / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
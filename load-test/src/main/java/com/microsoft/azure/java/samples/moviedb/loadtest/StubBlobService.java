@@ -0,0 +1,121 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.java.samples.moviedb.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.StreamUtils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Base64;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Answers the blob service calls of the image upload, so that uploads can be load tested without a storage account.
+ * Every container exists and every blob upload succeeds. Uploaded content is counted and dropped.
+ */
+final class StubBlobService implements Closeable {
+    private static final String ACCOUNT = "loadtest";
+    private static final String ACCOUNT_KEY = Base64.getEncoder().encodeToString(new byte[64]);
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final AtomicLong uploads = new AtomicLong();
+    private final AtomicLong uploadedBytes = new AtomicLong();
+
+    /**
+     * Start the stub on a random local port.
+     *
+     * @throws IOException if the port cannot be bound
+     */
+    StubBlobService() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", this::handle);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    /**
+     * Get the storage connection string of the stub.
+     *
+     * @return connection string
+     */
+    String getConnectionString() {
+        return "DefaultEndpointsProtocol=http;AccountName=" + ACCOUNT + ";AccountKey=" + ACCOUNT_KEY
+                + ";BlobEndpoint=http://127.0.0.1:" + server.getAddress().getPort() + "/" + ACCOUNT;
+    }
+
+    /**
+     * Get the number of uploaded blobs.
+     *
+     * @return number of uploads
+     */
+    long getUploads() {
+        return uploads.get();
+    }
+
+    /**
+     * Get the number of uploaded bytes.
+     *
+     * @return uploaded bytes
+     */
+    long getUploadedBytes() {
+        return uploadedBytes.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            long length = StreamUtils.drain(in);
+            String query = exchange.getRequestURI().getQuery();
+            boolean container = query != null && query.contains("restype=container");
+
+            HttpStatus status;
+            switch (exchange.getRequestMethod()) {
+                case "PUT":
+                    if (!container) {
+                        uploads.incrementAndGet();
+                        uploadedBytes.addAndGet(length);
+                    }
+                    status = query != null && query.contains("comp=acl") ? HttpStatus.OK : HttpStatus.CREATED;
+                    break;
+                case "GET":
+                case "HEAD":
+                    status = container ? HttpStatus.OK : HttpStatus.NOT_FOUND;
+                    break;
+                default:
+                    status = HttpStatus.METHOD_NOT_ALLOWED;
+            }
+
+            exchange.getResponseHeaders().add(HttpHeaders.ETAG, "\"0x" + Long.toHexString(System.nanoTime()) + "\"");
+            exchange.getResponseHeaders().add(HttpHeaders.LAST_MODIFIED,
+                    DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.now(ZoneOffset.UTC)));
+            exchange.getResponseHeaders().add("x-ms-request-id", UUID.randomUUID().toString());
+            exchange.getResponseHeaders().add("x-ms-version", "2016-05-31");
+            exchange.sendResponseHeaders(status.value(), -1);
+        } finally {
+            exchange.close();
+        }
+    }
+}
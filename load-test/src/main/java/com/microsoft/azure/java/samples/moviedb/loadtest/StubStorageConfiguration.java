@@ -0,0 +1,36 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.java.samples.moviedb.loadtest;
+
+import com.microsoft.azure.storage.CloudStorageAccount;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.URISyntaxException;
+import java.security.InvalidKeyException;
+
+/**
+ * Points the storage account of web-app at the {@link StubBlobService}. The storage starter builds the same account
+ * from the connection string property.
+ */
+@Configuration
+public class StubStorageConfiguration {
+    /**
+     * Get the storage account of the stub blob service.
+     *
+     * @param connectionString connection string of the stub
+     * @return storage account
+     * @throws URISyntaxException  if the endpoint is malformed
+     * @throws InvalidKeyException if the account key is malformed
+     */
+    @Bean
+    public CloudStorageAccount cloudStorageAccount(@Value("${azure.storage.connection-string}") String connectionString)
+            throws URISyntaxException, InvalidKeyException {
+        return CloudStorageAccount.parse(connectionString);
+    }
+}
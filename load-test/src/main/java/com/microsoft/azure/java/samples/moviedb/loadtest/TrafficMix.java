@@ -0,0 +1,79 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.java.samples.moviedb.loadtest;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Weighted mix of operations, written as "list:60,detail:30,patch:5,upload:5". Operations that are left out are not
+ * sent.
+ */
+final class TrafficMix {
+    private final Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+    private final Operation[] operations;
+    private final int[] cumulativeWeights;
+
+    /**
+     * Parse a traffic mix.
+     *
+     * @param mix comma separated operation:weight pairs
+     * @throws IllegalArgumentException if the mix is malformed or all weights are zero
+     */
+    TrafficMix(String mix) {
+        for (String entry : mix.split(",")) {
+            String[] pair = entry.trim().split(":");
+            Operation operation = Arrays.stream(Operation.values())
+                    .filter(candidate -> candidate.getKey().equals(pair[0].trim()))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException("Unknown operation in mix: " + entry));
+            int weight = pair.length == 2 ? Integer.parseInt(pair[1].trim()) : 1;
+            if (weight < 0) {
+                throw new IllegalArgumentException("Negative weight in mix: " + entry);
+            }
+            weights.merge(operation, weight, Integer::sum);
+        }
+
+        operations = weights.keySet().toArray(new Operation[0]);
+        cumulativeWeights = new int[operations.length];
+        int total = 0;
+        for (int i = 0; i < operations.length; i++) {
+            total += weights.get(operations[i]);
+            cumulativeWeights[i] = total;
+        }
+        if (total == 0) {
+            throw new IllegalArgumentException("No operation in mix: " + mix);
+        }
+    }
+
+    /**
+     * Pick the next operation.
+     *
+     * @param random random of the virtual user
+     * @return operation
+     */
+    Operation next(Random random) {
+        int value = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < operations.length; i++) {
+            if (value < cumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+
+        throw new IllegalStateException();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        weights.forEach((operation, weight) ->
+                builder.append(builder.length() == 0 ? "" : ",").append(operation.getKey()).append(':').append(weight));
+        return builder.toString();
+    }
+}
@@ -0,0 +1,186 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.java.samples.moviedb.loadtest;
+
+import org.apache.http.impl.client.BasicCookieStore;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.client.DefaultResponseErrorHandler;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.URI;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * One browser session on web-app, with its own cookies, CSRF token and position in the movie list.
+ * Redirects are not followed, a form post is done when web-app redirects back to the movie page.
+ */
+final class VirtualUser implements Closeable {
+    private static final String FIRST_LIST_PAGE = "/movies";
+    private static final Pattern CSRF_TOKEN = Pattern.compile("<meta name=\"_csrf\" content=\"([^\"]+)\"");
+    private static final Pattern NEXT_PAGE = Pattern.compile("href=\"(/movies\\?cursor=[^\"]+)\"[^>]*>Next<");
+    private static final String MOVIE_LINK = "href=\"/movies/";
+    private static final String MISSING_MOVIE = "doesn't exist";
+
+    private final String baseUrl;
+    private final List<Long> movieIds;
+    private final byte[] image;
+    private final Random random;
+    private final CloseableHttpClient httpClient;
+    private final RestTemplate restTemplate;
+
+    private String listPage = FIRST_LIST_PAGE;
+    private String csrfToken;
+
+    /**
+     * Create a user with a fresh session.
+     *
+     * @param baseUrl  base URL of web-app
+     * @param movieIds ids of the movies to read and update
+     * @param image    content of uploaded images
+     * @param seed     seed of the random choices of the user
+     */
+    VirtualUser(String baseUrl, List<Long> movieIds, byte[] image, long seed) {
+        this.baseUrl = baseUrl;
+        this.movieIds = movieIds;
+        this.image = image;
+        this.random = new Random(seed);
+        this.httpClient = HttpClients.custom()
+                .setDefaultCookieStore(new BasicCookieStore())
+                .disableRedirectHandling()
+                .build();
+        this.restTemplate = new RestTemplate(new HttpComponentsClientHttpRequestFactory(httpClient));
+        this.restTemplate.setErrorHandler(new DefaultResponseErrorHandler() {
+            @Override
+            public boolean hasError(ClientHttpResponse response) {
+                return false;
+            }
+        });
+    }
+
+    /**
+     * Get the random of the user.
+     *
+     * @return random
+     */
+    Random getRandom() {
+        return random;
+    }
+
+    /**
+     * Send one request.
+     *
+     * @param operation operation to send
+     * @return whether web-app answered with the expected page or redirect
+     */
+    boolean execute(Operation operation) {
+        switch (operation) {
+            case LIST:
+                return list();
+            case DETAIL:
+                return detail();
+            case PATCH:
+                return patch();
+            case UPLOAD:
+                return upload();
+            default:
+                throw new IllegalArgumentException(operation.name());
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        httpClient.close();
+    }
+
+    private boolean list() {
+        ResponseEntity<String> response = get(listPage);
+        String body = response.getBody();
+        Matcher next = body != null ? NEXT_PAGE.matcher(body) : null;
+        listPage = next != null && next.find() ? next.group(1).replace("&amp;", "&") : FIRST_LIST_PAGE;
+        return response.getStatusCode() == HttpStatus.OK && body != null && body.contains(MOVIE_LINK);
+    }
+
+    private boolean detail() {
+        ResponseEntity<String> response = get("/movies/" + randomMovieId());
+        String body = response.getBody();
+        if (body != null) {
+            Matcher token = CSRF_TOKEN.matcher(body);
+            if (token.find()) {
+                csrfToken = token.group(1);
+            }
+        }
+        return response.getStatusCode() == HttpStatus.OK && body != null && !body.contains(MISSING_MOVIE);
+    }
+
+    private boolean patch() {
+        if (csrfToken == null && !detail()) {
+            return false;
+        }
+
+        MultiValueMap<String, Object> form = new LinkedMultiValueMap<>();
+        form.add("_csrf", csrfToken);
+        form.add("description", "Description written by the load test at " + System.currentTimeMillis());
+        ResponseEntity<String> response = post("/movies/" + randomMovieId(), form, MediaType.APPLICATION_FORM_URLENCODED);
+        return isRedirectToMovie(response);
+    }
+
+    private boolean upload() {
+        if (csrfToken == null && !detail()) {
+            return false;
+        }
+
+        MultiValueMap<String, Object> form = new LinkedMultiValueMap<>();
+        form.add("_csrf", csrfToken);
+        form.add("id", Long.toString(randomMovieId()));
+        form.add("file", new ByteArrayResource(image) {
+            @Override
+            public String getFilename() {
+                return "poster.png";
+            }
+        });
+        ResponseEntity<String> response = post("/upload", form, MediaType.MULTIPART_FORM_DATA);
+        return isRedirectToMovie(response);
+    }
+
+    private long randomMovieId() {
+        return movieIds.get(random.nextInt(movieIds.size()));
+    }
+
+    private ResponseEntity<String> get(String path) {
+        return restTemplate.getForEntity(URI.create(baseUrl + path), String.class);
+    }
+
+    private ResponseEntity<String> post(String path, MultiValueMap<String, Object> form, MediaType contentType) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(contentType);
+        return restTemplate.exchange(URI.create(baseUrl + path), HttpMethod.POST, new HttpEntity<>(form, headers),
+                String.class);
+    }
+
+    private static boolean isRedirectToMovie(ResponseEntity<String> response) {
+        URI location = response.getHeaders().getLocation();
+        return response.getStatusCode().is3xxRedirection() && location != null
+                && location.getPath().startsWith("/movies/") && location.getQuery() == null;
+    }
+}
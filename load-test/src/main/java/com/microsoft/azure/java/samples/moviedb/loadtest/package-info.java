@@ -0,0 +1,11 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+/**
+ * Load test of web-app and data-app in one process, with HSQLDB, an in-memory cache and a stub blob service in
+ * place of the Azure services.
+ */
+package com.microsoft.azure.java.samples.moviedb.loadtest;
@@ -0,0 +1,93 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.java.samples.moviedb.trace;
+
+/**
+ * Timed operation within a trace, such as a repository query or a request to another service.
+ */
+public class Span {
+    /**
+     * Span of a request that is not sampled, ending it does nothing.
+     */
+    public static final Span NOOP = new Span(null, null, null, null, 0) {
+        @Override
+        public void end() {
+        }
+    };
+
+    private final Trace trace;
+    private final String id;
+    private final String kind;
+    private final String name;
+    private final long startNanos;
+    private volatile long durationNanos = -1;
+
+    Span(Trace trace, String id, String kind, String name, long startNanos) {
+        this.trace = trace;
+        this.id = id;
+        this.kind = kind;
+        this.name = name;
+        this.startNanos = startNanos;
+    }
+
+    /**
+     * End the span.
+     */
+    public void end() {
+        durationNanos = System.nanoTime() - startNanos;
+    }
+
+    /**
+     * Get span id.
+     *
+     * @return 16 hex digits, null for a span that is not recorded
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Get kind of the operation.
+     *
+     * @return kind
+     */
+    public String getKind() {
+        return kind;
+    }
+
+    /**
+     * Get name of the operation.
+     *
+     * @return name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Get start of the span relative to the start of the trace.
+     *
+     * @return milliseconds
+     */
+    public double getOffsetMillis() {
+        return Trace.toMillis(startNanos - trace.getStartNanos());
+    }
+
+    /**
+     * Get duration of the span.
+     *
+     * @return milliseconds, null while the span has not ended
+     */
+    public Double getDurationMillis() {
+        long duration = durationNanos;
+        return duration < 0 ? null : Trace.toMillis(duration);
+    }
+
+    long getDurationNanos() {
+        return durationNanos;
+    }
+}
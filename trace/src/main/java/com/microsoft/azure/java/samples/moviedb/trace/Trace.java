@@ -0,0 +1,289 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.java.samples.moviedb.trace;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The part of a trace that one request spends in this application, with the spans recorded while serving it.
+ * The trace and parent span ids are taken from a valid traceparent header, in the format of the W3C Trace Context
+ * recommendation, and so is the decision whether to sample. Without such a header the request starts a new trace.
+ * Only sampled traces record spans.
+ */
+public class Trace {
+    /**
+     * Name of the header that carries the trace context.
+     */
+    public static final String HEADER = "traceparent";
+
+    private static final int MAX_SPANS = 256;
+    private static final int HEADER_LENGTH = 55;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    private final String traceId;
+    private final String spanId;
+    private final String parentSpanId;
+    private final String name;
+    private final boolean sampled;
+    private final long start = System.currentTimeMillis();
+    private final long startNanos = System.nanoTime();
+    private final List<Span> spans;
+    private volatile int droppedSpans;
+    private volatile long durationNanos = -1;
+    private volatile int status;
+
+    private Trace(String traceId, String parentSpanId, String name, boolean sampled) {
+        this.traceId = traceId;
+        this.spanId = newSpanId();
+        this.parentSpanId = parentSpanId;
+        this.name = name;
+        this.sampled = sampled;
+        this.spans = sampled ? new ArrayList<>() : null;
+    }
+
+    /**
+     * Start the trace of a request.
+     *
+     * @param name        name of the request
+     * @param traceparent traceparent header of the request, may be null
+     * @param sampleRate  share of the requests without a valid header that are sampled, between 0 and 1
+     * @return trace
+     */
+    public static Trace start(String name, String traceparent, double sampleRate) {
+        if (isValid(traceparent)) {
+            boolean sampled = (Character.digit(traceparent.charAt(54), 16) & 1) != 0;
+            return new Trace(traceparent.substring(3, 35), traceparent.substring(36, 52), name, sampled);
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return new Trace(hex(random.nextLong()) + hex(random.nextLong()), null, name,
+                sampleRate > 0 && random.nextDouble() < sampleRate);
+    }
+
+    /**
+     * Start a span of this trace.
+     *
+     * @param kind kind of the operation
+     * @param name name of the operation
+     * @return span to end once the operation is done, a span that records nothing if the trace is not sampled
+     */
+    public Span startSpan(String kind, String name) {
+        if (!sampled) {
+            return Span.NOOP;
+        }
+        synchronized (spans) {
+            if (spans.size() >= MAX_SPANS) {
+                droppedSpans++;
+                return Span.NOOP;
+            }
+            Span span = new Span(this, newSpanId(), kind, name, System.nanoTime());
+            spans.add(span);
+            return span;
+        }
+    }
+
+    /**
+     * Get the traceparent header that continues this trace in a request sent on behalf of it.
+     *
+     * @param span span of the outgoing request, the parent of the operations of the receiver
+     * @return header value
+     */
+    public String toHeader(Span span) {
+        String parentId = span.getId() != null ? span.getId() : spanId;
+        return "00-" + traceId + "-" + parentId + (sampled ? "-01" : "-00");
+    }
+
+    /**
+     * End the trace.
+     *
+     * @param status HTTP status of the response
+     */
+    void finish(int status) {
+        this.status = status;
+        this.durationNanos = System.nanoTime() - startNanos;
+    }
+
+    /**
+     * Get trace id, shared by all applications that serve the same original request.
+     *
+     * @return 32 hex digits
+     */
+    public String getTraceId() {
+        return traceId;
+    }
+
+    /**
+     * Get id of the request span in this application.
+     *
+     * @return 16 hex digits
+     */
+    public String getSpanId() {
+        return spanId;
+    }
+
+    /**
+     * Get id of the span of the caller that sent the request.
+     *
+     * @return 16 hex digits, null if the request started the trace
+     */
+    public String getParentSpanId() {
+        return parentSpanId;
+    }
+
+    /**
+     * Get name of the request.
+     *
+     * @return method and path
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Whether the trace records spans.
+     *
+     * @return true if sampled
+     */
+    @JsonIgnore
+    public boolean isSampled() {
+        return sampled;
+    }
+
+    /**
+     * Get start time.
+     *
+     * @return milliseconds since the epoch
+     */
+    public long getStart() {
+        return start;
+    }
+
+    /**
+     * Get duration of the request.
+     *
+     * @return milliseconds, null while the request is being served
+     */
+    public Double getDurationMillis() {
+        long duration = durationNanos;
+        return duration < 0 ? null : toMillis(duration);
+    }
+
+    /**
+     * Get HTTP status of the response.
+     *
+     * @return status, 0 while the request is being served
+     */
+    public int getStatus() {
+        return status;
+    }
+
+    /**
+     * Get total duration of the ended spans by kind. Spans that overlap, such as concurrent requests, add up to
+     * more than the time they took together.
+     *
+     * @return milliseconds by kind
+     */
+    public Map<String, Double> getBreakdown() {
+        Map<String, Double> breakdown = new TreeMap<>();
+        for (Span span : getSpans()) {
+            long duration = span.getDurationNanos();
+            if (duration >= 0) {
+                breakdown.merge(span.getKind(), toMillis(duration), Double::sum);
+            }
+        }
+        return breakdown;
+    }
+
+    /**
+     * Get spans in the order they started.
+     *
+     * @return spans
+     */
+    public List<Span> getSpans() {
+        if (!sampled) {
+            return Collections.emptyList();
+        }
+        synchronized (spans) {
+            return new ArrayList<>(spans);
+        }
+    }
+
+    /**
+     * Get number of spans that were not recorded because the trace already had the maximum number of spans.
+     *
+     * @return number of spans
+     */
+    public int getDroppedSpans() {
+        return droppedSpans;
+    }
+
+    long getStartNanos() {
+        return startNanos;
+    }
+
+    long getDurationNanos() {
+        return durationNanos;
+    }
+
+    static double toMillis(long nanos) {
+        return nanos / NANOS_PER_MILLI;
+    }
+
+    private static String newSpanId() {
+        return hex(ThreadLocalRandom.current().nextLong());
+    }
+
+    private static String hex(long value) {
+        char[] digits = new char[16];
+        for (int i = digits.length - 1; i >= 0; i--) {
+            digits[i] = HEX[(int) (value & 0xf)];
+            value >>>= 4;
+        }
+        return new String(digits);
+    }
+
+    /**
+     * Check a traceparent header of version 00, or of a later version, whose fields start the same way.
+     */
+    private static boolean isValid(String traceparent) {
+        if (traceparent == null || traceparent.length() < HEADER_LENGTH
+                || (traceparent.length() > HEADER_LENGTH && traceparent.charAt(HEADER_LENGTH) != '-')
+                || traceparent.charAt(2) != '-' || traceparent.charAt(35) != '-' || traceparent.charAt(52) != '-'
+                || traceparent.startsWith("ff")) {
+            return false;
+        }
+        return isHex(traceparent, 0, 2) && isHex(traceparent, 3, 35) && isHex(traceparent, 36, 52)
+                && isHex(traceparent, 53, HEADER_LENGTH)
+                && !isZero(traceparent, 3, 35) && !isZero(traceparent, 36, 52);
+    }
+
+    private static boolean isHex(String value, int from, int to) {
+        for (int i = from; i < to; i++) {
+            char c = value.charAt(i);
+            if ((c < '0' || c > '9') && (c < 'a' || c > 'f')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isZero(String value, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (value.charAt(i) != '0') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,59 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.java.samples.moviedb.trace;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Keeps the most recent sampled traces in a ring, the oldest are overwritten. Adding a trace takes two atomic
+ * operations, the work of finding the slowest traces is left to the reader.
+ */
+public class TraceCollector {
+    private final AtomicReferenceArray<Trace> traces;
+    private final AtomicLong next = new AtomicLong();
+
+    /**
+     * Constructor.
+     *
+     * @param capacity number of recent traces kept
+     */
+    public TraceCollector(int capacity) {
+        this.traces = new AtomicReferenceArray<>(Math.max(1, capacity));
+    }
+
+    /**
+     * Add a finished trace.
+     *
+     * @param trace trace
+     */
+    public void add(Trace trace) {
+        traces.set((int) (next.getAndIncrement() % traces.length()), trace);
+    }
+
+    /**
+     * Get the slowest of the recent traces.
+     *
+     * @param limit   maximum number of traces
+     * @param traceId only return the parts of this trace, null for all traces
+     * @return traces, slowest first
+     */
+    public List<Trace> getSlowest(int limit, String traceId) {
+        List<Trace> result = new ArrayList<>();
+        for (int i = 0; i < traces.length(); i++) {
+            Trace trace = traces.get(i);
+            if (trace != null && (traceId == null || traceId.equals(trace.getTraceId()))) {
+                result.add(trace);
+            }
+        }
+        result.sort(Comparator.comparingLong(Trace::getDurationNanos).reversed());
+        return result.size() > limit ? new ArrayList<>(result.subList(0, Math.max(0, limit))) : result;
+    }
+}
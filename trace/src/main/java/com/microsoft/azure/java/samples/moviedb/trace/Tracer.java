@@ -0,0 +1,51 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.java.samples.moviedb.trace;
+
+/**
+ * Holds the trace of the request served by the current thread.
+ */
+public final class Tracer {
+    private static final ThreadLocal<Trace> CURRENT = new ThreadLocal<>();
+
+    private Tracer() {
+    }
+
+    /**
+     * Get the trace of the current request.
+     *
+     * @return trace, null outside of a request
+     */
+    public static Trace current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Set the trace of the request the current thread works on.
+     *
+     * @param trace trace, null to clear it
+     */
+    public static void setCurrent(Trace trace) {
+        if (trace != null) {
+            CURRENT.set(trace);
+        } else {
+            CURRENT.remove();
+        }
+    }
+
+    /**
+     * Start a span of the current trace.
+     *
+     * @param kind kind of the operation
+     * @param name name of the operation
+     * @return span to end once the operation is done, a span that records nothing outside of a sampled trace
+     */
+    public static Span startSpan(String kind, String name) {
+        Trace trace = CURRENT.get();
+        return trace != null ? trace.startSpan(kind, name) : Span.NOOP;
+    }
+}
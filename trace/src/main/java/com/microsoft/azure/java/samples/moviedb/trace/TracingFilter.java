@@ -0,0 +1,82 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.java.samples.moviedb.trace;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Starts the trace of a request and makes it current on every thread that dispatches the request.
+ * A request that goes async keeps its trace in a request attribute until the dispatch that completes it.
+ */
+public class TracingFilter extends OncePerRequestFilter {
+    private static final String TRACE_ATTRIBUTE = TracingFilter.class.getName() + ".trace";
+
+    private final TraceCollector collector;
+    private final double sampleRate;
+    private final List<String> excludedPaths;
+
+    /**
+     * Constructor.
+     *
+     * @param collector     collector of the sampled traces
+     * @param sampleRate    share of the requests without trace context that are sampled, between 0 and 1
+     * @param excludedPaths path prefixes of requests that are not traced, such as long polls
+     */
+    public TracingFilter(TraceCollector collector, double sampleRate, String... excludedPaths) {
+        this.collector = collector;
+        this.sampleRate = sampleRate;
+        this.excludedPaths = Arrays.asList(excludedPaths);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        for (String excludedPath : excludedPaths) {
+            if (uri.startsWith(excludedPath)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Trace trace = (Trace) request.getAttribute(TRACE_ATTRIBUTE);
+        if (trace == null) {
+            trace = Trace.start(request.getMethod() + " " + request.getRequestURI(), request.getHeader(Trace.HEADER),
+                    sampleRate);
+            request.setAttribute(TRACE_ATTRIBUTE, trace);
+        }
+
+        Tracer.setCurrent(trace);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            Tracer.setCurrent(null);
+            if (!request.isAsyncStarted()) {
+                trace.finish(response.getStatus());
+                if (trace.isSampled()) {
+                    collector.add(trace);
+                }
+            }
+        }
+    }
+}
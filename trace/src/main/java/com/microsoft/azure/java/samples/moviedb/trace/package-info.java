@@ -0,0 +1,11 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+/**
+ * Sampled request traces, continued from the W3C traceparent header of the caller and kept in memory. Shared by
+ * data app and web app, each of them records its own spans and serves its own traces.
+ */
+package com.microsoft.azure.java.samples.moviedb.trace;
@@ -0,0 +1,78 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+
+package com.microsoft.azure.java.samples.moviedb.web;
+
+import com.microsoft.azure.java.samples.moviedb.web.cache.TwoTierCacheManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.cache.CacheManagerCustomizer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * Settings of the caches. With the near cache enabled, the Redis cache manager that Spring Boot would configure is
+ * replaced by one with an in-heap tier in front of it.
+ */
+@Configuration
+public class CacheConfig {
+
+    /**
+     * Let Redis expire cached movie list pages after their max age, since any page cursor can be requested.
+     * Movies are kept until they are evicted or revalidated.
+     *
+     * @param pageMaxAge seconds a cached page is served
+     * @return customizer of the Redis cache manager
+     */
+    @Bean
+    public CacheManagerCustomizer<RedisCacheManager> redisCacheManagerCustomizer(
+            @Value("${moviedb.webapp.pageMaxAge:30}") long pageMaxAge) {
+        // Not a lambda, so that Spring Boot can tell from the type argument that it only applies to Redis.
+        return new CacheManagerCustomizer<RedisCacheManager>() {
+            @Override
+            public void customize(RedisCacheManager cacheManager) {
+                setExpires(cacheManager, pageMaxAge);
+            }
+        };
+    }
+
+    /**
+     * Cache manager with an in-heap tier in front of Redis for the hot caches.
+     *
+     * @param redisTemplate template that Spring Boot configures for the Redis cache manager
+     * @param pageMaxAge    seconds a cached page is served
+     * @param caches        names of the caches that get an in-heap tier
+     * @param maxSize       maximum number of entries in heap per cache
+     * @param ttl           seconds an entry is kept in heap
+     * @return cache manager
+     */
+    @Bean
+    @ConditionalOnProperty(name = "moviedb.webapp.nearCache.enabled", havingValue = "true")
+    public TwoTierCacheManager cacheManager(RedisTemplate<Object, Object> redisTemplate,
+                                            @Value("${moviedb.webapp.pageMaxAge:30}") long pageMaxAge,
+                                            @Value("${moviedb.webapp.nearCache.caches:movie,moviePages}")
+                                                    String[] caches,
+                                            @Value("${moviedb.webapp.nearCache.maxSize:10000}") long maxSize,
+                                            @Value("${moviedb.webapp.nearCache.ttl:10}") long ttl) {
+        RedisCacheManager redisCacheManager = new RedisCacheManager(redisTemplate);
+        redisCacheManager.setUsePrefix(true);
+        setExpires(redisCacheManager, pageMaxAge);
+        redisCacheManager.afterPropertiesSet();
+        return new TwoTierCacheManager(redisCacheManager, redisTemplate, Arrays.asList(caches), maxSize, ttl);
+    }
+
+    private static void setExpires(RedisCacheManager cacheManager, long pageMaxAge) {
+        if (pageMaxAge > 0) {
+            cacheManager.setExpires(Collections.singletonMap(MoviePageCache.PAGE_CACHE, pageMaxAge));
+        }
+    }
+}
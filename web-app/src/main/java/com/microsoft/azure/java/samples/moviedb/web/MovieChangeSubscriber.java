@@ -0,0 +1,182 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+
+package com.microsoft.azure.java.samples.moviedb.web;
+
+import com.microsoft.azure.java.samples.moviedb.web.pojo.MovieChange;
+import com.microsoft.azure.java.samples.moviedb.web.pojo.MovieChanges;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Follows the data app movie change feed and evicts exactly the changed movies from the movie cache, and the
+ * cached movie list pages that contain them. While the feed is followed, cached movies validated since it is
+ * followed can be served much longer without revalidation, see {@link MovieRepository#getMovie}. If changes were
+ * missed, for instance because data app restarted, the whole movie cache and page cache are cleared. An instance
+ * that starts follows the feed from then on without clearing the caches, which other instances share. Movies they
+ * cached before may have missed changes this instance never saw, so they keep the short max age until revalidated.
+ */
+@Component
+public class MovieChangeSubscriber {
+    private static final String PATH_MOVIE_CHANGES = "/movies/changes?since={since}&timeout={timeout}";
+    private static final String PATH_MOVIE_CHANGES_FROM_NOW = "/movies/changes?timeout=0";
+    private static final Logger logger = LoggerFactory.getLogger(MovieChangeSubscriber.class);
+    private static final long RETRY_DELAY_MILLIS = 5000;
+    private static final long RECENT_CHANGE_MILLIS = 60000;
+
+    private final RestTemplate restTemplate;
+    private final CacheManager cacheManager;
+    private final MoviePageCache moviePageCache;
+    private final boolean enabled;
+    private final long pollTimeout;
+    private final Map<String, Long> recentChanges = new ConcurrentHashMap<>();
+    private volatile boolean running;
+    private volatile boolean inSync;
+    private volatile long followedSince = Long.MAX_VALUE;
+    private volatile long resetAt;
+    private Thread thread;
+
+    /**
+     * Construct rest template with data app uri.
+     *
+     * @param builder        rest template builder
+     * @param cacheManager   cache manager that holds the movie cache
+     * @param moviePageCache cache of movie list pages
+     * @param dataAppUri     data app uri from application.properties
+     * @param enabled        whether to follow the change feed
+     * @param pollTimeout    milliseconds data app holds a poll request open while there are no changes
+     */
+    public MovieChangeSubscriber(RestTemplateBuilder builder, CacheManager cacheManager,
+                                 MoviePageCache moviePageCache,
+                                 @Value("${moviedb.webapp.dataAppUri}") String dataAppUri,
+                                 @Value("${moviedb.webapp.changeFeed.enabled:true}") boolean enabled,
+                                 @Value("${moviedb.webapp.changeFeed.pollTimeout:30000}") long pollTimeout) {
+        HttpComponentsClientHttpRequestFactory requestFactory = new HttpComponentsClientHttpRequestFactory();
+        requestFactory.setReadTimeout((int) (pollTimeout + RETRY_DELAY_MILLIS));
+        restTemplate = builder.rootUri(MovieRepository.getDataAppApiUrl(dataAppUri)).build();
+        restTemplate.setRequestFactory(requestFactory);
+
+        this.cacheManager = cacheManager;
+        this.moviePageCache = moviePageCache;
+        this.enabled = enabled;
+        this.pollTimeout = pollTimeout;
+    }
+
+    /**
+     * Start following the change feed.
+     */
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        thread = new Thread(this::follow, "movie-change-subscriber");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stop following the change feed.
+     */
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    /**
+     * Whether every change of a movie validated at the given time will be applied to the movie cache. Only a movie
+     * validated after the feed was first read has all its later changes in the feed.
+     *
+     * @param validatedAt time in milliseconds since the epoch the movie was requested from data app
+     * @return true while the change feed is followed without errors, if the movie was validated since it is followed
+     */
+    public boolean isFollowedSince(long validatedAt) {
+        return inSync && validatedAt >= followedSince;
+    }
+
+    /**
+     * Whether a change of the movie was applied after the given time. A movie fetched from data app before
+     * that point may have been cached after its eviction, so it must not be trusted for long.
+     *
+     * @param id    movie id
+     * @param since time in milliseconds since the epoch
+     * @return true if the movie changed since then
+     */
+    public boolean isChangedSince(String id, long since) {
+        Long changedAt = recentChanges.get(id);
+        return resetAt >= since || changedAt != null && changedAt >= since;
+    }
+
+    private void follow() {
+        String cursor = null;
+        while (running) {
+            try {
+                MovieChanges changes = cursor == null
+                        ? restTemplate.getForObject(PATH_MOVIE_CHANGES_FROM_NOW, MovieChanges.class)
+                        : restTemplate.getForObject(PATH_MOVIE_CHANGES, MovieChanges.class, cursor, pollTimeout);
+                apply(changes);
+                if (cursor == null) {
+                    // Changes from here on are in the feed. Reconnecting with the cursor keeps that true.
+                    followedSince = System.currentTimeMillis();
+                }
+                cursor = changes.getCursor();
+                inSync = true;
+            } catch (Exception e) {
+                if (!running) {
+                    break;
+                }
+                if (inSync) {
+                    logger.warn("Lost movie change feed, cached movies fall back to the short max age: "
+                            + e.getMessage());
+                }
+                inSync = false;
+                try {
+                    Thread.sleep(RETRY_DELAY_MILLIS);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+    }
+
+    private void apply(MovieChanges changes) {
+        Cache cache = cacheManager.getCache(MovieRepository.MOVIE_CACHE);
+        long now = System.currentTimeMillis();
+        if (changes.isReset()) {
+            logger.info("Movie change feed reset, clearing the movie cache and page cache");
+            resetAt = now;
+            cache.clear();
+            moviePageCache.clear();
+        }
+        if (changes.getChanges() != null) {
+            for (MovieChange change : changes.getChanges()) {
+                String id = Long.toString(change.getId());
+                recentChanges.put(id, now);
+                cache.evict(id);
+                moviePageCache.evictMovie(id);
+            }
+        }
+        recentChanges.values().removeIf(changedAt -> now - changedAt > RECENT_CHANGE_MILLIS);
+    }
+}
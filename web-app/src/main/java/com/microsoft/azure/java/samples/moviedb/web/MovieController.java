@@ -9,7 +9,9 @@ package com.microsoft.azure.java.samples.moviedb.web;
 
 import com.microsoft.azure.java.samples.moviedb.web.pojo.Movie;
 import com.microsoft.azure.java.samples.moviedb.web.pojo.MoviesResponse;
+import com.microsoft.azure.java.samples.moviedb.web.pojo.PageCursor;
 import com.microsoft.azure.java.samples.moviedb.web.pojo.PageInfo;
+import com.microsoft.azure.java.samples.moviedb.web.pojo.RatingStats;
 import com.microsoft.azure.java.samples.moviedb.web.util.AzureStorageUploader;
 import org.apache.commons.io.FilenameUtils;
 import org.slf4j.Logger;
@@ -23,17 +25,24 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.util.UriComponentsBuilder;
 
 import java.sql.Timestamp;
+import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Controller that handles HTTP requests and returns corresponding views.
+ * Pages that read from data app return a future of the view name, so the request thread is released while data app
+ * answers and the view is rendered once the future completes.
  */
 @Controller
 public class MovieController {
     private static final Logger logger = LoggerFactory.getLogger(MovieController.class);
+    private static final int MOVIES_PER_PAGE = 20;
 
     @Autowired
     private ApplicationContext applicationContext;
@@ -49,22 +58,25 @@ public class MovieController {
      *
      * @param id    movie id
      * @param model spring model
-     * @return movie detail page
+     * @return future of the movie detail page
      */
     @RequestMapping(value = "/movies/{id}", method = RequestMethod.GET)
-    public String getMovieById(@PathVariable Long id, Model model) {
-        Movie movie = movieRepository.getMovie(Long.toString(id));
-        if (movie != null) {
-            if (movie.getImageUri() != null) {
-                movie.setImageFullPathUri(
-                        azureStorageUploader.getAzureStorageBaseUri(applicationContext) + movie.getImageUri());
-            }
+    public CompletableFuture<String> getMovieById(@PathVariable Long id, Model model) {
+        return movieRepository.getMovie(Long.toString(id)).thenApply(cached -> {
+            if (cached != null) {
+                // The cached movie is shared with other requests.
+                Movie movie = cached.copy();
+                if (movie.getImageUri() != null) {
+                    movie.setImageFullPathUri(
+                            azureStorageUploader.getAzureStorageBaseUri(applicationContext) + movie.getImageUri());
+                }
 
-            model.addAttribute("movie", movie);
-            return "moviedetail";
-        } else {
-            return "moviedetailerror";
-        }
+                model.addAttribute("movie", movie);
+                return "moviedetail";
+            } else {
+                return "moviedetailerror";
+            }
+        });
     }
 
     /**
@@ -72,38 +84,96 @@ public class MovieController {
      *
      * @param id          movie id
      * @param description movie description
+     * @param etag        ETag of the movie the description was edited on, if known
      * @return updated movie detail page
      */
     @RequestMapping(value = "/movies/{id}", method = RequestMethod.POST)
-    public String updateMovieDescription(@PathVariable Long id, @RequestParam("description") String description) {
+    public String updateMovieDescription(@PathVariable Long id, @RequestParam("description") String description,
+                                         @RequestParam(value = "etag", required = false) String etag) {
         logger.debug("Update movie description");
 
         Movie movie = new Movie();
         movie.setDescription(description);
 
-        movieRepository.patchMovie(Long.toString(id), movie);
+        if (!movieRepository.patchMovie(Long.toString(id), movie, etag)) {
+            return "redirect:/movies/" + id + "?updateFailed";
+        }
 
         return "redirect:/movies/" + id;
     }
 
+    /**
+     * Vote for a rating of a movie.
+     *
+     * @param id     movie id
+     * @param rating rating between 1 and 10
+     * @return movie detail page
+     */
+    @RequestMapping(value = "/movies/{id}/votes", method = RequestMethod.POST)
+    public String voteMovie(@PathVariable Long id, @RequestParam("rating") int rating) {
+        if (!movieRepository.voteMovie(Long.toString(id), rating)) {
+            return "redirect:/movies/" + id + "?voteFailed";
+        }
+
+        return "redirect:/movies/" + id + "?voted";
+    }
+
     /**
      * Get one page of movies.
      *
+     * @param cursor opaque page cursor, the first page if absent
+     * @param model  spring model
+     * @return future of the movie list page
+     */
+    @RequestMapping(value = "/movies", method = RequestMethod.GET)
+    public CompletableFuture<String> getMovieList(@RequestParam(value = "cursor", required = false) String cursor,
+                                                  Model model) {
+        PageCursor pageCursor = PageCursor.decode(cursor);
+        model.addAttribute("page", pageCursor.getNumber());
+
+        // Both requests are sent before either response is awaited.
+        CompletableFuture<MoviesResponse> movies = movieRepository.getMovies(pageCursor, MOVIES_PER_PAGE + 1);
+        CompletableFuture<RatingStats> stats = movieRepository.getRatingStats();
+        return movies.thenCombine(stats, (moviesResponse, ratingStats) -> {
+            if (moviesResponse != null) {
+                setupMovieList(moviesResponse, pageCursor, model);
+            }
+            if (ratingStats != null && ratingStats.getCount() > 0) {
+                model.addAttribute("stats", ratingStats);
+            }
+            return "moviespage";
+        });
+    }
+
+    /**
+     * Search movies by free text.
+     *
+     * @param query search text
      * @param page  page number
      * @param model spring model
-     * @return movie list page
+     * @return future of the movie list page with the search results
      */
-    @RequestMapping(value = "/movies", method = RequestMethod.GET)
-    public String getMovieList(@RequestParam(value = "page", required = false, defaultValue = "0") Long page,
-                               Model model) {
-        MoviesResponse moviesResponse = movieRepository.getMovies(Long.toString(page));
-        if (moviesResponse != null) {
-            setupMovieList(moviesResponse, model);
+    @RequestMapping(value = "/movies/search", method = RequestMethod.GET)
+    public CompletableFuture<String> searchMovies(
+            @RequestParam(value = "q", required = false, defaultValue = "") String query,
+            @RequestParam(value = "page", required = false, defaultValue = "0") int page,
+            Model model) {
+        if (query.trim().isEmpty()) {
+            return CompletableFuture.completedFuture("redirect:/movies");
         }
 
+        model.addAttribute("query", query);
         model.addAttribute("page", page);
 
-        return "moviespage";
+        return movieRepository.searchMovies(query, page, MOVIES_PER_PAGE).thenApply(moviesResponse -> {
+            if (moviesResponse != null) {
+                List<Movie> movies = moviesResponse.getMovieList() != null
+                        ? moviesResponse.getMovieList().getMovies() : Collections.<Movie>emptyList();
+                setupSearchResultPageInfo(moviesResponse.getPage(), query, model);
+                setupMovieListThumbnail(movies, model);
+            }
+            return "moviespage";
+        });
     }
 
     /**
@@ -126,42 +196,80 @@ public class MovieController {
 
             Movie movie = new Movie();
             movie.setImageUri(imageUri.toLowerCase() + timestampQuery);
-            movieRepository.patchMovie(Long.toString(id), movie);
+            if (!movieRepository.patchMovie(Long.toString(id), movie, null)) {
+                return "redirect:/movies/" + id + "?updateFailed";
+            }
         }
 
         return "redirect:/movies/" + id;
     }
 
-    private void setupMovieList(MoviesResponse moviesResponse, Model model) {
-        setupMovieListPageInfo(moviesResponse, model);
-        setupMovieListThumbnail(moviesResponse, model);
+    // Package-private for the benchmarks module.
+    void setupMovieList(MoviesResponse moviesResponse, PageCursor cursor, Model model) {
+        List<Movie> movies = moviesResponse.getMovieList() != null
+                ? moviesResponse.getMovieList().getMovies() : Collections.<Movie>emptyList();
+
+        // One extra movie is requested to find out whether there is another page in the reading direction.
+        boolean hasMore = movies.size() > MOVIES_PER_PAGE;
+        if (hasMore) {
+            movies = cursor.isBackward()
+                    ? movies.subList(movies.size() - MOVIES_PER_PAGE, movies.size())
+                    : movies.subList(0, MOVIES_PER_PAGE);
+        }
+
+        setupMovieListPageInfo(movies, cursor, hasMore, model);
+        setupMovieListThumbnail(movies, model);
     }
 
-    private void setupMovieListPageInfo(MoviesResponse moviesResponse, Model model) {
-        final String movielistPath = "/movies?page=";
-        PageInfo page = moviesResponse.getPage();
-        if (page != null) {
-            Integer number = page.getNumber();
-            Integer prev = number - 1;
-            Integer next = number + 1;
-            model.addAttribute("number", next);
-            String prevPath, nextPath;
-            if (prev >= 0) {
-                prevPath = movielistPath + String.valueOf(prev);
-                model.addAttribute("prev", prevPath);
-                model.addAttribute("hasprev", true);
-            }
-            if (next < page.getTotalPages()) {
-                nextPath = movielistPath + String.valueOf(next);
-                model.addAttribute("next", nextPath);
-                model.addAttribute("hasnext", true);
-            }
+    private void setupMovieListPageInfo(List<Movie> movies, PageCursor cursor, boolean hasMore, Model model) {
+        final String movielistPath = "/movies?cursor=";
+        int number = cursor.getNumber();
+        model.addAttribute("number", number + 1);
+        if (movies.isEmpty()) {
+            return;
+        }
+
+        boolean hasPrev = cursor.isBackward() ? hasMore : !cursor.isFirst();
+        boolean hasNext = cursor.isBackward() || hasMore;
+        String prevPath, nextPath;
+        if (hasPrev) {
+            prevPath = movielistPath + PageCursor.before(number - 1, movies.get(0)).encode();
+            model.addAttribute("prev", prevPath);
+            model.addAttribute("hasprev", true);
+        }
+        if (hasNext) {
+            nextPath = movielistPath + PageCursor.after(number + 1, movies.get(movies.size() - 1)).encode();
+            model.addAttribute("next", nextPath);
+            model.addAttribute("hasnext", true);
+        }
+    }
+
+    private void setupSearchResultPageInfo(PageInfo page, String query, Model model) {
+        if (page == null) {
+            return;
+        }
+
+        UriComponentsBuilder searchPath = UriComponentsBuilder.fromPath("/movies/search").queryParam("q", query);
+        Integer number = page.getNumber();
+        Integer prev = number - 1;
+        Integer next = number + 1;
+        model.addAttribute("number", next);
+        if (prev >= 0) {
+            model.addAttribute("prev", searchPath.cloneBuilder().queryParam("page", prev).toUriString());
+            model.addAttribute("hasprev", true);
+        }
+        if (next < page.getTotalPages()) {
+            model.addAttribute("next", searchPath.cloneBuilder().queryParam("page", next).toUriString());
+            model.addAttribute("hasnext", true);
         }
     }
 
-    private void setupMovieListThumbnail(MoviesResponse moviesResponse, Model model) {
-        List<Movie> movies = moviesResponse.getMovieList().getMovies();
-        for (Movie movie : movies) {
+    private void setupMovieListThumbnail(List<Movie> cachedMovies, Model model) {
+        // Movies of a cached page are shared with other requests.
+        List<Movie> movies = new ArrayList<>(cachedMovies.size());
+        for (Movie cached : cachedMovies) {
+            Movie movie = cached.copy();
+            movies.add(movie);
             if (movie.getImageUri() != null) {
                 String thumbnailUri = movie.getImageUri().replace(
                         azureStorageUploader.getOriginalImageContainer().toLowerCase(),
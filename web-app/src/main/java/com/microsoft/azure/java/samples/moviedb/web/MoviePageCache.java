@@ -0,0 +1,245 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+
+package com.microsoft.azure.java.samples.moviedb.web;
+
+import com.microsoft.azure.java.samples.moviedb.web.metrics.WebAppMetrics;
+import com.microsoft.azure.java.samples.moviedb.web.pojo.Movie;
+import com.microsoft.azure.java.samples.moviedb.web.pojo.MoviesResponse;
+import com.microsoft.azure.java.samples.moviedb.web.pojo.PageCursor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cache of movie list pages, keyed by page cursor and size, with a reverse index from movie id to the keys of the
+ * cached pages that contain the movie. A changed movie evicts exactly those pages instead of the whole cache.
+ * A movie that moves into a page because its rating changed does not evict that page, so pages are also dropped
+ * after their max age. When the cache is stored in Redis, the index is kept next to it in Redis sets and is shared
+ * by all web app instances, otherwise it is kept in memory.
+ */
+@Component
+public class MoviePageCache {
+    static final String PAGE_CACHE = "moviePages";
+    private static final String INDEX_KEY_PREFIX = PAGE_CACHE + ":index:";
+    private static final Logger logger = LoggerFactory.getLogger(MoviePageCache.class);
+
+    private final Cache cache;
+    private final PageIndex index;
+    private final long maxAge;
+
+    /**
+     * Constructor.
+     *
+     * @param cacheManager cache manager that holds the page cache
+     * @param maxAge       seconds a cached page is served, 0 to not cache pages
+     */
+    public MoviePageCache(CacheManager cacheManager, @Value("${moviedb.webapp.pageMaxAge:30}") long maxAge) {
+        this.cache = cacheManager.getCache(PAGE_CACHE);
+        this.maxAge = maxAge;
+        this.index = cache.getNativeCache() instanceof RedisOperations
+                ? new RedisPageIndex(cache.getNativeCache(), maxAge) : new LocalPageIndex(maxAge);
+    }
+
+    /**
+     * Get a cached page.
+     *
+     * @param cursor page cursor
+     * @param size   page size
+     * @return page, null if it is not cached or older than the max age
+     */
+    public MoviesResponse get(PageCursor cursor, int size) {
+        if (maxAge <= 0) {
+            return null;
+        }
+        MoviesResponse page = cache.get(getKey(cursor, size), MoviesResponse.class);
+        if (page != null && System.currentTimeMillis() - page.getCachedAt() < maxAge * 1000) {
+            return page;
+        }
+        return null;
+    }
+
+    /**
+     * Cache a page and index it by the ids of its movies.
+     *
+     * @param cursor      page cursor
+     * @param size        page size
+     * @param page        page fetched from data app
+     * @param requestedAt time the page was requested from data app, in epoch milliseconds
+     */
+    public void put(PageCursor cursor, int size, MoviesResponse page, long requestedAt) {
+        if (maxAge <= 0 || page.getMovieList() == null || page.getMovieList().getMovies() == null) {
+            return;
+        }
+        String key = getKey(cursor, size);
+        page.setCachedAt(requestedAt);
+        cache.put(key, page);
+        // Indexed after the put, so that an eviction that reads the index first never misses the page.
+        List<Movie> movies = page.getMovieList().getMovies();
+        try {
+            index.add(key, movies);
+        } catch (DataAccessException e) {
+            logger.warn("Cannot index movie page " + key + ", evicting it: " + e.getMessage());
+            cache.evict(key);
+        }
+    }
+
+    /**
+     * Evict the cached pages that contain a movie.
+     *
+     * @param id movie id
+     */
+    public void evictMovie(String id) {
+        if (maxAge <= 0) {
+            return;
+        }
+        Collection<String> keys = index.remove(id);
+        for (String key : keys) {
+            cache.evict(key);
+        }
+        WebAppMetrics.PAGE_INVALIDATIONS.inc(keys.size());
+    }
+
+    /**
+     * Evict all cached pages, after changes may have been missed.
+     */
+    public void clear() {
+        cache.clear();
+        index.clear();
+    }
+
+    /**
+     * Get cache key of a page. Pages are keyed by the position they start from rather than by their number,
+     * which only labels the page.
+     *
+     * @param cursor page cursor
+     * @param size   page size
+     * @return cache key
+     */
+    static String getKey(PageCursor cursor, int size) {
+        if (cursor.isFirst()) {
+            return size + ":first";
+        }
+        return size + (cursor.isBackward() ? ":before:" : ":after:") + cursor.getRating() + ":" + cursor.getId();
+    }
+
+    /**
+     * Reverse index from movie id to the keys of the cached pages that contain the movie.
+     */
+    private interface PageIndex {
+        void add(String key, List<Movie> movies);
+
+        Collection<String> remove(String id);
+
+        void clear();
+    }
+
+    /**
+     * Index kept in memory. The keys of a movie expire with the pages and are pruned when the movie is indexed again.
+     */
+    private static class LocalPageIndex implements PageIndex {
+        private final Map<String, Map<String, Long>> keysById = new ConcurrentHashMap<>();
+        private final long maxAgeMillis;
+
+        LocalPageIndex(long maxAge) {
+            this.maxAgeMillis = maxAge * 1000;
+        }
+
+        @Override
+        public void add(String key, List<Movie> movies) {
+            long now = System.currentTimeMillis();
+            for (Movie movie : movies) {
+                Map<String, Long> keys = keysById.computeIfAbsent(Long.toString(movie.getId()),
+                        id -> new ConcurrentHashMap<>());
+                keys.values().removeIf(indexedAt -> now - indexedAt >= maxAgeMillis);
+                keys.put(key, now);
+            }
+        }
+
+        @Override
+        public Collection<String> remove(String id) {
+            Map<String, Long> keys = keysById.remove(id);
+            return keys != null ? keys.keySet() : Collections.emptySet();
+        }
+
+        @Override
+        public void clear() {
+            keysById.clear();
+        }
+    }
+
+    /**
+     * Index kept in one Redis set per movie, written with the template of the Redis cache. A set expires with the
+     * last page added to it. Adding a page costs one pipelined round trip and evicting a movie one transaction.
+     */
+    private static class RedisPageIndex implements PageIndex {
+        private final RedisOperations<Object, Object> redis;
+        private final long maxAge;
+
+        @SuppressWarnings("unchecked")
+        RedisPageIndex(Object redis, long maxAge) {
+            this.redis = (RedisOperations<Object, Object>) redis;
+            this.maxAge = maxAge;
+        }
+
+        @Override
+        public void add(String key, List<Movie> movies) {
+            redis.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <K, V> Object execute(RedisOperations<K, V> operations) {
+                    RedisOperations<Object, Object> pipeline = (RedisOperations<Object, Object>) operations;
+                    for (Movie movie : movies) {
+                        String indexKey = INDEX_KEY_PREFIX + movie.getId();
+                        pipeline.opsForSet().add(indexKey, key);
+                        pipeline.expire(indexKey, maxAge, TimeUnit.SECONDS);
+                    }
+                    return null;
+                }
+            });
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Collection<String> remove(String id) {
+            String indexKey = INDEX_KEY_PREFIX + id;
+            List<Object> results = redis.execute(new SessionCallback<List<Object>>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <K, V> List<Object> execute(RedisOperations<K, V> operations) {
+                    RedisOperations<Object, Object> transaction = (RedisOperations<Object, Object>) operations;
+                    transaction.multi();
+                    transaction.opsForSet().members(indexKey);
+                    transaction.delete(indexKey);
+                    return transaction.exec();
+                }
+            });
+            if (results == null || results.isEmpty() || results.get(0) == null) {
+                return Collections.emptySet();
+            }
+            return (Collection<String>) (Collection<?>) results.get(0);
+        }
+
+        @Override
+        public void clear() {
+            // The sets expire with the pages, and a set that outlives its pages only evicts pages that are gone.
+        }
+    }
+}
@@ -7,84 +7,454 @@
 
 package com.microsoft.azure.java.samples.moviedb.web;
 
+import com.microsoft.azure.java.samples.moviedb.web.cache.SingleFlight;
+import com.microsoft.azure.java.samples.moviedb.web.metrics.WebAppMetrics;
 import com.microsoft.azure.java.samples.moviedb.web.pojo.Movie;
 import com.microsoft.azure.java.samples.moviedb.web.pojo.MoviesResponse;
+import com.microsoft.azure.java.samples.moviedb.web.pojo.PageCursor;
+import com.microsoft.azure.java.samples.moviedb.web.pojo.RatingStats;
+import com.microsoft.azure.java.samples.moviedb.web.trace.TracingClientInterceptor;
+import io.prometheus.client.Counter;
+import io.prometheus.client.Histogram;
+import org.apache.http.client.CookieStore;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.impl.client.BasicCookieStore;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.apache.http.impl.nio.reactor.DefaultConnectingIOReactor;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+import org.apache.http.nio.conn.NoopIOSessionStrategy;
+import org.apache.http.nio.conn.SchemeIOSessionStrategy;
+import org.apache.http.nio.conn.ssl.SSLIOSessionStrategy;
+import org.apache.http.nio.reactor.IOReactorException;
+import org.apache.http.protocol.HttpContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.AsyncClientHttpRequestInterceptor;
+import org.springframework.http.client.HttpComponentsAsyncClientHttpRequestFactory;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Repository;
+import org.springframework.util.StringUtils;
+import org.springframework.util.concurrent.ListenableFuture;
+import org.springframework.util.concurrent.ListenableFutureCallback;
+import org.springframework.web.client.AsyncRestTemplate;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.util.DefaultUriTemplateHandler;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * Wrapper for sending rest api request to data app with redis cache support.
+ * Responses are requested as Smile and gzip, falling back to JSON and identity encoding.
+ * Reads behind the pages are sent with a non-blocking client and complete a future, so a page view waiting for
+ * data app holds a connection and some memory but no thread. That client does not decompress, so it leaves out gzip.
+ * The latencies of the movie reads and patches and the usage of both connection pools are reported as metrics.
+ * Requests made on behalf of a traced page carry its trace context, so that data app continues the trace.
+ * Movie list pages are cached for a short time and evicted as soon as a movie on them changes.
+ * Concurrent misses of the same movie or page share one request to data app.
+ * A movie a little past its max age is served right away while it is refreshed in the background, and a movie that
+ * cannot be revalidated in time is served stale for a while, so that neither expirations nor data app incidents
+ * show in the latency of the detail page.
  */
 @Repository
-public class MovieRepository {
+public class MovieRepository implements DisposableBean {
     private static final String PATH_MOVIE_SEARCH_BY_ID = "/movies/";
-    private static final String PATH_MOVIE_SEARCH_BY_PAGE = "/movies?page=";
+    private static final String PATH_MOVIE_SEARCH_BY_IDS = "/movies/search/byIds";
+    private static final String COOKIE_STORE_ATTRIBUTE = MovieRepository.class.getName() + ".dataAppCookies";
+    private static final String PATH_MOVIE_SEARCH_BY_TEXT = "/movies/search/text?q={q}&page={page}&size={size}";
+    private static final String PATH_MOVIE_SUMMARIES_TOP = "/movies/summaries/top?size=";
+    private static final String PATH_MOVIE_SUMMARIES_AFTER = "/movies/summaries/after?size=";
+    private static final String PATH_MOVIE_SUMMARIES_BEFORE = "/movies/summaries/before?size=";
+    private static final String PATH_MOVIE_STATS = "/movies/stats";
+    private static final String PATH_MOVIE_VOTES = "/movies/{id}/votes?rating={rating}";
+    static final String MOVIE_CACHE = "movie";
     private static final Logger logger = LoggerFactory.getLogger(MovieRepository.class);
+    private static final Histogram.Child GET_MOVIE_SECONDS = WebAppMetrics.REPOSITORY_SECONDS.labels("getMovie");
+    private static final Histogram.Child GET_MOVIES_SECONDS = WebAppMetrics.REPOSITORY_SECONDS.labels("getMovies");
+    private static final Histogram.Child GET_MOVIES_BY_IDS_SECONDS =
+            WebAppMetrics.REPOSITORY_SECONDS.labels("getMoviesByIds");
+    private static final Histogram.Child PATCH_MOVIE_SECONDS = WebAppMetrics.REPOSITORY_SECONDS.labels("patchMovie");
+    private static final Counter.Child STALE_REVALIDATING =
+            WebAppMetrics.STALE_SERVES.labels(MOVIE_CACHE, "revalidating");
+    private static final Counter.Child STALE_ERROR = WebAppMetrics.STALE_SERVES.labels(MOVIE_CACHE, "error");
+    private static final Counter.Child STALE_TIMEOUT = WebAppMetrics.STALE_SERVES.labels(MOVIE_CACHE, "timeout");
     private final RestTemplate restTemplate;
+    private final HttpComponentsClientHttpRequestFactory requestFactory;
+    private final AsyncRestTemplate asyncRestTemplate;
+    private final HttpComponentsAsyncClientHttpRequestFactory asyncRequestFactory;
+    private final CacheManager cacheManager;
+    private final MoviePageCache moviePageCache;
+    private final MovieChangeSubscriber movieChangeSubscriber;
+    private final SingleFlight<String, Movie> movieLoads;
+    private final SingleFlight<String, MoviesResponse> pageLoads;
+    private final int maxBatchSize;
+    private final long movieMaxAgeMillis;
+    private final long changeFeedMaxAgeMillis;
+    private final long staleWhileRevalidateMillis;
+    private final long staleIfErrorMillis;
+    private final long revalidateTimeoutMillis;
+    private final ScheduledThreadPoolExecutor revalidateTimeouts;
 
     /**
      * Construct rest template with data app uri.
      *
-     * @param builder    rest template builder
-     * @param dataAppUri data app uri from application.properties
+     * @param builder               rest template builder
+     * @param cacheManager          cache manager that holds the movie cache
+     * @param moviePageCache        cache of movie list pages
+     * @param movieChangeSubscriber follower of the data app change feed that keeps the movie cache fresh
+     * @param dataAppUri            data app uri from application.properties
+     * @param maxBatchSize          maximum number of movie ids sent to data app in one request
+     * @param movieMaxAge           seconds a cached movie is served before it is revalidated against data app
+     * @param changeFeedMaxAge      seconds a cached movie is served while the change feed is followed
+     * @param staleWhileRevalidate  seconds after the max age during which a cached movie is served while it is
+     *                              refreshed in the background
+     * @param staleIfError          seconds after the max age during which a cached movie is served if it cannot
+     *                              be revalidated
+     * @param revalidateTimeout     milliseconds a request waits for the revalidation of a movie it could serve stale
+     * @param smile                 whether to ask data app for Smile instead of JSON
+     * @param maxConnections        maximum number of connections to data app held by the non-blocking client
+     * @param connectTimeout        milliseconds to wait for a connection to data app, from the network or the pool
+     * @param readTimeout           milliseconds to wait for data app to send the next bytes of a response
+     * @param coalescedCaches       names of the caches whose concurrent misses share one request to data app
+     * @param coalesceTimeout       milliseconds after which a shared request is given up
      */
-    public MovieRepository(RestTemplateBuilder builder, @Value("${moviedb.webapp.dataAppUri}") String dataAppUri) {
+    public MovieRepository(RestTemplateBuilder builder, CacheManager cacheManager, MoviePageCache moviePageCache,
+                           MovieChangeSubscriber movieChangeSubscriber,
+                           @Value("${moviedb.webapp.dataAppUri}") String dataAppUri,
+                           @Value("${moviedb.webapp.maxBatchSize:100}") int maxBatchSize,
+                           @Value("${moviedb.webapp.movieMaxAge:60}") long movieMaxAge,
+                           @Value("${moviedb.webapp.changeFeed.movieMaxAge:3600}") long changeFeedMaxAge,
+                           @Value("${moviedb.webapp.movieStaleWhileRevalidate:60}") long staleWhileRevalidate,
+                           @Value("${moviedb.webapp.movieStaleIfError:86400}") long staleIfError,
+                           @Value("${moviedb.webapp.revalidateTimeout:1000}") long revalidateTimeout,
+                           @Value("${moviedb.webapp.smile:true}") boolean smile,
+                           @Value("${moviedb.webapp.maxConnections:200}") int maxConnections,
+                           @Value("${moviedb.webapp.connectTimeout:2000}") int connectTimeout,
+                           @Value("${moviedb.webapp.readTimeout:5000}") int readTimeout,
+                           @Value("${moviedb.webapp.coalesce.caches:movie,moviePages}") String[] coalescedCaches,
+                           @Value("${moviedb.webapp.coalesce.timeout:10000}") long coalesceTimeout) {
         logger.debug("data app:" + dataAppUri);
 
+        String dataAppApiUrl = getDataAppApiUrl(dataAppUri);
+        logger.debug("data app api root url: " + dataAppApiUrl);
+        restTemplate = builder.rootUri(dataAppApiUrl).build();
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(connectTimeout)
+                .setConnectionRequestTimeout(connectTimeout)
+                .setSocketTimeout(readTimeout)
+                .build();
+        PoolingHttpClientConnectionManager pool = createPool();
+        WebAppMetrics.monitorPool("sync", pool);
+        requestFactory = new HttpComponentsClientHttpRequestFactory(HttpClients.custom()
+                .useSystemProperties().setConnectionManager(pool).setDefaultRequestConfig(requestConfig).build()) {
+            @Override
+            protected HttpContext createHttpContext(HttpMethod httpMethod, URI uri) {
+                return createSessionContext(httpMethod);
+            }
+        };
+        restTemplate.setRequestFactory(requestFactory);
+
+        PoolingNHttpClientConnectionManager asyncPool = createAsyncPool(maxConnections);
+        WebAppMetrics.monitorPool("async", asyncPool);
+        asyncRequestFactory = new HttpComponentsAsyncClientHttpRequestFactory(HttpAsyncClients.custom()
+                .useSystemProperties().setConnectionManager(asyncPool).setDefaultRequestConfig(requestConfig)
+                .build()) {
+            @Override
+            protected HttpContext createHttpContext(HttpMethod httpMethod, URI uri) {
+                return createSessionContext(httpMethod);
+            }
+        };
+        asyncRestTemplate = new AsyncRestTemplate(asyncRequestFactory);
+        DefaultUriTemplateHandler uriTemplateHandler = new DefaultUriTemplateHandler();
+        uriTemplateHandler.setBaseUrl(dataAppApiUrl);
+        asyncRestTemplate.setUriTemplateHandler(uriTemplateHandler);
+
+        TracingClientInterceptor tracingInterceptor = new TracingClientInterceptor();
+        List<AsyncClientHttpRequestInterceptor> asyncInterceptors = new ArrayList<>();
+        restTemplate.getInterceptors().add(tracingInterceptor);
+        asyncInterceptors.add(tracingInterceptor);
+        if (smile) {
+            // Added last, so that request bodies are still written as JSON.
+            restTemplate.getMessageConverters().add(new SmileHttpMessageConverter());
+            SmileAcceptInterceptor smileAcceptInterceptor = new SmileAcceptInterceptor();
+            restTemplate.getInterceptors().add(smileAcceptInterceptor);
+            asyncInterceptors.add(smileAcceptInterceptor);
+        }
+        asyncRestTemplate.setInterceptors(asyncInterceptors);
+        asyncRestTemplate.setMessageConverters(restTemplate.getMessageConverters());
+
+        this.cacheManager = cacheManager;
+        this.moviePageCache = moviePageCache;
+        this.movieChangeSubscriber = movieChangeSubscriber;
+        this.maxBatchSize = maxBatchSize;
+        this.movieMaxAgeMillis = movieMaxAge * 1000;
+        this.changeFeedMaxAgeMillis = changeFeedMaxAge * 1000;
+        this.staleWhileRevalidateMillis = staleWhileRevalidate * 1000;
+        this.staleIfErrorMillis = staleIfError * 1000;
+        this.revalidateTimeoutMillis = revalidateTimeout;
+        this.revalidateTimeouts = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = Executors.defaultThreadFactory().newThread(runnable);
+            thread.setName("data-app-request-timeout");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.revalidateTimeouts.setRemoveOnCancelPolicy(true);
+        List<String> coalesced = Arrays.asList(coalescedCaches);
+        this.movieLoads = new SingleFlight<>(MOVIE_CACHE, coalesced.contains(MOVIE_CACHE), revalidateTimeouts,
+                coalesceTimeout);
+        this.pageLoads = new SingleFlight<>(MoviePageCache.PAGE_CACHE, coalesced.contains(MoviePageCache.PAGE_CACHE),
+                revalidateTimeouts, coalesceTimeout);
+    }
+
+    /**
+     * Get root url of the data app rest api.
+     *
+     * @param dataAppUri data app uri from application.properties, with or without scheme
+     * @return api root url
+     */
+    static String getDataAppApiUrl(String dataAppUri) {
         String trimmedURL = dataAppUri.trim().toLowerCase();
-        String dataAppApiUrl;
         if (trimmedURL.startsWith("http://") || trimmedURL.startsWith("https://")) {
-            dataAppApiUrl = trimmedURL + "/api/v1";
+            return trimmedURL + "/api/v1";
         } else {
-            dataAppApiUrl = "http://" + trimmedURL + "/api/v1";
+            return "http://" + trimmedURL + "/api/v1";
         }
-
-        logger.debug("data app api root url: " + dataAppApiUrl);
-        restTemplate = builder.rootUri(dataAppApiUrl).build();
-        restTemplate.setRequestFactory(new HttpComponentsClientHttpRequestFactory());
     }
 
     /**
-     * Get movie list by page number.
+     * Get movie list by keyset page cursor, from the page cache if it holds the page.
      *
-     * @param page page number
-     * @return response object that contains movie list and page info
+     * @param cursor page cursor
+     * @param size   maximum number of movies to return
+     * @return future of the response object that contains movie list in rank order, null if the request failed
      */
-    public MoviesResponse getMovies(String page) {
-        String requestPath = PATH_MOVIE_SEARCH_BY_PAGE + page;
-        logger.debug(requestPath);
-        try {
-            return this.restTemplate.getForObject(requestPath, MoviesResponse.class);
-        } catch (Exception e) {
-            logger.error("Error requesting movies: ", e);
+    public CompletableFuture<MoviesResponse> getMovies(PageCursor cursor, int size) {
+        long start = System.nanoTime();
+        MoviesResponse cached = moviePageCache.get(cursor, size);
+        if (cached != null) {
+            WebAppMetrics.observeSince(GET_MOVIES_SECONDS, start);
+            return CompletableFuture.completedFuture(cached);
         }
-        return null;
+
+        return pageLoads.load(MoviePageCache.getKey(cursor, size), () -> fetchMovies(cursor, size))
+                .exceptionally(e -> {
+                    logger.error("Error requesting movies: ", e);
+                    return null;
+                })
+                .whenComplete((moviesResponse, e) -> WebAppMetrics.observeSince(GET_MOVIES_SECONDS, start));
+    }
+
+    /**
+     * Get rating statistics of the whole catalog.
+     *
+     * @return future of the rating statistics, null if data app cannot provide them right now
+     */
+    public CompletableFuture<RatingStats> getRatingStats() {
+        logger.debug(PATH_MOVIE_STATS);
+        return toCompletableFuture(this.asyncRestTemplate.getForEntity(PATH_MOVIE_STATS, RatingStats.class))
+                .thenApply(ResponseEntity::getBody)
+                .exceptionally(e -> {
+                    logger.error("Error requesting rating statistics: ", e);
+                    return null;
+                });
+    }
+
+    /**
+     * Search movies by free text in their names and descriptions.
+     *
+     * @param query search text
+     * @param page  page number
+     * @param size  page size
+     * @return future of the response object that contains matching movies, best match first, and page info,
+     * null if the request failed
+     */
+    public CompletableFuture<MoviesResponse> searchMovies(String query, int page, int size) {
+        logger.debug(PATH_MOVIE_SEARCH_BY_TEXT + " " + query);
+        return toCompletableFuture(this.asyncRestTemplate.getForEntity(PATH_MOVIE_SEARCH_BY_TEXT,
+                MoviesResponse.class, query, page, size))
+                .thenApply(ResponseEntity::getBody)
+                .exceptionally(e -> {
+                    logger.error("Error searching movies: ", e);
+                    return null;
+                });
     }
 
     /**
-     * Get movie by movie id.
+     * Get movie by movie id. A cached movie older than the max age is revalidated with its ETag,
+     * so that an unchanged movie costs a 304 response instead of a full download. While the change feed is
+     * followed, changed movies are evicted as soon as they change and the much longer change feed max age applies to
+     * the movies validated since the feed is followed.
+     * Callers that miss the same movie while it is being requested wait for that request instead of sending their own.
+     * Within the stale while revalidate window after the max age, the cached movie is served right away and one
+     * request refreshes it in the background. Within the stale if error window, the cached movie is served if the
+     * revalidation fails because data app is unavailable, or does not answer within the revalidate timeout.
+     * A movie that data app answers is not found or gone is evicted and never served stale.
      *
      * @param id movie id
-     * @return movie object
+     * @return future of the movie object, null if the movie is gone, or the request failed and there was no movie
+     * to serve stale
      */
-    @Cacheable(cacheNames = "movie", key = "#id")
-    public Movie getMovie(String id) {
-        String requestPath = PATH_MOVIE_SEARCH_BY_ID + id;
-        logger.debug(requestPath);
+    public CompletableFuture<Movie> getMovie(String id) {
+        long start = System.nanoTime();
+        Cache cache = cacheManager.getCache(MOVIE_CACHE);
+        Movie cached = cache.get(id, Movie.class);
+        long now = System.currentTimeMillis();
+        long age = cached != null ? now - cached.getValidatedAt() : Long.MAX_VALUE;
+        long maxAge = cached != null ? getMaxAgeMillis(cached) : movieMaxAgeMillis;
+        if (age < maxAge) {
+            WebAppMetrics.observeSince(GET_MOVIE_SECONDS, start);
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        CompletableFuture<Movie> load = movieLoads.load(id, () -> fetchMovie(id, cache, cached, now));
+        if (age - maxAge < staleWhileRevalidateMillis) {
+            STALE_REVALIDATING.inc();
+            WebAppMetrics.observeSince(GET_MOVIE_SECONDS, start);
+            return CompletableFuture.completedFuture(cached);
+        }
+        if (age - maxAge < staleIfErrorMillis) {
+            load = orStale(load, cached);
+        } else {
+            load = load.exceptionally(e -> {
+                // The error of the request itself is logged by fetchMovie.
+                logger.debug("No movie " + id + " to serve: " + e);
+                return null;
+            });
+        }
+        return load.whenComplete((movie, e) -> WebAppMetrics.observeSince(GET_MOVIE_SECONDS, start));
+    }
+
+    /**
+     * Get movies by movie ids. Cached movies get the same max age and stale windows as in {@link #getMovie(String)}:
+     * a movie within the stale while revalidate window is served and refreshed in the background, and the missing
+     * and expired movies are requested in batches and cached. If a batch fails because data app is unavailable,
+     * its expired movies are served within the stale if error window. A cached movie that data app no longer
+     * returns is evicted.
+     *
+     * @param ids movie ids
+     * @return movies in the requested order, unknown ids are skipped
+     */
+    public List<Movie> getMovies(Collection<Long> ids) {
+        long start = System.nanoTime();
+        Cache cache = cacheManager.getCache(MOVIE_CACHE);
+        Set<Long> uniqueIds = new LinkedHashSet<>(ids);
+        Map<Long, Movie> moviesById = new HashMap<>();
+        Map<Long, Movie> expiredById = new HashMap<>();
+        List<Long> missingIds = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        for (Long id : uniqueIds) {
+            String key = Long.toString(id);
+            Movie cached = cache.get(key, Movie.class);
+            long age = cached != null ? now - cached.getValidatedAt() : Long.MAX_VALUE;
+            long maxAge = cached != null ? getMaxAgeMillis(cached) : movieMaxAgeMillis;
+            if (age < maxAge) {
+                moviesById.put(id, cached);
+            } else if (age - maxAge < staleWhileRevalidateMillis) {
+                movieLoads.load(key, () -> fetchMovie(key, cache, cached, now));
+                STALE_REVALIDATING.inc();
+                moviesById.put(id, cached);
+            } else {
+                if (cached != null) {
+                    expiredById.put(id, cached);
+                }
+                missingIds.add(id);
+            }
+        }
+
+        for (int from = 0; from < missingIds.size(); from += maxBatchSize) {
+            List<Long> batch = missingIds.subList(from, Math.min(from + maxBatchSize, missingIds.size()));
+            logger.debug(PATH_MOVIE_SEARCH_BY_IDS + " " + batch);
+            long requestedAt = System.currentTimeMillis();
+            try {
+                MoviesResponse moviesResponse =
+                        this.restTemplate.postForObject(PATH_MOVIE_SEARCH_BY_IDS, batch, MoviesResponse.class);
+                if (moviesResponse != null && moviesResponse.getMovieList() != null) {
+                    for (Movie movie : moviesResponse.getMovieList().getMovies()) {
+                        putValidated(cache, Long.toString(movie.getId()), movie, requestedAt);
+                        moviesById.put(movie.getId(), movie);
+                    }
+                }
+                for (Long id : batch) {
+                    if (!moviesById.containsKey(id) && expiredById.containsKey(id)) {
+                        // Deleted in data app, so there is nothing to serve stale either.
+                        cache.evict(Long.toString(id));
+                    }
+                }
+            } catch (Exception e) {
+                logger.error("Error requesting movies by ids: ", e);
+                if (isTransient(e)) {
+                    serveStaleIfError(batch, expiredById, moviesById, now);
+                }
+            }
+        }
+
+        List<Movie> movies = new ArrayList<>(moviesById.size());
+        for (Long id : uniqueIds) {
+            Movie movie = moviesById.get(id);
+            if (movie != null) {
+                movies.add(movie);
+            }
+        }
+        WebAppMetrics.observeSince(GET_MOVIES_BY_IDS_SECONDS, start);
+        return movies;
+    }
+
+    /**
+     * Vote for a rating of a movie. Data app accepts the vote right away and adds it to the rating a few seconds
+     * later, the cached movie picks it up through the change feed or its next revalidation.
+     *
+     * @param id     movie id
+     * @param rating rating between 1 and 10
+     * @return false if the vote was not accepted
+     */
+    public boolean voteMovie(String id, int rating) {
         try {
-            return this.restTemplate.getForObject(requestPath, Movie.class);
+            this.restTemplate.postForEntity(PATH_MOVIE_VOTES, null, Void.class, id, rating);
+            return true;
         } catch (Exception e) {
-            logger.error("Error requesting movie: ", e);
+            logger.error("Error voting for movie: ", e);
         }
-        return null;
+        return false;
     }
 
     /**
@@ -92,13 +462,258 @@ public class MovieRepository {
      *
      * @param id    movie id
      * @param movie movie object
+     * @param etag  ETag of the movie the change was made on, null or empty to patch unconditionally
+     * @return true if data app applied the patch, false if the movie was changed in the meantime or the request
+     * failed
      */
-    @CacheEvict(cacheNames = "movie", key = "#id")
-    public void patchMovie(String id, Movie movie) {
+    public boolean patchMovie(String id, Movie movie, String etag) {
+        long start = System.nanoTime();
+        HttpHeaders headers = new HttpHeaders();
+        if (StringUtils.hasText(etag)) {
+            headers.setIfMatch(etag);
+        }
         try {
-            this.restTemplate.patchForObject("/movies/" + id, new HttpEntity<>(movie), Void.class);
+            ResponseEntity<Void> response = this.restTemplate.exchange("/movies/" + id, HttpMethod.PATCH,
+                    new HttpEntity<>(movie, headers), Void.class);
+            return response.getStatusCode().is2xxSuccessful();
+        } catch (HttpClientErrorException e) {
+            if (e.getStatusCode() == HttpStatus.PRECONDITION_FAILED) {
+                logger.debug("Movie " + id + " changed since " + etag);
+            } else {
+                logger.error("Error patching movie: ", e);
+            }
+            return false;
         } catch (Exception e) {
+            // A timeout or a lost connection may still have applied the patch, so the movie is evicted anyway.
             logger.error("Error patching movie: ", e);
+            return false;
+        } finally {
+            cacheManager.getCache(MOVIE_CACHE).evict(id);
+            movieLoads.forget(id);
+            moviePageCache.evictMovie(id);
+            WebAppMetrics.observeSince(PATCH_MOVIE_SECONDS, start);
         }
     }
+
+    @Override
+    public void destroy() throws Exception {
+        revalidateTimeouts.shutdownNow();
+        requestFactory.destroy();
+        asyncRequestFactory.destroy();
+    }
+
+    /**
+     * Create the connection pool of the blocking client, with the limits of the system client it replaces,
+     * so that its usage can be reported.
+     */
+    private static PoolingHttpClientConnectionManager createPool() {
+        PoolingHttpClientConnectionManager pool = new PoolingHttpClientConnectionManager(
+                RegistryBuilder.<ConnectionSocketFactory>create()
+                        .register("http", PlainConnectionSocketFactory.getSocketFactory())
+                        .register("https", SSLConnectionSocketFactory.getSystemSocketFactory())
+                        .build());
+        int maxConnections = Integer.parseInt(System.getProperty("http.maxConnections", "5"));
+        pool.setDefaultMaxPerRoute(maxConnections);
+        pool.setMaxTotal(2 * maxConnections);
+        return pool;
+    }
+
+    private static PoolingNHttpClientConnectionManager createAsyncPool(int maxConnections) {
+        try {
+            PoolingNHttpClientConnectionManager pool = new PoolingNHttpClientConnectionManager(
+                    new DefaultConnectingIOReactor(IOReactorConfig.DEFAULT),
+                    RegistryBuilder.<SchemeIOSessionStrategy>create()
+                            .register("http", NoopIOSessionStrategy.INSTANCE)
+                            .register("https", SSLIOSessionStrategy.getSystemDefaultStrategy())
+                            .build());
+            pool.setDefaultMaxPerRoute(maxConnections);
+            pool.setMaxTotal(maxConnections);
+            return pool;
+        } catch (IOReactorException e) {
+            throw new IllegalStateException("Cannot create the I/O reactor of the data app client", e);
+        }
+    }
+
+    private static <T> CompletableFuture<T> toCompletableFuture(ListenableFuture<T> listenableFuture) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        listenableFuture.addCallback(new ListenableFutureCallback<T>() {
+            @Override
+            public void onSuccess(T result) {
+                future.complete(result);
+            }
+
+            @Override
+            public void onFailure(Throwable e) {
+                future.completeExceptionally(e);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Context of a request to data app with the cookies of the end user the request is made for. Data app answers
+     * a write with a cookie that sends the reads of the writer to the primary database until the replicas caught up,
+     * so the cookies are kept in the session of the end user, and the reads of other users stay on the replicas.
+     * Only writes create a session, and requests made outside of a user request get no cookies.
+     */
+    private static HttpContext createSessionContext(HttpMethod httpMethod) {
+        HttpClientContext context = HttpClientContext.create();
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        CookieStore cookieStore = attributes != null
+                ? (CookieStore) attributes.getAttribute(COOKIE_STORE_ATTRIBUTE, RequestAttributes.SCOPE_SESSION)
+                : null;
+        if (cookieStore == null) {
+            cookieStore = new BasicCookieStore();
+            if (attributes != null && (httpMethod == HttpMethod.PATCH || httpMethod == HttpMethod.PUT
+                    || httpMethod == HttpMethod.DELETE)) {
+                attributes.setAttribute(COOKIE_STORE_ATTRIBUTE, cookieStore, RequestAttributes.SCOPE_SESSION);
+            }
+        }
+        context.setCookieStore(cookieStore);
+        return context;
+    }
+
+    private long getMaxAgeMillis(Movie cached) {
+        return movieChangeSubscriber.isFollowedSince(cached.getValidatedAt())
+                ? changeFeedMaxAgeMillis : movieMaxAgeMillis;
+    }
+
+    private void serveStaleIfError(List<Long> batch, Map<Long, Movie> expiredById, Map<Long, Movie> moviesById,
+                                   long now) {
+        for (Long id : batch) {
+            Movie stale = expiredById.get(id);
+            if (stale != null && now - stale.getValidatedAt() - getMaxAgeMillis(stale) < staleIfErrorMillis) {
+                STALE_ERROR.inc();
+                moviesById.put(id, stale);
+            }
+        }
+    }
+
+    private CompletableFuture<MoviesResponse> fetchMovies(PageCursor cursor, int size) {
+        String requestPath;
+        if (cursor.isFirst()) {
+            requestPath = PATH_MOVIE_SUMMARIES_TOP + size;
+        } else {
+            requestPath = (cursor.isBackward() ? PATH_MOVIE_SUMMARIES_BEFORE : PATH_MOVIE_SUMMARIES_AFTER) + size
+                    + "&rating=" + cursor.getRating() + "&id=" + cursor.getId();
+        }
+
+        logger.debug(requestPath);
+        long requestedAt = System.currentTimeMillis();
+        return toCompletableFuture(this.asyncRestTemplate.getForEntity(requestPath, MoviesResponse.class))
+                .thenApply(response -> {
+                    MoviesResponse moviesResponse = response.getBody();
+                    if (moviesResponse != null && moviesResponse.getMovieList() != null) {
+                        if (cursor.isBackward()) {
+                            Collections.reverse(moviesResponse.getMovieList().getMovies());
+                        }
+                        putPage(cursor, size, moviesResponse, requestedAt);
+                    }
+                    return moviesResponse;
+                })
+                .exceptionally(e -> {
+                    logger.error("Error requesting movies: ", e);
+                    return null;
+                });
+    }
+
+    private CompletableFuture<Movie> fetchMovie(String id, Cache cache, Movie cached, long now) {
+        String requestPath = PATH_MOVIE_SEARCH_BY_ID + id;
+        logger.debug(requestPath);
+        HttpHeaders headers = new HttpHeaders();
+        if (cached != null && cached.getEtag() != null) {
+            headers.setIfNoneMatch(cached.getEtag());
+        }
+        return toCompletableFuture(this.asyncRestTemplate.exchange(requestPath, HttpMethod.GET,
+                new HttpEntity<>(headers), Movie.class))
+                .thenApply(response -> {
+                    Movie movie;
+                    if (response.getStatusCode() == HttpStatus.NOT_MODIFIED) {
+                        // Other requests may be reading the cached instance, the new validation time goes on a copy.
+                        movie = cached.copy();
+                    } else {
+                        movie = response.getBody();
+                        movie.setEtag(response.getHeaders().getETag());
+                    }
+                    putValidated(cache, id, movie, now);
+                    return movie;
+                })
+                .exceptionally(e -> {
+                    if (isGone(e)) {
+                        // Deleted in data app, so there is nothing to serve stale either.
+                        logger.debug("Movie " + id + " is gone");
+                        cache.evict(id);
+                        movieLoads.forget(id);
+                        return null;
+                    }
+                    logger.error("Error requesting movie: ", e);
+                    throw e instanceof CompletionException ? (CompletionException) e : new CompletionException(e);
+                });
+    }
+
+    /**
+     * Complete with the stale movie if the revalidation fails for a reason that data app may recover from,
+     * or takes longer than the revalidate timeout. A movie that is gone completes with null, as does any other
+     * failure. A revalidation that times out goes on and updates the cache when data app answers.
+     */
+    private CompletableFuture<Movie> orStale(CompletableFuture<Movie> load, Movie stale) {
+        CompletableFuture<Movie> result = new CompletableFuture<>();
+        ScheduledFuture<?> timeout = revalidateTimeouts.schedule(() -> {
+            if (result.complete(stale)) {
+                STALE_TIMEOUT.inc();
+            }
+        }, revalidateTimeoutMillis, TimeUnit.MILLISECONDS);
+        load.whenComplete((movie, e) -> {
+            timeout.cancel(false);
+            if (e == null) {
+                result.complete(movie);
+            } else if (!isTransient(e)) {
+                result.complete(null);
+            } else if (result.complete(stale)) {
+                (unwrap(e) instanceof TimeoutException ? STALE_TIMEOUT : STALE_ERROR).inc();
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Whether a request failed because data app was down, slow or overloaded, rather than because of the request.
+     */
+    private static boolean isTransient(Throwable e) {
+        Throwable cause = unwrap(e);
+        return cause instanceof TimeoutException || cause instanceof IOException
+                || cause instanceof ResourceAccessException || cause instanceof HttpServerErrorException;
+    }
+
+    private static boolean isGone(Throwable e) {
+        Throwable cause = unwrap(e);
+        return cause instanceof HttpClientErrorException
+                && (((HttpClientErrorException) cause).getStatusCode() == HttpStatus.NOT_FOUND
+                || ((HttpClientErrorException) cause).getStatusCode() == HttpStatus.GONE);
+    }
+
+    private static Throwable unwrap(Throwable e) {
+        while ((e instanceof CompletionException || e instanceof ExecutionException) && e.getCause() != null) {
+            e = e.getCause();
+        }
+        return e;
+    }
+
+    private void putPage(PageCursor cursor, int size, MoviesResponse page, long requestedAt) {
+        // Like a movie, a page with a movie that changed while the page was being fetched may already have been
+        // evicted, so it is not cached at all.
+        for (Movie movie : page.getMovieList().getMovies()) {
+            if (movieChangeSubscriber.isChangedSince(Long.toString(movie.getId()), requestedAt)) {
+                return;
+            }
+        }
+        moviePageCache.put(cursor, size, page, requestedAt);
+    }
+
+    private void putValidated(Cache cache, String id, Movie movie, long requestedAt) {
+        // A change applied while the movie was being fetched may have evicted it before it is put here,
+        // so such a movie is cached as already due for revalidation.
+        movie.setValidatedAt(movieChangeSubscriber.isChangedSince(id, requestedAt) ? 0 : requestedAt);
+        cache.put(id, movie);
+    }
 }
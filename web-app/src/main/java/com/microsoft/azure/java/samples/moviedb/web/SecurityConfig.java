@@ -6,9 +6,13 @@
 
 package com.microsoft.azure.java.samples.moviedb.web;
 
+import org.apache.catalina.connector.Connector;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.security.oauth2.resource.ResourceServerProperties;
 import org.springframework.boot.autoconfigure.security.oauth2.resource.UserInfoTokenServices;
+import org.springframework.boot.context.embedded.EmbeddedServletContainerCustomizer;
+import org.springframework.boot.context.embedded.tomcat.TomcatEmbeddedServletContainerFactory;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
@@ -28,21 +32,33 @@ import org.springframework.security.web.authentication.www.BasicAuthenticationFi
 import org.springframework.security.web.csrf.CookieCsrfTokenRepository;
 
 import javax.servlet.Filter;
+import javax.servlet.http.HttpServletRequest;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
 
 @EnableWebSecurity
 @EnableOAuth2Client
 @EnableGlobalMethodSecurity(prePostEnabled = true)
 public class SecurityConfig extends WebSecurityConfigurerAdapter {
 
+    private static final String TRACES_PATH = "/traces";
+
     @Autowired
     OAuth2ClientContext oauth2ClientContext;
 
+    @Value("${moviedb.webapp.management.port:0}")
+    int managementPort;
+
+    @Value("${moviedb.webapp.metrics.path:/metrics}")
+    String metricsPath;
+
     @Override
     protected void configure(HttpSecurity http) throws Exception {
         boolean usingFacebookAuthentication = facebook().getClientId() != null && !facebook().getClientId().isEmpty();
         if (usingFacebookAuthentication) {
             // @formatter:off
-            http.antMatcher("/**").authorizeRequests().antMatchers("/**").permitAll().anyRequest()
+            http.antMatcher("/**").authorizeRequests().requestMatchers(this::isExternalManagementRequest).denyAll()
+                    .antMatchers("/**").permitAll().anyRequest()
                     .authenticated().and().exceptionHandling()
                     .authenticationEntryPoint(new LoginUrlAuthenticationEntryPoint("/login")).and().logout()
                     .logoutSuccessUrl("/").permitAll().and().csrf()
@@ -50,7 +66,46 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
                     .addFilterBefore(ssoFilter(), BasicAuthenticationFilter.class);
             // @formatter:on
         } else {
-            http.antMatcher("/**").authorizeRequests().anyRequest().permitAll();
+            http.antMatcher("/**").authorizeRequests().requestMatchers(this::isExternalManagementRequest).denyAll()
+                    .anyRequest().permitAll();
+        }
+    }
+
+    /**
+     * Open a second connector on the management port, if there is one. Metrics and traces are only served on
+     * that port, which is not exposed to the internet, or to local clients when there is no management port.
+     *
+     * @param managementPort management port, 0 for none
+     * @return customizer of the embedded Tomcat
+     */
+    @Bean
+    public static EmbeddedServletContainerCustomizer managementConnectorCustomizer(
+            @Value("${moviedb.webapp.management.port:0}") int managementPort) {
+        // Static, so that customizing the container does not create the security configuration before there is a
+        // servlet context.
+        return container -> {
+            if (managementPort > 0 && container instanceof TomcatEmbeddedServletContainerFactory) {
+                Connector connector = new Connector(TomcatEmbeddedServletContainerFactory.DEFAULT_PROTOCOL);
+                connector.setPort(managementPort);
+                ((TomcatEmbeddedServletContainerFactory) container).addAdditionalTomcatConnectors(connector);
+            }
+        };
+    }
+
+    private boolean isExternalManagementRequest(HttpServletRequest request) {
+        String path = request.getServletPath();
+        // Prefixes, since Spring MVC also maps suffixed paths such as /traces.json to the controller.
+        if (!path.startsWith(metricsPath) && !path.startsWith(TRACES_PATH)) {
+            return false;
+        }
+        if (managementPort > 0) {
+            return request.getLocalPort() != managementPort;
+        }
+        try {
+            // The remote address is always numeric, so this does not resolve anything.
+            return !InetAddress.getByName(request.getRemoteAddr()).isLoopbackAddress();
+        } catch (UnknownHostException e) {
+            return true;
         }
     }
 
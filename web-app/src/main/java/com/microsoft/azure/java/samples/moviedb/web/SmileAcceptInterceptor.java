@@ -0,0 +1,59 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+
+package com.microsoft.azure.java.samples.moviedb.web;
+
+import org.springframework.http.HttpRequest;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.AsyncClientHttpRequestExecution;
+import org.springframework.http.client.AsyncClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.util.concurrent.ListenableFuture;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Asks data app for Smile, the binary encoding of JSON, ahead of every other accepted media type.
+ * Data app answers with JSON wherever it has no Smile representation, which the JSON converter then reads.
+ */
+public class SmileAcceptInterceptor implements ClientHttpRequestInterceptor, AsyncClientHttpRequestInterceptor {
+    static final MediaType SMILE = new MediaType("application", "x-jackson-smile");
+    private static final double FALLBACK_QUALITY = 0.9;
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        preferSmile(request);
+        return execution.execute(request, body);
+    }
+
+    @Override
+    public ListenableFuture<ClientHttpResponse> intercept(HttpRequest request, byte[] body,
+                                                          AsyncClientHttpRequestExecution execution)
+            throws IOException {
+        preferSmile(request);
+        return execution.executeAsync(request, body);
+    }
+
+    private static void preferSmile(HttpRequest request) {
+        List<MediaType> accept = request.getHeaders().getAccept();
+        if (accept.contains(SMILE)) {
+            List<MediaType> preferred = new ArrayList<>(accept.size());
+            preferred.add(SMILE);
+            for (MediaType mediaType : accept) {
+                if (!SMILE.equals(mediaType)) {
+                    preferred.add(new MediaType(mediaType.getType(), mediaType.getSubtype(), FALLBACK_QUALITY));
+                }
+            }
+            request.getHeaders().setAccept(preferred);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+
+package com.microsoft.azure.java.samples.moviedb.web.cache;
+
+import java.io.Serializable;
+
+/**
+ * Message that tells the other web app instances to drop a key, or all keys, of a cache from their in-heap tier.
+ */
+class CacheInvalidation implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final String origin;
+    private final String cacheName;
+    private final Object key;
+
+    /**
+     * Constructor.
+     *
+     * @param origin    id of the instance that sends the message
+     * @param cacheName name of the cache
+     * @param key       key to drop, null to drop all keys
+     */
+    CacheInvalidation(String origin, String cacheName, Object key) {
+        this.origin = origin;
+        this.cacheName = cacheName;
+        this.key = key;
+    }
+
+    /**
+     * Get id of the instance that sent the message.
+     *
+     * @return instance id
+     */
+    String getOrigin() {
+        return origin;
+    }
+
+    /**
+     * Get name of the cache.
+     *
+     * @return cache name
+     */
+    String getCacheName() {
+        return cacheName;
+    }
+
+    /**
+     * Get key to drop.
+     *
+     * @return key, null to drop all keys
+     */
+    Object getKey() {
+        return key;
+    }
+}
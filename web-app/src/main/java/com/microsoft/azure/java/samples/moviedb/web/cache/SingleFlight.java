@@ -0,0 +1,111 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+
+package com.microsoft.azure.java.samples.moviedb.web.cache;
+
+import com.microsoft.azure.java.samples.moviedb.web.metrics.WebAppMetrics;
+import io.prometheus.client.Counter;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent loads of the same key after a cache miss, so that only the first caller loads the value
+ * and the others complete with its result, including its failure. Nobody blocks, the callers share a future.
+ * A load that completes is forgotten before its future completes, so that a caller that comes later loads again,
+ * unless it finds the loaded value in the cache. A load that does not complete within the timeout is forgotten too,
+ * and its callers fail with a {@link TimeoutException}, so that a hung request cannot hold up a key for good.
+ *
+ * @param <K> type of the keys
+ * @param <V> type of the values
+ */
+public final class SingleFlight<K, V> {
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final boolean enabled;
+    private final ScheduledExecutorService timeouts;
+    private final long timeoutMillis;
+    private final Counter.Child loads;
+    private final Counter.Child coalesced;
+
+    /**
+     * Constructor.
+     *
+     * @param cacheName     name of the cache that the loaded values are put into, used to label the metrics
+     * @param enabled       whether to coalesce, every caller loads otherwise
+     * @param timeouts      scheduler of the timeouts of the loads
+     * @param timeoutMillis milliseconds after which a coalesced load is given up
+     */
+    public SingleFlight(String cacheName, boolean enabled, ScheduledExecutorService timeouts, long timeoutMillis) {
+        this.enabled = enabled;
+        this.timeouts = timeouts;
+        this.timeoutMillis = timeoutMillis;
+        this.loads = WebAppMetrics.CACHE_LOADS.labels(cacheName, "loaded");
+        this.coalesced = WebAppMetrics.CACHE_LOADS.labels(cacheName, "coalesced");
+    }
+
+    /**
+     * Load a value, or join the load of the same key that is already in flight.
+     *
+     * @param key    key of the value
+     * @param loader starts the load
+     * @return future of the value
+     */
+    public CompletableFuture<V> load(K key, Supplier<CompletableFuture<V>> loader) {
+        if (!enabled) {
+            loads.inc();
+            return loader.get();
+        }
+
+        CompletableFuture<V> future = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            coalesced.inc();
+            return existing;
+        }
+
+        loads.inc();
+        ScheduledFuture<?> timeout = timeouts.schedule(() -> {
+            inFlight.remove(key, future);
+            future.completeExceptionally(new TimeoutException("Load of " + key + " took longer than "
+                    + timeoutMillis + " ms"));
+        }, timeoutMillis, TimeUnit.MILLISECONDS);
+        try {
+            loader.get().whenComplete((value, e) -> {
+                timeout.cancel(false);
+                inFlight.remove(key, future);
+                if (e != null) {
+                    future.completeExceptionally(e);
+                } else {
+                    future.complete(value);
+                }
+            });
+        } catch (RuntimeException e) {
+            timeout.cancel(false);
+            inFlight.remove(key, future);
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * Let callers that come later load the key again, rather than join the load in flight, because the value
+     * it loads may be outdated. Callers that already joined get its result.
+     *
+     * @param key key of the value
+     */
+    public void forget(K key) {
+        if (enabled) {
+            inFlight.remove(key);
+        }
+    }
+}
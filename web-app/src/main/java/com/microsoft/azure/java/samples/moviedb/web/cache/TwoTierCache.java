@@ -0,0 +1,144 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+
+package com.microsoft.azure.java.samples.moviedb.web.cache;
+
+import com.microsoft.azure.java.samples.moviedb.web.metrics.WebAppMetrics;
+import io.prometheus.client.Counter;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Cache that looks up keys in a bounded in-heap cache first and in a remote cache second, and keeps what it finds
+ * remotely in heap. Values in heap are shared, not copies, so callers copy a value before they change it. Writes
+ * go to both tiers. Evictions and clears are also sent to the other web app instances, so that they drop the key
+ * from their own in-heap tier.
+ */
+class TwoTierCache implements Cache {
+    private final com.github.benmanes.caffeine.cache.Cache<Object, ValueWrapper> local;
+    private final Cache remote;
+    private final TwoTierCacheManager cacheManager;
+    private final Counter.Child localHits;
+    private final Counter.Child localMisses;
+    private final Counter.Child localInvalidations;
+    private final Counter.Child remoteInvalidations;
+
+    /**
+     * Constructor.
+     *
+     * @param local        in-heap tier
+     * @param remote       remote tier
+     * @param cacheManager cache manager that sends evictions to the other instances
+     */
+    TwoTierCache(com.github.benmanes.caffeine.cache.Cache<Object, ValueWrapper> local, Cache remote,
+                 TwoTierCacheManager cacheManager) {
+        this.local = local;
+        this.remote = remote;
+        this.cacheManager = cacheManager;
+        this.localHits = WebAppMetrics.NEAR_CACHE_REQUESTS.labels(remote.getName(), "hit");
+        this.localMisses = WebAppMetrics.NEAR_CACHE_REQUESTS.labels(remote.getName(), "miss");
+        this.localInvalidations = WebAppMetrics.NEAR_CACHE_INVALIDATIONS.labels(remote.getName(), "local");
+        this.remoteInvalidations = WebAppMetrics.NEAR_CACHE_INVALIDATIONS.labels(remote.getName(), "remote");
+    }
+
+    @Override
+    public String getName() {
+        return remote.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return remote.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        ValueWrapper value = local.getIfPresent(key);
+        if (value != null) {
+            localHits.inc();
+            return value;
+        }
+        localMisses.inc();
+        value = remote.get(key);
+        if (value != null) {
+            local.put(key, value);
+        }
+        return value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper value = get(key);
+        Object result = value != null ? value.get() : null;
+        if (result != null && type != null && !type.isInstance(result)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: "
+                    + result);
+        }
+        return (T) result;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper value = local.getIfPresent(key);
+        if (value != null) {
+            localHits.inc();
+            return (T) value.get();
+        }
+        localMisses.inc();
+        T result = remote.get(key, valueLoader);
+        local.put(key, new SimpleValueWrapper(result));
+        return result;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        remote.put(key, value);
+        local.put(key, new SimpleValueWrapper(value));
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = remote.putIfAbsent(key, value);
+        local.put(key, existing != null ? existing : new SimpleValueWrapper(value));
+        return existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        // The remote tier goes first, so that an instance that drops the key refills it with the new value.
+        remote.evict(key);
+        local.invalidate(key);
+        localInvalidations.inc();
+        cacheManager.publish(getName(), key);
+    }
+
+    @Override
+    public void clear() {
+        remote.clear();
+        local.invalidateAll();
+        localInvalidations.inc();
+        cacheManager.publish(getName(), null);
+    }
+
+    /**
+     * Drop a key, or all keys, from the in-heap tier on behalf of another instance.
+     *
+     * @param key key, null for all keys
+     */
+    void invalidateLocal(Object key) {
+        if (key != null) {
+            local.invalidate(key);
+        } else {
+            local.invalidateAll();
+        }
+        remoteInvalidations.inc();
+    }
+}
@@ -0,0 +1,143 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+
+package com.microsoft.azure.java.samples.moviedb.web.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cache manager that puts a bounded in-heap cache in front of the chosen caches of a Redis cache manager, so that
+ * hot keys are served without a round trip to Redis or deserialization. Other caches are served by Redis alone.
+ * <p>
+ * An instance that evicts a key publishes it on a Redis channel, and the other instances drop it from heap.
+ * Messages published while an instance is disconnected from Redis are lost, and so are writes of other instances,
+ * which are not published, so entries also expire from heap after a short time.
+ */
+public class TwoTierCacheManager implements CacheManager, MessageListener, InitializingBean, DisposableBean {
+    /**
+     * Redis channel of the invalidation messages.
+     */
+    public static final String CHANNEL = "moviedb:cache-invalidation";
+
+    private static final Logger logger = LoggerFactory.getLogger(TwoTierCacheManager.class);
+
+    private final CacheManager remote;
+    private final RedisTemplate<Object, Object> redisTemplate;
+    private final Set<String> nearCacheNames;
+    private final long maxSize;
+    private final long ttl;
+    private final String instanceId = UUID.randomUUID().toString();
+    private final ConcurrentMap<String, TwoTierCache> caches = new ConcurrentHashMap<>();
+    private final RedisMessageListenerContainer listenerContainer = new RedisMessageListenerContainer();
+
+    /**
+     * Constructor.
+     *
+     * @param remote         Redis cache manager
+     * @param redisTemplate  template of the Redis cache manager, used to send and receive invalidation messages
+     * @param nearCacheNames names of the caches that get an in-heap tier
+     * @param maxSize        maximum number of entries in the in-heap tier of each cache
+     * @param ttl            seconds an entry is kept in heap after it was written
+     */
+    public TwoTierCacheManager(CacheManager remote, RedisTemplate<Object, Object> redisTemplate,
+                               Collection<String> nearCacheNames, long maxSize, long ttl) {
+        this.remote = remote;
+        this.redisTemplate = redisTemplate;
+        this.nearCacheNames = new HashSet<>(nearCacheNames);
+        this.maxSize = maxSize;
+        this.ttl = ttl;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        listenerContainer.setConnectionFactory(redisTemplate.getConnectionFactory());
+        listenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+        listenerContainer.afterPropertiesSet();
+        listenerContainer.start();
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        listenerContainer.destroy();
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        Cache cache = caches.get(name);
+        if (cache != null) {
+            return cache;
+        }
+        Cache remoteCache = remote.getCache(name);
+        if (remoteCache == null || !nearCacheNames.contains(name)) {
+            return remoteCache;
+        }
+        return caches.computeIfAbsent(name, key -> new TwoTierCache(Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl, TimeUnit.SECONDS)
+                .build(), remoteCache, this));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return remote.getCacheNames();
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        Object body;
+        try {
+            body = redisTemplate.getValueSerializer().deserialize(message.getBody());
+        } catch (SerializationException e) {
+            logger.warn("Ignoring unreadable cache invalidation: " + e.getMessage());
+            return;
+        }
+        if (!(body instanceof CacheInvalidation)) {
+            return;
+        }
+        CacheInvalidation invalidation = (CacheInvalidation) body;
+        TwoTierCache cache = caches.get(invalidation.getCacheName());
+        if (cache != null && !instanceId.equals(invalidation.getOrigin())) {
+            cache.invalidateLocal(invalidation.getKey());
+        }
+    }
+
+    /**
+     * Tell the other instances to drop a key, or all keys, of a cache from heap. A failure is logged rather than
+     * thrown, since the remote tier was already updated and the entries expire from heap anyway.
+     *
+     * @param cacheName name of the cache
+     * @param key       key, null for all keys
+     */
+    void publish(String cacheName, Object key) {
+        try {
+            redisTemplate.convertAndSend(CHANNEL, new CacheInvalidation(instanceId, cacheName, key));
+        } catch (DataAccessException e) {
+            logger.warn("Cannot publish the invalidation of " + cacheName + " " + key + ": " + e.getMessage());
+        }
+    }
+}
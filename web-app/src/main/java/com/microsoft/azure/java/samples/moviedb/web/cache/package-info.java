@@ -0,0 +1,11 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+/**
+ * Two-tier caches, an in-heap cache in front of Redis, kept consistent across web app instances over Redis pub/sub,
+ * and coalescing of concurrent loads after cache misses.
+ */
+package com.microsoft.azure.java.samples.moviedb.web.cache;
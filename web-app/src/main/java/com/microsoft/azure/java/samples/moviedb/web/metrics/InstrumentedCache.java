@@ -0,0 +1,124 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+
+package com.microsoft.azure.java.samples.moviedb.web.metrics;
+
+import com.microsoft.azure.java.samples.moviedb.trace.Span;
+import com.microsoft.azure.java.samples.moviedb.trace.Tracer;
+import io.prometheus.client.Counter;
+import org.springframework.cache.Cache;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Cache that counts hits, misses, puts and evictions of the cache it wraps, and records a span for every lookup
+ * in the trace of the current request. Entries that expire in the cache store are not seen here and show up as misses.
+ */
+class InstrumentedCache implements Cache {
+    private static final String SPAN_KIND = "cache";
+
+    private final Cache cache;
+    private final String lookupSpanName;
+    private final Counter.Child hits;
+    private final Counter.Child misses;
+    private final Counter.Child puts;
+    private final Counter.Child evictions;
+
+    /**
+     * Constructor.
+     *
+     * @param cache cache to count the operations of
+     */
+    InstrumentedCache(Cache cache) {
+        this.cache = cache;
+        this.lookupSpanName = "get " + cache.getName();
+        this.hits = WebAppMetrics.CACHE_REQUESTS.labels(cache.getName(), "hit");
+        this.misses = WebAppMetrics.CACHE_REQUESTS.labels(cache.getName(), "miss");
+        this.puts = WebAppMetrics.CACHE_PUTS.labels(cache.getName());
+        this.evictions = WebAppMetrics.CACHE_EVICTIONS.labels(cache.getName());
+    }
+
+    @Override
+    public String getName() {
+        return cache.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return cache.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        Span span = Tracer.startSpan(SPAN_KIND, lookupSpanName);
+        ValueWrapper value;
+        try {
+            value = cache.get(key);
+        } finally {
+            span.end();
+        }
+        (value != null ? hits : misses).inc();
+        return value;
+    }
+
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        Span span = Tracer.startSpan(SPAN_KIND, lookupSpanName);
+        T value;
+        try {
+            value = cache.get(key, type);
+        } finally {
+            span.end();
+        }
+        (value != null ? hits : misses).inc();
+        return value;
+    }
+
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        boolean[] loaded = new boolean[1];
+        Span span = Tracer.startSpan(SPAN_KIND, lookupSpanName);
+        T value;
+        try {
+            value = cache.get(key, () -> {
+                loaded[0] = true;
+                return valueLoader.call();
+            });
+        } finally {
+            span.end();
+        }
+        (loaded[0] ? misses : hits).inc();
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        cache.put(key, value);
+        puts.inc();
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = cache.putIfAbsent(key, value);
+        if (existing == null) {
+            puts.inc();
+        }
+        return existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        cache.evict(key);
+        evictions.inc();
+    }
+
+    @Override
+    public void clear() {
+        cache.clear();
+        evictions.inc();
+    }
+}
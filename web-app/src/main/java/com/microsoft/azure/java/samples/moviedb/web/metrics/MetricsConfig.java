@@ -0,0 +1,57 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+
+package com.microsoft.azure.java.samples.moviedb.web.metrics;
+
+import io.prometheus.client.exporter.MetricsServlet;
+import io.prometheus.client.hotspot.DefaultExports;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.ServletRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurerAdapter;
+
+/**
+ * Exposes the metrics of the web app in the Prometheus text format, counts the operations of the caches
+ * and times the rendering of views.
+ */
+@Configuration
+public class MetricsConfig extends WebMvcConfigurerAdapter {
+
+    /**
+     * Register the servlet that serves the metrics.
+     *
+     * @param path       path of the metrics endpoint
+     * @param jvmMetrics whether to also export memory, garbage collection and thread metrics of the JVM
+     * @return servlet registration
+     */
+    @Bean
+    public ServletRegistrationBean metricsServletRegistration(
+            @Value("${moviedb.webapp.metrics.path:/metrics}") String path,
+            @Value("${moviedb.webapp.metrics.jvm:true}") boolean jvmMetrics) {
+        if (jvmMetrics) {
+            DefaultExports.initialize();
+        }
+        return new ServletRegistrationBean(new MetricsServlet(), path);
+    }
+
+    /**
+     * Wrap cache managers, so that hits, misses, puts and evictions of their caches are counted.
+     *
+     * @return bean post processor
+     */
+    @Bean
+    public static InstrumentedCacheManagerPostProcessor instrumentedCacheManagerPostProcessor() {
+        return new InstrumentedCacheManagerPostProcessor();
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new TemplateRenderInterceptor());
+    }
+}
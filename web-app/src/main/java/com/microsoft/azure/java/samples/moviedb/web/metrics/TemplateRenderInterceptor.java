@@ -0,0 +1,55 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+
+package com.microsoft.azure.java.samples.moviedb.web.metrics;
+
+import com.microsoft.azure.java.samples.moviedb.trace.Span;
+import com.microsoft.azure.java.samples.moviedb.trace.Tracer;
+import org.springframework.web.servlet.ModelAndView;
+import org.springframework.web.servlet.handler.HandlerInterceptorAdapter;
+import org.springframework.web.servlet.view.UrlBasedViewResolver;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Records the render time of views, also as a span of the trace of the request. The view is rendered between the end
+ * of the handler and the completion of the request. Handlers that return a future are timed on the dispatch that
+ * completes them.
+ */
+class TemplateRenderInterceptor extends HandlerInterceptorAdapter {
+    private static final String VIEW_ATTRIBUTE = TemplateRenderInterceptor.class.getName() + ".view";
+    private static final String START_ATTRIBUTE = TemplateRenderInterceptor.class.getName() + ".start";
+    private static final String SPAN_ATTRIBUTE = TemplateRenderInterceptor.class.getName() + ".span";
+    private static final String SPAN_KIND = "render";
+
+    @Override
+    public void postHandle(HttpServletRequest request, HttpServletResponse response, Object handler,
+                           ModelAndView modelAndView) {
+        if (modelAndView == null || modelAndView.getViewName() == null
+                || modelAndView.getViewName().startsWith(UrlBasedViewResolver.REDIRECT_URL_PREFIX)) {
+            return;
+        }
+        request.setAttribute(VIEW_ATTRIBUTE, modelAndView.getViewName());
+        request.setAttribute(SPAN_ATTRIBUTE, Tracer.startSpan(SPAN_KIND, modelAndView.getViewName()));
+        request.setAttribute(START_ATTRIBUTE, System.nanoTime());
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        Object view = request.getAttribute(VIEW_ATTRIBUTE);
+        Object start = request.getAttribute(START_ATTRIBUTE);
+        if (view != null && start != null) {
+            ((Span) request.getAttribute(SPAN_ATTRIBUTE)).end();
+            request.removeAttribute(VIEW_ATTRIBUTE);
+            request.removeAttribute(START_ATTRIBUTE);
+            request.removeAttribute(SPAN_ATTRIBUTE);
+            WebAppMetrics.observeSince(WebAppMetrics.TEMPLATE_RENDER_SECONDS.labels((String) view), (Long) start);
+        }
+    }
+}
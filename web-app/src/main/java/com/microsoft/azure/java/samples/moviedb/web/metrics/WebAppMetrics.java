@@ -0,0 +1,185 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+
+package com.microsoft.azure.java.samples.moviedb.web.metrics;
+
+import io.prometheus.client.Counter;
+import io.prometheus.client.Gauge;
+import io.prometheus.client.Histogram;
+import org.apache.http.pool.ConnPoolControl;
+import org.apache.http.pool.PoolStats;
+
+import java.util.function.ToIntFunction;
+
+/**
+ * Metrics of the web app, registered with the default Prometheus registry and scraped from the metrics endpoint.
+ * Label values are resolved once, so that recording a value on the hot path costs a few atomic operations.
+ */
+public final class WebAppMetrics {
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+
+    /**
+     * Latency of the movie repository methods, including cache hits, labeled by method.
+     */
+    public static final Histogram REPOSITORY_SECONDS = Histogram.build()
+            .name("moviedb_webapp_repository_seconds")
+            .help("Latency of movie repository methods in seconds.")
+            .labelNames("method")
+            .buckets(0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10)
+            .register();
+
+    /**
+     * Latency of image uploads to Azure storage.
+     */
+    public static final Histogram UPLOAD_SECONDS = Histogram.build()
+            .name("moviedb_webapp_upload_seconds")
+            .help("Latency of image uploads to Azure storage in seconds.")
+            .buckets(0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10, 30)
+            .register();
+
+    /**
+     * Cache lookups, labeled by cache and by result, hit or miss.
+     */
+    public static final Counter CACHE_REQUESTS = Counter.build()
+            .name("moviedb_webapp_cache_requests_total")
+            .help("Cache lookups by cache and result.")
+            .labelNames("cache", "result")
+            .register();
+
+    /**
+     * Values put into a cache, labeled by cache.
+     */
+    public static final Counter CACHE_PUTS = Counter.build()
+            .name("moviedb_webapp_cache_puts_total")
+            .help("Values put into a cache.")
+            .labelNames("cache")
+            .register();
+
+    /**
+     * Keys evicted from a cache by the web app, labeled by cache. Clearing a whole cache counts as one eviction.
+     */
+    public static final Counter CACHE_EVICTIONS = Counter.build()
+            .name("moviedb_webapp_cache_evictions_total")
+            .help("Keys evicted from a cache by the web app.")
+            .labelNames("cache")
+            .register();
+
+    /**
+     * Loads from data app after a cache miss, labeled by cache and by result, loaded for the callers that sent the
+     * request and coalesced for those that waited for the request of another caller. The coalescing ratio is
+     * coalesced / (loaded + coalesced).
+     */
+    public static final Counter CACHE_LOADS = Counter.build()
+            .name("moviedb_webapp_cache_loads_total")
+            .help("Loads after a cache miss by cache and result, loaded or coalesced into a load in flight.")
+            .labelNames("cache", "result")
+            .register();
+
+    /**
+     * Cached values served after their max age, labeled by cache and by reason: revalidating while a background
+     * refresh runs, error when the refresh failed and timeout when it took too long.
+     */
+    public static final Counter STALE_SERVES = Counter.build()
+            .name("moviedb_webapp_stale_serves_total")
+            .help("Cached values served after their max age by cache and reason.")
+            .labelNames("cache", "reason")
+            .register();
+
+    /**
+     * Lookups in the in-heap tier of the two-tier caches, labeled by cache and by result, hit or miss. A miss goes on
+     * to Redis.
+     */
+    public static final Counter NEAR_CACHE_REQUESTS = Counter.build()
+            .name("moviedb_webapp_near_cache_requests_total")
+            .help("Lookups in the in-heap tier of two-tier caches by cache and result.")
+            .labelNames("cache", "result")
+            .register();
+
+    /**
+     * Keys dropped from the in-heap tier of the two-tier caches, labeled by cache and by origin, local for evictions
+     * made by this instance and remote for those received from other instances.
+     */
+    public static final Counter NEAR_CACHE_INVALIDATIONS = Counter.build()
+            .name("moviedb_webapp_near_cache_invalidations_total")
+            .help("Keys dropped from the in-heap tier of two-tier caches by cache and origin.")
+            .labelNames("cache", "origin")
+            .register();
+
+    /**
+     * Cached movie list pages evicted because a movie on them changed.
+     */
+    public static final Counter PAGE_INVALIDATIONS = Counter.build()
+            .name("moviedb_webapp_page_invalidations_total")
+            .help("Cached movie list pages evicted because a movie on them changed.")
+            .register();
+
+    /**
+     * Time from the end of a handler to the end of the request, which is spent rendering its view, labeled by view.
+     */
+    public static final Histogram TEMPLATE_RENDER_SECONDS = Histogram.build()
+            .name("moviedb_webapp_template_render_seconds")
+            .help("Template render time in seconds.")
+            .labelNames("view")
+            .buckets(0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1)
+            .register();
+
+    /**
+     * Connections of the HTTP client pools, labeled by client and by state, leased, available, pending or max.
+     * The values are read from the pool when the endpoint is scraped.
+     */
+    public static final Gauge HTTP_POOL_CONNECTIONS = Gauge.build()
+            .name("moviedb_webapp_http_pool_connections")
+            .help("Connections of the HTTP client pools by client and state.")
+            .labelNames("client", "state")
+            .register();
+
+    private WebAppMetrics() {
+    }
+
+    /**
+     * Observe the time elapsed since a start time.
+     *
+     * @param histogram  histogram, or the child of a histogram for one set of labels
+     * @param startNanos start time taken from System.nanoTime()
+     */
+    public static void observeSince(Histogram.Child histogram, long startNanos) {
+        histogram.observe((System.nanoTime() - startNanos) / NANOS_PER_SECOND);
+    }
+
+    /**
+     * Observe the time elapsed since a start time.
+     *
+     * @param histogram  histogram without labels
+     * @param startNanos start time taken from System.nanoTime()
+     */
+    public static void observeSince(Histogram histogram, long startNanos) {
+        histogram.observe((System.nanoTime() - startNanos) / NANOS_PER_SECOND);
+    }
+
+    /**
+     * Report the connections of an HTTP client pool. A pool reported under the name of an earlier pool replaces it.
+     *
+     * @param client name of the client
+     * @param pool   connection pool of the client
+     */
+    public static void monitorPool(String client, ConnPoolControl<?> pool) {
+        setPoolGauge(client, "leased", pool, PoolStats::getLeased);
+        setPoolGauge(client, "available", pool, PoolStats::getAvailable);
+        setPoolGauge(client, "pending", pool, PoolStats::getPending);
+        setPoolGauge(client, "max", pool, PoolStats::getMax);
+    }
+
+    private static void setPoolGauge(String client, String state, ConnPoolControl<?> pool,
+                                     ToIntFunction<PoolStats> value) {
+        HTTP_POOL_CONNECTIONS.setChild(new Gauge.Child() {
+            @Override
+            public double get() {
+                return value.applyAsInt(pool.getTotalStats());
+            }
+        }, client, state);
+    }
+}
@@ -7,6 +7,7 @@
 
 package com.microsoft.azure.java.samples.moviedb.web.pojo;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonInclude;
 
@@ -22,9 +23,14 @@ public class Movie implements Serializable {
     private String name;
     private String description;
     private Double rating;
+    private Long votes;
     private String imageUri;
     private String imageFullPathUri;
     private String thumbnailFullPathUri;
+    @JsonIgnore
+    private String etag;
+    @JsonIgnore
+    private long validatedAt;
 
     /**
      * Get movie id.
@@ -98,6 +104,24 @@ public class Movie implements Serializable {
         this.rating = rating;
     }
 
+    /**
+     * Get number of user votes the rating is averaged from.
+     *
+     * @return number of votes
+     */
+    public Long getVotes() {
+        return votes;
+    }
+
+    /**
+     * Set number of user votes.
+     *
+     * @param votes number of votes
+     */
+    public void setVotes(Long votes) {
+        this.votes = votes;
+    }
+
     /**
      * Get image uri.
      *
@@ -152,6 +176,63 @@ public class Movie implements Serializable {
         this.thumbnailFullPathUri = thumbnailFullPathUri;
     }
 
+    /**
+     * Get ETag that data app sent with this movie, null if the movie came from a multi-get request.
+     *
+     * @return movie etag
+     */
+    public String getEtag() {
+        return this.etag;
+    }
+
+    /**
+     * Set ETag that data app sent with this movie.
+     *
+     * @param etag movie etag
+     */
+    public void setEtag(String etag) {
+        this.etag = etag;
+    }
+
+    /**
+     * Get time when this movie was last fetched or revalidated against data app.
+     *
+     * @return epoch milliseconds
+     */
+    public long getValidatedAt() {
+        return this.validatedAt;
+    }
+
+    /**
+     * Set time when this movie was last fetched or revalidated against data app.
+     *
+     * @param validatedAt epoch milliseconds
+     */
+    public void setValidatedAt(long validatedAt) {
+        this.validatedAt = validatedAt;
+    }
+
+    /**
+     * Copy this movie. Cached movies are shared by every request that reads them, so they are copied before they
+     * are changed.
+     *
+     * @return copy of the movie
+     */
+    public Movie copy() {
+        Movie copy = new Movie();
+        copy.id = this.id;
+        copy.name = this.name;
+        copy.description = this.description;
+        copy.rating = this.rating;
+        copy.votes = this.votes;
+        copy.imageUri = this.imageUri;
+        copy.imageFullPathUri = this.imageFullPathUri;
+        copy.thumbnailFullPathUri = this.thumbnailFullPathUri;
+        copy.etag = this.etag;
+        copy.validatedAt = this.validatedAt;
+        return copy;
+    }
+
     @Override
     public String toString() {
         StringBuilder builder = new StringBuilder("Movie: {");
@@ -0,0 +1,50 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+
+package com.microsoft.azure.java.samples.moviedb.web.pojo;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Definition for one entry of the data app movie change feed.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class MovieChange implements Serializable {
+    private Long id;
+    private Long version;
+    private List<String> fields;
+
+    /**
+     * Get id of the changed movie.
+     *
+     * @return movie id
+     */
+    public Long getId() {
+        return this.id;
+    }
+
+    /**
+     * Get movie version after the change.
+     *
+     * @return movie version
+     */
+    public Long getVersion() {
+        return this.version;
+    }
+
+    /**
+     * Get names of the changed properties, empty if the movie was created or deleted.
+     *
+     * @return changed properties
+     */
+    public List<String> getFields() {
+        return this.fields;
+    }
+}
@@ -0,0 +1,50 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+
+package com.microsoft.azure.java.samples.moviedb.web.pojo;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Definition for one batch of the data app movie change feed.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class MovieChanges implements Serializable {
+    private String cursor;
+    private boolean reset;
+    private List<MovieChange> changes;
+
+    /**
+     * Get cursor to request the next batch with.
+     *
+     * @return feed cursor
+     */
+    public String getCursor() {
+        return this.cursor;
+    }
+
+    /**
+     * Whether changes were missed since the requested cursor, so that every cached movie may be stale.
+     *
+     * @return true if the reader has to start over
+     */
+    public boolean isReset() {
+        return this.reset;
+    }
+
+    /**
+     * Get changes of the batch.
+     *
+     * @return changes in feed order
+     */
+    public List<MovieChange> getChanges() {
+        return this.changes;
+    }
+}
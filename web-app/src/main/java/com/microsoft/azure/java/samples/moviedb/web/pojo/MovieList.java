@@ -13,7 +13,7 @@ import java.io.Serializable;
 import java.util.List;
 
 /**
- * Class that contains a list of movies.
+ * Class that contains a list of movies, list pages only get the summary fields of each movie.
  */
 @JsonIgnoreProperties(ignoreUnknown = true)
 public class MovieList implements Serializable {
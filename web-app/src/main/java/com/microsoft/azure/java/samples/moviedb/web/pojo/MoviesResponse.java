@@ -13,13 +13,14 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import java.io.Serializable;
 
 /**
- * Class corresponds to JSON response of get movies rest api.
+ * Class corresponds to JSON response of get movies and movie summaries rest api.
  */
 @JsonIgnoreProperties(ignoreUnknown = true)
 public class MoviesResponse implements Serializable {
     @JsonProperty("_embedded")
     private MovieList movieList;
     private PageInfo page;
+    private long cachedAt;
 
     /**
      * Get movie list.
@@ -39,4 +40,22 @@ public class MoviesResponse implements Serializable {
     public PageInfo getPage() {
         return this.page;
     }
+
+    /**
+     * Get time when this response was fetched from data app and cached.
+     *
+     * @return epoch milliseconds
+     */
+    public long getCachedAt() {
+        return this.cachedAt;
+    }
+
+    /**
+     * Set time when this response was fetched from data app and cached.
+     *
+     * @param cachedAt epoch milliseconds
+     */
+    public void setCachedAt(long cachedAt) {
+        this.cachedAt = cachedAt;
+    }
 }
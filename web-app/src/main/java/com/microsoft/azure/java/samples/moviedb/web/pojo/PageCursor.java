@@ -0,0 +1,144 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+
+package com.microsoft.azure.java.samples.moviedb.web.pojo;
+
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque cursor that points at a position in the movie ranking for keyset pagination.
+ */
+public class PageCursor implements Serializable {
+    private static final String SEPARATOR = ",";
+    private static final String FORWARD = "a";
+    private static final String BACKWARD = "b";
+
+    private final int number;
+    private final Double rating;
+    private final Long id;
+    private final boolean backward;
+
+    private PageCursor(int number, Double rating, Long id, boolean backward) {
+        this.number = number;
+        this.rating = rating;
+        this.id = id;
+        this.backward = backward;
+    }
+
+    /**
+     * Get cursor of the first page.
+     *
+     * @return first page cursor
+     */
+    public static PageCursor first() {
+        return new PageCursor(0, null, null, false);
+    }
+
+    /**
+     * Get cursor of the page that starts right after the given movie.
+     *
+     * @param number page number of the page to open
+     * @param movie  last movie of the current page
+     * @return page cursor
+     */
+    public static PageCursor after(int number, Movie movie) {
+        return new PageCursor(number, movie.getRating(), movie.getId(), false);
+    }
+
+    /**
+     * Get cursor of the page that ends right before the given movie.
+     *
+     * @param number page number of the page to open
+     * @param movie  first movie of the current page
+     * @return page cursor
+     */
+    public static PageCursor before(int number, Movie movie) {
+        return number <= 0 ? first() : new PageCursor(number, movie.getRating(), movie.getId(), true);
+    }
+
+    /**
+     * Decode cursor from its opaque string form, malformed or missing cursors resolve to the first page.
+     *
+     * @param token encoded cursor
+     * @return page cursor
+     */
+    public static PageCursor decode(String token) {
+        if (token == null || token.isEmpty()) {
+            return first();
+        }
+
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split(SEPARATOR);
+            int number = Integer.parseInt(parts[0]);
+            if (parts.length != 4 || number <= 0) {
+                return first();
+            }
+
+            return new PageCursor(number, Double.valueOf(parts[1]), Long.valueOf(parts[2]), BACKWARD.equals(parts[3]));
+        } catch (IllegalArgumentException e) {
+            return first();
+        }
+    }
+
+    /**
+     * Encode cursor to an opaque string that is safe to use in URLs.
+     *
+     * @return encoded cursor
+     */
+    public String encode() {
+        String raw = isFirst() ? "0" : number + SEPARATOR + rating + SEPARATOR + id + SEPARATOR
+                + (backward ? BACKWARD : FORWARD);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Get page number, starting from zero.
+     *
+     * @return page number
+     */
+    public int getNumber() {
+        return this.number;
+    }
+
+    /**
+     * Get rating of the movie that bounds the page.
+     *
+     * @return movie rating
+     */
+    public Double getRating() {
+        return this.rating;
+    }
+
+    /**
+     * Get id of the movie that bounds the page.
+     *
+     * @return movie id
+     */
+    public Long getId() {
+        return this.id;
+    }
+
+    /**
+     * Whether the page ends right before the bounding movie instead of starting right after it.
+     *
+     * @return true if the page is read backward
+     */
+    public boolean isBackward() {
+        return this.backward;
+    }
+
+    /**
+     * Whether the cursor points at the first page.
+     *
+     * @return true for the first page
+     */
+    public boolean isFirst() {
+        return this.rating == null || this.id == null;
+    }
+}
@@ -0,0 +1,112 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+
+package com.microsoft.azure.java.samples.moviedb.web.pojo;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Definition for the rating statistics of the whole catalog.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class RatingStats implements Serializable {
+    private long count;
+    private Double mean;
+    private Map<String, Double> percentiles = Collections.emptyMap();
+    private List<Bucket> histogram = Collections.emptyList();
+
+    /**
+     * Get number of rated movies.
+     *
+     * @return number of rated movies
+     */
+    public long getCount() {
+        return this.count;
+    }
+
+    /**
+     * Get mean rating.
+     *
+     * @return mean rating, null if no movie is rated
+     */
+    public Double getMean() {
+        return this.mean;
+    }
+
+    /**
+     * Get rating percentiles, keyed p50, p90, p95 and p99.
+     *
+     * @return rating percentiles
+     */
+    public Map<String, Double> getPercentiles() {
+        return this.percentiles;
+    }
+
+    /**
+     * Get rating histogram.
+     *
+     * @return buckets in ascending rating order
+     */
+    public List<Bucket> getHistogram() {
+        return this.histogram;
+    }
+
+    /**
+     * Get number of movies in the fullest bucket, to scale the histogram bars.
+     *
+     * @return largest bucket count
+     */
+    public long getMaxBucketCount() {
+        long max = 0;
+        for (Bucket bucket : histogram) {
+            max = Math.max(max, bucket.getCount());
+        }
+        return max;
+    }
+
+    /**
+     * Number of movies with a rating in a closed range.
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Bucket implements Serializable {
+        private double from;
+        private double to;
+        private long count;
+
+        /**
+         * Get lowest rating in the bucket.
+         *
+         * @return lowest rating
+         */
+        public double getFrom() {
+            return this.from;
+        }
+
+        /**
+         * Get highest rating in the bucket.
+         *
+         * @return highest rating
+         */
+        public double getTo() {
+            return this.to;
+        }
+
+        /**
+         * Get number of movies in the bucket.
+         *
+         * @return number of movies
+         */
+        public long getCount() {
+            return this.count;
+        }
+    }
+}
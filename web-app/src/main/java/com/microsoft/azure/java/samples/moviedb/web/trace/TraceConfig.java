@@ -0,0 +1,54 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+
+package com.microsoft.azure.java.samples.moviedb.web.trace;
+
+import com.microsoft.azure.java.samples.moviedb.trace.TraceCollector;
+import com.microsoft.azure.java.samples.moviedb.trace.TracingFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import javax.servlet.DispatcherType;
+
+/**
+ * Traces page requests. Requests to data app made on behalf of a page carry its trace context.
+ */
+@Configuration
+public class TraceConfig {
+
+    /**
+     * Collector of the sampled traces.
+     *
+     * @param capacity number of recent traces kept
+     * @return trace collector
+     */
+    @Bean
+    public TraceCollector traceCollector(@Value("${moviedb.webapp.trace.capacity:1000}") int capacity) {
+        return new TraceCollector(capacity);
+    }
+
+    /**
+     * Trace every request, outside of all other filters so that the trace covers them. The filter also runs on
+     * the dispatch that renders a page once its future completes.
+     *
+     * @param traceCollector collector of the sampled traces
+     * @param sampleRate     share of the requests without trace context that are sampled
+     * @return filter registration
+     */
+    @Bean
+    public FilterRegistrationBean tracingFilter(TraceCollector traceCollector,
+                                                @Value("${moviedb.webapp.trace.sampleRate:0.01}") double sampleRate) {
+        FilterRegistrationBean registration = new FilterRegistrationBean(
+                new TracingFilter(traceCollector, sampleRate));
+        registration.setDispatcherTypes(DispatcherType.REQUEST, DispatcherType.ASYNC);
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+}
@@ -0,0 +1,49 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+
+package com.microsoft.azure.java.samples.moviedb.web.trace;
+
+import com.microsoft.azure.java.samples.moviedb.trace.Trace;
+import com.microsoft.azure.java.samples.moviedb.trace.TraceCollector;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * Lists the slowest recent traces with their spans, so that the time of a slow page can be broken down without
+ * a tracing backend. The part of a trace spent in data app is listed by the traces endpoint of data app,
+ * found by the same trace id.
+ */
+@RestController
+public class TraceController {
+    private final TraceCollector traceCollector;
+
+    /**
+     * Constructor.
+     *
+     * @param traceCollector collector of the sampled traces
+     */
+    public TraceController(TraceCollector traceCollector) {
+        this.traceCollector = traceCollector;
+    }
+
+    /**
+     * Get the slowest recent traces.
+     *
+     * @param limit   maximum number of traces
+     * @param traceId only return the parts of this trace
+     * @return traces, slowest first
+     */
+    @RequestMapping(value = "/traces", method = RequestMethod.GET)
+    public List<Trace> getTraces(@RequestParam(value = "limit", defaultValue = "10") int limit,
+                                 @RequestParam(value = "traceId", required = false) String traceId) {
+        return traceCollector.getSlowest(limit, traceId);
+    }
+}
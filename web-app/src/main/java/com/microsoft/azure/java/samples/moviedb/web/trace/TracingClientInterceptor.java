@@ -0,0 +1,69 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+
+package com.microsoft.azure.java.samples.moviedb.web.trace;
+
+import com.microsoft.azure.java.samples.moviedb.trace.Span;
+import com.microsoft.azure.java.samples.moviedb.trace.Trace;
+import com.microsoft.azure.java.samples.moviedb.trace.Tracer;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.AsyncClientHttpRequestExecution;
+import org.springframework.http.client.AsyncClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.util.concurrent.ListenableFuture;
+
+import java.io.IOException;
+
+/**
+ * Records a span for every request to data app and sends the trace context along in the traceparent header,
+ * so that data app continues the trace of the page. A non-blocking request ends its span when the response arrives.
+ */
+public class TracingClientInterceptor implements ClientHttpRequestInterceptor, AsyncClientHttpRequestInterceptor {
+    private static final String KIND = "http";
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        Trace trace = Tracer.current();
+        if (trace == null) {
+            return execution.execute(request, body);
+        }
+
+        Span span = startSpan(trace, request);
+        try {
+            return execution.execute(request, body);
+        } finally {
+            span.end();
+        }
+    }
+
+    @Override
+    public ListenableFuture<ClientHttpResponse> intercept(HttpRequest request, byte[] body,
+                                                          AsyncClientHttpRequestExecution execution)
+            throws IOException {
+        Trace trace = Tracer.current();
+        if (trace == null) {
+            return execution.executeAsync(request, body);
+        }
+
+        Span span = startSpan(trace, request);
+        ListenableFuture<ClientHttpResponse> future = execution.executeAsync(request, body);
+        future.addCallback(response -> span.end(), e -> span.end());
+        return future;
+    }
+
+    private static Span startSpan(Trace trace, HttpRequest request) {
+        // The data app URI may end with a slash, which the API path repeats.
+        Span span = trace.isSampled()
+                ? trace.startSpan(KIND, request.getMethod() + " " + request.getURI().getPath().replaceFirst("^//+", "/"))
+                : Span.NOOP;
+        request.getHeaders().set(Trace.HEADER, trace.toHeader(span));
+        return span;
+    }
+}
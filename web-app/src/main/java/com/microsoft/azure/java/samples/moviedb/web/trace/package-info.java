@@ -0,0 +1,11 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+/**
+ * Traces of page requests and of the requests to data app made on their behalf, and the endpoint that serves the
+ * slowest of them. The traces themselves are in the shared trace module.
+ */
+package com.microsoft.azure.java.samples.moviedb.web.trace;
@@ -7,6 +7,9 @@
 
 package com.microsoft.azure.java.samples.moviedb.web.util;
 
+import com.microsoft.azure.java.samples.moviedb.trace.Span;
+import com.microsoft.azure.java.samples.moviedb.trace.Tracer;
+import com.microsoft.azure.java.samples.moviedb.web.metrics.WebAppMetrics;
 import com.microsoft.azure.storage.CloudStorageAccount;
 import com.microsoft.azure.storage.blob.BlobContainerPermissions;
 import com.microsoft.azure.storage.blob.BlobContainerPublicAccessType;
@@ -90,6 +93,8 @@ public class AzureStorageUploader {
      * @return relative path of the created image blob
      */
     public String uploadToAzureStorage(ApplicationContext applicationContext, MultipartFile file, String fileName) {
+        long start = System.nanoTime();
+        Span span = Tracer.startSpan("storage", "upload " + this.originalImageContainer);
         String uri = null;
 
         try {
@@ -111,6 +116,8 @@ public class AzureStorageUploader {
             logger.error("Error uploading image: " + e.getMessage());
         }
 
+        span.end();
+        WebAppMetrics.observeSince(WebAppMetrics.UPLOAD_SECONDS, start);
         return uri;
     }
 
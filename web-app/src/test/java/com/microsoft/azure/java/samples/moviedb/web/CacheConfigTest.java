@@ -0,0 +1,32 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+
+package com.microsoft.azure.java.samples.moviedb.web;
+
+import com.microsoft.azure.java.samples.moviedb.web.cache.TwoTierCacheManager;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.junit.Assert.assertThat;
+
+public class CacheConfigTest {
+    @Test
+    @SuppressWarnings("unchecked")
+    public void putsTheInHeapTierInFrontOfTheConfiguredCachesOnly() {
+        RedisTemplate<Object, Object> redisTemplate = Mockito.mock(RedisTemplate.class);
+        TwoTierCacheManager cacheManager = new CacheConfig().cacheManager(redisTemplate, 30,
+                new String[]{MovieRepository.MOVIE_CACHE}, 100, 10);
+
+        assertThat(cacheManager.getCache(MovieRepository.MOVIE_CACHE), is(not(instanceOf(RedisCache.class))));
+        assertThat(cacheManager.getCache(MoviePageCache.PAGE_CACHE), is(instanceOf(RedisCache.class)));
+    }
+}
@@ -6,45 +6,154 @@
 
 package com.microsoft.azure.java.samples.moviedb.web;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microsoft.azure.java.samples.moviedb.web.pojo.Movie;
+import com.microsoft.azure.java.samples.moviedb.web.pojo.MoviesResponse;
+import com.microsoft.azure.java.samples.moviedb.web.pojo.PageCursor;
+import com.microsoft.azure.java.samples.moviedb.web.pojo.RatingStats;
+import com.microsoft.azure.java.samples.moviedb.web.util.AzureStorageUploader;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.test.context.ContextConfiguration;
-import org.springframework.test.context.TestPropertySource;
-import org.springframework.test.context.junit4.AbstractJUnit4SpringContextTests;
+import org.springframework.context.ApplicationContext;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import java.util.concurrent.CompletableFuture;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.model;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.redirectedUrl;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.view;
 
-@TestPropertySource(locations = "classpath:application.test.properties")
-@ContextConfiguration(locations = {"classpath:/applicationContext-test.xml"})
-public class ControllerTest extends AbstractJUnit4SpringContextTests {
-    @Autowired
+public class ControllerTest {
+    @Mock
+    private ApplicationContext applicationContext;
+    @Mock
+    private MovieRepository movieRepository;
+    @Mock
+    private AzureStorageUploader azureStorageUploader;
+    @InjectMocks
     private MovieController movieController;
     private MockMvc mockMvc;
 
     @Before
-    public void setup() {
+    public void setup() throws Exception {
         MockitoAnnotations.initMocks(this);
         this.mockMvc = MockMvcBuilders.standaloneSetup(movieController).build();
+
+        Movie movie = new Movie();
+        movie.setId(1L);
+        movie.setName("Inception (2010)");
+        movie.setRating(9.7);
+        MoviesResponse moviesResponse = new ObjectMapper().readValue(
+                "{\"_embedded\":{\"movies\":[{\"id\":1,\"name\":\"Inception (2010)\",\"rating\":9.7}]}}",
+                MoviesResponse.class);
+        Mockito.when(movieRepository.getMovie("1")).thenReturn(CompletableFuture.completedFuture(movie));
+        Mockito.when(movieRepository.getMovies(Mockito.any(PageCursor.class), Mockito.anyInt()))
+                .thenReturn(CompletableFuture.completedFuture(moviesResponse));
+        Mockito.when(movieRepository.getRatingStats()).thenReturn(CompletableFuture.completedFuture(null));
+        Mockito.when(movieRepository.searchMovies(Mockito.anyString(), Mockito.anyInt(), Mockito.anyInt()))
+                .thenReturn(CompletableFuture.completedFuture(new ObjectMapper().readValue(
+                        "{\"_embedded\":{\"movies\":[{\"id\":1,\"name\":\"Inception (2010)\",\"rating\":9.7}]},"
+                                + "\"page\":{\"size\":20,\"totalElements\":21,\"totalPages\":2,\"number\":0}}",
+                        MoviesResponse.class)));
     }
 
     @Test
     public void testGetMovie() throws Exception {
-        this.mockMvc.perform(get("/movies/1"))
+        MvcResult result = this.mockMvc.perform(get("/movies/1"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        this.mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isOk())
                 .andExpect(model().attributeExists("movie"));
     }
 
     @Test
     public void testGetMovies() throws Exception {
-        this.mockMvc.perform(get("/movies"))
+        MvcResult result = this.mockMvc.perform(get("/movies"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        this.mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isOk())
                 .andExpect(model().attributeExists("movies"));
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testGetMovieNotFound() throws Exception {
+        Mockito.when(movieRepository.getMovie("2")).thenReturn(CompletableFuture.completedFuture(null));
+
+        MvcResult result = this.mockMvc.perform(get("/movies/2"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        this.mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(view().name("moviedetailerror"))
+                .andExpect(model().attributeDoesNotExist("movie"));
+    }
+
+    @Test
+    public void testGetMoviesWithRatingStats() throws Exception {
+        RatingStats ratingStats = new ObjectMapper().readValue("{\"count\":1,\"mean\":9.7}", RatingStats.class);
+        Mockito.when(movieRepository.getRatingStats()).thenReturn(CompletableFuture.completedFuture(ratingStats));
+
+        MvcResult result = this.mockMvc.perform(get("/movies"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        this.mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(view().name("moviespage"))
+                .andExpect(model().attribute("stats", ratingStats))
+                .andExpect(model().attributeDoesNotExist("hasnext"));
+    }
+
+    @Test
+    public void testGetMoviesWhenDataAppFails() throws Exception {
+        Mockito.when(movieRepository.getMovies(Mockito.any(PageCursor.class), Mockito.anyInt()))
+                .thenReturn(CompletableFuture.completedFuture(null));
+
+        MvcResult result = this.mockMvc.perform(get("/movies"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        this.mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(view().name("moviespage"))
+                .andExpect(model().attributeDoesNotExist("movies"))
+                .andExpect(model().attributeDoesNotExist("stats"));
+    }
+
+    @Test
+    public void testSearchMovies() throws Exception {
+        MvcResult result = this.mockMvc.perform(get("/movies/search").param("q", "inception"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        this.mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(view().name("moviespage"))
+                .andExpect(model().attribute("query", "inception"))
+                .andExpect(model().attributeExists("movies"))
+                .andExpect(model().attribute("next", "/movies/search?q=inception&page=1"))
+                .andExpect(model().attributeDoesNotExist("prev"));
+        Mockito.verify(movieRepository).searchMovies("inception", 0, 20);
+    }
+
+    @Test
+    public void testEmptySearchRedirectsToMovieList() throws Exception {
+        MvcResult result = this.mockMvc.perform(get("/movies/search").param("q", " "))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        this.mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().is3xxRedirection())
+                .andExpect(redirectedUrl("/movies"));
+        Mockito.verify(movieRepository, Mockito.never())
+                .searchMovies(Mockito.anyString(), Mockito.anyInt(), Mockito.anyInt());
+    }
+}
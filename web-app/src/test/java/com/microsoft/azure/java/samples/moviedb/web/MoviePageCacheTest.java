@@ -0,0 +1,85 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+
+package com.microsoft.azure.java.samples.moviedb.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microsoft.azure.java.samples.moviedb.web.pojo.Movie;
+import com.microsoft.azure.java.samples.moviedb.web.pojo.MoviesResponse;
+import com.microsoft.azure.java.samples.moviedb.web.pojo.PageCursor;
+import org.junit.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.io.IOException;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class MoviePageCacheTest {
+    private final ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager();
+    private final MoviePageCache moviePageCache = new MoviePageCache(cacheManager, 30);
+
+    @Test
+    public void keysFollowThePositionOfThePage() {
+        assertThat(MoviePageCache.getKey(PageCursor.first(), 10), is("10:first"));
+        assertThat(MoviePageCache.getKey(PageCursor.after(1, movie(9.7, 1L)), 10), is("10:after:9.7:1"));
+        assertThat(MoviePageCache.getKey(PageCursor.before(1, movie(9.7, 1L)), 10), is("10:before:9.7:1"));
+        // The page number only labels the page.
+        assertThat(MoviePageCache.getKey(PageCursor.after(5, movie(9.7, 1L)), 10), is("10:after:9.7:1"));
+    }
+
+    @Test
+    public void changedMovieEvictsOnlyItsPages() throws IOException {
+        PageCursor second = PageCursor.after(1, movie(9.0, 3L));
+        moviePageCache.put(PageCursor.first(), 3, page(1, 2, 3), System.currentTimeMillis());
+        moviePageCache.put(second, 3, page(4, 5, 6), System.currentTimeMillis());
+        moviePageCache.put(PageCursor.first(), 4, page(1, 2, 3, 4), System.currentTimeMillis());
+        assertThat(moviePageCache.get(PageCursor.first(), 3), is(notNullValue()));
+
+        moviePageCache.evictMovie("2");
+        assertThat(moviePageCache.get(PageCursor.first(), 3), is(nullValue()));
+        assertThat(moviePageCache.get(PageCursor.first(), 4), is(nullValue()));
+        assertThat(moviePageCache.get(second, 3), is(notNullValue()));
+
+        // The index entries of the evicted pages are gone with them.
+        moviePageCache.put(PageCursor.first(), 3, page(1, 2, 3), System.currentTimeMillis());
+        moviePageCache.evictMovie("4");
+        assertThat(moviePageCache.get(PageCursor.first(), 3), is(notNullValue()));
+        assertThat(moviePageCache.get(second, 3), is(nullValue()));
+    }
+
+    @Test
+    public void pagesExpireAfterMaxAge() throws IOException {
+        moviePageCache.put(PageCursor.first(), 3, page(1, 2, 3), System.currentTimeMillis() - 31000);
+        assertThat(moviePageCache.get(PageCursor.first(), 3), is(nullValue()));
+    }
+
+    @Test
+    public void zeroMaxAgeDisablesTheCache() throws IOException {
+        MoviePageCache disabled = new MoviePageCache(cacheManager, 0);
+        disabled.put(PageCursor.first(), 3, page(1, 2, 3), System.currentTimeMillis());
+        assertThat(disabled.get(PageCursor.first(), 3), is(nullValue()));
+    }
+
+    private static MoviesResponse page(long... ids) throws IOException {
+        StringBuilder json = new StringBuilder("{\"_embedded\":{\"movies\":[");
+        for (int i = 0; i < ids.length; i++) {
+            json.append(i > 0 ? "," : "").append("{\"id\":").append(ids[i]).append(",\"rating\":9.0}");
+        }
+        json.append("]}}");
+        return new ObjectMapper().readValue(json.toString(), MoviesResponse.class);
+    }
+
+    private static Movie movie(double rating, long id) {
+        Movie movie = new Movie();
+        movie.setRating(rating);
+        movie.setId(id);
+        return movie;
+    }
+}
@@ -0,0 +1,328 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+
+package com.microsoft.azure.java.samples.moviedb.web;
+
+import com.microsoft.azure.java.samples.moviedb.web.pojo.Movie;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.prometheus.client.CollectorRegistry;
+import org.junit.After;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Checks when getMovie and getMovies serve a cached movie past its max age, the metrics they record, the result of
+ * patchMovie and the cookies kept per user session, against a stand-in for data app.
+ */
+public class MovieRepositoryTest {
+    private static final String MOVIE_JSON = "{\"id\":1,\"name\":\"Inception (2010)\",\"rating\":9.7}";
+    private static final String MOVIES_JSON = "{\"_embedded\":{\"movies\":[" + MOVIE_JSON + "]}}";
+    private static final String NO_MOVIES_JSON = "{\"_embedded\":{\"movies\":[]}}";
+    private static final long MAX_AGE = 60;
+    private static final long REVALIDATE_TIMEOUT = 200;
+
+    private final CacheManager cacheManager = new ConcurrentMapCacheManager();
+    private final MovieChangeSubscriber movieChangeSubscriber = Mockito.mock(MovieChangeSubscriber.class);
+    private HttpServer dataApp;
+    private volatile int status;
+    private volatile long delay;
+    private volatile String moviesJson = MOVIES_JSON;
+    private volatile String lastCookie;
+    private MovieRepository movieRepository;
+
+    @After
+    public void stop() throws Exception {
+        RequestContextHolder.resetRequestAttributes();
+        if (dataApp != null) {
+            dataApp.stop(0);
+        }
+        if (movieRepository != null) {
+            movieRepository.destroy();
+        }
+    }
+
+    @Test
+    public void servesStaleWhileRevalidating() throws Exception {
+        start(200, MAX_AGE);
+        Movie stale = putStale();
+        assertThat(movieRepository.getMovie("1").get(1, TimeUnit.SECONDS), is(sameInstance(stale)));
+        for (int i = 0; i < 50 && cached() == stale; i++) {
+            Thread.sleep(100);
+        }
+        assertThat(cached().getName(), is("Inception (2010)"));
+    }
+
+    @Test
+    public void servesRevalidatedMovie() throws Exception {
+        start(200, 0);
+        putStale();
+        assertThat(movieRepository.getMovie("1").get(5, TimeUnit.SECONDS).getName(), is("Inception (2010)"));
+    }
+
+    @Test
+    public void servesStaleOnServerError() throws Exception {
+        start(503, 0);
+        Movie stale = putStale();
+        assertThat(movieRepository.getMovie("1").get(5, TimeUnit.SECONDS), is(sameInstance(stale)));
+    }
+
+    @Test
+    public void countsLatencyAndStaleServes() throws Exception {
+        start(503, 0);
+        putStale();
+        double loads = sample("moviedb_webapp_repository_seconds_count", new String[]{"method"},
+                new String[]{"getMovie"});
+        double staleServes = sample("moviedb_webapp_stale_serves_total", new String[]{"cache", "reason"},
+                new String[]{MovieRepository.MOVIE_CACHE, "error"});
+
+        movieRepository.getMovie("1").get(5, TimeUnit.SECONDS);
+
+        assertThat(sample("moviedb_webapp_repository_seconds_count", new String[]{"method"},
+                new String[]{"getMovie"}) - loads, is(1.0));
+        assertThat(sample("moviedb_webapp_stale_serves_total", new String[]{"cache", "reason"},
+                new String[]{MovieRepository.MOVIE_CACHE, "error"}) - staleServes, is(1.0));
+    }
+
+    @Test
+    public void servesStaleWhenDataAppIsDown() throws Exception {
+        start(200, 0);
+        dataApp.stop(0);
+        dataApp = null;
+        Movie stale = putStale();
+        assertThat(movieRepository.getMovie("1").get(5, TimeUnit.SECONDS), is(sameInstance(stale)));
+    }
+
+    @Test
+    public void servesStaleOnTimeout() throws Exception {
+        start(200, 0);
+        delay = 2000;
+        Movie stale = putStale();
+        assertThat(movieRepository.getMovie("1").get(REVALIDATE_TIMEOUT * 5, TimeUnit.MILLISECONDS),
+                is(sameInstance(stale)));
+    }
+
+    @Test
+    public void revalidatesACopyOfTheCachedMovie() throws Exception {
+        start(304, 0);
+        Movie stale = putStale();
+        long staleValidatedAt = stale.getValidatedAt();
+        Movie revalidated = movieRepository.getMovie("1").get(5, TimeUnit.SECONDS);
+        assertThat(revalidated, is(not(sameInstance(stale))));
+        assertThat(revalidated.getName(), is("Inception"));
+        assertThat(cached(), is(sameInstance(revalidated)));
+        // Other requests may still be reading the stale instance.
+        assertThat(stale.getValidatedAt(), is(staleValidatedAt));
+    }
+
+    @Test
+    public void doesNotServeStaleWhenNotFound() throws Exception {
+        start(404, 0);
+        putStale();
+        assertThat(movieRepository.getMovie("1").get(5, TimeUnit.SECONDS), is(nullValue()));
+        assertThat(cached(), is(nullValue()));
+    }
+
+    @Test
+    public void doesNotServeStaleWhenGone() throws Exception {
+        start(410, 0);
+        putStale();
+        assertThat(movieRepository.getMovie("1").get(5, TimeUnit.SECONDS), is(nullValue()));
+        assertThat(cached(), is(nullValue()));
+    }
+
+    @Test
+    public void doesNotServeStaleOnClientError() throws Exception {
+        start(400, 0);
+        putStale();
+        assertThat(movieRepository.getMovie("1").get(5, TimeUnit.SECONDS), is(nullValue()));
+    }
+
+    @Test
+    public void appliesChangeFeedMaxAgeToMoviesValidatedSinceItIsFollowed() throws Exception {
+        start(200, 0);
+        long followedSince = System.currentTimeMillis() - MAX_AGE * 2000;
+        Mockito.when(movieChangeSubscriber.isFollowedSince(Mockito.anyLong()))
+                .then(invocation -> (Long) invocation.getArguments()[0] >= followedSince);
+        Movie validatedSince = putStale();
+        assertThat(movieRepository.getMovie("1").get(5, TimeUnit.SECONDS), is(sameInstance(validatedSince)));
+
+        // Cached before the feed was followed, for instance by another instance, so changes may have been missed.
+        Movie validatedBefore = putStale();
+        validatedBefore.setValidatedAt(followedSince - 1);
+        assertThat(movieRepository.getMovie("1").get(5, TimeUnit.SECONDS).getName(), is("Inception (2010)"));
+    }
+
+    @Test
+    public void patchSucceedsOnlyWhenApplied() throws Exception {
+        start(200, 0);
+        assertThat(movieRepository.patchMovie("1", new Movie(), "\"1\""), is(true));
+        status = 412;
+        assertThat(movieRepository.patchMovie("1", new Movie(), "\"0\""), is(false));
+        status = 503;
+        assertThat(movieRepository.patchMovie("1", new Movie(), null), is(false));
+        dataApp.stop(0);
+        dataApp = null;
+        assertThat(movieRepository.patchMovie("1", new Movie(), null), is(false));
+    }
+
+    @Test
+    public void bulkServesFreshMoviesAndRequestsExpiredOnes() throws Exception {
+        start(200, 0);
+        Movie stale = putStale();
+        Movie fresh = put(2L, System.currentTimeMillis());
+        List<Movie> movies = movieRepository.getMovies(Arrays.asList(1L, 2L));
+        assertThat(movies.size(), is(2));
+        assertThat(movies.get(0).getName(), is("Inception (2010)"));
+        assertThat(movies.get(1), is(sameInstance(fresh)));
+        assertThat(cached(), is(not(sameInstance(stale))));
+    }
+
+    @Test
+    public void bulkServesStaleWhileRevalidating() throws Exception {
+        start(200, MAX_AGE);
+        Movie stale = putStale();
+        assertThat(movieRepository.getMovies(Arrays.asList(1L)).get(0), is(sameInstance(stale)));
+        for (int i = 0; i < 50 && cached() == stale; i++) {
+            Thread.sleep(100);
+        }
+        assertThat(cached().getName(), is("Inception (2010)"));
+    }
+
+    @Test
+    public void bulkServesStaleOnServerError() throws Exception {
+        start(503, 0);
+        Movie stale = putStale();
+        assertThat(movieRepository.getMovies(Arrays.asList(1L)).get(0), is(sameInstance(stale)));
+    }
+
+    @Test
+    public void bulkDoesNotServeStaleOnClientError() throws Exception {
+        start(400, 0);
+        putStale();
+        assertThat(movieRepository.getMovies(Arrays.asList(1L)).isEmpty(), is(true));
+    }
+
+    @Test
+    public void bulkEvictsMoviesDataAppNoLongerReturns() throws Exception {
+        start(200, 0);
+        moviesJson = NO_MOVIES_JSON;
+        putStale();
+        assertThat(movieRepository.getMovies(Arrays.asList(1L)).isEmpty(), is(true));
+        assertThat(cached(), is(nullValue()));
+    }
+
+    @Test
+    public void keepsDataAppCookiesPerUserSession() throws Exception {
+        start(200, 0);
+        MockHttpSession writerSession = new MockHttpSession();
+        actAs(writerSession);
+        assertThat(movieRepository.patchMovie("1", new Movie(), "\"1\""), is(true));
+        assertThat(movieRepository.getMovie("1").get(5, TimeUnit.SECONDS), is(not(nullValue())));
+        assertThat(lastCookie, is("moviedb-read-primary=1"));
+
+        cacheManager.getCache(MovieRepository.MOVIE_CACHE).evict("1");
+        actAs(new MockHttpSession());
+        assertThat(movieRepository.getMovie("1").get(5, TimeUnit.SECONDS), is(not(nullValue())));
+        assertThat(lastCookie, is(nullValue()));
+
+        cacheManager.getCache(MovieRepository.MOVIE_CACHE).evict("1");
+        RequestContextHolder.resetRequestAttributes();
+        assertThat(movieRepository.getMovie("1").get(5, TimeUnit.SECONDS), is(not(nullValue())));
+        assertThat(lastCookie, is(nullValue()));
+
+        cacheManager.getCache(MovieRepository.MOVIE_CACHE).evict("1");
+        actAs(writerSession);
+        assertThat(movieRepository.getMovies(Arrays.asList(1L)).size(), is(1));
+        assertThat(lastCookie, is("moviedb-read-primary=1"));
+    }
+
+    private void actAs(MockHttpSession session) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setSession(session);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+
+    private void start(int status, long staleWhileRevalidate) throws IOException {
+        this.status = status;
+        dataApp = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        dataApp.setExecutor(Executors.newCachedThreadPool());
+        dataApp.createContext("/api/v1/movies/", this::respond);
+        dataApp.start();
+
+        movieRepository = new MovieRepository(new RestTemplateBuilder(), cacheManager,
+                new MoviePageCache(cacheManager, 0), movieChangeSubscriber,
+                "localhost:" + dataApp.getAddress().getPort(), 100, MAX_AGE, 3600, staleWhileRevalidate, 86400,
+                REVALIDATE_TIMEOUT, false, 10, 1000, 5000, new String[]{MovieRepository.MOVIE_CACHE}, 10000);
+    }
+
+    private void respond(HttpExchange exchange) throws IOException {
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        lastCookie = exchange.getRequestHeaders().getFirst("Cookie");
+        if ("PATCH".equals(exchange.getRequestMethod())) {
+            exchange.getResponseHeaders().set("Set-Cookie", "moviedb-read-primary=1; Path=/");
+        }
+        String json = exchange.getRequestURI().getPath().endsWith("/byIds") ? moviesJson : MOVIE_JSON;
+        byte[] body = status == 200 ? json.getBytes(StandardCharsets.UTF_8) : new byte[0];
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.getResponseHeaders().set("ETag", "\"1\"");
+        exchange.sendResponseHeaders(status, body.length > 0 ? body.length : -1);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private Movie putStale() {
+        // A second past the max age, well within the stale if error window.
+        return put(1L, System.currentTimeMillis() - (MAX_AGE + 1) * 1000);
+    }
+
+    private Movie put(long id, long validatedAt) {
+        Movie movie = new Movie();
+        movie.setId(id);
+        movie.setName("Inception");
+        movie.setEtag("\"0\"");
+        movie.setValidatedAt(validatedAt);
+        cacheManager.getCache(MovieRepository.MOVIE_CACHE).put(Long.toString(id), movie);
+        return movie;
+    }
+
+    private Movie cached() {
+        return cacheManager.getCache(MovieRepository.MOVIE_CACHE).get("1", Movie.class);
+    }
+
+    private static double sample(String name, String[] labelNames, String[] labelValues) {
+        Double value = CollectorRegistry.defaultRegistry.getSampleValue(name, labelNames, labelValues);
+        return value == null ? 0 : value;
+    }
+}
@@ -0,0 +1,116 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+
+package com.microsoft.azure.java.samples.moviedb.web.cache;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class SingleFlightTest {
+    private final ScheduledExecutorService timeouts = Executors.newSingleThreadScheduledExecutor();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @After
+    public void shutdown() {
+        timeouts.shutdownNow();
+    }
+
+    @Test
+    public void concurrentLoadsShareOneRequest() throws Exception {
+        SingleFlight<String, String> singleFlight = new SingleFlight<>("test", true, timeouts, 10000);
+        CompletableFuture<String> request = new CompletableFuture<>();
+        CompletableFuture<String> first = singleFlight.load("1", () -> load(request));
+        CompletableFuture<String> second = singleFlight.load("1", () -> load(new CompletableFuture<>()));
+        assertThat(second, is(sameInstance(first)));
+        assertThat(loads.get(), is(1));
+
+        CompletableFuture<String> other = singleFlight.load("2", () -> load(new CompletableFuture<>()));
+        assertFalse(other == first);
+        assertThat(loads.get(), is(2));
+
+        request.complete("movie");
+        assertThat(first.get(), is("movie"));
+        assertThat(second.get(), is("movie"));
+
+        // A completed load is not shared with the callers that come later.
+        singleFlight.load("1", () -> load(CompletableFuture.completedFuture("reloaded")));
+        assertThat(loads.get(), is(3));
+    }
+
+    @Test
+    public void forgottenLoadIsNotShared() throws Exception {
+        SingleFlight<String, String> singleFlight = new SingleFlight<>("test", true, timeouts, 10000);
+        CompletableFuture<String> outdated = new CompletableFuture<>();
+        CompletableFuture<String> first = singleFlight.load("1", () -> load(outdated));
+
+        // As after a patch of the movie, the load in flight may return the movie before the patch.
+        singleFlight.forget("1");
+        CompletableFuture<String> second = singleFlight.load("1",
+                () -> load(CompletableFuture.completedFuture("patched")));
+        assertThat(loads.get(), is(2));
+        assertThat(second.get(), is("patched"));
+
+        outdated.complete("outdated");
+        assertThat(first.get(), is("outdated"));
+    }
+
+    @Test
+    public void hungLoadTimesOut() throws Exception {
+        SingleFlight<String, String> singleFlight = new SingleFlight<>("test", true, timeouts, 50);
+        CompletableFuture<String> hung = singleFlight.load("1", () -> load(new CompletableFuture<>()));
+        try {
+            hung.get(5, TimeUnit.SECONDS);
+            fail("A load that does not complete must time out");
+        } catch (ExecutionException e) {
+            assertThat(e.getCause(), is(instanceOf(TimeoutException.class)));
+        }
+
+        CompletableFuture<String> next = singleFlight.load("1", () -> load(CompletableFuture.completedFuture("movie")));
+        assertThat(loads.get(), is(2));
+        assertThat(next.get(), is("movie"));
+    }
+
+    @Test
+    public void failedLoadFailsAllCallers() throws Exception {
+        SingleFlight<String, String> singleFlight = new SingleFlight<>("test", true, timeouts, 10000);
+        CompletableFuture<String> request = new CompletableFuture<>();
+        CompletableFuture<String> first = singleFlight.load("1", () -> load(request));
+        CompletableFuture<String> second = singleFlight.load("1", () -> load(new CompletableFuture<>()));
+        request.completeExceptionally(new IllegalStateException("data app is down"));
+        assertThat(first.isCompletedExceptionally(), is(true));
+        assertThat(second.isCompletedExceptionally(), is(true));
+        assertThat(loads.get(), is(1));
+    }
+
+    @Test
+    public void disabledSingleFlightLoadsEveryTime() throws Exception {
+        SingleFlight<String, String> singleFlight = new SingleFlight<>("test", false, timeouts, 10000);
+        singleFlight.load("1", () -> load(new CompletableFuture<>()));
+        singleFlight.load("1", () -> load(new CompletableFuture<>()));
+        assertThat(loads.get(), is(2));
+    }
+
+    private CompletableFuture<String> load(CompletableFuture<String> request) {
+        loads.incrementAndGet();
+        return request;
+    }
+}
@@ -0,0 +1,158 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+
+package com.microsoft.azure.java.samples.moviedb.web.cache;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Checks the in-heap and remote tiers, and the invalidations between instances. The remote tier of every instance is
+ * the same in-memory cache manager, and the Redis channel is a stand-in that delivers each message to every
+ * instance right away.
+ */
+public class TwoTierCacheManagerTest {
+    private static final String NEAR_CACHE = "movie";
+    private static final String REMOTE_ONLY_CACHE = "other";
+
+    private final ConcurrentMapCacheManager remote = new ConcurrentMapCacheManager();
+    private final List<TwoTierCacheManager> instances = new ArrayList<>();
+    private final List<CacheInvalidation> published = new ArrayList<>();
+    private TwoTierCacheManager first;
+    private TwoTierCacheManager second;
+
+    @Before
+    public void setup() {
+        RedisTemplate<Object, Object> redisTemplate = redisStandIn();
+        first = new TwoTierCacheManager(remote, redisTemplate, Arrays.asList(NEAR_CACHE), 100, 60);
+        second = new TwoTierCacheManager(remote, redisTemplate, Arrays.asList(NEAR_CACHE), 100, 60);
+        instances.add(first);
+        instances.add(second);
+    }
+
+    @Test
+    public void onlyNearCachesGetAnInHeapTier() {
+        assertThat(first.getCache(NEAR_CACHE), is(instanceOf(TwoTierCache.class)));
+        assertThat(first.getCache(REMOTE_ONLY_CACHE), is(not(instanceOf(TwoTierCache.class))));
+    }
+
+    @Test
+    public void servesFromHeapUntilInvalidated() {
+        Cache cache = first.getCache(NEAR_CACHE);
+        cache.put("1", "movie");
+        assertThat(remote.getCache(NEAR_CACHE).get("1", String.class), is("movie"));
+
+        // Written behind the back of the in-heap tier, like a write of another instance.
+        remote.getCache(NEAR_CACHE).put("1", "changed");
+        assertThat(cache.get("1", String.class), is("movie"));
+
+        ((TwoTierCache) cache).invalidateLocal("1");
+        assertThat(cache.get("1", String.class), is("changed"));
+    }
+
+    @Test
+    public void keepsWhatItFindsRemotelyInHeap() {
+        remote.getCache(NEAR_CACHE).put("1", "movie");
+        Cache cache = first.getCache(NEAR_CACHE);
+        assertThat(cache.get("1", String.class), is("movie"));
+
+        remote.getCache(NEAR_CACHE).evict("1");
+        assertThat(cache.get("1", String.class), is("movie"));
+        assertThat(cache.get("2", String.class), is(nullValue()));
+    }
+
+    @Test
+    public void loadsMissesOnceIntoBothTiers() {
+        Cache cache = first.getCache(NEAR_CACHE);
+        assertThat(cache.get("1", () -> "loaded"), is("loaded"));
+        assertThat(cache.get("1", () -> "loaded again"), is("loaded"));
+        assertThat(remote.getCache(NEAR_CACHE).get("1", String.class), is("loaded"));
+    }
+
+    @Test
+    public void evictionDropsTheKeyFromEveryInstance() {
+        first.getCache(NEAR_CACHE).put("1", "movie");
+        first.getCache(NEAR_CACHE).put("2", "other movie");
+        assertThat(second.getCache(NEAR_CACHE).get("1", String.class), is("movie"));
+        assertThat(second.getCache(NEAR_CACHE).get("2", String.class), is("other movie"));
+
+        first.getCache(NEAR_CACHE).evict("1");
+        assertThat(published.size(), is(1));
+        assertThat(published.get(0).getKey(), is("1"));
+        assertThat(remote.getCache(NEAR_CACHE).get("1"), is(nullValue()));
+        assertThat(second.getCache(NEAR_CACHE).get("1"), is(nullValue()));
+        // Other keys stay in heap.
+        remote.getCache(NEAR_CACHE).evict("2");
+        assertThat(second.getCache(NEAR_CACHE).get("2", String.class), is("other movie"));
+    }
+
+    @Test
+    public void clearDropsEveryKeyFromEveryInstance() {
+        first.getCache(NEAR_CACHE).put("1", "movie");
+        assertThat(second.getCache(NEAR_CACHE).get("1", String.class), is("movie"));
+
+        first.getCache(NEAR_CACHE).clear();
+        assertThat(published.get(0).getKey(), is(nullValue()));
+        assertThat(second.getCache(NEAR_CACHE).get("1"), is(nullValue()));
+    }
+
+    @Test
+    public void ignoresItsOwnAndUnreadableMessages() {
+        Cache cache = first.getCache(NEAR_CACHE);
+        cache.put("1", "movie");
+        remote.getCache(NEAR_CACHE).put("1", "changed");
+        first.onMessage(new DefaultMessage(TwoTierCacheManager.CHANNEL.getBytes(StandardCharsets.UTF_8),
+                "not a serialized invalidation".getBytes(StandardCharsets.UTF_8)), null);
+        assertThat(cache.get("1", String.class), is("movie"));
+
+        // The channel also delivers a message to the instance that sent it, which already updated its own heap.
+        assertThat(second.getCache(NEAR_CACHE).get("1", String.class), is("changed"));
+        first.publish(NEAR_CACHE, null);
+        assertThat(cache.get("1", String.class), is("movie"));
+        remote.getCache(NEAR_CACHE).put("1", "changed again");
+        assertThat(second.getCache(NEAR_CACHE).get("1", String.class), is("changed again"));
+    }
+
+    /**
+     * Template whose channel delivers every message to every instance, as Redis pub/sub does.
+     */
+    @SuppressWarnings("unchecked")
+    private RedisTemplate<Object, Object> redisStandIn() {
+        JdkSerializationRedisSerializer serializer = new JdkSerializationRedisSerializer();
+        RedisTemplate<Object, Object> redisTemplate = Mockito.mock(RedisTemplate.class);
+        Mockito.when(redisTemplate.getValueSerializer()).then(invocation -> serializer);
+        Mockito.doAnswer(invocation -> {
+            CacheInvalidation invalidation = (CacheInvalidation) invocation.getArguments()[1];
+            published.add(invalidation);
+            DefaultMessage message = new DefaultMessage(
+                    ((String) invocation.getArguments()[0]).getBytes(StandardCharsets.UTF_8),
+                    serializer.serialize(invalidation));
+            for (TwoTierCacheManager instance : instances) {
+                instance.onMessage(message, null);
+            }
+            return null;
+        }).when(redisTemplate).convertAndSend(Mockito.anyString(), Mockito.any());
+        return redisTemplate;
+    }
+}
@@ -0,0 +1,108 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+
+package com.microsoft.azure.java.samples.moviedb.web.metrics;
+
+import io.prometheus.client.CollectorRegistry;
+import org.junit.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Checks that cache managers are wrapped once and that the operations of their caches are counted. The counters are
+ * shared by the whole JVM, so every test uses a cache of its own and compares counts before and after.
+ */
+public class InstrumentedCacheManagerTest {
+    private final InstrumentedCacheManagerPostProcessor postProcessor = new InstrumentedCacheManagerPostProcessor();
+
+    @Test
+    public void wrapsCacheManagersOnce() {
+        Object wrapped = postProcessor.postProcessAfterInitialization(new ConcurrentMapCacheManager(), "cacheManager");
+        assertThat(wrapped, is(instanceOf(InstrumentedCacheManager.class)));
+        assertThat(postProcessor.postProcessAfterInitialization(wrapped, "cacheManager"), is(sameInstance(wrapped)));
+
+        Object other = new Object();
+        assertThat(postProcessor.postProcessAfterInitialization(other, "other"), is(sameInstance(other)));
+    }
+
+    @Test
+    public void handsOutOneWrapperPerCache() {
+        CacheManager cacheManager = new InstrumentedCacheManager(new ConcurrentMapCacheManager("wrapped"));
+        assertThat(cacheManager.getCache("wrapped"), is(sameInstance(cacheManager.getCache("wrapped"))));
+        assertThat(cacheManager.getCache("unknown"), is(nullValue()));
+    }
+
+    @Test
+    public void countsHitsAndMisses() {
+        Cache cache = cacheNamed("lookups");
+        double hits = requests("lookups", "hit");
+        double misses = requests("lookups", "miss");
+
+        cache.put("1", "movie");
+        assertThat(cache.get("1", String.class), is("movie"));
+        assertThat(cache.get("1").get(), is("movie"));
+        assertThat(cache.get("2"), is(nullValue()));
+        assertThat(cache.get("2", String.class), is(nullValue()));
+
+        assertThat(requests("lookups", "hit") - hits, is(2.0));
+        assertThat(requests("lookups", "miss") - misses, is(2.0));
+    }
+
+    @Test
+    public void countsLoadsAsMisses() {
+        Cache cache = cacheNamed("loads");
+        double hits = requests("loads", "hit");
+        double misses = requests("loads", "miss");
+
+        assertThat(cache.get("1", () -> "loaded"), is("loaded"));
+        assertThat(cache.get("1", () -> "loaded again"), is("loaded"));
+
+        assertThat(requests("loads", "hit") - hits, is(1.0));
+        assertThat(requests("loads", "miss") - misses, is(1.0));
+    }
+
+    @Test
+    public void countsPutsAndEvictions() {
+        Cache cache = cacheNamed("writes");
+        double puts = value("moviedb_webapp_cache_puts_total", "writes");
+        double evictions = value("moviedb_webapp_cache_evictions_total", "writes");
+
+        cache.put("1", "movie");
+        assertThat(cache.putIfAbsent("1", "other movie").get(), is("movie"));
+        assertThat(cache.putIfAbsent("2", "other movie"), is(nullValue()));
+        cache.evict("1");
+        cache.clear();
+
+        assertThat(value("moviedb_webapp_cache_puts_total", "writes") - puts, is(2.0));
+        assertThat(value("moviedb_webapp_cache_evictions_total", "writes") - evictions, is(2.0));
+    }
+
+    private Cache cacheNamed(String name) {
+        CacheManager cacheManager = (CacheManager) postProcessor.postProcessAfterInitialization(
+                new ConcurrentMapCacheManager(name), "cacheManager");
+        return cacheManager.getCache(name);
+    }
+
+    private static double requests(String cache, String result) {
+        Double value = CollectorRegistry.defaultRegistry.getSampleValue("moviedb_webapp_cache_requests_total",
+                new String[]{"cache", "result"}, new String[]{cache, result});
+        return value == null ? 0 : value;
+    }
+
+    private static double value(String name, String cache) {
+        Double value = CollectorRegistry.defaultRegistry.getSampleValue(name, new String[]{"cache"},
+                new String[]{cache});
+        return value == null ? 0 : value;
+    }
+}
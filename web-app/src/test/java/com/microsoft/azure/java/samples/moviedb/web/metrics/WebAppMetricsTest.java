@@ -0,0 +1,117 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+
+package com.microsoft.azure.java.samples.moviedb.web.metrics;
+
+import io.prometheus.client.CollectorRegistry;
+import io.prometheus.client.exporter.MetricsServlet;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.ModelAndView;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Checks that the metrics are registered and exported, and that the values recorded outside the movie repository
+ * and the caches end up in them. The metrics are shared by the whole JVM, so counts are compared before and after.
+ */
+public class WebAppMetricsTest {
+
+    @Test
+    public void exportsEveryMetric() throws Exception {
+        WebAppMetrics.CACHE_PUTS.labels("exported").inc();
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        new MetricsServlet().service(new MockHttpServletRequest("GET", "/metrics"), response);
+
+        String metrics = response.getContentAsString();
+        assertThat(metrics, containsString("# TYPE moviedb_webapp_repository_seconds histogram"));
+        assertThat(metrics, containsString("# TYPE moviedb_webapp_upload_seconds histogram"));
+        assertThat(metrics, containsString("# TYPE moviedb_webapp_cache_requests_total counter"));
+        assertThat(metrics, containsString("# TYPE moviedb_webapp_cache_evictions_total counter"));
+        assertThat(metrics, containsString("# TYPE moviedb_webapp_cache_loads_total counter"));
+        assertThat(metrics, containsString("# TYPE moviedb_webapp_stale_serves_total counter"));
+        assertThat(metrics, containsString("# TYPE moviedb_webapp_near_cache_requests_total counter"));
+        assertThat(metrics, containsString("# TYPE moviedb_webapp_near_cache_invalidations_total counter"));
+        assertThat(metrics, containsString("# TYPE moviedb_webapp_page_invalidations_total counter"));
+        assertThat(metrics, containsString("# TYPE moviedb_webapp_template_render_seconds histogram"));
+        assertThat(metrics, containsString("# TYPE moviedb_webapp_http_pool_connections gauge"));
+        assertThat(metrics, containsString("moviedb_webapp_cache_puts_total{cache=\"exported\",} 1.0"));
+    }
+
+    @Test
+    public void observesTimeSinceStart() {
+        double count = sample("moviedb_webapp_repository_seconds_count", "method", "observed");
+        double sum = sample("moviedb_webapp_repository_seconds_sum", "method", "observed");
+
+        long start = System.nanoTime() - 2_000_000_000L;
+        WebAppMetrics.observeSince(WebAppMetrics.REPOSITORY_SECONDS.labels("observed"), start);
+
+        assertThat(sample("moviedb_webapp_repository_seconds_count", "method", "observed") - count, is(1.0));
+        assertThat(sample("moviedb_webapp_repository_seconds_sum", "method", "observed") - sum >= 2.0, is(true));
+    }
+
+    @Test
+    public void readsPoolConnectionsWhenScraped() {
+        PoolingHttpClientConnectionManager pool = new PoolingHttpClientConnectionManager();
+        try {
+            pool.setMaxTotal(7);
+            WebAppMetrics.monitorPool("test", pool);
+            assertThat(poolConnections("test", "max"), is(7.0));
+            assertThat(poolConnections("test", "leased"), is(0.0));
+
+            pool.setMaxTotal(9);
+            assertThat(poolConnections("test", "max"), is(9.0));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void timesRenderedViews() {
+        TemplateRenderInterceptor interceptor = new TemplateRenderInterceptor();
+        double count = sample("moviedb_webapp_template_render_seconds_count", "view", "moviespage");
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/movies");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        interceptor.postHandle(request, response, null, new ModelAndView("moviespage"));
+        interceptor.afterCompletion(request, response, null, null);
+        // A second completion, like the one of an async dispatch, is not counted again.
+        interceptor.afterCompletion(request, response, null, null);
+
+        assertThat(sample("moviedb_webapp_template_render_seconds_count", "view", "moviespage") - count, is(1.0));
+    }
+
+    @Test
+    public void skipsRedirects() {
+        TemplateRenderInterceptor interceptor = new TemplateRenderInterceptor();
+
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/movies/1");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        interceptor.postHandle(request, response, null, new ModelAndView("redirect:/movies/1"));
+        interceptor.afterCompletion(request, response, null, null);
+
+        assertThat(CollectorRegistry.defaultRegistry.getSampleValue("moviedb_webapp_template_render_seconds_count",
+                new String[]{"view"}, new String[]{"redirect:/movies/1"}), is(nullValue()));
+    }
+
+    private static double poolConnections(String client, String state) {
+        return CollectorRegistry.defaultRegistry.getSampleValue("moviedb_webapp_http_pool_connections",
+                new String[]{"client", "state"}, new String[]{client, state});
+    }
+
+    private static double sample(String name, String labelName, String labelValue) {
+        Double value = CollectorRegistry.defaultRegistry.getSampleValue(name, new String[]{labelName},
+                new String[]{labelValue});
+        return value == null ? 0 : value;
+    }
+}
@@ -0,0 +1,73 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+
+package com.microsoft.azure.java.samples.moviedb.web.pojo;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class PageCursorTest {
+
+    @Test
+    public void forwardCursorSurvivesRoundTrip() {
+        PageCursor cursor = PageCursor.decode(PageCursor.after(3, movie(9.7, 42L)).encode());
+        assertThat(cursor.getNumber(), is(3));
+        assertThat(cursor.getRating(), is(9.7));
+        assertThat(cursor.getId(), is(42L));
+        assertFalse(cursor.isBackward());
+        assertFalse(cursor.isFirst());
+    }
+
+    @Test
+    public void backwardCursorSurvivesRoundTrip() {
+        PageCursor cursor = PageCursor.decode(PageCursor.before(2, movie(5.0, 7L)).encode());
+        assertThat(cursor.getNumber(), is(2));
+        assertThat(cursor.getRating(), is(5.0));
+        assertThat(cursor.getId(), is(7L));
+        assertTrue(cursor.isBackward());
+    }
+
+    @Test
+    public void firstCursorSurvivesRoundTrip() {
+        assertTrue(PageCursor.decode(PageCursor.first().encode()).isFirst());
+        assertTrue(PageCursor.before(0, movie(5.0, 7L)).isFirst());
+    }
+
+    @Test
+    public void encodedCursorIsSafeInUrls() {
+        String token = PageCursor.after(12, movie(0.1, 123456789L)).encode();
+        assertTrue(token.matches("[A-Za-z0-9_-]+"));
+    }
+
+    @Test
+    public void malformedCursorsResolveToFirstPage() {
+        assertTrue(PageCursor.decode(null).isFirst());
+        assertTrue(PageCursor.decode("").isFirst());
+        assertTrue(PageCursor.decode("not base64!").isFirst());
+        assertTrue(PageCursor.decode(encode("3,9.7,42")).isFirst());
+        assertTrue(PageCursor.decode(encode("-1,9.7,42,a")).isFirst());
+        assertTrue(PageCursor.decode(encode("3,high,42,a")).isFirst());
+    }
+
+    private static Movie movie(double rating, long id) {
+        Movie movie = new Movie();
+        movie.setRating(rating);
+        movie.setId(id);
+        return movie;
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}